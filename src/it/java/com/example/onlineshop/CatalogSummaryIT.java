@@ -0,0 +1,84 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.model.CatalogSummary;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.CatalogSummaryRepository;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.CatalogSummaryService;
+import com.example.onlineshop.services.ShopItemService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@Testcontainers
+@SpringBootTest(classes = OnlineshopApplication.class, properties = "onlineshop.summary.reconcile-interval=1h")
+class CatalogSummaryIT {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @Autowired
+    private CatalogSummaryService catalogSummaryService;
+
+    @Autowired
+    private CatalogSummaryRepository catalogSummaryRepository;
+
+    @Autowired
+    private ShopItemService shopItemService;
+
+    @Autowired
+    private ShopItemRepository shopItemRepository;
+
+    @BeforeEach
+    void setUp() {
+        shopItemRepository.deleteAll();
+        catalogSummaryRepository.deleteAll();
+        catalogSummaryService.reconcile();
+    }
+
+    @Test
+    void testInsertUpdateAndDeleteMaintainTheSummary() {
+        ShopItem mouse = shopItemService.insertNewShopItem(new ShopItem("Mouse", "Wireless mouse", 25.50, 20));
+        ShopItem lamp = shopItemService.insertNewShopItem(new ShopItem("Lamp", "Desk lamp", 40.00, 3));
+        shopItemService.updateShopItemById(lamp.getId(), new ShopItem("Lamp", "Desk lamp", 50.00, 4));
+        shopItemService.adjustQuantity(mouse.getId(), -5);
+        shopItemService.deleteShopItem(lamp.getId());
+        catalogSummaryService.flushIncrements();
+
+        CatalogSummary summary = catalogSummaryService.getSummary();
+        assertThat(summary.itemCount()).isEqualTo(1);
+        assertThat(summary.totalQuantity()).isEqualTo(15);
+        assertThat(summary.totalStockValue()).isCloseTo(25.50 * 15, within(1e-6));
+    }
+
+    @Test
+    void testReconcileRepairsWritesThatBypassedTheService() {
+        shopItemService.insertNewShopItem(new ShopItem("Mouse", "Wireless mouse", 25.50, 20));
+        shopItemRepository.save(new ShopItem("Lamp", "Desk lamp", 40.00, 3));
+        catalogSummaryService.flushIncrements();
+        assertThat(catalogSummaryService.getSummary().itemCount()).isEqualTo(1);
+
+        assertThat(catalogSummaryService.reconcile()).isTrue();
+
+        CatalogSummary summary = catalogSummaryService.getSummary();
+        assertThat(summary.itemCount()).isEqualTo(2);
+        assertThat(summary.totalQuantity()).isEqualTo(23);
+        assertThat(summary.totalStockValue()).isCloseTo(25.50 * 20 + 40.00 * 3, within(1e-6));
+        assertThat(summary.reconciledAt()).isNotNull();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.QuantityWriteBehindBuffer;
+import com.example.onlineshop.services.ShopItemService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@SpringBootTest(classes = OnlineshopApplication.class, properties = {
+        "onlineshop.quantity.write-behind.enabled=true",
+        "onlineshop.quantity.write-behind.flush-interval=20ms"
+})
+class QuantityWriteBehindIT {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @Autowired
+    private ShopItemService shopItemService;
+
+    @Autowired
+    private ShopItemRepository shopItemRepository;
+
+    @Autowired
+    private QuantityWriteBehindBuffer quantityWriteBehindBuffer;
+
+    @BeforeEach
+    void setUp() {
+        shopItemRepository.deleteAll();
+    }
+
+    @Test
+    void testBufferedDeltasReachMongo() throws Exception {
+        ShopItem first = shopItemService.insertNewShopItem(new ShopItem("Lamp", "Desk lamp", 39.99, 1000));
+        ShopItem second = shopItemService.insertNewShopItem(new ShopItem("Chair", "Office chair", 149.00, 10));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            results.add(executor.submit(() -> shopItemService.adjustQuantity(first.getId(), -1)));
+            results.add(executor.submit(() -> shopItemService.adjustQuantity(second.getId(), 2)));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+        quantityWriteBehindBuffer.flush();
+
+        assertThat(shopItemService.getItemById(first.getId()).getQuantity()).isEqualTo(500);
+        assertThat(shopItemService.getItemById(second.getId()).getQuantity()).isEqualTo(1010);
+        assertThat(quantityWriteBehindBuffer.pendingIds()).isZero();
+    }
+}
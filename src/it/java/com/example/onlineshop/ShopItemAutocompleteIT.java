@@ -0,0 +1,74 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.model.ShopItemSuggestion;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.ShopItemAutocompleteService;
+import com.example.onlineshop.services.ShopItemService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@SpringBootTest(classes = OnlineshopApplication.class)
+class ShopItemAutocompleteIT {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @Autowired
+    private ShopItemService shopItemService;
+
+    @Autowired
+    private ShopItemAutocompleteService autocompleteService;
+
+    @Autowired
+    private ShopItemRepository shopItemRepository;
+
+    @BeforeEach
+    void setUp() {
+        shopItemRepository.deleteAll();
+        autocompleteService.rebuild();
+    }
+
+    @Test
+    void testRebuildFromScan() {
+        shopItemRepository.saveAll(List.of(
+                new ShopItem("Gaming laptop", "Fast", 1200.00, 5),
+                new ShopItem("Gaming mouse", "Light", 49.00, 40)));
+
+        autocompleteService.rebuild();
+
+        assertThat(autocompleteService.suggest("gam", 10))
+                .extracting(ShopItemSuggestion::name)
+                .containsExactly("Gaming mouse", "Gaming laptop");
+    }
+
+    @Test
+    void testServiceWritesKeepIndexCurrent() {
+        ShopItem laptop = shopItemService.insertNewShopItem(new ShopItem("Gaming laptop", "Fast", 1200.00, 5));
+        ShopItem mouse = shopItemService.insertNewShopItem(new ShopItem("Gaming mouse", "Light", 49.00, 40));
+
+        shopItemService.adjustQuantity(laptop.getId(), 100);
+        shopItemService.deleteShopItem(mouse.getId());
+
+        assertThat(autocompleteService.suggest("gaming", 10))
+                .containsExactly(new ShopItemSuggestion(laptop.getId(), "Gaming laptop", 105));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.model.ShopItemBrowsePage;
+import com.example.onlineshop.model.ShopItemSummary;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.ShopItemBrowseService;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@SpringBootTest(classes = OnlineshopApplication.class)
+class ShopItemBrowseIT {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @Autowired
+    private ShopItemBrowseService shopItemBrowseService;
+
+    @Autowired
+    private ShopItemRepository shopItemRepository;
+
+    @BeforeEach
+    void setUp() {
+        shopItemRepository.deleteAll();
+        shopItemRepository.ensureIndexes();
+        shopItemRepository.saveAll(List.of(
+                new ShopItem("Wireless mouse", "Ergonomic mouse", 25.50, 20),
+                new ShopItem("Mouse pad", "Large pad", 25.50, 40),
+                new ShopItem("Desk lamp", "Warm light", 39.99, 10),
+                new ShopItem("Gaming laptop", "Fast laptop", 1200.00, 5)));
+    }
+
+    @Test
+    void testPriceRangeSortedByPriceThenQuantityDescending() {
+        ShopItemBrowsePage page = shopItemBrowseService.browse(20.0, 50.0, "price,-quantity", 0, 10);
+
+        assertThat(page.items()).extracting(ShopItemSummary::name)
+                .containsExactly("Mouse pad", "Wireless mouse", "Desk lamp");
+        assertThat(page.hasMore()).isFalse();
+    }
+
+    @Test
+    void testPaginationIsStable() {
+        ShopItemBrowsePage first = shopItemBrowseService.browse(null, null, "quantity", 0, 2);
+        ShopItemBrowsePage second = shopItemBrowseService.browse(null, null, "quantity", 1, 2);
+
+        assertThat(first.hasMore()).isTrue();
+        assertThat(second.hasMore()).isFalse();
+        assertThat(first.items()).extracting(ShopItemSummary::name).containsExactly("Gaming laptop", "Desk lamp");
+        assertThat(second.items()).extracting(ShopItemSummary::name).containsExactly("Wireless mouse", "Mouse pad");
+    }
+
+    @Test
+    void testBrowseQueriesAreCoveredByIndexes() {
+        for (String sort : List.of("price", "-price", "price,-quantity", "quantity", "-quantity,-price")) {
+            Document explain = shopItemRepository.explainSummariesByPriceRange(
+                    20.0, 50.0, ShopItemBrowseService.parseSort(sort));
+
+            Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+            assertThat(stagesOf(winningPlan)).as(sort)
+                    .contains("IXSCAN")
+                    .doesNotContain("FETCH", "COLLSCAN", "SORT");
+            assertThat(explain.get("executionStats", Document.class).getInteger("totalDocsExamined"))
+                    .as(sort).isZero();
+        }
+    }
+
+    private static List<String> stagesOf(Document plan) {
+        List<String> stages = new ArrayList<>();
+        Document current = plan;
+        while (current != null) {
+            stages.add(current.getString("stage"));
+            current = current.get("inputStage", Document.class);
+        }
+        return stages;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.feed.ShopItemChange;
+import com.example.onlineshop.feed.ShopItemChangeFeed;
+import com.example.onlineshop.feed.ShopItemChangeSubscriber;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.ShopItemRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The Testcontainers Mongo runs as a single node replica set, so the change stream
+ * source can be exercised against writes that bypass ShopItemService.
+ */
+@Testcontainers
+@SpringBootTest(classes = OnlineshopApplication.class, properties = {
+        "onlineshop.change-feed.source=change-stream",
+        "onlineshop.change-feed.batch-window=50ms"})
+class ShopItemChangeFeedIT {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @Autowired
+    private ShopItemChangeFeed shopItemChangeFeed;
+
+    @Autowired
+    private ShopItemRepository shopItemRepository;
+
+    private final Map<String, ShopItemChange> latest = new ConcurrentHashMap<>();
+    private final ShopItemChangeSubscriber subscriber = new ShopItemChangeSubscriber() {
+        @Override
+        public void changes(String eventId, List<ShopItemChange> changes) {
+            changes.forEach(change -> latest.put(change.id(), change));
+            changes.forEach(change -> received.countDown());
+        }
+
+        @Override
+        public void reset(String eventId) {
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void complete() {
+        }
+    };
+    private CountDownLatch received;
+
+    @BeforeEach
+    void setUp() {
+        shopItemRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        shopItemChangeFeed.unsubscribe(subscriber);
+    }
+
+    @Test
+    void testWritesThatBypassTheServiceReachTheFeed() throws Exception {
+        received = new CountDownLatch(2);
+        shopItemChangeFeed.subscribe(null, subscriber);
+
+        ShopItem mouse = shopItemRepository.save(new ShopItem("Mouse", "Wireless mouse", 25.50, 20));
+        ShopItem lamp = shopItemRepository.save(new ShopItem("Lamp", "Desk lamp", 40.00, 3));
+        shopItemRepository.incrementQuantity(mouse.getId(), -5);
+
+        assertThat(received.await(10, TimeUnit.SECONDS)).isTrue();
+        // The insert and the increment may land in different windows; wait for the final state.
+        for (int i = 0; i < 100 && latest.get(mouse.getId()).item().getQuantity() != 15; i++) {
+            Thread.sleep(50);
+        }
+        assertThat(latest.get(mouse.getId()).item().getQuantity()).isEqualTo(15);
+        assertThat(latest.get(lamp.getId()).type()).isEqualTo(ShopItemChangedEvent.Type.CREATED);
+
+        received = new CountDownLatch(1);
+        shopItemRepository.deleteById(lamp.getId());
+        assertThat(received.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(latest.get(lamp.getId()).type()).isEqualTo(ShopItemChangedEvent.Type.DELETED);
+        assertThat(latest.get(lamp.getId()).item()).isNull();
+    }
+}
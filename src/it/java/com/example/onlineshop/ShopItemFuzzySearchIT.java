@@ -0,0 +1,70 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.model.ShopItemFuzzyHit;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.ShopItemFuzzySearchService;
+import com.example.onlineshop.services.ShopItemService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@SpringBootTest(classes = OnlineshopApplication.class)
+class ShopItemFuzzySearchIT {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @Autowired
+    private ShopItemService shopItemService;
+
+    @Autowired
+    private ShopItemFuzzySearchService fuzzySearchService;
+
+    @Autowired
+    private ShopItemRepository shopItemRepository;
+
+    @BeforeEach
+    void setUp() {
+        shopItemRepository.deleteAll();
+        fuzzySearchService.rebuild();
+    }
+
+    @Test
+    void testTypoFindsItemWrittenThroughService() {
+        ShopItem keyboard = shopItemService.insertNewShopItem(
+                new ShopItem("Mechanical keyboard", "Clicky switches", 89.00, 12));
+        shopItemService.insertNewShopItem(new ShopItem("Wireless mouse", "Ergonomic", 25.50, 20));
+
+        assertThat(fuzzySearchService.search("keybaord", 10))
+                .extracting(ShopItemFuzzyHit::id)
+                .first()
+                .isEqualTo(keyboard.getId());
+    }
+
+    @Test
+    void testRebuildFromScan() {
+        ShopItem mouse = shopItemRepository.save(new ShopItem("Wireless mouse", "Ergonomic", 25.50, 20));
+
+        fuzzySearchService.rebuild();
+
+        assertThat(fuzzySearchService.search("wirless mouse", 10))
+                .extracting(ShopItemFuzzyHit::id)
+                .containsExactly(mouse.getId());
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.ShopItemService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@SpringBootTest(classes = OnlineshopApplication.class, properties = {
+        "onlineshop.insert.async.enabled=true",
+        "onlineshop.insert.async.max-batch-latency=5ms"
+})
+class ShopItemInsertPipelineIT {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @Autowired
+    private ShopItemService shopItemService;
+
+    @Autowired
+    private ShopItemRepository shopItemRepository;
+
+    @BeforeEach
+    void setUp() {
+        shopItemRepository.deleteAll();
+    }
+
+    @Test
+    void testConcurrentInsertsAllGetIds() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<ShopItem>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            ShopItem item = new ShopItem("Item " + i, "Imported", 9.99, i);
+            results.add(executor.submit(() -> shopItemService.insertNewShopItem(item)));
+        }
+        List<String> ids = new ArrayList<>();
+        for (Future<ShopItem> result : results) {
+            ids.add(result.get().getId());
+        }
+        executor.shutdown();
+
+        assertThat(ids).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(shopItemRepository.count()).isEqualTo(200);
+        assertThat(shopItemService.getItemById(ids.get(42)).getName()).isEqualTo("Item 42");
+    }
+}
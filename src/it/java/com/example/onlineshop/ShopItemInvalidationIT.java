@@ -0,0 +1,85 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.events.ShopItemInvalidatedEvent;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.model.ShopItemSuggestion;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.ShopItemAutocompleteService;
+import com.example.onlineshop.services.ShopItemService;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.PayloadApplicationEvent;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Three application instances sharing one embedded mongod: a write on one node has to
+ * show up in the in-memory autocomplete index of the others through the bus.
+ */
+class ShopItemInvalidationIT {
+
+    private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    private static List<ConfigurableApplicationContext> nodes;
+    private static final BlockingQueue<ShopItemInvalidatedEvent> receivedByLastNode = new LinkedBlockingQueue<>();
+
+    @BeforeAll
+    static void startNodes() {
+        mongod = Mongod.instance().start(Version.Main.V6_0);
+        String uri = "mongodb://" + mongod.current().getServerAddress() + "/onlineshop-invalidation";
+        nodes = List.of(startNode(uri), startNode(uri), startNode(uri));
+        nodes.get(2).addApplicationListener(event -> {
+            if (event instanceof PayloadApplicationEvent<?> payload
+                    && payload.getPayload() instanceof ShopItemInvalidatedEvent invalidated) {
+                receivedByLastNode.add(invalidated);
+            }
+        });
+    }
+
+    private static ConfigurableApplicationContext startNode(String uri) {
+        return new SpringApplicationBuilder(OnlineshopApplication.class).run(
+                "--server.port=0",
+                "--spring.data.mongodb.uri=" + uri,
+                "--onlineshop.invalidation.enabled=true");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+        mongod.close();
+    }
+
+    @Test
+    void testWriteOnOneNodeIsVisibleOnTheOthers() throws Exception {
+        ShopItemService writer = nodes.get(0).getBean(ShopItemService.class);
+
+        ShopItem lamp = writer.insertNewShopItem(new ShopItem("Lamp", "Desk lamp", 40.00, 3));
+
+        ShopItemInvalidatedEvent event = receivedByLastNode.poll(5, TimeUnit.SECONDS);
+        assertThat(event).isNotNull();
+        assertThat(event.ids()).containsExactly(lamp.getId());
+        for (int node = 1; node < nodes.size(); node++) {
+            List<ShopItemSuggestion> suggestions =
+                    nodes.get(node).getBean(ShopItemAutocompleteService.class).suggest("lam", 10);
+            assertThat(suggestions).extracting(ShopItemSuggestion::id).contains(lamp.getId());
+        }
+
+        writer.deleteShopItem(lamp.getId());
+
+        assertThat(receivedByLastNode.poll(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(nodes.get(2).getBean(ShopItemAutocompleteService.class).suggest("lam", 10)).isEmpty();
+        assertThat(nodes.get(1).getBean(ShopItemRepository.class).findById(lamp.getId())).isEmpty();
+    }
+}
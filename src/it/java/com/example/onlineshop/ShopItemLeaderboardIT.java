@@ -0,0 +1,79 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.model.LeaderboardEntry;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.ShopItemLeaderboardService;
+import com.example.onlineshop.services.ShopItemService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@SpringBootTest(classes = OnlineshopApplication.class)
+class ShopItemLeaderboardIT {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @Autowired
+    private ShopItemService shopItemService;
+
+    @Autowired
+    private ShopItemLeaderboardService leaderboardService;
+
+    @Autowired
+    private ShopItemRepository shopItemRepository;
+
+    @BeforeEach
+    void setUp() {
+        shopItemRepository.deleteAll();
+        leaderboardService.rebuild();
+    }
+
+    @Test
+    void testSeededFromScan() {
+        shopItemRepository.saveAll(List.of(
+                new ShopItem("Mouse", "Wireless", 25.50, 20),
+                new ShopItem("Laptop", "Fast", 1200.00, 5),
+                new ShopItem("Lamp", "Warm", 39.99, 3)));
+
+        leaderboardService.rebuild();
+
+        assertThat(leaderboardService.lowestStock(20)).extracting(LeaderboardEntry::name)
+                .containsExactly("Lamp", "Laptop", "Mouse");
+        assertThat(leaderboardService.highestValue(1)).extracting(LeaderboardEntry::name)
+                .containsExactly("Laptop");
+    }
+
+    @Test
+    void testServiceWritesKeepLeaderboardsCurrent() {
+        ShopItem mouse = shopItemService.insertNewShopItem(new ShopItem("Mouse", "Wireless", 25.50, 20));
+        ShopItem laptop = shopItemService.insertNewShopItem(new ShopItem("Laptop", "Fast", 1200.00, 5));
+
+        shopItemService.adjustQuantity(mouse.getId(), 1000);
+        shopItemService.deleteShopItem(laptop.getId());
+        ShopItem lamp = shopItemService.insertNewShopItem(new ShopItem("Lamp", "Warm", 39.99, 3));
+
+        assertThat(leaderboardService.highestValue(20)).extracting(LeaderboardEntry::id)
+                .containsExactly(mouse.getId(), lamp.getId());
+        assertThat(leaderboardService.lowestStock(1)).extracting(LeaderboardEntry::id)
+                .containsExactly(lamp.getId());
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.ShopItemService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Testcontainers
+@SpringBootTest(classes = OnlineshopApplication.class)
+class ShopItemOptimisticLockingIT {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @Autowired
+    private ShopItemService shopItemService;
+
+    @Autowired
+    private ShopItemRepository shopItemRepository;
+
+    @BeforeEach
+    void setUp() {
+        shopItemRepository.deleteAll();
+    }
+
+    @Test
+    void testInsertStartsAtVersionZero() {
+        ShopItem saved = shopItemService.insertNewShopItem(new ShopItem("Lamp", "Desk lamp", 39.99, 10));
+
+        assertThat(saved.getVersion()).isZero();
+        assertThat(shopItemService.getItemById(saved.getId()).getVersion()).isZero();
+    }
+
+    @Test
+    void testStaleVersionIsRejected() {
+        ShopItem saved = shopItemService.insertNewShopItem(new ShopItem("Lamp", "Desk lamp", 39.99, 10));
+
+        ShopItem firstEdit = shopItemService.getItemById(saved.getId());
+        ShopItem secondEdit = shopItemService.getItemById(saved.getId());
+
+        firstEdit.setPrice(34.99);
+        shopItemService.updateShopItemById(saved.getId(), firstEdit);
+
+        secondEdit.setQuantity(3);
+        assertThatThrownBy(() -> shopItemService.updateShopItemById(saved.getId(), secondEdit))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+
+        ShopItem stored = shopItemService.getItemById(saved.getId());
+        assertThat(stored.getPrice()).isEqualTo(34.99);
+        assertThat(stored.getQuantity()).isEqualTo(10);
+        assertThat(stored.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void testUnversionedUpdateOverwritesAndBumpsVersion() {
+        ShopItem saved = shopItemService.insertNewShopItem(new ShopItem("Lamp", "Desk lamp", 39.99, 10));
+
+        ShopItem replacement = new ShopItem("Lamp", null, 29.99, 8);
+        ShopItem result = shopItemService.updateShopItemById(saved.getId(), replacement);
+
+        ShopItem stored = shopItemService.getItemById(saved.getId());
+        assertThat(result.getVersion()).isEqualTo(1L);
+        assertThat(stored.getVersion()).isEqualTo(1L);
+        assertThat(stored.getDescription()).isNull();
+        assertThat(stored.getPrice()).isEqualTo(29.99);
+    }
+
+    @Test
+    void testConcurrentQuantityAdjustmentsAreNotLost() throws Exception {
+        ShopItem saved = shopItemService.insertNewShopItem(new ShopItem("Lamp", "Desk lamp", 39.99, 100));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ShopItem>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> shopItemService.adjustQuantity(saved.getId(), -1)));
+            }
+            for (Future<ShopItem> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(shopItemService.getItemById(saved.getId()).getQuantity()).isEqualTo(96);
+    }
+}
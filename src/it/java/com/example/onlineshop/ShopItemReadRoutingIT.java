@@ -0,0 +1,115 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.ShopItemSearchService;
+import com.example.onlineshop.services.ShopItemService;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The container is a single-member replica set, so every preference ends up on the
+ * same member; what is checked is the read preference each command was sent with.
+ */
+@Testcontainers
+@SpringBootTest(classes = {OnlineshopApplication.class, ShopItemReadRoutingIT.CommandCapture.class},
+        properties = "onlineshop.read-routing.enabled=true")
+class ShopItemReadRoutingIT {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+    /** Read preference mode of the last command per command name and collection. */
+    private static final Map<String, String> readPreferences = new ConcurrentHashMap<>();
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @TestConfiguration
+    static class CommandCapture {
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer captureReadPreferences() {
+            return builder -> builder.addCommandListener(new CommandListener() {
+                @Override
+                public void commandStarted(CommandStartedEvent event) {
+                    BsonDocument command = event.getCommand();
+                    BsonValue collection = command.get(event.getCommandName());
+                    if (collection == null || !collection.isString()
+                            || !"shop_items".equals(collection.asString().getValue())) {
+                        return;
+                    }
+                    BsonDocument readPreference = command.getDocument("$readPreference", null);
+                    readPreferences.put(event.getCommandName(),
+                            readPreference == null ? "primary" : readPreference.getString("mode").getValue());
+                }
+            });
+        }
+    }
+
+    @Autowired
+    private ShopItemService shopItemService;
+
+    @Autowired
+    private ShopItemSearchService shopItemSearchService;
+
+    @Autowired
+    private ShopItemRepository shopItemRepository;
+
+    private ShopItem mouse;
+
+    @BeforeEach
+    void setUp() {
+        shopItemRepository.deleteAll();
+        shopItemRepository.ensureIndexes();
+        mouse = shopItemRepository.save(new ShopItem("Wireless mouse", "Ergonomic mouse", 25.50, 20));
+        readPreferences.clear();
+    }
+
+    @Test
+    void testListReadsGoToNearest() {
+        List<ShopItem> items = shopItemService.getAllItems();
+
+        assertThat(items).extracting(ShopItem::getId).containsExactly(mouse.getId());
+        assertThat(readPreferences).containsEntry("find", "nearest");
+    }
+
+    @Test
+    void testSearchReadsGoToNearest() {
+        shopItemSearchService.search("mouse", 0, 10);
+
+        assertThat(readPreferences).containsEntry("find", "nearest");
+    }
+
+    @Test
+    void testPointReadsAndWritesStayOnThePrimary() {
+        ShopItem found = shopItemService.getItemById(mouse.getId());
+        shopItemService.adjustQuantity(mouse.getId(), -1);
+
+        assertThat(found).isNotNull();
+        assertThat(readPreferences).containsEntry("find", "primary").containsEntry("findAndModify", "primary");
+    }
+}
@@ -71,6 +71,18 @@ class ShopItemRestControllerIT {
                 .andExpect(jsonPath("$[*].name", containsInAnyOrder("Phone", "Charger")));
     }
 
+    @Test
+    void testGetAllShopItemsRaw() throws Exception {
+        mockMvc.perform(get("/api/shopitems/raw"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[*].id", containsInAnyOrder(testItem1.getId(), testItem2.getId())))
+                .andExpect(jsonPath("$[*].name", containsInAnyOrder("Phone", "Charger")))
+                .andExpect(jsonPath("$[*]._id").doesNotExist())
+                .andExpect(jsonPath("$[*]._class").doesNotExist());
+    }
+
     @Test
     void testGetOneShopItem() throws Exception {
         String itemId = testItem1.getId();
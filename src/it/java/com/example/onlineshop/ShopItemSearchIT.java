@@ -0,0 +1,74 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.model.ShopItemSearchHit;
+import com.example.onlineshop.model.ShopItemSearchPage;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.ShopItemSearchService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@SpringBootTest(classes = OnlineshopApplication.class)
+class ShopItemSearchIT {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @Autowired
+    private ShopItemSearchService shopItemSearchService;
+
+    @Autowired
+    private ShopItemRepository shopItemRepository;
+
+    @BeforeEach
+    void setUp() {
+        shopItemRepository.deleteAll();
+        shopItemRepository.ensureIndexes();
+        shopItemRepository.saveAll(List.of(
+                new ShopItem("Wireless mouse", "Ergonomic mouse for laptops", 25.50, 20),
+                new ShopItem("Gaming laptop", "Fast laptop with a wireless keyboard", 1200.00, 5),
+                new ShopItem("Desk lamp", "Warm light", 39.99, 10)));
+    }
+
+    @Test
+    void testNameMatchesRankAboveDescriptionMatches() {
+        ShopItemSearchPage page = shopItemSearchService.search("laptop", 0, 10);
+
+        assertThat(page.hits()).extracting(ShopItemSearchHit::name).containsExactly("Gaming laptop", "Wireless mouse");
+        assertThat(page.hits().get(0).score()).isGreaterThan(page.hits().get(1).score());
+        assertThat(page.hasMore()).isFalse();
+    }
+
+    @Test
+    void testPagination() {
+        ShopItemSearchPage first = shopItemSearchService.search("wireless", 0, 1);
+        ShopItemSearchPage second = shopItemSearchService.search("wireless", 1, 1);
+
+        assertThat(first.hasMore()).isTrue();
+        assertThat(second.hasMore()).isFalse();
+        assertThat(first.hits().get(0).id()).isNotEqualTo(second.hits().get(0).id());
+    }
+
+    @Test
+    void testNoMatches() {
+        assertThat(shopItemSearchService.search("sofa", 0, 10).hits()).isEmpty();
+    }
+}
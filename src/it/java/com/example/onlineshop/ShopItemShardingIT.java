@@ -0,0 +1,125 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.model.ShopItemSummary;
+import com.example.onlineshop.repositories.ShardedShopItemRepository;
+import com.example.onlineshop.repositories.ShopItemShard;
+import com.example.onlineshop.repositories.ShopItemShardRingRepository;
+import com.example.onlineshop.services.ShopItemService;
+import com.example.onlineshop.sharding.ShardPlacement;
+import com.example.onlineshop.sharding.ShopItemShardRebalancer;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * One embedded mongod for the application's own database and one per shard: items
+ * written with two shards have to stay readable and writable while a third shard is
+ * added, and end up on the shard the new ring gives them to.
+ */
+class ShopItemShardingIT {
+
+    private static final List<String> SHARDS = List.of("a", "b", "c");
+
+    private static TransitionWalker.ReachedState<RunningMongodProcess> home;
+    private static final List<TransitionWalker.ReachedState<RunningMongodProcess>> shards = new ArrayList<>();
+
+    @BeforeAll
+    static void startMongods() {
+        home = Mongod.instance().start(Version.Main.V6_0);
+        for (String shard : SHARDS) {
+            shards.add(Mongod.instance().start(Version.Main.V6_0));
+        }
+    }
+
+    @AfterAll
+    static void stopMongods() {
+        // Only what started before a failed download or start is running.
+        shards.forEach(TransitionWalker.ReachedState::close);
+        if (home != null) {
+            home.close();
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode(int shardCount) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.data.mongodb.uri=mongodb://" + home.current().getServerAddress() + "/onlineshop-sharding",
+                "--onlineshop.sharding.enabled=true",
+                "--onlineshop.sharding.rebalance=false"));
+        for (int i = 0; i < shardCount; i++) {
+            args.add("--onlineshop.sharding.shards." + SHARDS.get(i) + "=mongodb://"
+                    + shards.get(i).current().getServerAddress() + "/onlineshop-" + SHARDS.get(i));
+        }
+        return new SpringApplicationBuilder(OnlineshopApplication.class).run(args.toArray(String[]::new));
+    }
+
+    private static void assertItemsAreOnTheirOwners(ShardedShopItemRepository repository) {
+        for (ShopItemShard shard : repository.shards()) {
+            assertThat(shard.repository().findAll()).allSatisfy(item ->
+                    assertThat(repository.placement().owner(item.getId())).isEqualTo(shard.name()));
+        }
+    }
+
+    @Test
+    void testItemsStayAvailableWhileShardIsAdded() {
+        List<ShopItem> items = new ArrayList<>();
+        try (ConfigurableApplicationContext node = startNode(2)) {
+            ShopItemService service = node.getBean(ShopItemService.class);
+            ShardedShopItemRepository repository = node.getBean(ShardedShopItemRepository.class);
+            for (int i = 0; i < 300; i++) {
+                items.add(service.insertNewShopItem(new ShopItem("Item " + i, null, i % 40, i % 7)));
+            }
+
+            assertThat(repository.count()).isEqualTo(300);
+            assertThat(repository.shards()).allSatisfy(shard -> assertThat(shard.repository().count()).isPositive());
+            assertItemsAreOnTheirOwners(repository);
+            List<String> expected = items.stream()
+                    .sorted(Comparator.comparingDouble(ShopItem::getPrice)
+                            .thenComparing(Comparator.comparingInt(ShopItem::getQuantity).reversed())
+                            .thenComparing(ShopItem::getName)
+                            .thenComparing(ShopItem::getId))
+                    .skip(10)
+                    .limit(20)
+                    .map(ShopItem::getId)
+                    .toList();
+            assertThat(repository.findSummariesByPriceRange(null, null, Sort.by("price"), 10, 20))
+                    .extracting(ShopItemSummary::id)
+                    .containsExactlyElementsOf(expected);
+        }
+
+        try (ConfigurableApplicationContext node = startNode(3)) {
+            ShopItemService service = node.getBean(ShopItemService.class);
+            ShardedShopItemRepository repository = node.getBean(ShardedShopItemRepository.class);
+            assertThat(repository.placement().rebalancing()).isTrue();
+            assertThat(items).allSatisfy(item -> assertThat(service.getItemById(item.getId())).isNotNull());
+            String adjusted = items.get(0).getId();
+            service.adjustQuantity(adjusted, 5);
+
+            assertThat(node.getBean(ShopItemShardRebalancer.class).rebalance()).isTrue();
+
+            assertThat(repository.placement().rebalancing()).isFalse();
+            assertThat(node.getBean(ShopItemShardRingRepository.class).find())
+                    .isEqualTo(ShardPlacement.of(repository.placement().current()));
+            assertThat(repository.count()).isEqualTo(300);
+            assertThat(repository.shard("c").repository().count()).isBetween(50L, 150L);
+            assertItemsAreOnTheirOwners(repository);
+            assertThat(service.getItemById(adjusted).getQuantity()).isEqualTo(items.get(0).getQuantity() + 5);
+            assertThat(items).allSatisfy(item -> assertThat(service.getItemById(item.getId())).isNotNull());
+        }
+    }
+}
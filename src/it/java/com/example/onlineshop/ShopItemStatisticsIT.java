@@ -0,0 +1,82 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.model.PriceBucket;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.model.ShopItemStatistics;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.ShopItemService;
+import com.example.onlineshop.services.ShopItemStatisticsService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@Testcontainers
+@SpringBootTest(classes = OnlineshopApplication.class, properties = {
+        "onlineshop.statistics.price-boundaries=0,50,100",
+        "onlineshop.statistics.low-stock-threshold=5"})
+class ShopItemStatisticsIT {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @Autowired
+    private ShopItemStatisticsService shopItemStatisticsService;
+
+    @Autowired
+    private ShopItemService shopItemService;
+
+    @Autowired
+    private ShopItemRepository shopItemRepository;
+
+    @BeforeEach
+    void setUp() {
+        shopItemRepository.deleteAll();
+        shopItemRepository.saveAll(List.of(
+                new ShopItem("Wireless mouse", "Ergonomic mouse", 25.50, 20),
+                new ShopItem("Desk lamp", "Warm light", 39.99, 3),
+                new ShopItem("Gaming laptop", "Fast laptop", 1200.00, 5)));
+        shopItemStatisticsService.invalidate();
+    }
+
+    @Test
+    void testAggregatesTotalsAndHistogram() {
+        ShopItemStatistics statistics = shopItemStatisticsService.getStatistics();
+
+        assertThat(statistics.itemCount()).isEqualTo(3);
+        assertThat(statistics.totalQuantity()).isEqualTo(28);
+        assertThat(statistics.totalStockValue()).isCloseTo(25.50 * 20 + 39.99 * 3 + 1200.00 * 5, within(1e-6));
+        assertThat(statistics.lowStockCount()).isEqualTo(2);
+        assertThat(statistics.priceBuckets()).extracting(PriceBucket::itemCount).containsExactly(2L, 0L, 1L);
+        assertThat(statistics.priceBuckets().get(2).upperBound()).isNull();
+    }
+
+    @Test
+    void testWritesThroughTheServiceInvalidateTheCache() {
+        ShopItemStatistics before = shopItemStatisticsService.getStatistics();
+        assertThat(shopItemStatisticsService.getStatistics()).isSameAs(before);
+
+        shopItemService.insertNewShopItem(new ShopItem("Monitor", "27 inch", 75.00, 2));
+
+        ShopItemStatistics after = shopItemStatisticsService.getStatistics();
+        assertThat(after.itemCount()).isEqualTo(4);
+        assertThat(after.lowStockCount()).isEqualTo(3);
+        assertThat(after.priceBuckets()).extracting(PriceBucket::itemCount).containsExactly(2L, 1L, 1L);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.ShopItemService;
+import com.example.onlineshop.ticker.StockTick;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@SpringBootTest(classes = OnlineshopApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "onlineshop.ticker.interval=100ms")
+class StockTickerIT {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ShopItemService shopItemService;
+
+    @Autowired
+    private ShopItemRepository shopItemRepository;
+
+    private final BlockingQueue<List<StockTick>> frames = new LinkedBlockingQueue<>();
+    private WebSocketStompClient stompClient;
+    private StompSession session;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        shopItemRepository.deleteAll();
+        stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        session = stompClient.connectAsync("ws://localhost:" + port + "/ws", new StompSessionHandlerAdapter() {
+        }).get(10, TimeUnit.SECONDS);
+        session.subscribe("/user/queue/stock", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return new ParameterizedTypeReference<List<StockTick>>() {
+                }.getType();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void handleFrame(StompHeaders headers, Object payload) {
+                frames.add((List<StockTick>) payload);
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        session.disconnect();
+        stompClient.stop();
+    }
+
+    @Test
+    void testWatchedItemChangesArePushedCoalesced() throws Exception {
+        ShopItem mouse = shopItemService.insertNewShopItem(new ShopItem("Mouse", "Wireless mouse", 25.50, 20));
+        ShopItem lamp = shopItemService.insertNewShopItem(new ShopItem("Lamp", "Desk lamp", 40.00, 3));
+
+        session.send("/app/stock/watch", List.of(mouse.getId()));
+        assertThat(frames.poll(10, TimeUnit.SECONDS)).containsExactly(new StockTick(mouse.getId(), 25.50, 20, false));
+
+        for (int i = 0; i < 5; i++) {
+            shopItemService.adjustQuantity(mouse.getId(), -1);
+        }
+        shopItemService.adjustQuantity(lamp.getId(), -1);
+
+        List<StockTick> pushed = frames.poll(10, TimeUnit.SECONDS);
+        assertThat(pushed).isNotNull();
+        // The decrements may straddle two intervals; the last frame carries the final quantity.
+        List<StockTick> next;
+        while ((next = frames.poll(500, TimeUnit.MILLISECONDS)) != null) {
+            pushed = next;
+        }
+        assertThat(pushed).containsExactly(new StockTick(mouse.getId(), 25.50, 15, false));
+    }
+}
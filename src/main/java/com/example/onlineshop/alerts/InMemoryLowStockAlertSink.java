@@ -0,0 +1,25 @@
+package com.example.onlineshop.alerts;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Collects delivered alerts, for tests and for inspecting the engine locally.
+ */
+public class InMemoryLowStockAlertSink implements LowStockAlertSink {
+
+    private final List<LowStockAlert> alerts = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void deliver(LowStockAlert alert) {
+        alerts.add(alert);
+    }
+
+    public List<LowStockAlert> alerts() {
+        return List.copyOf(alerts);
+    }
+
+    public void clear() {
+        alerts.clear();
+    }
+}
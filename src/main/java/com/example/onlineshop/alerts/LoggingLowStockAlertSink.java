@@ -0,0 +1,15 @@
+package com.example.onlineshop.alerts;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class LoggingLowStockAlertSink implements LowStockAlertSink {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingLowStockAlertSink.class);
+
+    @Override
+    public void deliver(LowStockAlert alert) {
+        log.warn("Low stock: {} ({}) has {} left, threshold {}",
+                alert.name(), alert.id(), alert.quantity(), alert.threshold());
+    }
+}
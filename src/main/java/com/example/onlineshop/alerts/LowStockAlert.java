@@ -0,0 +1,6 @@
+package com.example.onlineshop.alerts;
+
+import java.time.Instant;
+
+public record LowStockAlert(String id, String name, int quantity, int threshold, Instant raisedAt) {
+}
@@ -0,0 +1,146 @@
+package com.example.onlineshop.alerts;
+
+import com.example.onlineshop.config.LowStockAlertProperties;
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.model.ShopItem;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raises an alert when a change event takes an item's quantity from at or above its
+ * threshold to below it. The check runs in the writing thread and costs two map
+ * lookups; delivery happens on a dispatcher thread fed by a bounded queue, and alerts
+ * that do not fit are dropped and counted rather than blocking the write. An item
+ * alerts at most once per debounce window.
+ */
+public class LowStockAlertEngine implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(LowStockAlertEngine.class);
+
+    private final LowStockAlertSink sink;
+    private final long debounceNanos;
+    private final Map<String, Integer> thresholds = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastAlertNanos = new ConcurrentHashMap<>();
+    private final BlockingQueue<LowStockAlert> queue;
+    private final Thread dispatcher;
+    private final Counter raised;
+    private final Counter debounced;
+    private final Counter dropped;
+    private final Counter failures;
+    private volatile int globalThreshold;
+    private volatile boolean running = true;
+
+    public LowStockAlertEngine(LowStockAlertSink sink, LowStockAlertProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.sink = sink;
+        this.debounceNanos = properties.debounce().toNanos();
+        this.globalThreshold = properties.globalThreshold();
+        this.thresholds.putAll(properties.thresholds());
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+        this.raised = meterRegistry.counter("shopitems.alerts.lowstock.raised");
+        this.debounced = meterRegistry.counter("shopitems.alerts.lowstock.debounced");
+        this.dropped = meterRegistry.counter("shopitems.alerts.lowstock.dropped");
+        this.failures = meterRegistry.counter("shopitems.alerts.lowstock.failures");
+        Gauge.builder("shopitems.alerts.lowstock.queue", queue, Collection::size).register(meterRegistry);
+        this.dispatcher = new Thread(this::dispatch, "low-stock-alerts");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @EventListener
+    public void onShopItemChanged(ShopItemChangedEvent event) {
+        if (event.type() == ShopItemChangedEvent.Type.DELETED) {
+            lastAlertNanos.remove(event.id());
+            return;
+        }
+        ShopItem current = event.current();
+        int threshold = thresholdFor(event.id());
+        if (current.getQuantity() >= threshold) {
+            return;
+        }
+        ShopItem previous = event.previous();
+        if (previous != null && previous.getQuantity() < threshold) {
+            return;
+        }
+        long now = System.nanoTime();
+        Long last = lastAlertNanos.merge(event.id(), now,
+                (previousAlert, ignored) -> now - previousAlert < debounceNanos ? previousAlert : now);
+        if (last != now) {
+            debounced.increment();
+            return;
+        }
+        if (queue.offer(new LowStockAlert(event.id(), current.getName(), current.getQuantity(), threshold,
+                Instant.now()))) {
+            raised.increment();
+        } else {
+            lastAlertNanos.remove(event.id(), now);
+            dropped.increment();
+        }
+    }
+
+    public int thresholdFor(String id) {
+        return thresholds.getOrDefault(id, globalThreshold);
+    }
+
+    public int getGlobalThreshold() {
+        return globalThreshold;
+    }
+
+    public void setGlobalThreshold(int threshold) {
+        this.globalThreshold = threshold;
+    }
+
+    public Map<String, Integer> getThresholds() {
+        return Map.copyOf(thresholds);
+    }
+
+    public void setThreshold(String id, int threshold) {
+        thresholds.put(id, threshold);
+    }
+
+    public void removeThreshold(String id) {
+        thresholds.remove(id);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void dispatch() {
+        while (running || !queue.isEmpty()) {
+            try {
+                LowStockAlert alert = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (alert != null) {
+                    deliver(alert);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queue.forEach(this::deliver);
+                return;
+            }
+        }
+    }
+
+    private void deliver(LowStockAlert alert) {
+        try {
+            sink.deliver(alert);
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Could not deliver low stock alert for shop item {}", alert.id(), e);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.onlineshop.alerts;
+
+/**
+ * Receives alerts on the engine's dispatcher thread, one at a time. Declare a bean of
+ * this type to replace the default {@link LoggingLowStockAlertSink}.
+ */
+public interface LowStockAlertSink {
+
+    void deliver(LowStockAlert alert);
+}
@@ -0,0 +1,8 @@
+package com.example.onlineshop.analytics;
+
+/**
+ * Totals over the rows matching a {@link ColumnarFilter}. minPrice and maxPrice are
+ * null when no row matched.
+ */
+public record ColumnarAggregate(long count, long totalQuantity, double totalValue, Double minPrice, Double maxPrice) {
+}
@@ -0,0 +1,34 @@
+package com.example.onlineshop.analytics;
+
+/**
+ * Row filter for {@link ColumnarSnapshot}. Bounds are inclusive; a null name matches
+ * every row.
+ */
+public record ColumnarFilter(double minPrice, double maxPrice, int minQuantity, int maxQuantity, String name) {
+
+    private static final ColumnarFilter ALL = new ColumnarFilter(
+            Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Integer.MIN_VALUE, Integer.MAX_VALUE, null);
+
+    public ColumnarFilter {
+        if (minPrice > maxPrice) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        if (minQuantity > maxQuantity) {
+            throw new IllegalArgumentException("minQuantity must not be greater than maxQuantity");
+        }
+    }
+
+    public static ColumnarFilter all() {
+        return ALL;
+    }
+
+    public static ColumnarFilter of(Double minPrice, Double maxPrice, Integer minQuantity, Integer maxQuantity,
+                                    String name) {
+        return new ColumnarFilter(
+                minPrice == null ? Double.NEGATIVE_INFINITY : minPrice,
+                maxPrice == null ? Double.POSITIVE_INFINITY : maxPrice,
+                minQuantity == null ? Integer.MIN_VALUE : minQuantity,
+                maxQuantity == null ? Integer.MAX_VALUE : maxQuantity,
+                name);
+    }
+}
@@ -0,0 +1,415 @@
+package com.example.onlineshop.analytics;
+
+import com.example.onlineshop.model.ShopItemSummary;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Immutable column-per-field copy of shop_items: prices and quantities in primitive
+ * arrays, names as codes into a dictionary and ObjectId ids packed into a long and an
+ * int. Scans split the rows into ranges that run on the common fork/join pool.
+ */
+public final class ColumnarSnapshot {
+
+    static final int PARALLEL_THRESHOLD = 1 << 15;
+    private static final int NO_NAME = -1;
+    private static final int UNKNOWN_NAME = -2;
+    private static final ColumnarSnapshot EMPTY = new Builder().build();
+
+    private final int size;
+    private final long[] idHigh;
+    private final int[] idLow;
+    private final Map<Integer, String> otherIds;
+    private final double[] prices;
+    private final int[] quantities;
+    private final int[] nameCodes;
+    private final String[] names;
+    private final Map<String, Integer> nameDictionary;
+
+    private ColumnarSnapshot(Builder builder) {
+        this.size = builder.size;
+        this.idHigh = Arrays.copyOf(builder.idHigh, size);
+        this.idLow = Arrays.copyOf(builder.idLow, size);
+        this.otherIds = Map.copyOf(builder.otherIds);
+        this.prices = Arrays.copyOf(builder.prices, size);
+        this.quantities = Arrays.copyOf(builder.quantities, size);
+        this.nameCodes = Arrays.copyOf(builder.nameCodes, size);
+        this.names = builder.names.toArray(String[]::new);
+        this.nameDictionary = new HashMap<>(builder.nameDictionary);
+    }
+
+    public static ColumnarSnapshot empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int distinctNames() {
+        return names.length;
+    }
+
+    public String id(int row) {
+        String other = otherIds.get(row);
+        if (other != null) {
+            return other;
+        }
+        long high = idHigh[row];
+        int low = idLow[row];
+        byte[] bytes = new byte[12];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (high >>> (56 - 8 * i));
+        }
+        for (int i = 0; i < 4; i++) {
+            bytes[8 + i] = (byte) (low >>> (24 - 8 * i));
+        }
+        return new ObjectId(bytes).toHexString();
+    }
+
+    public String name(int row) {
+        int code = nameCodes[row];
+        return code == NO_NAME ? null : names[code];
+    }
+
+    public double price(int row) {
+        return prices[row];
+    }
+
+    public int quantity(int row) {
+        return quantities[row];
+    }
+
+    public ColumnarAggregate aggregate(ColumnarFilter filter) {
+        int nameCode = nameCodeOf(filter);
+        if (nameCode == UNKNOWN_NAME || size == 0) {
+            return new ColumnarAggregate(0, 0, 0.0, null, null);
+        }
+        Totals totals = ForkJoinPool.commonPool().invoke(new AggregateTask(filter, nameCode, 0, size));
+        return totals.count == 0
+                ? new ColumnarAggregate(0, 0, 0.0, null, null)
+                : new ColumnarAggregate(totals.count, totals.quantity, totals.value, totals.minPrice, totals.maxPrice);
+    }
+
+    /**
+     * The n matching rows with the highest stock value (price * quantity), highest
+     * first. Ties keep scan order.
+     */
+    public List<ShopItemSummary> topByValue(ColumnarFilter filter, int n) {
+        int nameCode = nameCodeOf(filter);
+        if (n <= 0 || nameCode == UNKNOWN_NAME || size == 0) {
+            return List.of();
+        }
+        TopRows top = ForkJoinPool.commonPool().invoke(new TopByValueTask(filter, nameCode, n, 0, size));
+        List<ShopItemSummary> rows = new ArrayList<>(top.size);
+        for (int row : top.sortedRows()) {
+            rows.add(new ShopItemSummary(id(row), name(row), prices[row], quantities[row]));
+        }
+        return rows;
+    }
+
+    public long estimatedBytes() {
+        long bytes = 5L * 16 + (long) size * (Long.BYTES + Integer.BYTES + Double.BYTES + Integer.BYTES
+                + Integer.BYTES);
+        // Each name is shared by the array and the dictionary; count the string once plus
+        // the map entry and boxed code.
+        for (String name : names) {
+            bytes += 40 + name.length() + 32 + 16;
+        }
+        return bytes + otherIds.size() * 112L;
+    }
+
+    private int nameCodeOf(ColumnarFilter filter) {
+        if (filter.name() == null) {
+            return NO_NAME;
+        }
+        return nameDictionary.getOrDefault(filter.name(), UNKNOWN_NAME);
+    }
+
+    /**
+     * Copies the filter bounds and column references into final fields so the scan loop
+     * reads them from registers rather than through the filter on every row.
+     */
+    private final class RowMatcher {
+        private final double[] prices = ColumnarSnapshot.this.prices;
+        private final int[] quantities = ColumnarSnapshot.this.quantities;
+        private final int[] nameCodes = ColumnarSnapshot.this.nameCodes;
+        private final double minPrice;
+        private final double maxPrice;
+        private final int minQuantity;
+        private final int maxQuantity;
+        private final int nameCode;
+
+        private RowMatcher(ColumnarFilter filter, int nameCode) {
+            this.minPrice = filter.minPrice();
+            this.maxPrice = filter.maxPrice();
+            this.minQuantity = filter.minQuantity();
+            this.maxQuantity = filter.maxQuantity();
+            this.nameCode = nameCode;
+        }
+
+        // Accumulates in locals; the JIT keeps them in registers for the whole range.
+        private Totals aggregate(int from, int to) {
+            long count = 0;
+            long quantitySum = 0;
+            double value = 0.0;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int row = from; row < to; row++) {
+                if (matches(row)) {
+                    double price = prices[row];
+                    int quantity = quantities[row];
+                    count++;
+                    quantitySum += quantity;
+                    value += price * quantity;
+                    min = price < min ? price : min;
+                    max = price > max ? price : max;
+                }
+            }
+            return new Totals(count, quantitySum, value, min, max);
+        }
+
+        private boolean matches(int row) {
+            double price = prices[row];
+            int quantity = quantities[row];
+            return price >= minPrice & price <= maxPrice & quantity >= minQuantity & quantity <= maxQuantity
+                    & (nameCode == NO_NAME || nameCodes[row] == nameCode);
+        }
+    }
+
+    private final class AggregateTask extends RecursiveTask<Totals> {
+
+        private final ColumnarFilter filter;
+        private final int nameCode;
+        private final int from;
+        private final int to;
+
+        private AggregateTask(ColumnarFilter filter, int nameCode, int from, int to) {
+            this.filter = filter;
+            this.nameCode = nameCode;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return new RowMatcher(filter, nameCode).aggregate(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            AggregateTask left = new AggregateTask(filter, nameCode, from, middle);
+            left.fork();
+            Totals right = new AggregateTask(filter, nameCode, middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    private final class TopByValueTask extends RecursiveTask<TopRows> {
+
+        private final ColumnarFilter filter;
+        private final int nameCode;
+        private final int n;
+        private final int from;
+        private final int to;
+
+        private TopByValueTask(ColumnarFilter filter, int nameCode, int n, int from, int to) {
+            this.filter = filter;
+            this.nameCode = nameCode;
+            this.n = n;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TopRows compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                TopRows top = new TopRows(n);
+                RowMatcher matcher = new RowMatcher(filter, nameCode);
+                for (int row = from; row < to; row++) {
+                    if (matcher.matches(row)) {
+                        top.offer(row, prices[row] * quantities[row]);
+                    }
+                }
+                return top;
+            }
+            int middle = (from + to) >>> 1;
+            TopByValueTask left = new TopByValueTask(filter, nameCode, n, from, middle);
+            left.fork();
+            TopRows right = new TopByValueTask(filter, nameCode, n, middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    private static final class Totals {
+        private long count;
+        private long quantity;
+        private double value;
+        private double minPrice;
+        private double maxPrice;
+
+        private Totals(long count, long quantity, double value, double minPrice, double maxPrice) {
+            this.count = count;
+            this.quantity = quantity;
+            this.value = value;
+            this.minPrice = minPrice;
+            this.maxPrice = maxPrice;
+        }
+
+        private Totals merge(Totals other) {
+            count += other.count;
+            quantity += other.quantity;
+            value += other.value;
+            minPrice = Math.min(minPrice, other.minPrice);
+            maxPrice = Math.max(maxPrice, other.maxPrice);
+            return this;
+        }
+    }
+
+    /**
+     * Bounded min-heap of rows keyed by value. The root is the weakest kept row, so a
+     * candidate only needs one comparison to be rejected.
+     */
+    private static final class TopRows {
+        private final int[] rows;
+        private final double[] values;
+        private int size;
+
+        private TopRows(int capacity) {
+            rows = new int[capacity];
+            values = new double[capacity];
+        }
+
+        private void offer(int row, double value) {
+            if (size < rows.length) {
+                rows[size] = row;
+                values[size] = value;
+                siftUp(size++);
+            } else if (weaker(0, row, value)) {
+                rows[0] = row;
+                values[0] = value;
+                siftDown(0);
+            }
+        }
+
+        private TopRows merge(TopRows other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.rows[i], other.values[i]);
+            }
+            return this;
+        }
+
+        private int[] sortedRows() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> values[a] != values[b]
+                    ? Double.compare(values[b], values[a])
+                    : Integer.compare(rows[a], rows[b]));
+            int[] sorted = new int[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = rows[order[i]];
+            }
+            return sorted;
+        }
+
+        // Lower value loses; on equal values the later row loses so ties keep scan order.
+        private boolean weaker(int slot, int row, double value) {
+            return values[slot] < value || (values[slot] == value && rows[slot] > row);
+        }
+
+        private void siftUp(int slot) {
+            while (slot > 0) {
+                int parent = (slot - 1) >>> 1;
+                if (!weaker(slot, rows[parent], values[parent])) {
+                    break;
+                }
+                swap(slot, parent);
+                slot = parent;
+            }
+        }
+
+        private void siftDown(int slot) {
+            while (true) {
+                int weakest = slot;
+                for (int child = 2 * slot + 1; child <= 2 * slot + 2 && child < size; child++) {
+                    if (weaker(child, rows[weakest], values[weakest])) {
+                        weakest = child;
+                    }
+                }
+                if (weakest == slot) {
+                    return;
+                }
+                swap(slot, weakest);
+                slot = weakest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int row = rows[a];
+            rows[a] = rows[b];
+            rows[b] = row;
+            double value = values[a];
+            values[a] = values[b];
+            values[b] = value;
+        }
+    }
+
+    public static final class Builder {
+        private int size;
+        private long[] idHigh = new long[16];
+        private int[] idLow = new int[16];
+        private final Map<Integer, String> otherIds = new HashMap<>();
+        private double[] prices = new double[16];
+        private int[] quantities = new int[16];
+        private int[] nameCodes = new int[16];
+        private final List<String> names = new ArrayList<>();
+        private final Map<String, Integer> nameDictionary = new HashMap<>();
+
+        public Builder add(String id, String name, double price, int quantity) {
+            if (size == prices.length) {
+                int capacity = size * 2;
+                idHigh = Arrays.copyOf(idHigh, capacity);
+                idLow = Arrays.copyOf(idLow, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                nameCodes = Arrays.copyOf(nameCodes, capacity);
+            }
+            ObjectId objectId = ObjectId.isValid(id) ? new ObjectId(id) : null;
+            if (objectId != null && objectId.toHexString().equals(id)) {
+                byte[] bytes = objectId.toByteArray();
+                long high = 0;
+                for (int i = 0; i < 8; i++) {
+                    high = (high << 8) | (bytes[i] & 0xFF);
+                }
+                int low = 0;
+                for (int i = 8; i < 12; i++) {
+                    low = (low << 8) | (bytes[i] & 0xFF);
+                }
+                idHigh[size] = high;
+                idLow[size] = low;
+            } else {
+                otherIds.put(size, id);
+            }
+            prices[size] = price;
+            quantities[size] = quantity;
+            nameCodes[size] = name == null ? NO_NAME : nameDictionary.computeIfAbsent(name, key -> {
+                names.add(key);
+                return names.size() - 1;
+            });
+            size++;
+            return this;
+        }
+
+        public ColumnarSnapshot build() {
+            return new ColumnarSnapshot(this);
+        }
+    }
+}
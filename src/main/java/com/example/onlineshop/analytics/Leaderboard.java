@@ -0,0 +1,57 @@
+package com.example.onlineshop.analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Every item ordered by a score, with an id lookup so an item can be moved or removed
+ * in O(log n). Reading the top n walks the first n entries and never sorts. Not
+ * thread-safe.
+ */
+public final class Leaderboard {
+
+    public record Entry(String id, String name, double price, int quantity, double score) {
+    }
+
+    private final TreeSet<Entry> ranked;
+    private final Map<String, Entry> byId = new HashMap<>();
+
+    public Leaderboard(boolean highestFirst) {
+        Comparator<Entry> byScore = Comparator.comparingDouble(Entry::score);
+        this.ranked = new TreeSet<>((highestFirst ? byScore.reversed() : byScore).thenComparing(Entry::id));
+    }
+
+    public void put(String id, String name, double price, int quantity, double score) {
+        Entry entry = new Entry(id, name, price, quantity, score);
+        Entry previous = byId.put(id, entry);
+        if (previous != null) {
+            ranked.remove(previous);
+        }
+        ranked.add(entry);
+    }
+
+    public void remove(String id) {
+        Entry previous = byId.remove(id);
+        if (previous != null) {
+            ranked.remove(previous);
+        }
+    }
+
+    public List<Entry> top(int n) {
+        List<Entry> top = new ArrayList<>(Math.min(n, ranked.size()));
+        Iterator<Entry> iterator = ranked.iterator();
+        while (top.size() < n && iterator.hasNext()) {
+            top.add(iterator.next());
+        }
+        return top;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+}
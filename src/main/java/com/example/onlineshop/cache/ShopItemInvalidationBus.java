@@ -0,0 +1,247 @@
+package com.example.onlineshop.cache;
+
+import com.example.onlineshop.config.ShopItemInvalidationProperties;
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.events.ShopItemInvalidatedEvent;
+import com.example.onlineshop.model.ShopItemInvalidation;
+import com.example.onlineshop.repositories.ShopItemInvalidationRepository;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCursor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tells the other nodes which items this node wrote, through a capped collection that
+ * every node tails. Ids written within one publish interval go out as one entry; the
+ * tailing thread turns entries from other nodes into {@link ShopItemInvalidatedEvent}s.
+ * Whenever entries may have been missed (the bus wrapped past this node's position,
+ * an entry arrives later than maxLag, or this node failed to publish) a full
+ * invalidation is raised instead, locally or for everyone. Lag is measured against
+ * the database server's clock, which also stamps the entries, so node clocks that
+ * disagree do not matter.
+ */
+public class ShopItemInvalidationBus implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ShopItemInvalidationBus.class);
+    private static final long RETRY_DELAY_MILLIS = 500;
+    private static final long CLOCK_CHECK_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final ShopItemInvalidationRepository repository;
+    private final ShopItemInvalidationProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String node = UUID.randomUUID().toString();
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService publisher;
+    private final Thread subscriber;
+    private final Counter published;
+    private final Counter received;
+    private final Counter fullInvalidations;
+    private final Counter failures;
+    private final Timer lag;
+    private volatile boolean publishAll;
+    private volatile boolean running = true;
+    private volatile String position;
+    private Duration serverClockOffset;
+    private long serverClockCheckedAt;
+
+    public ShopItemInvalidationBus(ShopItemInvalidationRepository repository,
+                                   ShopItemInvalidationProperties properties,
+                                   ApplicationEventPublisher eventPublisher,
+                                   MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.published = meterRegistry.counter("shopitems.invalidation.published");
+        this.received = meterRegistry.counter("shopitems.invalidation.received");
+        this.fullInvalidations = meterRegistry.counter("shopitems.invalidation.full");
+        this.failures = meterRegistry.counter("shopitems.invalidation.failures");
+        this.lag = meterRegistry.timer("shopitems.invalidation.lag");
+        this.publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shop-item-invalidation-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.subscriber = new Thread(this::tail, "shop-item-invalidation-subscriber");
+        subscriber.setDaemon(true);
+    }
+
+    @EventListener
+    public void onShopItemChanged(ShopItemChangedEvent event) {
+        pending.add(event.id());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long intervalNanos = properties.publishInterval().toNanos();
+        publisher.scheduleWithFixedDelay(this::publish, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        subscriber.start();
+    }
+
+    public String node() {
+        return node;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        publisher.shutdown();
+        publisher.awaitTermination(5, TimeUnit.SECONDS);
+        publish();
+        subscriber.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    public void publish() {
+        if (position == null) {
+            // Inserting before the bus exists would create it as an ordinary collection.
+            if (pending.size() > properties.maxIdsPerMessage()) {
+                publishAll = true;
+                pending.clear();
+            }
+            return;
+        }
+        if (pending.isEmpty() && !publishAll) {
+            return;
+        }
+        Set<String> ids = new HashSet<>();
+        for (String id : pending) {
+            pending.remove(id);
+            ids.add(id);
+        }
+        boolean all = publishAll || ids.size() > properties.maxIdsPerMessage();
+        try {
+            repository.publish(node, all ? Set.of() : ids, all);
+            publishAll = false;
+            published.increment();
+        } catch (RuntimeException e) {
+            // The ids are lost to the other nodes; make them drop everything once the bus is back.
+            publishAll = true;
+            failures.increment();
+            log.warn("Could not publish invalidations for {} shop items", ids.size(), e);
+        }
+    }
+
+    private void tail() {
+        while (running) {
+            if (position == null && !open()) {
+                continue;
+            }
+            try (MongoCursor<ShopItemInvalidation> cursor = repository.tail()) {
+                boolean skipping = true;
+                String skipped = null;
+                while (running && cursor.getServerCursor() != null) {
+                    ShopItemInvalidation entry = cursor.tryNext();
+                    if (entry == null) {
+                        // Caught up with the bus without passing the position: it was overwritten.
+                        if (skipping && skipped != null) {
+                            invalidateEverything("the bus wrapped past this node's position");
+                            position = skipped;
+                            skipping = false;
+                        }
+                        continue;
+                    }
+                    if (skipping) {
+                        skipping = !entry.id().equals(position);
+                        skipped = entry.id();
+                        continue;
+                    }
+                    if (!receive(entry)) {
+                        break;
+                    }
+                    position = entry.id();
+                }
+            } catch (MongoException e) {
+                if (!running) {
+                    return;
+                }
+                failures.increment();
+                log.warn("Invalidation bus subscription failed, reopening", e);
+            }
+            pause();
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(RETRY_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+        return false;
+    }
+
+    private boolean open() {
+        try {
+            repository.ensureCollection(properties.busSize().toBytes());
+            position = repository.latestId();
+            return true;
+        } catch (MongoException e) {
+            failures.increment();
+            log.warn("Could not open the invalidation bus, retrying", e);
+            return pause();
+        }
+    }
+
+    /**
+     * Returns false when the entry arrived too late; the position then skips to the
+     * newest entry after a full invalidation.
+     */
+    private boolean receive(ShopItemInvalidation entry) {
+        Duration delay = Duration.between(entry.publishedAt(), serverTime());
+        if (delay.compareTo(properties.maxLag()) > 0) {
+            String latest = repository.latestId();
+            invalidateEverything("the subscriber is " + delay.toMillis() + " ms behind");
+            position = latest;
+            return false;
+        }
+        if (node.equals(entry.node())) {
+            return true;
+        }
+        received.increment();
+        lag.record(delay.isNegative() ? Duration.ZERO : delay);
+        if (entry.all()) {
+            invalidateEverything("node " + entry.node() + " asked for it");
+        } else if (!entry.ids().isEmpty()) {
+            eventPublisher.publishEvent(ShopItemInvalidatedEvent.of(Set.copyOf(entry.ids())));
+        }
+        return true;
+    }
+
+    /**
+     * The server's clock, estimated from this node's clock and an offset that is
+     * measured again every minute.
+     */
+    private Instant serverTime() {
+        long now = System.nanoTime();
+        if (serverClockOffset == null || now - serverClockCheckedAt > CLOCK_CHECK_NANOS) {
+            Instant sent = Instant.now();
+            Instant server = repository.serverTime();
+            Duration roundTrip = Duration.ofNanos(System.nanoTime() - now);
+            serverClockOffset = Duration.between(sent.plus(roundTrip.dividedBy(2)), server);
+            serverClockCheckedAt = now;
+        }
+        return Instant.now().plus(serverClockOffset);
+    }
+
+    private void invalidateEverything(String reason) {
+        fullInvalidations.increment();
+        log.info("Invalidating all cached shop items: {}", reason);
+        eventPublisher.publishEvent(ShopItemInvalidatedEvent.everything());
+    }
+}
@@ -0,0 +1,356 @@
+package com.example.onlineshop.cache;
+
+import com.example.onlineshop.config.ShopItemReadProperties;
+import com.example.onlineshop.consistency.CausalConsistencyContext;
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.events.ShopItemInvalidatedEvent;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.ShopItemReadHedger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Stale-while-revalidate cache in front of getAllItems and getItemById. Entries
+ * younger than freshFor are served as is; up to staleFor they are served while a
+ * background refresh runs. Older or missing entries are loaded on a bounded pool
+ * with a per-operation deadline, and when that load fails, times out or is refused
+ * by the circuit breaker the last good copy is served however old it is. Only a read
+ * with nothing cached surfaces the failure, so Tomcat threads wait at most one
+ * deadline during a Mongo latency spike.
+ * <p>
+ * Writes made through ShopItemService are applied to the cached copies right away;
+ * writes from other nodes expire them when the invalidation bus reports them.
+ * Loads and refreshes carry the causal token of the request that started them.
+ */
+public class ShopItemReadCache implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ShopItemReadCache.class);
+    private static final String ALL_ITEMS = "all";
+    private static final String BY_ID = "byId";
+    private static final long EXPIRED = Long.MIN_VALUE / 2;
+    private static final int WRITE_STRIPES = 1024;
+
+    private final ShopItemRepository shopItemRepository;
+    private final ShopItemReadProperties properties;
+    private final CircuitBreaker breaker;
+    private final ThreadPoolExecutor loader;
+    private final ExecutorService refresher;
+    private final Map<String, Cached<ShopItem>> items = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    /** Writes per stripe of item ids, and writes to any item, which all change allItems. */
+    private final AtomicLongArray itemWrites = new AtomicLongArray(WRITE_STRIPES);
+    private final AtomicLong writes = new AtomicLong();
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+    private final Counter deadlinesExceeded;
+    private volatile Cached<List<ShopItem>> allItems;
+    private ShopItemReadHedger readHedger;
+    private CausalConsistencyContext causalContext;
+
+    public ShopItemReadCache(ShopItemRepository shopItemRepository, ShopItemReadProperties properties,
+                             MeterRegistry meterRegistry) {
+        this(shopItemRepository, properties, meterRegistry, new CircuitBreaker(properties.breakerWindow(),
+                properties.breakerMinimumCalls(), properties.breakerFailureRate(), properties.breakerOpenFor()));
+    }
+
+    public ShopItemReadCache(ShopItemRepository shopItemRepository, ShopItemReadProperties properties,
+                             MeterRegistry meterRegistry, CircuitBreaker breaker) {
+        this.shopItemRepository = shopItemRepository;
+        this.properties = properties;
+        this.breaker = breaker;
+        this.meterRegistry = meterRegistry;
+        this.loader = new ThreadPoolExecutor(properties.readThreads(), properties.readThreads(), 0,
+                TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.readThreads() * 4),
+                daemonThreads("shop-item-reads"));
+        this.refresher = Executors.newFixedThreadPool(2, daemonThreads("shop-item-refresh"));
+        this.rejected = meterRegistry.counter("shopitems.reads.breaker.rejected");
+        this.deadlinesExceeded = meterRegistry.counter("shopitems.reads.deadline.exceeded");
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            Gauge.builder("shopitems.reads.breaker.state", breaker, b -> b.state() == state ? 1 : 0)
+                    .tag("state", state.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("shopitems.reads.cache.size", items, Map::size).register(meterRegistry);
+    }
+
+    @Autowired(required = false)
+    public void setReadHedger(ShopItemReadHedger readHedger) {
+        this.readHedger = readHedger;
+    }
+
+    @Autowired(required = false)
+    public void setCausalContext(CausalConsistencyContext causalContext) {
+        this.causalContext = causalContext;
+    }
+
+    public List<ShopItem> getAllItems() {
+        return read(ALL_ITEMS, ALL_ITEMS, allItems, shopItemRepository::findAll, properties.allItemsDeadline(),
+                this::storeAllItems);
+    }
+
+    public ShopItem getItemById(String id) {
+        Supplier<ShopItem> source = readHedger != null
+                ? () -> readHedger.findById(id)
+                : () -> shopItemRepository.findById(id).orElse(null);
+        return read(BY_ID, id, items.get(id), source, properties.itemDeadline(),
+                (item, loadedAt) -> storeItem(id, item, loadedAt));
+    }
+
+    public CircuitBreaker.State breakerState() {
+        return breaker.state();
+    }
+
+    /**
+     * Drops the cached copy of the item, for callers that learned it is outdated.
+     */
+    public void evict(String id) {
+        items.remove(id);
+        expireAllItems();
+    }
+
+    @EventListener
+    public void onShopItemChanged(ShopItemChangedEvent event) {
+        written(event.id());
+        long now = System.nanoTime();
+        storeItem(event.id(), event.current(), now);
+        synchronized (this) {
+            Cached<List<ShopItem>> cached = allItems;
+            if (cached != null) {
+                allItems = new Cached<>(patch(cached.value(), event), cached.loadedAt());
+            }
+        }
+    }
+
+    @EventListener
+    public void onShopItemInvalidated(ShopItemInvalidatedEvent event) {
+        if (event.all()) {
+            for (int stripe = 0; stripe < WRITE_STRIPES; stripe++) {
+                itemWrites.incrementAndGet(stripe);
+            }
+            writes.incrementAndGet();
+            items.clear();
+        } else {
+            event.ids().forEach(this::written);
+            event.ids().forEach(items::remove);
+        }
+        expireAllItems();
+    }
+
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+        loader.shutdownNow();
+    }
+
+    private <T> T read(String operation, String key, Cached<T> cached, Supplier<T> source, Duration deadline,
+                       Store<T> store) {
+        long age = cached == null ? Long.MAX_VALUE : System.nanoTime() - cached.loadedAt();
+        if (age <= properties.freshFor().toNanos()) {
+            count(operation, "fresh");
+            return cached.value();
+        }
+        if (age <= properties.staleFor().toNanos()) {
+            count(operation, "stale");
+            refreshInBackground(operation, key, source, deadline, store);
+            return cached.value();
+        }
+        long writesBefore = writeStamp(operation, key);
+        long startedAt = System.nanoTime();
+        try {
+            T loaded = load(source, deadline);
+            store.accept(loaded, writeStamp(operation, key) == writesBefore ? startedAt : EXPIRED);
+            count(operation, "loaded");
+            return loaded;
+        } catch (RuntimeException e) {
+            if (cached == null) {
+                count(operation, "failed");
+                throw e;
+            }
+            count(operation, "fallback");
+            log.debug("Serving the last good copy for {} {}", operation, key, e);
+            return cached.value();
+        }
+    }
+
+    private <T> void refreshInBackground(String operation, String key, Supplier<T> source, Duration deadline,
+                                         Store<T> store) {
+        String refreshKey = operation + ':' + key;
+        if (!refreshing.add(refreshKey)) {
+            return;
+        }
+        try {
+            Callable<Void> refresh = () -> {
+                try {
+                    long writesBefore = writeStamp(operation, key);
+                    long startedAt = System.nanoTime();
+                    T loaded = load(source, deadline);
+                    store.accept(loaded, writeStamp(operation, key) == writesBefore ? startedAt : EXPIRED);
+                } catch (RuntimeException e) {
+                    log.debug("Background refresh of {} failed", refreshKey, e);
+                } finally {
+                    refreshing.remove(refreshKey);
+                }
+                return null;
+            };
+            refresher.submit(causalContext == null ? refresh : causalContext.propagate(refresh));
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(refreshKey);
+        }
+    }
+
+    /**
+     * Runs the load on the read pool and waits at most deadline for it. Failures,
+     * timeouts and loads slower than half the deadline count against the breaker.
+     */
+    private <T> T load(Supplier<T> source, Duration deadline) {
+        if (!breaker.tryAcquire()) {
+            rejected.increment();
+            throw new DataAccessResourceFailureException("Shop item reads are short-circuited after Mongo failures");
+        }
+        long startedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            Callable<T> read = source::get;
+            future = loader.submit(causalContext == null ? read : causalContext.propagate(read));
+        } catch (RejectedExecutionException e) {
+            breaker.onFailure();
+            throw new DataAccessResourceFailureException("Too many shop item reads waiting for Mongo", e);
+        }
+        try {
+            T loaded = future.get(deadline.toNanos(), TimeUnit.NANOSECONDS);
+            if (System.nanoTime() - startedAt > deadline.toNanos() / 2) {
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+            return loaded;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            breaker.onFailure();
+            deadlinesExceeded.increment();
+            throw new QueryTimeoutException("Shop item read exceeded its " + deadline.toMillis() + " ms deadline");
+        } catch (ExecutionException e) {
+            breaker.onFailure();
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new DataAccessResourceFailureException("Shop item read failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            breaker.onFailure();
+            throw new DataAccessResourceFailureException("Interrupted while reading shop items", e);
+        }
+    }
+
+    private void written(String id) {
+        itemWrites.incrementAndGet(stripe(id));
+        writes.incrementAndGet();
+    }
+
+    /**
+     * Moves whenever a write lands that a load of the key could have missed: any write
+     * for allItems, a write to the same stripe of ids for a single item. A load whose
+     * stamp moved is stored expired.
+     */
+    private long writeStamp(String operation, String key) {
+        return operation.equals(ALL_ITEMS) ? writes.get() : itemWrites.get(stripe(key));
+    }
+
+    private static int stripe(String id) {
+        return Math.floorMod(id.hashCode(), WRITE_STRIPES);
+    }
+
+    private synchronized void storeAllItems(List<ShopItem> loaded, long loadedAt) {
+        allItems = new Cached<>(List.copyOf(loaded), loadedAt);
+    }
+
+    private void storeItem(String id, ShopItem item, long loadedAt) {
+        items.put(id, new Cached<>(item, loadedAt));
+        if (items.size() > properties.maxCachedItems()) {
+            Iterator<String> ids = items.keySet().iterator();
+            while (items.size() > properties.maxCachedItems() * 9 / 10 && ids.hasNext()) {
+                String evicted = ids.next();
+                if (!evicted.equals(id)) {
+                    ids.remove();
+                }
+            }
+        }
+    }
+
+    private synchronized void expireAllItems() {
+        Cached<List<ShopItem>> cached = allItems;
+        if (cached != null) {
+            allItems = new Cached<>(cached.value(), EXPIRED);
+        }
+    }
+
+    private static List<ShopItem> patch(List<ShopItem> items, ShopItemChangedEvent event) {
+        List<ShopItem> patched = new ArrayList<>(items.size() + 1);
+        boolean replaced = false;
+        for (ShopItem item : items) {
+            if (!item.getId().equals(event.id())) {
+                patched.add(item);
+            } else if (event.current() != null) {
+                patched.add(event.current());
+                replaced = true;
+            }
+        }
+        if (!replaced && event.current() != null) {
+            patched.add(event.current());
+        }
+        return List.copyOf(patched);
+    }
+
+    private void count(String operation, String result) {
+        meterRegistry.counter("shopitems.reads", "operation", operation, "result", result).increment();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record Cached<T>(T value, long loadedAt) {
+    }
+
+    @FunctionalInterface
+    private interface Store<T> {
+        void accept(T value, long loadedAt);
+    }
+}
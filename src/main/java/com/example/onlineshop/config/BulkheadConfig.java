@@ -0,0 +1,55 @@
+package com.example.onlineshop.config;
+
+import com.example.onlineshop.limits.WorkloadBulkheadFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableConfigurationProperties(BulkheadProperties.class)
+public class BulkheadConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "onlineshop.bulkheads", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public FilterRegistrationBean<WorkloadBulkheadFilter> workloadBulkheadFilter(BulkheadProperties properties,
+                                                                                 ObjectMapper objectMapper,
+                                                                                 MeterRegistry meterRegistry) {
+        FilterRegistrationBean<WorkloadBulkheadFilter> registration =
+                new FilterRegistrationBean<>(new WorkloadBulkheadFilter(properties, objectMapper, meterRegistry));
+        // Right behind the concurrency limit.
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    /**
+     * Sizes the Mongo pool so that LIST and BULK, even at their limits, leave
+     * connections that only point reads can use. Hedged reads take their second
+     * connections out of that reserve.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "onlineshop.bulkheads", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public MongoClientSettingsBuilderCustomizer bulkheadMongoPool(BulkheadProperties properties,
+                                                                  ShopItemHedgingProperties hedgingProperties) {
+        int hedges = hedgingProperties.enabled() ? hedgingProperties.maxConcurrentHedges() : 0;
+        int reserved = properties.mongoPoolSize() - properties.listMaxConcurrent() - properties.bulkMaxConcurrent()
+                - hedges;
+        if (reserved < 1) {
+            throw new IllegalStateException("onlineshop.bulkheads.mongo-pool-size " + properties.mongoPoolSize()
+                    + " leaves no connections to point reads once LIST, BULK and " + hedges
+                    + " hedged reads are at their limits");
+        }
+        return builder -> builder.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(properties.mongoPoolSize())
+                .maxWaitTime(properties.mongoMaxWait().toMillis(), TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.onlineshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Requests matching bulkPaths are BULK and GET requests matching pointReadPaths are
+ * POINT_READ; everything else is LIST. The Mongo pool is sized to mongoPoolSize, of
+ * which the LIST and BULK limits together must leave some connections to point reads.
+ */
+@ConfigurationProperties("onlineshop.bulkheads")
+public record BulkheadProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("150") int pointReadMaxConcurrent,
+        @DefaultValue("40") int listMaxConcurrent,
+        @DefaultValue("8") int bulkMaxConcurrent,
+        @DefaultValue("100ms") Duration maxWait,
+        @DefaultValue("1s") Duration retryAfter,
+        @DefaultValue("100") int mongoPoolSize,
+        @DefaultValue("2s") Duration mongoMaxWait,
+        @DefaultValue({"/api/shopitems/{id:[0-9a-fA-F]{24}}", "/view/*", "/edit/*"}) List<String> pointReadPaths,
+        @DefaultValue({"/", "/api/shopitems", "/api/shopitems/raw", "/api/shopitems/summary",
+                "/api/shopitems/statistics", "/api/shopitems/analytics/**"}) List<String> bulkPaths,
+        @DefaultValue({"/api/shopitems/changes", "/ws", "/actuator"}) List<String> excludedPaths) {
+}
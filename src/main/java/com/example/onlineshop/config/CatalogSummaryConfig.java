@@ -0,0 +1,22 @@
+package com.example.onlineshop.config;
+
+import com.example.onlineshop.repositories.CatalogSummaryRepository;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.CatalogSummaryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CatalogSummaryProperties.class)
+public class CatalogSummaryConfig {
+
+    @Bean
+    public CatalogSummaryService catalogSummaryService(ShopItemRepository shopItemRepository,
+                                                       CatalogSummaryRepository catalogSummaryRepository,
+                                                       CatalogSummaryProperties properties,
+                                                       MeterRegistry meterRegistry) {
+        return new CatalogSummaryService(shopItemRepository, catalogSummaryRepository, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.onlineshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * incrementInterval is how often change deltas are written to the summary, and how
+ * often a failed write is retried. It also bounds how long reconciliation waits for
+ * deltas of writes its scan already saw, so every node must use the same value.
+ */
+@ConfigurationProperties("onlineshop.summary")
+public record CatalogSummaryProperties(
+        @DefaultValue("10m") Duration reconcileInterval,
+        @DefaultValue("1s") Duration incrementInterval) {
+}
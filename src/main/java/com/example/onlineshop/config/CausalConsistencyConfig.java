@@ -0,0 +1,38 @@
+package com.example.onlineshop.config;
+
+import com.example.onlineshop.consistency.CausalConsistencyContext;
+import com.example.onlineshop.consistency.CausalConsistencyFilter;
+import com.example.onlineshop.consistency.CausalTokenCommandListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@EnableConfigurationProperties(CausalConsistencyProperties.class)
+public class CausalConsistencyConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "onlineshop.causal-consistency", name = "enabled", havingValue = "true")
+    public CausalConsistencyContext causalConsistencyContext(CausalConsistencyProperties properties) {
+        return new CausalConsistencyContext(properties.cookieName(), properties.headerName(), properties.tokenTtl());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "onlineshop.causal-consistency", name = "enabled", havingValue = "true")
+    public FilterRegistrationBean<CausalConsistencyFilter> causalConsistencyFilter(CausalConsistencyContext context) {
+        FilterRegistrationBean<CausalConsistencyFilter> registration =
+                new FilterRegistrationBean<>(new CausalConsistencyFilter(context));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "onlineshop.causal-consistency", name = "enabled", havingValue = "true")
+    public MongoClientSettingsBuilderCustomizer causalTokenCommandListener(CausalConsistencyContext context) {
+        return builder -> builder.addCommandListener(new CausalTokenCommandListener(context));
+    }
+}
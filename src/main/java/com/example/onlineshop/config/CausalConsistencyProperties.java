@@ -0,0 +1,19 @@
+package com.example.onlineshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * tokenTtl is how long a browser keeps the token cookie. A read that carries a token
+ * waits on the member it was routed to until that member has the write; members
+ * lagging more than onlineshop.read-routing.max-staleness are not picked at all.
+ */
+@ConfigurationProperties("onlineshop.causal-consistency")
+public record CausalConsistencyProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("shop-causal-token") String cookieName,
+        @DefaultValue("Causal-Token") String headerName,
+        @DefaultValue("5m") Duration tokenTtl) {
+}
@@ -0,0 +1,25 @@
+package com.example.onlineshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Reads are GET and HEAD requests, everything else is a write. excludedPaths are
+ * path prefixes that bypass the limits, such as long-lived streams.
+ */
+@ConfigurationProperties("onlineshop.concurrency-limit")
+public record ConcurrencyLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("40") int readInitialLimit,
+        @DefaultValue("400") int readMaxLimit,
+        @DefaultValue("10") int writeInitialLimit,
+        @DefaultValue("100") int writeMaxLimit,
+        @DefaultValue("4") int minLimit,
+        @DefaultValue("0.9") double backoffRatio,
+        @DefaultValue("10s") Duration minRttWindow,
+        @DefaultValue("1s") Duration retryAfter,
+        @DefaultValue({"/api/shopitems/changes", "/ws", "/actuator"}) List<String> excludedPaths) {
+}
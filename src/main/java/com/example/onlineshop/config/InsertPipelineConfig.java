@@ -0,0 +1,22 @@
+package com.example.onlineshop.config;
+
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.ShopItemInsertPipeline;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(InsertPipelineProperties.class)
+public class InsertPipelineConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "onlineshop.insert.async", name = "enabled", havingValue = "true")
+    public ShopItemInsertPipeline shopItemInsertPipeline(ShopItemRepository shopItemRepository,
+                                                         InsertPipelineProperties properties,
+                                                         MeterRegistry meterRegistry) {
+        return new ShopItemInsertPipeline(shopItemRepository, properties, meterRegistry);
+    }
+}
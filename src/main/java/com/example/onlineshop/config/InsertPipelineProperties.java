@@ -0,0 +1,15 @@
+package com.example.onlineshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("onlineshop.insert.async")
+public record InsertPipelineProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("4096") int queueCapacity,
+        @DefaultValue("500") int maxBatchSize,
+        @DefaultValue("2ms") Duration maxBatchLatency,
+        @DefaultValue("10s") Duration insertTimeout) {
+}
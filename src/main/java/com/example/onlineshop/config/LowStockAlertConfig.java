@@ -0,0 +1,31 @@
+package com.example.onlineshop.config;
+
+import com.example.onlineshop.alerts.LoggingLowStockAlertSink;
+import com.example.onlineshop.alerts.LowStockAlertEngine;
+import com.example.onlineshop.alerts.LowStockAlertSink;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(LowStockAlertProperties.class)
+@ConditionalOnProperty(prefix = "onlineshop.alerts.low-stock", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class LowStockAlertConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public LowStockAlertSink lowStockAlertSink() {
+        return new LoggingLowStockAlertSink();
+    }
+
+    @Bean
+    public LowStockAlertEngine lowStockAlertEngine(LowStockAlertSink lowStockAlertSink,
+                                                   LowStockAlertProperties properties,
+                                                   MeterRegistry meterRegistry) {
+        return new LowStockAlertEngine(lowStockAlertSink, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.onlineshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * thresholds holds per-item overrides of globalThreshold keyed by item id, for
+ * example onlineshop.alerts.low-stock.thresholds.[64b7f0c2a1b2c3d4e5f60718]=20.
+ */
+@ConfigurationProperties("onlineshop.alerts.low-stock")
+public record LowStockAlertProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("5") int globalThreshold,
+        @DefaultValue Map<String, Integer> thresholds,
+        @DefaultValue("10m") Duration debounce,
+        @DefaultValue("1024") int queueCapacity) {
+}
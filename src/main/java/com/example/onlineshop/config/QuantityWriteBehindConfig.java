@@ -0,0 +1,22 @@
+package com.example.onlineshop.config;
+
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.QuantityWriteBehindBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(QuantityWriteBehindProperties.class)
+public class QuantityWriteBehindConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "onlineshop.quantity.write-behind", name = "enabled", havingValue = "true")
+    public QuantityWriteBehindBuffer quantityWriteBehindBuffer(ShopItemRepository shopItemRepository,
+                                                               QuantityWriteBehindProperties properties,
+                                                               MeterRegistry meterRegistry) {
+        return new QuantityWriteBehindBuffer(shopItemRepository, properties, meterRegistry);
+    }
+}
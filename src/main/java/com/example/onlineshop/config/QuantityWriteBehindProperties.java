@@ -0,0 +1,37 @@
+package com.example.onlineshop.config;
+
+import com.mongodb.WriteConcern;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("onlineshop.quantity.write-behind")
+public record QuantityWriteBehindProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("5ms") Duration flushInterval,
+        @DefaultValue("1000") int maxPendingIds,
+        @DefaultValue("ACKNOWLEDGED") Durability durability,
+        @DefaultValue("true") boolean flushOnShutdown) {
+
+    /**
+     * The write concern of each flush. There is no unacknowledged level: a flush has to
+     * know which deltas failed to retry them, and which were applied to publish their
+     * change events.
+     */
+    public enum Durability {
+        ACKNOWLEDGED(WriteConcern.ACKNOWLEDGED),
+        JOURNALED(WriteConcern.JOURNALED),
+        MAJORITY(WriteConcern.MAJORITY);
+
+        private final WriteConcern writeConcern;
+
+        Durability(WriteConcern writeConcern) {
+            this.writeConcern = writeConcern;
+        }
+
+        public WriteConcern writeConcern() {
+            return writeConcern;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.onlineshop.config;
+
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.ShopItemAnalyticsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ShopItemAnalyticsProperties.class)
+public class ShopItemAnalyticsConfig {
+
+    @Bean
+    public ShopItemAnalyticsService shopItemAnalyticsService(ShopItemRepository shopItemRepository,
+                                                             ShopItemAnalyticsProperties properties,
+                                                             MeterRegistry meterRegistry) {
+        return new ShopItemAnalyticsService(shopItemRepository, properties, meterRegistry);
+    }
+}
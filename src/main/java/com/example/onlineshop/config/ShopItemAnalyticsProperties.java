@@ -0,0 +1,11 @@
+package com.example.onlineshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("onlineshop.analytics")
+public record ShopItemAnalyticsProperties(
+        @DefaultValue("1m") Duration refreshInterval) {
+}
@@ -0,0 +1,29 @@
+package com.example.onlineshop.config;
+
+import com.example.onlineshop.feed.ShopItemChangeFeed;
+import com.example.onlineshop.feed.ShopItemChangeStreamSource;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ShopItemChangeFeedProperties.class)
+public class ShopItemChangeFeedConfig {
+
+    @Bean
+    public ShopItemChangeFeed shopItemChangeFeed(ShopItemChangeFeedProperties properties,
+                                                 MeterRegistry meterRegistry) {
+        return new ShopItemChangeFeed(properties, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "onlineshop.change-feed", name = "source", havingValue = "change-stream")
+    public ShopItemChangeStreamSource shopItemChangeStreamSource(ShopItemRepository shopItemRepository,
+                                                                 ShopItemChangeFeed shopItemChangeFeed,
+                                                                 MeterRegistry meterRegistry) {
+        return new ShopItemChangeStreamSource(shopItemRepository, shopItemChangeFeed, meterRegistry);
+    }
+}
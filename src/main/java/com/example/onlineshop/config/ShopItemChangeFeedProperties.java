@@ -0,0 +1,31 @@
+package com.example.onlineshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * senderThreads bounds the threads writing to subscribers, whatever their number. A
+ * subscriber whose write has not returned within sendTimeout is dropped, so a stalled
+ * client does not keep a sender busy with further events.
+ */
+@ConfigurationProperties("onlineshop.change-feed")
+public record ShopItemChangeFeedProperties(
+        @DefaultValue("events") Source source,
+        @DefaultValue("200ms") Duration batchWindow,
+        @DefaultValue("500") int maxBatchSize,
+        @DefaultValue("10000") int historySize,
+        @DefaultValue("15s") Duration heartbeatInterval,
+        @DefaultValue("30m") Duration subscriberTimeout,
+        @DefaultValue("64") int subscriberQueueSize,
+        @DefaultValue("4") int senderThreads,
+        @DefaultValue("10s") Duration sendTimeout) {
+
+    public enum Source {
+        /** ShopItemChangedEvents published by ShopItemService. */
+        EVENTS,
+        /** A Mongo change stream on shop_items; needs a replica set. */
+        CHANGE_STREAM
+    }
+}
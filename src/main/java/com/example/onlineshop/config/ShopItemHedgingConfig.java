@@ -0,0 +1,22 @@
+package com.example.onlineshop.config;
+
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.ShopItemReadHedger;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ShopItemHedgingProperties.class)
+public class ShopItemHedgingConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "onlineshop.hedging", name = "enabled", havingValue = "true")
+    public ShopItemReadHedger shopItemReadHedger(ShopItemRepository shopItemRepository,
+                                                 ShopItemHedgingProperties properties,
+                                                 MeterRegistry meterRegistry) {
+        return new ShopItemReadHedger(shopItemRepository, properties, meterRegistry);
+    }
+}
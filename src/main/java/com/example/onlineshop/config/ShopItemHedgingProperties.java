@@ -0,0 +1,26 @@
+package com.example.onlineshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * A read is hedged once it has taken longer than the given percentile of recent
+ * reads, but never earlier than minDelay. maxHedgeRatio caps hedges as a share of
+ * reads. hedgeReadPreference is a Mongo read preference name; secondaryPreferred
+ * sends hedges to a replica, which may answer with slightly older data. Every hedge
+ * in flight holds a second Mongo connection; maxConcurrentHedges bounds them and is
+ * taken out of the connections the bulkheads reserve for point reads.
+ */
+@ConfigurationProperties("onlineshop.hedging")
+public record ShopItemHedgingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("0.95") double percentile,
+        @DefaultValue("1000") int window,
+        @DefaultValue("5ms") Duration minDelay,
+        @DefaultValue("0.05") double maxHedgeRatio,
+        @DefaultValue("secondaryPreferred") String hedgeReadPreference,
+        @DefaultValue("32") int threads,
+        @DefaultValue("8") int maxConcurrentHedges) {
+}
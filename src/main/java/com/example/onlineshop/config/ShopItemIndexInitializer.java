@@ -0,0 +1,36 @@
+package com.example.onlineshop.config;
+
+import com.example.onlineshop.repositories.ShopItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Creates the shop_items indexes once the application is up. Runs off the startup
+ * thread so the application still starts while Mongo is unreachable.
+ */
+@Component
+public class ShopItemIndexInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(ShopItemIndexInitializer.class);
+
+    private final ShopItemRepository shopItemRepository;
+
+    public ShopItemIndexInitializer(ShopItemRepository shopItemRepository) {
+        this.shopItemRepository = shopItemRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public CompletableFuture<Void> createIndexes() {
+        return CompletableFuture.runAsync(shopItemRepository::ensureIndexes)
+                .whenComplete((ignored, e) -> {
+                    if (e != null) {
+                        log.warn("Could not create shop_items indexes", e);
+                    }
+                });
+    }
+}
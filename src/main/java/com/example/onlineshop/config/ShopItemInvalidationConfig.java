@@ -0,0 +1,24 @@
+package com.example.onlineshop.config;
+
+import com.example.onlineshop.cache.ShopItemInvalidationBus;
+import com.example.onlineshop.repositories.ShopItemInvalidationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ShopItemInvalidationProperties.class)
+public class ShopItemInvalidationConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "onlineshop.invalidation", name = "enabled", havingValue = "true")
+    public ShopItemInvalidationBus shopItemInvalidationBus(ShopItemInvalidationRepository repository,
+                                                           ShopItemInvalidationProperties properties,
+                                                           ApplicationEventPublisher eventPublisher,
+                                                           MeterRegistry meterRegistry) {
+        return new ShopItemInvalidationBus(repository, properties, eventPublisher, meterRegistry);
+    }
+}
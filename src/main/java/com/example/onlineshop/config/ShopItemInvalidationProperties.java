@@ -0,0 +1,16 @@
+package com.example.onlineshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties("onlineshop.invalidation")
+public record ShopItemInvalidationProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("10ms") Duration publishInterval,
+        @DefaultValue("1000") int maxIdsPerMessage,
+        @DefaultValue("16MB") DataSize busSize,
+        @DefaultValue("5s") Duration maxLag) {
+}
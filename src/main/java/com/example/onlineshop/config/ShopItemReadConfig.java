@@ -0,0 +1,22 @@
+package com.example.onlineshop.config;
+
+import com.example.onlineshop.cache.ShopItemReadCache;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ShopItemReadProperties.class)
+public class ShopItemReadConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "onlineshop.reads", name = "enabled", havingValue = "true")
+    public ShopItemReadCache shopItemReadCache(ShopItemRepository shopItemRepository,
+                                               ShopItemReadProperties properties,
+                                               MeterRegistry meterRegistry) {
+        return new ShopItemReadCache(shopItemRepository, properties, meterRegistry);
+    }
+}
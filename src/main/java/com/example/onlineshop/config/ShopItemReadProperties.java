@@ -0,0 +1,21 @@
+package com.example.onlineshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("onlineshop.reads")
+public record ShopItemReadProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("1s") Duration freshFor,
+        @DefaultValue("30s") Duration staleFor,
+        @DefaultValue("3s") Duration allItemsDeadline,
+        @DefaultValue("300ms") Duration itemDeadline,
+        @DefaultValue("10000") int maxCachedItems,
+        @DefaultValue("16") int readThreads,
+        @DefaultValue("20") int breakerWindow,
+        @DefaultValue("10") int breakerMinimumCalls,
+        @DefaultValue("0.5") double breakerFailureRate,
+        @DefaultValue("5s") Duration breakerOpenFor) {
+}
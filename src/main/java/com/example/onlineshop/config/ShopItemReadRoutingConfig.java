@@ -0,0 +1,41 @@
+package com.example.onlineshop.config;
+
+import com.example.onlineshop.repositories.ShopItemReadRouting;
+import com.mongodb.ReadPreference;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableConfigurationProperties(ShopItemReadRoutingProperties.class)
+public class ShopItemReadRoutingConfig {
+
+    private static final Duration MIN_MAX_STALENESS = Duration.ofSeconds(90);
+
+    @Bean
+    public ShopItemReadRouting shopItemReadRouting(ShopItemReadRoutingProperties properties) {
+        if (!properties.enabled()) {
+            return ShopItemReadRouting.primaryOnly();
+        }
+        if (properties.maxStaleness().compareTo(MIN_MAX_STALENESS) < 0) {
+            throw new IllegalArgumentException("onlineshop.read-routing.max-staleness must be at least 90s");
+        }
+        return new ShopItemReadRouting(Map.of(
+                ShopItemReadRouting.Operation.LIST, readPreference(properties.list(), properties.maxStaleness()),
+                ShopItemReadRouting.Operation.SEARCH, readPreference(properties.search(), properties.maxStaleness()),
+                ShopItemReadRouting.Operation.ANALYTICS,
+                readPreference(properties.analytics(), properties.maxStaleness())));
+    }
+
+    static ReadPreference readPreference(String name, Duration maxStaleness) {
+        if ("primary".equalsIgnoreCase(name)) {
+            return ReadPreference.primary();
+        }
+        return ReadPreference.valueOf(name, List.of(), maxStaleness.toSeconds(), TimeUnit.SECONDS);
+    }
+}
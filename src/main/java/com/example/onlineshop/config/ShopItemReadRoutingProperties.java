@@ -0,0 +1,19 @@
+package com.example.onlineshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Mongo read preference names per kind of read. maxStaleness applies to every
+ * preference other than primary; Mongo does not accept less than 90 seconds.
+ */
+@ConfigurationProperties("onlineshop.read-routing")
+public record ShopItemReadRoutingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("nearest") String list,
+        @DefaultValue("nearest") String search,
+        @DefaultValue("secondaryPreferred") String analytics,
+        @DefaultValue("90s") Duration maxStaleness) {
+}
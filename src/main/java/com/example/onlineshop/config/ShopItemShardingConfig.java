@@ -0,0 +1,125 @@
+package com.example.onlineshop.config;
+
+import com.example.onlineshop.consistency.CausalConsistencyContext;
+import com.example.onlineshop.repositories.ShardedShopItemRepository;
+import com.example.onlineshop.repositories.ShopItemReadRouting;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.repositories.ShopItemRepositoryCustomImpl;
+import com.example.onlineshop.repositories.ShopItemShard;
+import com.example.onlineshop.repositories.ShopItemShardRingRepository;
+import com.example.onlineshop.sharding.ConsistentHashRing;
+import com.example.onlineshop.sharding.ShardPlacement;
+import com.example.onlineshop.sharding.ShopItemShardRebalancer;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.mongo.StandardMongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(ShopItemShardingProperties.class)
+public class ShopItemShardingConfig {
+
+    /**
+     * Replaces the single-database repository for everything that injects
+     * ShopItemRepository. Each shard gets its own client, set up by the same
+     * customizers as the application's client, and a repository with the same
+     * custom implementation.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "onlineshop.sharding", name = "enabled", havingValue = "true")
+    public ShardedShopItemRepository shardedShopItemRepository(ShopItemShardingProperties properties,
+                                                               ShopItemShardRingRepository ringRepository,
+                                                               MongoConverter mongoConverter,
+                                                               ObjectProvider<MongoClientSettingsBuilderCustomizer> customizers,
+                                                               ObjectProvider<ShopItemReadRouting> readRouting,
+                                                               ObjectProvider<CausalConsistencyContext> causalContext,
+                                                               ShopItemChangeFeedProperties changeFeedProperties) {
+        if (properties.shards() == null || properties.shards().isEmpty()) {
+            throw new IllegalStateException("onlineshop.sharding.shards must name at least one shard");
+        }
+        if (changeFeedProperties.source() == ShopItemChangeFeedProperties.Source.CHANGE_STREAM) {
+            throw new IllegalStateException("onlineshop.change-feed.source=change-stream needs a single database; "
+                    + "use the events source with sharding");
+        }
+        if (causalContext.getIfAvailable() != null) {
+            throw new IllegalStateException("Causal tokens are per replica set and cannot be used with sharding");
+        }
+        ConsistentHashRing ring = new ConsistentHashRing(List.copyOf(properties.shards().keySet()),
+                properties.virtualNodes());
+        ShardPlacement stored = ringRepository.find();
+        ShardPlacement placement = placement(stored, ring);
+
+        List<ShopItemShard> shards = new ArrayList<>(properties.shards().size());
+        for (Map.Entry<String, String> shard : properties.shards().entrySet()) {
+            ConnectionString uri = new ConnectionString(shard.getValue());
+            if (uri.getDatabase() == null) {
+                throw new IllegalArgumentException("The URI of shard " + shard.getKey() + " must name a database");
+            }
+            MongoClientSettings.Builder settings = MongoClientSettings.builder().applyConnectionString(uri);
+            // The standard customizer would point the client back at spring.data.mongodb.uri.
+            customizers.orderedStream()
+                    .filter(customizer -> !(customizer instanceof StandardMongoClientSettingsBuilderCustomizer))
+                    .forEach(customizer -> customizer.customize(settings));
+            MongoClient client = MongoClients.create(settings.build());
+            MongoTemplate template = new MongoTemplate(
+                    new SimpleMongoClientDatabaseFactory(client, uri.getDatabase()), mongoConverter);
+            ShopItemRepository repository = new MongoRepositoryFactory(template).getRepository(
+                    ShopItemRepository.class,
+                    RepositoryFragments.just(new ShopItemRepositoryCustomImpl(template, readRouting, causalContext)));
+            shards.add(new ShopItemShard(shard.getKey(), client, template, repository));
+        }
+        ShardedShopItemRepository repository = new ShardedShopItemRepository(shards, placement,
+                readRouting.getIfAvailable(ShopItemReadRouting::primaryOnly), properties.scatterThreads());
+        if (!placement.equals(stored)) {
+            ringRepository.save(placement);
+        }
+        return repository;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "onlineshop.sharding", name = "enabled", havingValue = "true")
+    public ShopItemShardRebalancer shopItemShardRebalancer(ShardedShopItemRepository repository,
+                                                           ShopItemShardRingRepository ringRepository,
+                                                           ShopItemShardingProperties properties,
+                                                           MeterRegistry meterRegistry) {
+        return new ShopItemShardRebalancer(repository, ringRepository, properties, meterRegistry);
+    }
+
+    /**
+     * The first start saves the configured ring. A ring that differs from the saved
+     * one starts a rebalance from it, which has to finish before the shards change
+     * again.
+     */
+    static ShardPlacement placement(ShardPlacement stored, ConsistentHashRing configured) {
+        if (stored == null) {
+            return ShardPlacement.of(configured);
+        }
+        if (stored.current().equals(configured)) {
+            return stored;
+        }
+        if (stored.rebalancing()) {
+            throw new IllegalStateException("Shop items are still being rebalanced from " + stored.previous()
+                    + " to " + stored.current() + "; that has to finish before the shards change to " + configured);
+        }
+        return new ShardPlacement(configured, stored.current());
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.onlineshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * shards maps each shard name to the Mongo URI of its database; the URI must name
+ * the database. The application's own database keeps everything but shop_items,
+ * including the saved placement. Adding a shard starts a rebalance on the nodes with
+ * rebalance set, once every node runs with the new shards. Only the node holding the
+ * rebalance lease moves items; it renews the lease every batch, and another node
+ * takes over once rebalanceLease passes without a renewal.
+ */
+@ConfigurationProperties("onlineshop.sharding")
+public record ShopItemShardingProperties(
+        @DefaultValue("false") boolean enabled,
+        Map<String, String> shards,
+        @DefaultValue("128") int virtualNodes,
+        @DefaultValue("16") int scatterThreads,
+        @DefaultValue("false") boolean rebalance,
+        @DefaultValue("500") int rebalanceBatchSize,
+        @DefaultValue("2m") Duration rebalanceLease,
+        @DefaultValue("30s") Duration ringRefresh) {
+}
@@ -0,0 +1,20 @@
+package com.example.onlineshop.config;
+
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.ShopItemStatisticsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ShopItemStatisticsProperties.class)
+public class ShopItemStatisticsConfig {
+
+    @Bean
+    public ShopItemStatisticsService shopItemStatisticsService(ShopItemRepository shopItemRepository,
+                                                               ShopItemStatisticsProperties properties,
+                                                               MeterRegistry meterRegistry) {
+        return new ShopItemStatisticsService(shopItemRepository, properties, meterRegistry);
+    }
+}
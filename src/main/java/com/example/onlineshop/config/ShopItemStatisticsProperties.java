@@ -0,0 +1,21 @@
+package com.example.onlineshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * maxAge bounds how long cached statistics are served when no change event arrives,
+ * which covers writes made by other nodes. minRecomputeInterval is how long they are
+ * still served after a change event, so a steady stream of writes costs at most one
+ * aggregation per interval.
+ */
+@ConfigurationProperties("onlineshop.statistics")
+public record ShopItemStatisticsProperties(
+        @DefaultValue({"0", "10", "25", "50", "100", "250", "500", "1000"}) List<Double> priceBoundaries,
+        @DefaultValue("5") int lowStockThreshold,
+        @DefaultValue("1m") Duration maxAge,
+        @DefaultValue("5s") Duration minRecomputeInterval) {
+}
@@ -0,0 +1,42 @@
+package com.example.onlineshop.config;
+
+import com.example.onlineshop.ticker.StockTicker;
+import com.example.onlineshop.ticker.StompStockFrameSender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+
+/**
+ * STOMP over WebSocket at /ws with the in-memory broker. Clients subscribe to
+ * /user/queue/stock and send the ids to watch to /app/stock/watch.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+@EnableConfigurationProperties(StockTickerProperties.class)
+public class StockTickerConfig implements WebSocketMessageBrokerConfigurer {
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/ws");
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.setApplicationDestinationPrefixes("/app");
+        registry.enableSimpleBroker("/queue");
+    }
+
+    @Bean
+    public StockTicker stockTicker(SimpMessageSendingOperations messagingTemplate, ObjectMapper objectMapper,
+                                   StockTickerProperties properties, MeterRegistry meterRegistry) {
+        return new StockTicker(new StompStockFrameSender(messagingTemplate), objectMapper, properties,
+                meterRegistry);
+    }
+}
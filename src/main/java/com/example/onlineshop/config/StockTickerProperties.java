@@ -0,0 +1,12 @@
+package com.example.onlineshop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("onlineshop.ticker")
+public record StockTickerProperties(
+        @DefaultValue("1s") Duration interval,
+        @DefaultValue("50") int maxItemsPerSession) {
+}
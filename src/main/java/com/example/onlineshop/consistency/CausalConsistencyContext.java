@@ -0,0 +1,108 @@
+package com.example.onlineshop.consistency;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Per-request causal state, bound to the request thread by
+ * {@link CausalConsistencyFilter}: the token reads have to wait for, and the response
+ * that receives the token of every write the request makes. The sync Mongo driver
+ * reports command replies on the calling thread, which is what lets
+ * {@link CausalTokenCommandListener} find the request here.
+ */
+public class CausalConsistencyContext {
+
+    private final String cookieName;
+    private final String headerName;
+    private final Duration tokenTtl;
+    private final ThreadLocal<Binding> binding = new ThreadLocal<>();
+
+    public CausalConsistencyContext(String cookieName, String headerName, Duration tokenTtl) {
+        this.cookieName = cookieName;
+        this.headerName = headerName;
+        this.tokenTtl = tokenTtl;
+    }
+
+    public void bind(CausalToken readAfter, HttpServletResponse response) {
+        binding.set(new Binding(readAfter, response));
+    }
+
+    public void unbind() {
+        binding.remove();
+    }
+
+    /**
+     * The token reads on this thread have to wait for, if any. A write earlier in the
+     * same request moves it forward.
+     */
+    public CausalToken readAfter() {
+        Binding current = binding.get();
+        return current == null ? null : current.readAfter;
+    }
+
+    /**
+     * Wraps a read that will run on a pool thread so it waits for the token of the
+     * calling thread. The read gets no response: a pooled read may outlive the request.
+     */
+    public <T> Callable<T> propagate(Callable<T> read) {
+        CausalToken readAfter = readAfter();
+        if (readAfter == null) {
+            return read;
+        }
+        return () -> {
+            Binding previous = binding.get();
+            binding.set(new Binding(readAfter, null));
+            try {
+                return read.call();
+            } finally {
+                if (previous == null) {
+                    binding.remove();
+                } else {
+                    binding.set(previous);
+                }
+            }
+        };
+    }
+
+    public String cookieName() {
+        return cookieName;
+    }
+
+    public String headerName() {
+        return headerName;
+    }
+
+    void onWrite(CausalToken token) {
+        Binding current = binding.get();
+        if (current == null || !token.isAfter(current.readAfter)) {
+            return;
+        }
+        current.readAfter = token;
+        HttpServletResponse response = current.response;
+        if (response == null || response.isCommitted()) {
+            return;
+        }
+        String encoded = token.encode();
+        response.setHeader(headerName, encoded);
+        Cookie cookie = new Cookie(cookieName, encoded);
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) tokenTtl.toSeconds());
+        cookie.setAttribute("SameSite", "Lax");
+        response.addCookie(cookie);
+    }
+
+    private static final class Binding {
+
+        private CausalToken readAfter;
+        private final HttpServletResponse response;
+
+        private Binding(CausalToken readAfter, HttpServletResponse response) {
+            this.readAfter = readAfter;
+            this.response = response;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.onlineshop.consistency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Picks up the causal token a client sends back, from the header or else the cookie,
+ * and binds it with the response for the duration of the request.
+ */
+public class CausalConsistencyFilter extends OncePerRequestFilter {
+
+    private final CausalConsistencyContext context;
+
+    public CausalConsistencyFilter(CausalConsistencyContext context) {
+        this.context = context;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        context.bind(CausalToken.decode(tokenOf(request)), response);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            context.unbind();
+        }
+    }
+
+    private String tokenOf(HttpServletRequest request) {
+        String header = request.getHeader(context.headerName());
+        if (header != null) {
+            return header;
+        }
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (context.cookieName().equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.onlineshop.consistency;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.bson.BsonValue;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Operation time of a write, and the cluster time gossiped with it, that later reads
+ * have to wait for. Travels as URL-safe Base64 of a small BSON document so that it
+ * fits in a cookie or header.
+ */
+public record CausalToken(BsonTimestamp operationTime, BsonDocument clusterTime) {
+
+    private static final String OPERATION_TIME = "o";
+    private static final String CLUSTER_TIME = "c";
+    private static final BsonDocumentCodec CODEC = new BsonDocumentCodec();
+    private static final int MAX_ENCODED_LENGTH = 1024;
+
+    public boolean isAfter(CausalToken other) {
+        return other == null || operationTime.compareTo(other.operationTime) > 0;
+    }
+
+    public String encode() {
+        BsonDocument document = new BsonDocument(OPERATION_TIME, operationTime);
+        if (clusterTime != null) {
+            document.put(CLUSTER_TIME, clusterTime);
+        }
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        CODEC.encode(new BsonBinaryWriter(buffer), document, EncoderContext.builder().build());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                Arrays.copyOf(buffer.getInternalBuffer(), buffer.getPosition()));
+    }
+
+    /**
+     * Returns null for anything that is not a token this class encoded.
+     */
+    public static CausalToken decode(String encoded) {
+        if (encoded == null || encoded.isEmpty() || encoded.length() > MAX_ENCODED_LENGTH) {
+            return null;
+        }
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(encoded);
+            BsonDocument document = CODEC.decode(new BsonBinaryReader(ByteBuffer.wrap(bytes)),
+                    DecoderContext.builder().build());
+            BsonValue operationTime = document.get(OPERATION_TIME);
+            BsonValue clusterTime = document.get(CLUSTER_TIME);
+            if (operationTime == null || !operationTime.isTimestamp()
+                    || (clusterTime != null && !clusterTime.isDocument())) {
+                return null;
+            }
+            return new CausalToken(operationTime.asTimestamp(), clusterTime == null ? null : clusterTime.asDocument());
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.onlineshop.consistency;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.Set;
+
+/**
+ * Turns the operation time in the reply to every write into a {@link CausalToken}
+ * for the request that made it. Replies without an operation time, as from a
+ * standalone server, are skipped.
+ */
+public class CausalTokenCommandListener implements CommandListener {
+
+    private static final Set<String> WRITE_COMMANDS = Set.of("insert", "update", "delete", "findAndModify");
+
+    private final CausalConsistencyContext context;
+
+    public CausalTokenCommandListener(CausalConsistencyContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        if (!WRITE_COMMANDS.contains(event.getCommandName())) {
+            return;
+        }
+        BsonDocument reply = event.getResponse();
+        BsonValue operationTime = reply.get("operationTime");
+        if (operationTime == null || !operationTime.isTimestamp()) {
+            return;
+        }
+        BsonValue clusterTime = reply.get("$clusterTime");
+        context.onWrite(new CausalToken(operationTime.asTimestamp(),
+                clusterTime != null && clusterTime.isDocument() ? clusterTime.asDocument() : null));
+    }
+}
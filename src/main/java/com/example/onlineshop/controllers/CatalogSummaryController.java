@@ -0,0 +1,23 @@
+package com.example.onlineshop.controllers;
+
+import com.example.onlineshop.model.CatalogSummary;
+import com.example.onlineshop.services.CatalogSummaryService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/shopitems")
+public class CatalogSummaryController {
+
+    private final CatalogSummaryService catalogSummaryService;
+
+    public CatalogSummaryController(CatalogSummaryService catalogSummaryService) {
+        this.catalogSummaryService = catalogSummaryService;
+    }
+
+    @GetMapping("/summary")
+    public CatalogSummary getSummary() {
+        return catalogSummaryService.getSummary();
+    }
+}
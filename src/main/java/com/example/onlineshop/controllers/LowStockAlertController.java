@@ -0,0 +1,59 @@
+package com.example.onlineshop.controllers;
+
+import com.example.onlineshop.alerts.LowStockAlertEngine;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/shopitems/alerts/low-stock")
+@ConditionalOnProperty(prefix = "onlineshop.alerts.low-stock", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class LowStockAlertController {
+
+    private final LowStockAlertEngine lowStockAlertEngine;
+
+    public LowStockAlertController(LowStockAlertEngine lowStockAlertEngine) {
+        this.lowStockAlertEngine = lowStockAlertEngine;
+    }
+
+    @GetMapping("/thresholds")
+    public Map<String, Object> getThresholds() {
+        return Map.of("global", lowStockAlertEngine.getGlobalThreshold(),
+                "items", lowStockAlertEngine.getThresholds());
+    }
+
+    @PutMapping("/thresholds/global")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void setGlobalThreshold(@RequestParam int threshold) {
+        lowStockAlertEngine.setGlobalThreshold(requireNonNegative(threshold));
+    }
+
+    @PutMapping("/thresholds/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void setThreshold(@PathVariable String id, @RequestParam int threshold) {
+        lowStockAlertEngine.setThreshold(id, requireNonNegative(threshold));
+    }
+
+    @DeleteMapping("/thresholds/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void removeThreshold(@PathVariable String id) {
+        lowStockAlertEngine.removeThreshold(id);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ProblemDetail handleBadRequest(IllegalArgumentException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    private static int requireNonNegative(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative");
+        }
+        return threshold;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.onlineshop.controllers;
+
+import com.example.onlineshop.analytics.ColumnarAggregate;
+import com.example.onlineshop.analytics.ColumnarFilter;
+import com.example.onlineshop.model.ShopItemSummary;
+import com.example.onlineshop.services.ShopItemAnalyticsService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/shopitems/analytics")
+public class ShopItemAnalyticsController {
+
+    private final ShopItemAnalyticsService shopItemAnalyticsService;
+
+    public ShopItemAnalyticsController(ShopItemAnalyticsService shopItemAnalyticsService) {
+        this.shopItemAnalyticsService = shopItemAnalyticsService;
+    }
+
+    @GetMapping("/aggregate")
+    public ColumnarAggregate aggregate(@RequestParam(required = false) Double minPrice,
+                                       @RequestParam(required = false) Double maxPrice,
+                                       @RequestParam(required = false) Integer minQuantity,
+                                       @RequestParam(required = false) Integer maxQuantity,
+                                       @RequestParam(required = false) String name) {
+        return shopItemAnalyticsService.aggregate(
+                ColumnarFilter.of(minPrice, maxPrice, minQuantity, maxQuantity, name));
+    }
+
+    @GetMapping("/top-value")
+    public List<ShopItemSummary> topByValue(@RequestParam(required = false) Double minPrice,
+                                            @RequestParam(required = false) Double maxPrice,
+                                            @RequestParam(required = false) Integer minQuantity,
+                                            @RequestParam(required = false) Integer maxQuantity,
+                                            @RequestParam(required = false) String name,
+                                            @RequestParam(defaultValue = "10") int limit) {
+        return shopItemAnalyticsService.topByValue(
+                ColumnarFilter.of(minPrice, maxPrice, minQuantity, maxQuantity, name), limit);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ProblemDetail handleBadRequest(IllegalArgumentException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.onlineshop.controllers;
+
+import com.example.onlineshop.model.ShopItemSuggestion;
+import com.example.onlineshop.services.ShopItemAutocompleteService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/shopitems")
+public class ShopItemAutocompleteController {
+
+    private final ShopItemAutocompleteService shopItemAutocompleteService;
+
+    public ShopItemAutocompleteController(ShopItemAutocompleteService shopItemAutocompleteService) {
+        this.shopItemAutocompleteService = shopItemAutocompleteService;
+    }
+
+    @GetMapping("/autocomplete")
+    public List<ShopItemSuggestion> autocomplete(@RequestParam String prefix,
+                                                 @RequestParam(defaultValue = "10") int limit) {
+        return shopItemAutocompleteService.suggest(prefix, limit);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.onlineshop.controllers;
+
+import com.example.onlineshop.model.ShopItemBrowsePage;
+import com.example.onlineshop.services.ShopItemBrowseService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/shopitems")
+public class ShopItemBrowseController {
+
+    private final ShopItemBrowseService shopItemBrowseService;
+
+    public ShopItemBrowseController(ShopItemBrowseService shopItemBrowseService) {
+        this.shopItemBrowseService = shopItemBrowseService;
+    }
+
+    @GetMapping("/browse")
+    public ShopItemBrowsePage browse(@RequestParam(required = false) Double minPrice,
+                                     @RequestParam(required = false) Double maxPrice,
+                                     @RequestParam(required = false) String sort,
+                                     @RequestParam(defaultValue = "0") int page,
+                                     @RequestParam(defaultValue = "50") int size) {
+        return shopItemBrowseService.browse(minPrice, maxPrice, sort, page, size);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ProblemDetail handleBadRequest(IllegalArgumentException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.onlineshop.controllers;
+
+import com.example.onlineshop.feed.ShopItemChange;
+import com.example.onlineshop.feed.ShopItemChangeFeed;
+import com.example.onlineshop.feed.ShopItemChangeSubscriber;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Server-sent events stream of catalog changes. Each "changes" event carries a JSON
+ * array of coalesced changes; a "reset" event tells the client to reload the catalog
+ * because the changes since its last event id are no longer retained. Browsers send
+ * Last-Event-ID on reconnect; other clients may pass lastEventId instead.
+ */
+@RestController
+@RequestMapping("/api/shopitems")
+public class ShopItemChangeFeedController {
+
+    private final ShopItemChangeFeed shopItemChangeFeed;
+
+    public ShopItemChangeFeedController(ShopItemChangeFeed shopItemChangeFeed) {
+        this.shopItemChangeFeed = shopItemChangeFeed;
+    }
+
+    @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventIdHeader,
+                                    @RequestParam(required = false) String lastEventId) {
+        SseEmitter emitter = new SseEmitter(shopItemChangeFeed.getSubscriberTimeout().toMillis());
+        SseSubscriber subscriber = new SseSubscriber(emitter);
+        emitter.onCompletion(() -> shopItemChangeFeed.unsubscribe(subscriber));
+        emitter.onTimeout(() -> shopItemChangeFeed.unsubscribe(subscriber));
+        emitter.onError(e -> shopItemChangeFeed.unsubscribe(subscriber));
+        shopItemChangeFeed.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventId, subscriber);
+        return emitter;
+    }
+
+    private record SseSubscriber(SseEmitter emitter) implements ShopItemChangeSubscriber {
+
+        @Override
+        public void changes(String eventId, List<ShopItemChange> changes) throws IOException {
+            emitter.send(SseEmitter.event().id(eventId).name("changes").data(changes, MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void reset(String eventId) throws IOException {
+            emitter.send(SseEmitter.event().id(eventId).name("reset").data(eventId));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+
+        @Override
+        public void complete() {
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.onlineshop.controllers;
+
+import com.example.onlineshop.model.ShopItemFuzzyHit;
+import com.example.onlineshop.services.ShopItemFuzzySearchService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/shopitems")
+public class ShopItemFuzzySearchController {
+
+    private final ShopItemFuzzySearchService shopItemFuzzySearchService;
+
+    public ShopItemFuzzySearchController(ShopItemFuzzySearchService shopItemFuzzySearchService) {
+        this.shopItemFuzzySearchService = shopItemFuzzySearchService;
+    }
+
+    @GetMapping("/fuzzy")
+    public List<ShopItemFuzzyHit> fuzzySearch(@RequestParam("q") String query,
+                                              @RequestParam(defaultValue = "10") int limit) {
+        return shopItemFuzzySearchService.search(query, limit);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.onlineshop.controllers;
+
+import com.example.onlineshop.model.LeaderboardEntry;
+import com.example.onlineshop.services.ShopItemLeaderboardService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/shopitems/leaderboards")
+public class ShopItemLeaderboardController {
+
+    private final ShopItemLeaderboardService shopItemLeaderboardService;
+
+    public ShopItemLeaderboardController(ShopItemLeaderboardService shopItemLeaderboardService) {
+        this.shopItemLeaderboardService = shopItemLeaderboardService;
+    }
+
+    @GetMapping("/lowest-stock")
+    public List<LeaderboardEntry> lowestStock(@RequestParam(defaultValue = "20") int limit) {
+        return shopItemLeaderboardService.lowestStock(limit);
+    }
+
+    @GetMapping("/highest-value")
+    public List<LeaderboardEntry> highestValue(@RequestParam(defaultValue = "20") int limit) {
+        return shopItemLeaderboardService.highestValue(limit);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ProblemDetail handleBadRequest(IllegalArgumentException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+}
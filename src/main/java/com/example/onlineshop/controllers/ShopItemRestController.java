@@ -1,9 +1,17 @@
 package com.example.onlineshop.controllers;
 
 import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.services.InsertQueueFullException;
 import com.example.onlineshop.services.ShopItemService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -21,6 +29,12 @@ public class ShopItemRestController {
         return shopItemService.getAllItems();
     }
 
+    @GetMapping("/raw")
+    public void allShopItemsRaw(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        shopItemService.writeAllItemsAsJson(response.getOutputStream());
+    }
+
     @GetMapping("/{id}")
     public ShopItem oneShopItem(@PathVariable String id) {
         return shopItemService.getItemById(id);
@@ -36,8 +50,36 @@ public class ShopItemRestController {
         return shopItemService.updateShopItemById(id, item);
     }
 
+    /**
+     * Adds delta to the item's quantity with an atomic increment, so concurrent
+     * adjustments neither conflict nor get lost. Answers 202 without a body when the
+     * increment is queued for write-behind.
+     */
+    @PostMapping("/adjust-quantity/{id}")
+    public ResponseEntity<ShopItem> adjustQuantity(@PathVariable String id, @RequestParam int delta) {
+        ShopItem updated = shopItemService.adjustQuantity(id, delta);
+        if (updated != null) {
+            return ResponseEntity.ok(updated);
+        }
+        return shopItemService.isQuantityWriteBehind()
+                ? ResponseEntity.accepted().build()
+                : ResponseEntity.notFound().build();
+    }
+
     @DeleteMapping("/delete/{id}")
     public void deleteShopItem(@PathVariable String id) {
         shopItemService.deleteShopItem(id);
     }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ProblemDetail handleConflict(OptimisticLockingFailureException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage());
+    }
+
+    @ExceptionHandler(InsertQueueFullException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ProblemDetail handleInsertQueueFull(InsertQueueFullException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+    }
 }
@@ -0,0 +1,31 @@
+package com.example.onlineshop.controllers;
+
+import com.example.onlineshop.model.ShopItemSearchPage;
+import com.example.onlineshop.services.ShopItemSearchService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/shopitems")
+public class ShopItemSearchController {
+
+    private final ShopItemSearchService shopItemSearchService;
+
+    public ShopItemSearchController(ShopItemSearchService shopItemSearchService) {
+        this.shopItemSearchService = shopItemSearchService;
+    }
+
+    @GetMapping("/search")
+    public ShopItemSearchPage search(@RequestParam("q") String query,
+                                     @RequestParam(defaultValue = "0") int page,
+                                     @RequestParam(defaultValue = "20") int size) {
+        return shopItemSearchService.search(query, page, size);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ProblemDetail handleBadRequest(IllegalArgumentException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.onlineshop.controllers;
+
+import com.example.onlineshop.model.ShopItemStatistics;
+import com.example.onlineshop.services.ShopItemStatisticsService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/shopitems")
+public class ShopItemStatisticsController {
+
+    private final ShopItemStatisticsService shopItemStatisticsService;
+
+    public ShopItemStatisticsController(ShopItemStatisticsService shopItemStatisticsService) {
+        this.shopItemStatisticsService = shopItemStatisticsService;
+    }
+
+    @GetMapping("/statistics")
+    public ShopItemStatistics getStatistics() {
+        return shopItemStatisticsService.getStatistics();
+    }
+}
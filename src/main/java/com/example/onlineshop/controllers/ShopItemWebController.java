@@ -1,9 +1,14 @@
 package com.example.onlineshop.controllers;
 
 import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.services.InsertQueueFullException;
 import com.example.onlineshop.services.ShopItemService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.web.bind.ServletRequestDataBinder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -14,6 +19,10 @@ public class ShopItemWebController {
     private static final String MESSAGE_ATTRIBUTE = "message";
     private static final String ITEM_ATTRIBUTE = "shopitem";
     private static final String ITEMS_ATTRIBUTE = "shopitems";
+    private static final String CONFLICT_MESSAGE =
+            "This item was changed by someone else. Your changes were not saved; the latest version is shown below.";
+    private static final String INSERT_QUEUE_FULL_MESSAGE =
+            "Too many items are being created right now. Your item was not saved; please submit it again shortly.";
 
     private final ShopItemService shopItemService;
 
@@ -71,4 +80,23 @@ public class ShopItemWebController {
         shopItemService.deleteShopItem(id);
         return "redirect:/";
     }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public String handleConflict(HttpServletRequest request, Model model) {
+        String id = request.getParameter("id");
+        model.addAttribute(ITEM_ATTRIBUTE, id == null ? null : shopItemService.getItemById(id));
+        model.addAttribute(MESSAGE_ATTRIBUTE, CONFLICT_MESSAGE);
+        return "edit";
+    }
+
+    @ExceptionHandler(InsertQueueFullException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public String handleInsertQueueFull(HttpServletRequest request, Model model) {
+        ShopItem submitted = new ShopItem();
+        new ServletRequestDataBinder(submitted, ITEM_ATTRIBUTE).bind(request);
+        model.addAttribute(ITEM_ATTRIBUTE, submitted);
+        model.addAttribute(MESSAGE_ATTRIBUTE, INSERT_QUEUE_FULL_MESSAGE);
+        return "new";
+    }
 }
@@ -0,0 +1,60 @@
+package com.example.onlineshop.controllers;
+
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.services.ShopItemService;
+import com.example.onlineshop.ticker.StockTick;
+import com.example.onlineshop.ticker.StockTicker;
+import com.example.onlineshop.ticker.StompStockFrameSender;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Controller
+public class StockTickerController {
+
+    private final StockTicker stockTicker;
+    private final ShopItemService shopItemService;
+
+    public StockTickerController(StockTicker stockTicker, ShopItemService shopItemService) {
+        this.stockTicker = stockTicker;
+        this.shopItemService = shopItemService;
+    }
+
+    /**
+     * Starts watching the given ids and replies with their current ticks, so the page
+     * does not miss changes made between rendering and subscribing.
+     */
+    @MessageMapping("/stock/watch")
+    @SendToUser(destinations = StompStockFrameSender.DESTINATION, broadcast = false)
+    public List<StockTick> watch(@Payload List<String> ids,
+                                 @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        stockTicker.watch(sessionId, ids);
+        List<StockTick> ticks = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            ShopItem item = shopItemService.getItemById(id);
+            if (item != null) {
+                ticks.add(StockTicker.tickOf(item));
+            }
+        }
+        return ticks;
+    }
+
+    @MessageMapping("/stock/unwatch")
+    public void unwatch(@Payload List<String> ids,
+                        @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        stockTicker.unwatch(sessionId, ids);
+    }
+
+    @MessageExceptionHandler(IllegalArgumentException.class)
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public String handleBadRequest(IllegalArgumentException e) {
+        return e.getMessage();
+    }
+}
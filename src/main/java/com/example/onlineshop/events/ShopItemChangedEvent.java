@@ -0,0 +1,29 @@
+package com.example.onlineshop.events;
+
+import com.example.onlineshop.model.ShopItem;
+
+/**
+ * Published by ShopItemService after a write reached Mongo, and by
+ * QuantityWriteBehindBuffer for each quantity delta it flushes. previous is the stored
+ * state before the write when it is known, current the state after it.
+ */
+public record ShopItemChangedEvent(Type type, String id, ShopItem previous, ShopItem current) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static ShopItemChangedEvent created(ShopItem item) {
+        return new ShopItemChangedEvent(Type.CREATED, item.getId(), null, item);
+    }
+
+    public static ShopItemChangedEvent updated(ShopItem previous, ShopItem current) {
+        return previous == null
+                ? created(current)
+                : new ShopItemChangedEvent(Type.UPDATED, current.getId(), previous, current);
+    }
+
+    public static ShopItemChangedEvent deleted(String id, ShopItem previous) {
+        return new ShopItemChangedEvent(Type.DELETED, id, previous, null);
+    }
+}
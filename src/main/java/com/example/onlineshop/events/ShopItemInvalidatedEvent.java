@@ -0,0 +1,18 @@
+package com.example.onlineshop.events;
+
+import java.util.Set;
+
+/**
+ * Published when another node wrote the given items, so local copies are stale. all
+ * means the bus lost track and everything cached has to be reloaded; ids is then empty.
+ */
+public record ShopItemInvalidatedEvent(Set<String> ids, boolean all) {
+
+    public static ShopItemInvalidatedEvent of(Set<String> ids) {
+        return new ShopItemInvalidatedEvent(Set.copyOf(ids), false);
+    }
+
+    public static ShopItemInvalidatedEvent everything() {
+        return new ShopItemInvalidatedEvent(Set.of(), true);
+    }
+}
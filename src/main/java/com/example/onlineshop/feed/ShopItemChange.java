@@ -0,0 +1,11 @@
+package com.example.onlineshop.feed;
+
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.model.ShopItem;
+
+/**
+ * One entry of the change feed: the net effect of all writes to an item within a
+ * batch window. item is the state after the last write and null for deletions.
+ */
+public record ShopItemChange(long sequence, ShopItemChangedEvent.Type type, String id, ShopItem item) {
+}
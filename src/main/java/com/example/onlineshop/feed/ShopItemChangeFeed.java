@@ -0,0 +1,408 @@
+package com.example.onlineshop.feed;
+
+import com.example.onlineshop.config.ShopItemChangeFeedProperties;
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.model.ShopItem;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Streams item changes to subscribers in micro-batches. Changes recorded within one
+ * batch window are coalesced per id, so a burst of writes to an item costs one entry,
+ * and are then numbered and pushed to every subscriber. The last historySize entries
+ * are retained so a reconnecting subscriber can resume after the event id it last
+ * saw. Event ids carry the feed's start time; ids from an earlier process, or older
+ * than the retained history, get a reset instead of a replay.
+ * <p>
+ * The feed thread only queues batches. Each subscriber has its own outbound queue,
+ * drained by one of senderThreads shared sender threads, so a slow client never holds
+ * up the feed, and the other subscribers only lose the one sender it occupies. A
+ * subscriber whose queue reaches subscriberQueueSize, or whose write has not returned
+ * within sendTimeout, is completed and dropped; it can reconnect and resume from its
+ * last event id. A timed out write is interrupted, and its sender freed once the
+ * container gives up on the connection.
+ */
+public class ShopItemChangeFeed implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ShopItemChangeFeed.class);
+
+    private final ShopItemChangeFeedProperties properties;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<String, Pending> pending = new LinkedHashMap<>();
+    private final Deque<ShopItemChange> history = new ArrayDeque<>();
+    private final List<Subscription> subscribers = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService senders;
+    private final Counter published;
+    private final Counter coalesced;
+    private final Counter resets;
+    private final Counter overflows;
+    private final Counter sendTimeouts;
+    private long sequence;
+
+    public ShopItemChangeFeed(ShopItemChangeFeedProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.published = meterRegistry.counter("shopitems.feed.changes");
+        this.coalesced = meterRegistry.counter("shopitems.feed.coalesced");
+        this.resets = meterRegistry.counter("shopitems.feed.resets");
+        this.overflows = meterRegistry.counter("shopitems.feed.overflows");
+        this.sendTimeouts = meterRegistry.counter("shopitems.feed.send.timeouts");
+        Gauge.builder("shopitems.feed.subscribers", subscribers, Collection::size).register(meterRegistry);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shop-item-change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Each subscriber has at most one drain queued or running, which bounds the queue.
+        AtomicInteger count = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(properties.senderThreads(), properties.senderThreads(), 0,
+                TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "shop-item-change-feed-sender-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long windowNanos = properties.batchWindow().toNanos();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, windowNanos, windowNanos, TimeUnit.NANOSECONDS);
+        long heartbeatNanos = properties.heartbeatInterval().toNanos();
+        scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatNanos, heartbeatNanos, TimeUnit.NANOSECONDS);
+        long checkNanos = Math.max(1, properties.sendTimeout().toNanos() / 2);
+        scheduler.scheduleWithFixedDelay(this::dropStalledSubscribers, checkNanos, checkNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @EventListener
+    public void onShopItemChanged(ShopItemChangedEvent event) {
+        if (properties.source() == ShopItemChangeFeedProperties.Source.EVENTS) {
+            record(event.type(), event.id(), event.current());
+        }
+    }
+
+    public void record(ShopItemChangedEvent.Type type, String id, ShopItem item) {
+        synchronized (pending) {
+            Pending existing = pending.get(id);
+            if (existing == null) {
+                pending.put(id, new Pending(type, item));
+                return;
+            }
+            coalesced.increment();
+            if (existing.type() != ShopItemChangedEvent.Type.CREATED) {
+                pending.put(id, new Pending(type, item));
+            } else if (type == ShopItemChangedEvent.Type.DELETED) {
+                // Created and deleted within one window: subscribers never knew the item.
+                pending.remove(id);
+            } else {
+                pending.put(id, new Pending(ShopItemChangedEvent.Type.CREATED, item));
+            }
+        }
+    }
+
+    /**
+     * Registers the subscriber. With a lastEventId it first receives the retained
+     * changes after that id, or a reset when they are no longer available.
+     */
+    public void subscribe(String lastEventId, ShopItemChangeSubscriber subscriber) {
+        Subscription subscription = new Subscription(subscriber);
+        synchronized (history) {
+            if (lastEventId != null) {
+                long after = resumePoint(lastEventId);
+                if (after < 0) {
+                    resets.increment();
+                    String resetId = eventId(sequence);
+                    subscription.replay(target -> target.reset(resetId));
+                } else {
+                    List<ShopItemChange> missed = new ArrayList<>();
+                    for (ShopItemChange change : history) {
+                        if (change.sequence() > after) {
+                            missed.add(change);
+                        }
+                    }
+                    forEachChunk(missed, (eventId, chunk) -> subscription.replay(target -> target.changes(eventId,
+                            chunk)));
+                }
+            }
+            subscribers.add(subscription);
+        }
+    }
+
+    public void unsubscribe(ShopItemChangeSubscriber subscriber) {
+        for (Subscription subscription : subscribers) {
+            if (subscription.subscriber == subscriber) {
+                subscribers.remove(subscription);
+                subscription.cancel();
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    public Duration getSubscriberTimeout() {
+        return properties.subscriberTimeout();
+    }
+
+    /**
+     * Numbers the coalesced changes of the current window and pushes them to every
+     * subscriber.
+     */
+    public void flush() {
+        List<Map.Entry<String, Pending>> drained;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            drained = new ArrayList<>(pending.entrySet());
+            pending.clear();
+        }
+        synchronized (history) {
+            List<ShopItemChange> batch = new ArrayList<>(drained.size());
+            for (Map.Entry<String, Pending> entry : drained) {
+                ShopItemChange change = new ShopItemChange(++sequence, entry.getValue().type(), entry.getKey(),
+                        entry.getValue().item());
+                batch.add(change);
+                history.addLast(change);
+                if (history.size() > properties.historySize()) {
+                    history.removeFirst();
+                }
+            }
+            published.increment(batch.size());
+            forEachChunk(batch, (eventId, chunk) -> {
+                for (Subscription subscription : subscribers) {
+                    subscription.offer(target -> target.changes(eventId, chunk));
+                }
+            });
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        flushQuietly();
+        for (Subscription subscription : subscribers) {
+            subscription.complete();
+        }
+        subscribers.clear();
+        senders.shutdown();
+        try {
+            senders.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    /**
+     * The sequence to resume after, or -1 when lastEventId cannot be resumed from the
+     * retained history.
+     */
+    private long resumePoint(String lastEventId) {
+        int dash = lastEventId.indexOf('-');
+        if (dash < 0 || !epoch.equals(lastEventId.substring(0, dash))) {
+            return -1;
+        }
+        long after;
+        try {
+            after = Long.parseLong(lastEventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        long oldestResumable = history.isEmpty() ? sequence : history.peekFirst().sequence() - 1;
+        return after >= oldestResumable && after <= sequence ? after : -1;
+    }
+
+    private void forEachChunk(List<ShopItemChange> changes, BiConsumer<String, List<ShopItemChange>> action) {
+        for (int from = 0; from < changes.size(); from += properties.maxBatchSize()) {
+            List<ShopItemChange> chunk = List.copyOf(changes.subList(from,
+                    Math.min(from + properties.maxBatchSize(), changes.size())));
+            action.accept(eventId(chunk.get(chunk.size() - 1).sequence()), chunk);
+        }
+    }
+
+    private void heartbeat() {
+        for (Subscription subscription : subscribers) {
+            subscription.heartbeat();
+        }
+    }
+
+    private void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Subscription subscription : subscribers) {
+            if (subscription.abortIfSendingSince(now - properties.sendTimeout().toNanos())) {
+                sendTimeouts.increment();
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Could not publish shop item changes", e);
+        }
+    }
+
+    private record Pending(ShopItemChangedEvent.Type type, ShopItem item) {
+    }
+
+    @FunctionalInterface
+    private interface Delivery {
+        void deliver(ShopItemChangeSubscriber subscriber) throws IOException;
+    }
+
+    /**
+     * A subscriber with its outbound queue. At most one sender drains the queue at a
+     * time, which keeps the subscriber's events in order.
+     */
+    private final class Subscription {
+
+        private final ShopItemChangeSubscriber subscriber;
+        private final Queue<Delivery> outbound = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        /** The thread running the current delivery and when it started, guarded by this. */
+        private Thread sender;
+        private long sendingSince;
+
+        private Subscription(ShopItemChangeSubscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        /**
+         * Queues the retained changes a resuming subscriber missed; they are not
+         * counted against the queue size.
+         */
+        private void replay(Delivery delivery) {
+            outbound.add(delivery);
+            drainLater();
+        }
+
+        private void offer(Delivery delivery) {
+            if (closed) {
+                return;
+            }
+            if (queued.incrementAndGet() > properties.subscriberQueueSize()) {
+                overflows.increment();
+                drop(null);
+                return;
+            }
+            outbound.add(target -> {
+                queued.decrementAndGet();
+                delivery.deliver(target);
+            });
+            drainLater();
+        }
+
+        private void heartbeat() {
+            // A subscriber with events queued gets data soon enough.
+            if (outbound.isEmpty()) {
+                offer(ShopItemChangeSubscriber::heartbeat);
+            }
+        }
+
+        private void complete() {
+            closed = true;
+            outbound.add(ShopItemChangeSubscriber::complete);
+            drainLater();
+        }
+
+        private void cancel() {
+            closed = true;
+            outbound.clear();
+        }
+
+        private void drop(Exception cause) {
+            subscribers.remove(this);
+            outbound.clear();
+            complete();
+            log.debug("Dropped change feed subscriber", cause);
+        }
+
+        /**
+         * Drops the subscriber when its current delivery started before the given
+         * time, and interrupts the delivery.
+         */
+        private boolean abortIfSendingSince(long startedBefore) {
+            synchronized (this) {
+                if (sender == null || sendingSince - startedBefore > 0) {
+                    return false;
+                }
+                sender.interrupt();
+                sender = null;
+            }
+            drop(new IOException("Send to change feed subscriber timed out after "
+                    + properties.sendTimeout().toMillis() + " ms"));
+            return true;
+        }
+
+        private void drainLater() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Delivery delivery;
+                while ((delivery = outbound.poll()) != null) {
+                    synchronized (this) {
+                        sender = Thread.currentThread();
+                        sendingSince = System.nanoTime();
+                    }
+                    try {
+                        delivery.deliver(subscriber);
+                    } catch (IOException | RuntimeException e) {
+                        if (!closed) {
+                            drop(e);
+                        }
+                    } finally {
+                        synchronized (this) {
+                            sender = null;
+                        }
+                        // An abort may have interrupted this thread as the delivery returned.
+                        Thread.interrupted();
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+            // An offer may have queued after the last poll but before draining was cleared.
+            if (!outbound.isEmpty()) {
+                drainLater();
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.onlineshop.feed;
+
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.mapping.ShopItemFields;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds shop_items change stream events into the change feed. Unlike service events
+ * this also sees writes made by other instances, the write-behind buffer and direct
+ * database access. The resume token of the last event is kept, so a dropped stream
+ * picks up where it stopped; it is not persisted across restarts.
+ */
+public class ShopItemChangeStreamSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ShopItemChangeStreamSource.class);
+    private static final long RETRY_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    private final ShopItemRepository shopItemRepository;
+    private final ShopItemChangeFeed changeFeed;
+    private final Counter failures;
+    private final Thread watcher;
+    private volatile boolean running = true;
+    private BsonDocument resumeToken;
+
+    public ShopItemChangeStreamSource(ShopItemRepository shopItemRepository, ShopItemChangeFeed changeFeed,
+                                      MeterRegistry meterRegistry) {
+        this.shopItemRepository = shopItemRepository;
+        this.changeFeed = changeFeed;
+        this.failures = meterRegistry.counter("shopitems.feed.changestream.failures");
+        this.watcher = new Thread(this::watch, "shop-item-change-stream");
+        watcher.setDaemon(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        watcher.start();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        watcher.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void watch() {
+        while (running) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<ShopItem>> cursor =
+                         shopItemRepository.watchChanges(resumeToken)) {
+                while (running) {
+                    ChangeStreamDocument<ShopItem> change = cursor.tryNext();
+                    if (change != null && !apply(change)) {
+                        resumeToken = null;
+                        break;
+                    }
+                    if (cursor.getResumeToken() != null) {
+                        resumeToken = cursor.getResumeToken();
+                    }
+                }
+            } catch (MongoException e) {
+                if (!running) {
+                    return;
+                }
+                failures.increment();
+                log.warn("Shop item change stream failed, reopening", e);
+                try {
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns false when the stream was invalidated (collection dropped or renamed) and
+     * has to be reopened from the current time.
+     */
+    private boolean apply(ChangeStreamDocument<ShopItem> change) {
+        switch (change.getOperationType()) {
+            case INSERT ->
+                    changeFeed.record(ShopItemChangedEvent.Type.CREATED, idOf(change), change.getFullDocument());
+            case UPDATE, REPLACE -> {
+                // Without a full document the item was deleted before the lookup; its DELETE follows.
+                if (change.getFullDocument() != null) {
+                    changeFeed.record(ShopItemChangedEvent.Type.UPDATED, idOf(change), change.getFullDocument());
+                }
+            }
+            case DELETE -> changeFeed.record(ShopItemChangedEvent.Type.DELETED, idOf(change), null);
+            case INVALIDATE -> {
+                log.warn("Shop item change stream was invalidated, changes until it is reopened are lost");
+                return false;
+            }
+            default -> {
+            }
+        }
+        return true;
+    }
+
+    private static String idOf(ChangeStreamDocument<ShopItem> change) {
+        BsonValue id = change.getDocumentKey().get(ShopItemFields.ID);
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+}
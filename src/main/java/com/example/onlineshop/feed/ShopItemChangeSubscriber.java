@@ -0,0 +1,25 @@
+package com.example.onlineshop.feed;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receives change feed batches. Calls for one subscriber are made one at a time, in
+ * order, from a sender thread of the feed; an exception unsubscribes the subscriber,
+ * and so does a call that has not returned within the send timeout, which is then
+ * interrupted.
+ */
+public interface ShopItemChangeSubscriber {
+
+    void changes(String eventId, List<ShopItemChange> changes) throws IOException;
+
+    /**
+     * The requested resume point is no longer retained. The subscriber has to reload
+     * the catalog; changes after eventId follow.
+     */
+    void reset(String eventId) throws IOException;
+
+    void heartbeat() throws IOException;
+
+    void complete();
+}
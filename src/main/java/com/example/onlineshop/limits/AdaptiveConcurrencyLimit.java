@@ -0,0 +1,149 @@
+package com.example.onlineshop.limits;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit that follows TCP Vegas: the queue a request saw is estimated as
+ * limit * (1 - noLoadRtt / rtt), and the limit grows while that queue stays short and
+ * shrinks once it builds up. Requests that fail outright back the limit off by
+ * backoffRatio. The no-load RTT is the smallest latency observed since the last
+ * reset; it restarts from the next sample every minRttWindow so that it can follow
+ * a slower but healthy backend.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long minRttWindowNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile int limit;
+    private double estimatedLimit;
+    private long noLoadRtt;
+    private long noLoadRttSince;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                                    Duration minRttWindow) {
+        this(initialLimit, minLimit, maxLimit, backoffRatio, minRttWindow, System::nanoTime);
+    }
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                                    Duration minRttWindow, LongSupplier nanoClock) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("Expected 1 <= minLimit <= initialLimit <= maxLimit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.minRttWindowNanos = minRttWindow.toNanos();
+        this.nanoClock = nanoClock;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+        this.noLoadRttSince = nanoClock.getAsLong();
+    }
+
+    /**
+     * Returns a permit for one request, or null when the limit is reached. The permit
+     * has to be completed exactly once.
+     */
+    public Permit tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit) {
+                return null;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return new Permit(nanoClock.getAsLong(), current + 1);
+            }
+        }
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inflight() {
+        return inflight.get();
+    }
+
+    private synchronized void onSample(long rtt, int inflightAtStart, boolean dropped) {
+        long now = nanoClock.getAsLong();
+        if (now - noLoadRttSince > minRttWindowNanos) {
+            noLoadRtt = 0;
+            noLoadRttSince = now;
+        }
+        if (noLoadRtt == 0 || rtt < noLoadRtt) {
+            noLoadRtt = Math.max(rtt, 1);
+        }
+        double current = estimatedLimit;
+        double log = Math.max(1, Math.log10(current));
+        double next;
+        if (dropped) {
+            next = current * backoffRatio;
+        } else if (inflightAtStart * 2 < current) {
+            // Too little traffic to tell whether more concurrency would queue.
+            return;
+        } else {
+            double queue = Math.ceil(current * (1 - (double) noLoadRtt / rtt));
+            if (queue <= log) {
+                next = current + 6 * log;
+            } else if (queue < 3 * log) {
+                next = current + log;
+            } else if (queue > 6 * log) {
+                next = current - log;
+            } else {
+                return;
+            }
+        }
+        estimatedLimit = Math.min(maxLimit, Math.max(minLimit, next));
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * One admitted request.
+     */
+    public final class Permit {
+
+        private final long startedAt;
+        private final int inflightAtStart;
+        private boolean completed;
+
+        private Permit(long startedAt, int inflightAtStart) {
+            this.startedAt = startedAt;
+            this.inflightAtStart = inflightAtStart;
+        }
+
+        /** The request completed; its latency is a sample for the limit. */
+        public void success() {
+            complete(Sample.SUCCESS);
+        }
+
+        /** The request failed in a way that suggests overload; the limit backs off. */
+        public void dropped() {
+            complete(Sample.DROPPED);
+        }
+
+        /** The request says nothing about the backend's capacity, such as a fast error. */
+        public void ignore() {
+            complete(Sample.IGNORED);
+        }
+
+        private void complete(Sample sample) {
+            if (completed) {
+                return;
+            }
+            completed = true;
+            inflight.decrementAndGet();
+            if (sample != Sample.IGNORED) {
+                onSample(nanoClock.getAsLong() - startedAt, inflightAtStart, sample == Sample.DROPPED);
+            }
+        }
+    }
+
+    private enum Sample {
+        SUCCESS, DROPPED, IGNORED
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.onlineshop.limits;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed share of the request threads, and with them of the Mongo connections, for
+ * one workload class. A request waits at most maxWait for a slot.
+ */
+public class Bulkhead {
+
+    private final int maxConcurrent;
+    private final long maxWaitNanos;
+    private final Semaphore slots;
+    private final Counter rejected;
+    private final Timer waits;
+
+    public Bulkhead(WorkloadClass workload, int maxConcurrent, Duration maxWait, MeterRegistry meterRegistry) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.slots = new Semaphore(maxConcurrent, true);
+        String tag = workload.name().toLowerCase();
+        this.rejected = meterRegistry.counter("shopitems.bulkhead.rejected", "workload", tag);
+        this.waits = meterRegistry.timer("shopitems.bulkhead.wait", "workload", tag);
+        Gauge.builder("shopitems.bulkhead.limit", this, Bulkhead::maxConcurrent)
+                .tag("workload", tag)
+                .register(meterRegistry);
+        Gauge.builder("shopitems.bulkhead.inflight", this, Bulkhead::inflight)
+                .tag("workload", tag)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns whether a slot was taken; every taken slot has to be given back with
+     * {@link #release()}.
+     */
+    public boolean tryAcquire() throws InterruptedException {
+        long startedAt = System.nanoTime();
+        boolean acquired = slots.tryAcquire() || slots.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        if (acquired) {
+            waits.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        } else {
+            rejected.increment();
+        }
+        return acquired;
+    }
+
+    public void release() {
+        slots.release();
+    }
+
+    public int maxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int inflight() {
+        return maxConcurrent - slots.availablePermits();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.onlineshop.limits;
+
+import com.example.onlineshop.config.ConcurrencyLimitProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Admits requests up to separate adaptive limits for reads and writes and answers
+ * the rest with 503 and Retry-After before they reach a controller, so that latency
+ * stays flat for the admitted requests under overload instead of collapsing for all
+ * of them. A request that throws counts as dropped; one that ends in a 5xx status
+ * is left out of the latency samples.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimit reads;
+    private final AdaptiveConcurrencyLimit writes;
+    private final ConcurrencyLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Counter readsRejected;
+    private final Counter writesRejected;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.reads = new AdaptiveConcurrencyLimit(properties.readInitialLimit(), properties.minLimit(),
+                properties.readMaxLimit(), properties.backoffRatio(), properties.minRttWindow());
+        this.writes = new AdaptiveConcurrencyLimit(properties.writeInitialLimit(), properties.minLimit(),
+                properties.writeMaxLimit(), properties.backoffRatio(), properties.minRttWindow());
+        this.readsRejected = meterRegistry.counter("shopitems.requests.rejected", "operation", "read");
+        this.writesRejected = meterRegistry.counter("shopitems.requests.rejected", "operation", "write");
+        registerGauges(meterRegistry, "read", reads);
+        registerGauges(meterRegistry, "write", writes);
+    }
+
+    private static void registerGauges(MeterRegistry meterRegistry, String operation, AdaptiveConcurrencyLimit limit) {
+        Gauge.builder("shopitems.requests.limit", limit, AdaptiveConcurrencyLimit::limit)
+                .tag("operation", operation)
+                .register(meterRegistry);
+        Gauge.builder("shopitems.requests.inflight", limit, AdaptiveConcurrencyLimit::inflight)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    public AdaptiveConcurrencyLimit reads() {
+        return reads;
+    }
+
+    public AdaptiveConcurrencyLimit writes() {
+        return writes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return properties.excludedPaths().stream().anyMatch(path::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean read = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+        AdaptiveConcurrencyLimit.Permit permit = (read ? reads : writes).tryAcquire();
+        if (permit == null) {
+            (read ? readsRejected : writesRejected).increment();
+            reject(response, objectMapper, properties.retryAfter(), "Too many concurrent requests, retry later");
+            return;
+        }
+        boolean completed = false;
+        try {
+            chain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if (!completed) {
+                permit.dropped();
+            } else if (response.getStatus() >= 500 || request.isAsyncStarted()) {
+                permit.ignore();
+            } else {
+                permit.success();
+            }
+        }
+    }
+
+    static void reject(HttpServletResponse response, ObjectMapper objectMapper, Duration retryAfter, String detail)
+            throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, retryAfter.toSeconds())));
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, detail));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.onlineshop.limits;
+
+import com.example.onlineshop.config.BulkheadProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs each request inside the bulkhead of its workload class, so that full scans
+ * and admin pages can only ever occupy their own share of request threads and Mongo
+ * connections and cannot starve point reads. Requests that find their bulkhead full
+ * get 503 with Retry-After.
+ */
+public class WorkloadBulkheadFilter extends OncePerRequestFilter {
+
+    private final BulkheadProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Map<WorkloadClass, Bulkhead> bulkheads = new EnumMap<>(WorkloadClass.class);
+    private final List<PathPattern> pointReadPaths;
+    private final List<PathPattern> bulkPaths;
+
+    public WorkloadBulkheadFilter(BulkheadProperties properties, ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        bulkheads.put(WorkloadClass.POINT_READ, new Bulkhead(WorkloadClass.POINT_READ,
+                properties.pointReadMaxConcurrent(), properties.maxWait(), meterRegistry));
+        bulkheads.put(WorkloadClass.LIST, new Bulkhead(WorkloadClass.LIST,
+                properties.listMaxConcurrent(), properties.maxWait(), meterRegistry));
+        bulkheads.put(WorkloadClass.BULK, new Bulkhead(WorkloadClass.BULK,
+                properties.bulkMaxConcurrent(), properties.maxWait(), meterRegistry));
+        this.pointReadPaths = parse(properties.pointReadPaths());
+        this.bulkPaths = parse(properties.bulkPaths());
+    }
+
+    private static List<PathPattern> parse(List<String> patterns) {
+        return patterns.stream().map(PathPatternParser.defaultInstance::parse).toList();
+    }
+
+    public Bulkhead bulkhead(WorkloadClass workload) {
+        return bulkheads.get(workload);
+    }
+
+    public WorkloadClass classify(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(
+                request.getRequestURI().substring(request.getContextPath().length()));
+        if (bulkPaths.stream().anyMatch(pattern -> pattern.matches(path))) {
+            return WorkloadClass.BULK;
+        }
+        if ("GET".equals(request.getMethod()) && pointReadPaths.stream().anyMatch(pattern -> pattern.matches(path))) {
+            return WorkloadClass.POINT_READ;
+        }
+        return WorkloadClass.LIST;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return properties.excludedPaths().stream().anyMatch(path::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        WorkloadClass workload = classify(request);
+        Bulkhead bulkhead = bulkheads.get(workload);
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            ConcurrencyLimitFilter.reject(response, objectMapper, properties.retryAfter(),
+                    "Too many concurrent " + workload.name().toLowerCase() + " requests, retry later");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            bulkhead.release();
+        }
+    }
+}
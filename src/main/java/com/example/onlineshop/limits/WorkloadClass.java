@@ -0,0 +1,10 @@
+package com.example.onlineshop.limits;
+
+public enum WorkloadClass {
+    /** Latency-sensitive lookups of a single item. */
+    POINT_READ,
+    /** Paged lists, searches and the UI forms, including their writes. */
+    LIST,
+    /** Full scans, exports and admin aggregations. */
+    BULK
+}
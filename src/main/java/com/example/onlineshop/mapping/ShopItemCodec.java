@@ -0,0 +1,121 @@
+package com.example.onlineshop.mapping;
+
+import com.example.onlineshop.model.ShopItem;
+import org.bson.BsonObjectId;
+import org.bson.BsonReader;
+import org.bson.BsonString;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.BsonWriter;
+import org.bson.codecs.CollectibleCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+
+/**
+ * Encodes and decodes {@link ShopItem} field by field, producing the same document
+ * layout as Spring Data's mapping (minus the _class type hint).
+ */
+public class ShopItemCodec implements CollectibleCodec<ShopItem> {
+
+    @Override
+    public void encode(BsonWriter writer, ShopItem item, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        String id = item.getId();
+        if (id != null) {
+            writer.writeName(ShopItemFields.ID);
+            if (ObjectId.isValid(id)) {
+                writer.writeObjectId(new ObjectId(id));
+            } else {
+                writer.writeString(id);
+            }
+        }
+        if (item.getName() != null) {
+            writer.writeString(ShopItemFields.NAME, item.getName());
+        }
+        if (item.getDescription() != null) {
+            writer.writeString(ShopItemFields.DESCRIPTION, item.getDescription());
+        }
+        writer.writeDouble(ShopItemFields.PRICE, item.getPrice());
+        writer.writeInt32(ShopItemFields.QUANTITY, item.getQuantity());
+        if (item.getVersion() != null) {
+            writer.writeInt64(ShopItemFields.VERSION, item.getVersion());
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public ShopItem decode(BsonReader reader, DecoderContext decoderContext) {
+        ShopItem item = new ShopItem();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (name) {
+                case ShopItemFields.ID -> item.setId(readId(reader));
+                case ShopItemFields.NAME -> item.setName(reader.readString());
+                case ShopItemFields.DESCRIPTION -> item.setDescription(reader.readString());
+                case ShopItemFields.PRICE -> item.setPrice(readDouble(reader));
+                case ShopItemFields.QUANTITY -> item.setQuantity((int) readLong(reader));
+                case ShopItemFields.VERSION -> item.setVersion(readLong(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return item;
+    }
+
+    @Override
+    public Class<ShopItem> getEncoderClass() {
+        return ShopItem.class;
+    }
+
+    @Override
+    public ShopItem generateIdIfAbsentFromDocument(ShopItem item) {
+        if (item.getId() == null) {
+            item.setId(new ObjectId().toHexString());
+        }
+        return item;
+    }
+
+    @Override
+    public boolean documentHasId(ShopItem item) {
+        return item.getId() != null;
+    }
+
+    @Override
+    public BsonValue getDocumentId(ShopItem item) {
+        if (item.getId() == null) {
+            throw new IllegalStateException("The ShopItem does not contain an id");
+        }
+        return ObjectId.isValid(item.getId())
+                ? new BsonObjectId(new ObjectId(item.getId()))
+                : new BsonString(item.getId());
+    }
+
+    private static String readId(BsonReader reader) {
+        return reader.getCurrentBsonType() == BsonType.OBJECT_ID
+                ? reader.readObjectId().toHexString()
+                : reader.readString();
+    }
+
+    private static double readDouble(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT32 -> reader.readInt32();
+            case INT64 -> reader.readInt64();
+            case DECIMAL128 -> reader.readDecimal128().doubleValue();
+            default -> reader.readDouble();
+        };
+    }
+
+    private static long readLong(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT64 -> reader.readInt64();
+            case DOUBLE -> (long) reader.readDouble();
+            default -> reader.readInt32();
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.onlineshop.mapping;
+
+import com.example.onlineshop.model.ShopItem;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import java.util.List;
+
+/**
+ * Direct {@link Document} mapping for {@link ShopItem} so MappingMongoConverter
+ * skips its reflective entity path on every repository read and write.
+ */
+public final class ShopItemConverters {
+
+    private ShopItemConverters() {}
+
+    public static List<Converter<?, ?>> all() {
+        return List.of(ShopItemReadConverter.INSTANCE, ShopItemWriteConverter.INSTANCE);
+    }
+
+    @ReadingConverter
+    public enum ShopItemReadConverter implements Converter<Document, ShopItem> {
+        INSTANCE;
+
+        @Override
+        public ShopItem convert(Document source) {
+            ShopItem item = new ShopItem();
+            Object id = source.get(ShopItemFields.ID);
+            if (id != null) {
+                item.setId(id instanceof ObjectId objectId ? objectId.toHexString() : id.toString());
+            }
+            item.setName(source.getString(ShopItemFields.NAME));
+            item.setDescription(source.getString(ShopItemFields.DESCRIPTION));
+            if (source.get(ShopItemFields.PRICE) instanceof Number price) {
+                item.setPrice(price.doubleValue());
+            }
+            if (source.get(ShopItemFields.QUANTITY) instanceof Number quantity) {
+                item.setQuantity(quantity.intValue());
+            }
+            if (source.get(ShopItemFields.VERSION) instanceof Number version) {
+                item.setVersion(version.longValue());
+            }
+            return item;
+        }
+    }
+
+    @WritingConverter
+    public enum ShopItemWriteConverter implements Converter<ShopItem, Document> {
+        INSTANCE;
+
+        @Override
+        public Document convert(ShopItem source) {
+            Document document = new Document();
+            String id = source.getId();
+            if (id != null) {
+                document.put(ShopItemFields.ID, ObjectId.isValid(id) ? new ObjectId(id) : id);
+            }
+            if (source.getName() != null) {
+                document.put(ShopItemFields.NAME, source.getName());
+            }
+            if (source.getDescription() != null) {
+                document.put(ShopItemFields.DESCRIPTION, source.getDescription());
+            }
+            document.put(ShopItemFields.PRICE, source.getPrice());
+            document.put(ShopItemFields.QUANTITY, source.getQuantity());
+            if (source.getVersion() != null) {
+                document.put(ShopItemFields.VERSION, source.getVersion());
+            }
+            return document;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.onlineshop.mapping;
+
+public final class ShopItemFields {
+
+    public static final String ID = "_id";
+    public static final String NAME = "name";
+    public static final String DESCRIPTION = "description";
+    public static final String PRICE = "price";
+    public static final String QUANTITY = "quantity";
+    public static final String VERSION = "version";
+
+    private ShopItemFields() {}
+}
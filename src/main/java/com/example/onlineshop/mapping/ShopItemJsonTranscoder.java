@@ -0,0 +1,199 @@
+package com.example.onlineshop.mapping;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.bson.BsonType;
+import org.bson.ByteBuf;
+import org.bson.RawBsonDocument;
+import org.bson.types.Decimal128;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Walks the raw BSON bytes of shop_items documents and writes them straight to a
+ * Jackson generator, renaming _id to id and dropping the _class type hint.
+ */
+public final class ShopItemJsonTranscoder {
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .enable(StreamWriteFeature.USE_FAST_DOUBLE_WRITER)
+            .build();
+
+    private static final byte[] ID_FIELD = "_id".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] TYPE_HINT_FIELD = "_class".getBytes(StandardCharsets.UTF_8);
+    private static final SerializedString ID_NAME = new SerializedString("id");
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final JsonGenerator generator;
+    private final char[] objectIdChars = new char[24];
+    private SerializedString[] topLevelNames = new SerializedString[8];
+
+    private ShopItemJsonTranscoder(JsonGenerator generator) {
+        this.generator = generator;
+    }
+
+    public static void writeArray(Iterator<RawBsonDocument> documents, OutputStream out) throws IOException {
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            ShopItemJsonTranscoder transcoder = new ShopItemJsonTranscoder(generator);
+            generator.writeStartArray();
+            while (documents.hasNext()) {
+                transcoder.writeDocument(documents.next());
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private void writeDocument(RawBsonDocument document) throws IOException {
+        ByteBuf buffer = document.getByteBuffer();
+        writeDocument(buffer.array(), buffer.arrayOffset() + buffer.position(), true);
+    }
+
+    private int writeDocument(byte[] bytes, int position, boolean topLevel) throws IOException {
+        int end = position + readInt32(bytes, position) - 1;
+        int pos = position + 4;
+        int fieldIndex = 0;
+        generator.writeStartObject();
+        while (pos < end) {
+            byte type = bytes[pos++];
+            int nameStart = pos;
+            pos = endOfCString(bytes, pos);
+            int nameLength = pos - nameStart;
+            pos++;
+            if (topLevel && matches(bytes, nameStart, nameLength, TYPE_HINT_FIELD)) {
+                pos = skipValue(type, bytes, pos);
+                continue;
+            }
+            if (topLevel) {
+                generator.writeFieldName(topLevelName(bytes, nameStart, nameLength, fieldIndex++));
+            } else {
+                generator.writeFieldName(new String(bytes, nameStart, nameLength, StandardCharsets.UTF_8));
+            }
+            pos = writeValue(type, bytes, pos);
+        }
+        generator.writeEndObject();
+        return end + 1;
+    }
+
+    private int writeArray(byte[] bytes, int position) throws IOException {
+        int end = position + readInt32(bytes, position) - 1;
+        int pos = position + 4;
+        generator.writeStartArray();
+        while (pos < end) {
+            byte type = bytes[pos++];
+            pos = endOfCString(bytes, pos) + 1;
+            pos = writeValue(type, bytes, pos);
+        }
+        generator.writeEndArray();
+        return end + 1;
+    }
+
+    private int writeValue(byte type, byte[] bytes, int pos) throws IOException {
+        switch (BsonType.findByValue(type)) {
+            case DOUBLE -> {
+                generator.writeNumber(Double.longBitsToDouble(readInt64(bytes, pos)));
+                return pos + 8;
+            }
+            case STRING -> {
+                int length = readInt32(bytes, pos) - 1;
+                generator.writeUTF8String(bytes, pos + 4, length);
+                return pos + 4 + length + 1;
+            }
+            case DOCUMENT -> {
+                return writeDocument(bytes, pos, false);
+            }
+            case ARRAY -> {
+                return writeArray(bytes, pos);
+            }
+            case OBJECT_ID -> {
+                for (int i = 0; i < 12; i++) {
+                    objectIdChars[i * 2] = HEX_DIGITS[(bytes[pos + i] >> 4) & 0xF];
+                    objectIdChars[i * 2 + 1] = HEX_DIGITS[bytes[pos + i] & 0xF];
+                }
+                generator.writeString(objectIdChars, 0, objectIdChars.length);
+                return pos + 12;
+            }
+            case BOOLEAN -> {
+                generator.writeBoolean(bytes[pos] != 0);
+                return pos + 1;
+            }
+            case DATE_TIME, INT64 -> {
+                generator.writeNumber(readInt64(bytes, pos));
+                return pos + 8;
+            }
+            case INT32 -> {
+                generator.writeNumber(readInt32(bytes, pos));
+                return pos + 4;
+            }
+            case DECIMAL128 -> {
+                generator.writeNumber(Decimal128.fromIEEE754BIDEncoding(readInt64(bytes, pos + 8),
+                        readInt64(bytes, pos)).bigDecimalValue());
+                return pos + 16;
+            }
+            default -> {
+                generator.writeNull();
+                return skipValue(type, bytes, pos);
+            }
+        }
+    }
+
+    private SerializedString topLevelName(byte[] bytes, int start, int length, int index) {
+        if (matches(bytes, start, length, ID_FIELD)) {
+            return ID_NAME;
+        }
+        if (index >= topLevelNames.length) {
+            topLevelNames = Arrays.copyOf(topLevelNames, index * 2);
+        }
+        SerializedString cached = topLevelNames[index];
+        if (cached == null || !matches(bytes, start, length, cached.asUnquotedUTF8())) {
+            cached = new SerializedString(new String(bytes, start, length, StandardCharsets.UTF_8));
+            topLevelNames[index] = cached;
+        }
+        return cached;
+    }
+
+    private static int skipValue(byte type, byte[] bytes, int pos) {
+        return switch (BsonType.findByValue(type)) {
+            case UNDEFINED, NULL, MIN_KEY, MAX_KEY -> pos;
+            case BOOLEAN -> pos + 1;
+            case INT32 -> pos + 4;
+            case DOUBLE, DATE_TIME, INT64, TIMESTAMP -> pos + 8;
+            case OBJECT_ID -> pos + 12;
+            case DECIMAL128 -> pos + 16;
+            case STRING, JAVASCRIPT, SYMBOL -> pos + 4 + readInt32(bytes, pos);
+            case DOCUMENT, ARRAY, JAVASCRIPT_WITH_SCOPE -> pos + readInt32(bytes, pos);
+            case BINARY -> pos + 4 + 1 + readInt32(bytes, pos);
+            case DB_POINTER -> pos + 4 + readInt32(bytes, pos) + 12;
+            case REGULAR_EXPRESSION -> endOfCString(bytes, endOfCString(bytes, pos) + 1) + 1;
+            default -> throw new IllegalStateException("Unexpected BSON type: " + type);
+        };
+    }
+
+    private static boolean matches(byte[] bytes, int start, int length, byte[] name) {
+        return Arrays.equals(bytes, start, start + length, name, 0, name.length);
+    }
+
+    private static int endOfCString(byte[] bytes, int pos) {
+        while (bytes[pos] != 0) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int readInt32(byte[] bytes, int pos) {
+        return (bytes[pos] & 0xFF)
+                | (bytes[pos + 1] & 0xFF) << 8
+                | (bytes[pos + 2] & 0xFF) << 16
+                | (bytes[pos + 3] & 0xFF) << 24;
+    }
+
+    private static long readInt64(byte[] bytes, int pos) {
+        return (readInt32(bytes, pos) & 0xFFFFFFFFL) | ((long) readInt32(bytes, pos + 4) << 32);
+    }
+}
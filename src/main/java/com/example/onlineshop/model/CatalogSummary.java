@@ -0,0 +1,15 @@
+package com.example.onlineshop.model;
+
+import java.time.Instant;
+
+/**
+ * Running catalog totals. revision counts the updates applied to the stored summary;
+ * reconciledAt is when it was last recomputed from shop_items.
+ */
+public record CatalogSummary(
+        long itemCount,
+        long totalQuantity,
+        double totalStockValue,
+        long revision,
+        Instant reconciledAt) {
+}
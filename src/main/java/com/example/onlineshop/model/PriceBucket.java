@@ -0,0 +1,8 @@
+package com.example.onlineshop.model;
+
+/**
+ * Items whose price is at least lowerBound and below upperBound. The last bucket has
+ * no upper bound.
+ */
+public record PriceBucket(double lowerBound, Double upperBound, long itemCount, long quantity, double stockValue) {
+}
@@ -1,6 +1,7 @@
 package com.example.onlineshop.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Objects;
@@ -14,6 +15,8 @@ public class ShopItem {
     private String description;
     private double price;
     private int quantity;
+    @Version
+    private Long version;
 
     public ShopItem() {}
 
@@ -64,6 +67,14 @@ public class ShopItem {
         this.quantity = quantity;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "ShopItem{" +
@@ -72,6 +83,7 @@ public class ShopItem {
                 ", description='" + description + '\'' +
                 ", price=" + price +
                 ", quantity=" + quantity +
+                ", version=" + version +
                 '}';
     }
 
@@ -0,0 +1,4 @@
+package com.example.onlineshop.model;
+
+public record ShopItemFuzzyHit(String id, String name, double score) {
+}
@@ -0,0 +1,11 @@
+package com.example.onlineshop.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * An entry on the invalidation bus: the ids node wrote, or all when every cached item
+ * has to be dropped.
+ */
+public record ShopItemInvalidation(String id, String node, List<String> ids, boolean all, Instant publishedAt) {
+}
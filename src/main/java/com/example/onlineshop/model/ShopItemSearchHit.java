@@ -0,0 +1,4 @@
+package com.example.onlineshop.model;
+
+public record ShopItemSearchHit(String id, String name, double price, int quantity, double score) {
+}
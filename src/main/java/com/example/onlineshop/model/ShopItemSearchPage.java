@@ -0,0 +1,6 @@
+package com.example.onlineshop.model;
+
+import java.util.List;
+
+public record ShopItemSearchPage(String query, int page, int size, boolean hasMore, List<ShopItemSearchHit> hits) {
+}
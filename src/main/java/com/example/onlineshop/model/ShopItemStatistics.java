@@ -0,0 +1,12 @@
+package com.example.onlineshop.model;
+
+import java.util.List;
+
+public record ShopItemStatistics(
+        long itemCount,
+        long totalQuantity,
+        double totalStockValue,
+        int lowStockThreshold,
+        long lowStockCount,
+        List<PriceBucket> priceBuckets) {
+}
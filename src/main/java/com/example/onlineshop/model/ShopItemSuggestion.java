@@ -0,0 +1,4 @@
+package com.example.onlineshop.model;
+
+public record ShopItemSuggestion(String id, String name, int quantity) {
+}
@@ -0,0 +1,4 @@
+package com.example.onlineshop.model;
+
+public record ShopItemSummary(String id, String name, double price, int quantity) {
+}
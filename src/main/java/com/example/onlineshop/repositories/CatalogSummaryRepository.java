@@ -0,0 +1,108 @@
+package com.example.onlineshop.repositories;
+
+import com.example.onlineshop.model.CatalogSummary;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Stores the single catalog summary document in shop_item_summaries. Every read and
+ * write touches that one document by _id.
+ */
+@Repository
+public class CatalogSummaryRepository {
+
+    static final String COLLECTION = "shop_item_summaries";
+    static final String CATALOG_ID = "catalog";
+    private static final String ID = "_id";
+    private static final String ITEM_COUNT = "itemCount";
+    private static final String TOTAL_QUANTITY = "totalQuantity";
+    private static final String TOTAL_STOCK_VALUE = "totalStockValue";
+    private static final String REVISION = "revision";
+    private static final String RECONCILED_AT = "reconciledAt";
+
+    private final MongoTemplate mongoTemplate;
+
+    public CatalogSummaryRepository(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public CatalogSummary find() {
+        Document document = collection().find(Filters.eq(ID, CATALOG_ID)).first();
+        return document == null ? null : toSummary(document);
+    }
+
+    public void increment(long itemCount, long quantity, double stockValue) {
+        collection().updateOne(Filters.eq(ID, CATALOG_ID), Updates.combine(
+                        Updates.inc(ITEM_COUNT, itemCount),
+                        Updates.inc(TOTAL_QUANTITY, quantity),
+                        Updates.inc(TOTAL_STOCK_VALUE, stockValue),
+                        Updates.inc(REVISION, 1L)),
+                new UpdateOptions().upsert(true));
+    }
+
+    /**
+     * Stores the first summary, unless one has been created meanwhile.
+     */
+    public boolean insertIfAbsent(CatalogSummary totals, Instant reconciledAt) {
+        try {
+            collection().insertOne(new Document(ID, CATALOG_ID)
+                    .append(ITEM_COUNT, totals.itemCount())
+                    .append(TOTAL_QUANTITY, totals.totalQuantity())
+                    .append(TOTAL_STOCK_VALUE, totals.totalStockValue())
+                    .append(REVISION, 1L)
+                    .append(RECONCILED_AT, Date.from(reconciledAt)));
+            return true;
+        } catch (MongoWriteException e) {
+            if (e.getError().getCategory() == ErrorCategory.DUPLICATE_KEY) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Adds a reconciliation's correction, which may be zero, and records when it ran.
+     */
+    public void correct(long itemCount, long quantity, double stockValue, Instant reconciledAt) {
+        collection().updateOne(Filters.eq(ID, CATALOG_ID), Updates.combine(
+                        Updates.inc(ITEM_COUNT, itemCount),
+                        Updates.inc(TOTAL_QUANTITY, quantity),
+                        Updates.inc(TOTAL_STOCK_VALUE, stockValue),
+                        Updates.set(RECONCILED_AT, Date.from(reconciledAt)),
+                        Updates.inc(REVISION, 1L)),
+                new UpdateOptions().upsert(true));
+    }
+
+    public void deleteAll() {
+        collection().deleteMany(Filters.empty());
+    }
+
+    private static CatalogSummary toSummary(Document document) {
+        Date reconciledAt = document.getDate(RECONCILED_AT);
+        return new CatalogSummary(
+                numberOf(document, ITEM_COUNT).longValue(),
+                numberOf(document, TOTAL_QUANTITY).longValue(),
+                numberOf(document, TOTAL_STOCK_VALUE).doubleValue(),
+                numberOf(document, REVISION).longValue(),
+                reconciledAt == null ? null : reconciledAt.toInstant());
+    }
+
+    private static Number numberOf(Document document, String field) {
+        Object value = document.get(field);
+        return value instanceof Number number ? number : 0;
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(COLLECTION);
+    }
+}
@@ -0,0 +1,1169 @@
+package com.example.onlineshop.repositories;
+
+import com.example.onlineshop.mapping.ShopItemFields;
+import com.example.onlineshop.mapping.ShopItemJsonTranscoder;
+import com.example.onlineshop.model.CatalogSummary;
+import com.example.onlineshop.model.PriceBucket;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.model.ShopItemSearchHit;
+import com.example.onlineshop.model.ShopItemStatistics;
+import com.example.onlineshop.model.ShopItemSummary;
+import com.example.onlineshop.repositories.ShopItemReadRouting.Operation;
+import com.example.onlineshop.sharding.ShardPlacement;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.ReadPreference;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * ShopItemRepository over several Mongo databases. Each item lives on the shard its
+ * id hashes to; items inserted without an id get an ObjectId first so that they can
+ * be placed. Reads and writes by id go to that shard, or while a rebalance runs to
+ * the previous owner first, where the item stays until it is moved. New items are
+ * only ever created on the owner, and writes to a previous owner never upsert, so a
+ * write racing the rebalancer cannot leave a copy behind on the shard it drains.
+ * <p>
+ * Everything else runs on all shards in parallel. Sorted queries ask every shard for
+ * its first skip + limit rows and k-way merge them, so no shard sorts more than a
+ * single database would. Queries without an order just concatenate the shards.
+ * While a rebalance runs, an item being moved is on its previous owner and its
+ * owner at once; rows are de-duplicated by id, keeping the previous owner's copy,
+ * and counts and aggregates are computed from a de-duplicated scan instead.
+ * Change streams are per database; ShopItemShardingConfig refuses the change-stream
+ * feed source with sharding, so nothing watches this repository.
+ */
+public class ShardedShopItemRepository implements ShopItemRepository, AutoCloseable {
+
+    private static final Sort BY_ID = Sort.by(Sort.Order.asc("id"));
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final Map<String, ShopItemShard> shards = new LinkedHashMap<>();
+    private final ShopItemReadRouting readRouting;
+    private final ThreadPoolExecutor executor;
+    private volatile ShardPlacement placement;
+
+    public ShardedShopItemRepository(List<ShopItemShard> shards, ShardPlacement placement,
+                                     ShopItemReadRouting readRouting, int scatterThreads) {
+        shards.forEach(shard -> this.shards.put(shard.name(), shard));
+        this.readRouting = readRouting;
+        AtomicInteger count = new AtomicInteger();
+        // A full pool runs the query on the calling thread rather than failing it.
+        this.executor = new ThreadPoolExecutor(scatterThreads, scatterThreads, 0, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "shop-item-shards-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        updatePlacement(placement);
+    }
+
+    public ShardPlacement placement() {
+        return placement;
+    }
+
+    public void updatePlacement(ShardPlacement placement) {
+        Set<String> placed = new LinkedHashSet<>(placement.current().shards());
+        if (placement.previous() != null) {
+            placed.addAll(placement.previous().shards());
+        }
+        placed.removeAll(shards.keySet());
+        if (!placed.isEmpty()) {
+            throw new IllegalStateException("Shards " + placed + " hold shop items but are not configured");
+        }
+        this.placement = placement;
+    }
+
+    public Collection<ShopItemShard> shards() {
+        return shards.values();
+    }
+
+    public ShopItemShard shard(String name) {
+        return shards.get(name);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        shards.values().stream().map(ShopItemShard::client).filter(Objects::nonNull)
+                .forEach(MongoClient::close);
+    }
+
+    @Override
+    public Optional<ShopItem> findById(String id) {
+        return Optional.ofNullable(firstFound(id, repository -> repository.findById(id).orElse(null)));
+    }
+
+    @Override
+    public ShopItem findById(String id, ReadPreference readPreference) {
+        return firstFound(id, repository -> repository.findById(id, readPreference));
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return firstFound(id, repository -> repository.existsById(id) ? Boolean.TRUE : null) != null;
+    }
+
+    @Override
+    public List<ShopItem> findAllById(Iterable<String> ids) {
+        ShardPlacement placement = this.placement;
+        Map<String, List<String>> idsByShard = new LinkedHashMap<>();
+        Set<String> requested = new LinkedHashSet<>();
+        for (String id : ids) {
+            requested.add(id);
+            for (String shard : placement.candidates(id)) {
+                idsByShard.computeIfAbsent(shard, name -> new ArrayList<>()).add(id);
+            }
+        }
+        Map<String, Map<String, ShopItem>> found = new HashMap<>();
+        List<String> queried = List.copyOf(idsByShard.keySet());
+        List<List<ShopItem>> results = scatter(queried,
+                (name, repository) -> repository.findAllById(idsByShard.get(name)));
+        for (int i = 0; i < queried.size(); i++) {
+            Map<String, ShopItem> byId = new HashMap<>();
+            results.get(i).forEach(item -> byId.put(item.getId(), item));
+            found.put(queried.get(i), byId);
+        }
+        List<ShopItem> items = new ArrayList<>(requested.size());
+        for (String id : requested) {
+            for (String shard : placement.candidates(id)) {
+                ShopItem item = found.get(shard).get(id);
+                if (item != null) {
+                    items.add(item);
+                    break;
+                }
+            }
+        }
+        return items;
+    }
+
+    @Override
+    public <S extends ShopItem> S insert(S entity) {
+        assignId(entity);
+        return ownerOfNew(entity.getId()).repository().insert(entity);
+    }
+
+    @Override
+    public <S extends ShopItem> List<S> insert(Iterable<S> entities) {
+        Map<ShopItemShard, List<S>> byShard = new LinkedHashMap<>();
+        for (S entity : entities) {
+            assignId(entity);
+            byShard.computeIfAbsent(ownerOfNew(entity.getId()), shard -> new ArrayList<>()).add(entity);
+        }
+        List<S> inserted = new ArrayList<>();
+        byShard.forEach((shard, batch) -> inserted.addAll(shard.repository().insert(batch)));
+        return inserted;
+    }
+
+    /**
+     * Inserts every shard's part in parallel. A shard that fails outright reports all
+     * of its items as failed, so the MongoBulkWriteException indexes into items just
+     * like a single database's would.
+     */
+    @Override
+    public List<ShopItem> insertUnordered(List<ShopItem> items) {
+        Map<String, List<Integer>> indexesByShard = new LinkedHashMap<>();
+        List<BulkWriteError> duplicates = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            ShopItem item = items.get(i);
+            assignId(item);
+            try {
+                indexesByShard.computeIfAbsent(ownerOfNew(item.getId()).name(), name -> new ArrayList<>()).add(i);
+            } catch (DuplicateKeyException e) {
+                duplicates.add(new BulkWriteError(DUPLICATE_KEY, e.getMessage(), new BsonDocument(), i));
+            }
+        }
+        List<List<BulkWriteError>> errors = scatter(List.copyOf(indexesByShard.keySet()), (name, repository) -> {
+            List<Integer> indexes = indexesByShard.get(name);
+            try {
+                repository.insertUnordered(indexes.stream().map(items::get).toList());
+                return List.<BulkWriteError>of();
+            } catch (MongoBulkWriteException e) {
+                return e.getWriteErrors().stream()
+                        .map(error -> new BulkWriteError(error.getCode(), error.getMessage(), error.getDetails(),
+                                indexes.get(error.getIndex())))
+                        .toList();
+            } catch (MongoException e) {
+                return indexes.stream()
+                        .map(index -> new BulkWriteError(e.getCode(), e.getMessage(), new BsonDocument(), index))
+                        .toList();
+            }
+        });
+        List<BulkWriteError> failed = Stream.concat(duplicates.stream(), errors.stream().flatMap(List::stream))
+                .sorted(Comparator.comparingInt(BulkWriteError::getIndex))
+                .toList();
+        if (!failed.isEmpty()) {
+            throw new MongoBulkWriteException(BulkWriteResult.unacknowledged(), failed, null, new ServerAddress(),
+                    Set.of());
+        }
+        return items;
+    }
+
+    /**
+     * An item without a version is new and inserted on its owner. A versioned save is
+     * an update without upsert, and one that misses on a previous owner because the
+     * item was just moved tries the next candidate with the version it started with.
+     */
+    @Override
+    public <S extends ShopItem> S save(S entity) {
+        assignId(entity);
+        if (entity.getVersion() == null) {
+            return ownerOfNew(entity.getId()).repository().save(entity);
+        }
+        Long version = entity.getVersion();
+        return onHolder(entity.getId(), repository -> {
+            entity.setVersion(version);
+            return repository.save(entity);
+        });
+    }
+
+    @Override
+    public <S extends ShopItem> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(entity -> saved.add(save(entity)));
+        return saved;
+    }
+
+    @Override
+    public ShopItem replaceIfVersionMatches(ShopItem replacement) {
+        return onHolder(replacement.getId(), repository -> repository.replaceIfVersionMatches(replacement));
+    }
+
+    /**
+     * Only the owner may upsert; a previous owner just replaces the item if it still
+     * has it.
+     */
+    @Override
+    public ShopItem replaceUnconditionally(ShopItem replacement) {
+        return onHolder(replacement.getId(), repository -> repository.replaceIfPresent(replacement),
+                repository -> repository.replaceUnconditionally(replacement));
+    }
+
+    @Override
+    public ShopItem replaceIfPresent(ShopItem replacement) {
+        return firstFound(replacement.getId(), repository -> repository.replaceIfPresent(replacement));
+    }
+
+    @Override
+    public ShopItem incrementQuantity(String id, int delta) {
+        return firstFound(id, repository -> repository.incrementQuantity(id, delta));
+    }
+
+    @Override
+    public ShopItem incrementQuantity(String id, int delta, WriteConcern writeConcern) {
+        return firstFound(id, repository -> repository.incrementQuantity(id, delta, writeConcern));
+    }
+
+    /**
+     * Sends every shard its part as one bulk write, in parallel. Ids being moved are
+     * incremented one at a time on the shard that holds them. Errors index into deltas
+     * like a single database's would.
+     */
+    @Override
+    public void incrementQuantities(List<Map.Entry<String, Integer>> deltas, WriteConcern writeConcern) {
+        ShardPlacement placement = this.placement;
+        Map<String, List<Integer>> indexesByShard = new LinkedHashMap<>();
+        List<Integer> moving = new ArrayList<>();
+        for (int i = 0; i < deltas.size(); i++) {
+            List<String> candidates = placement.candidates(deltas.get(i).getKey());
+            if (candidates.size() == 1) {
+                indexesByShard.computeIfAbsent(candidates.get(0), name -> new ArrayList<>()).add(i);
+            } else {
+                moving.add(i);
+            }
+        }
+        List<List<BulkWriteError>> errors = scatter(List.copyOf(indexesByShard.keySet()), (name, repository) -> {
+            List<Integer> indexes = indexesByShard.get(name);
+            try {
+                repository.incrementQuantities(indexes.stream().map(deltas::get).toList(), writeConcern);
+                return List.<BulkWriteError>of();
+            } catch (MongoBulkWriteException e) {
+                return e.getWriteErrors().stream()
+                        .map(error -> new BulkWriteError(error.getCode(), error.getMessage(), error.getDetails(),
+                                indexes.get(error.getIndex())))
+                        .toList();
+            } catch (MongoException e) {
+                return indexes.stream()
+                        .map(index -> new BulkWriteError(e.getCode(), e.getMessage(), new BsonDocument(), index))
+                        .toList();
+            }
+        });
+        List<BulkWriteError> failed = new ArrayList<>();
+        errors.forEach(failed::addAll);
+        for (int index : moving) {
+            Map.Entry<String, Integer> delta = deltas.get(index);
+            try {
+                incrementQuantity(delta.getKey(), delta.getValue(), writeConcern);
+            } catch (MongoException e) {
+                failed.add(new BulkWriteError(e.getCode(), e.getMessage(), new BsonDocument(), index));
+            }
+        }
+        if (!failed.isEmpty()) {
+            failed.sort(Comparator.comparingInt(BulkWriteError::getIndex));
+            throw new MongoBulkWriteException(BulkWriteResult.unacknowledged(), failed, null, new ServerAddress(),
+                    Set.of());
+        }
+    }
+
+    @Override
+    public ShopItem findAndDeleteById(String id) {
+        ShopItem deleted = null;
+        for (String shard : placement.candidates(id)) {
+            ShopItem removed = shards.get(shard).repository().findAndDeleteById(id);
+            deleted = deleted == null ? removed : deleted;
+        }
+        return deleted;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        placement.candidates(id).forEach(shard -> shards.get(shard).repository().deleteById(id));
+    }
+
+    @Override
+    public void delete(ShopItem entity) {
+        onHolder(entity.getId(), repository -> {
+            repository.delete(entity);
+            return Boolean.TRUE;
+        });
+        deleteById(entity.getId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends ShopItem> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        scatter(repository -> {
+            repository.deleteAll();
+            return null;
+        });
+    }
+
+    @Override
+    public List<ShopItem> findAll() {
+        return concat(distinct(scatter(ShopItemRepository::findAll), ShopItem::getId));
+    }
+
+    @Override
+    public List<ShopItem> findAll(Sort sort) {
+        return merge(distinct(scatter(repository -> repository.findAll(sort)), ShopItem::getId), itemOrder(sort), 0,
+                Integer.MAX_VALUE);
+    }
+
+    /**
+     * Pages without an order are ordered by id, since a page across shards needs one.
+     */
+    @Override
+    public Page<ShopItem> findAll(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(findAll(pageable.getSort()));
+        }
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : BY_ID;
+        Pageable firstRows = PageRequest.of(0, rowsUpTo(pageable), sort);
+        return page(scatter(repository -> repository.findAll(firstRows)), pageable, sort, this::count);
+    }
+
+    @Override
+    public long count() {
+        if (placement.rebalancing()) {
+            long[] count = new long[1];
+            forEachSummary(summary -> count[0]++);
+            return count[0];
+        }
+        return scatter(ShopItemRepository::count).stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public ShopItem findFirstByName(String name) {
+        return scatter(repository -> repository.findFirstByName(name)).stream()
+                .filter(Objects::nonNull)
+                .min(itemOrder(BY_ID))
+                .orElse(null);
+    }
+
+    @Override
+    public List<ShopItem> findByName(String name) {
+        return concat(distinct(scatter(repository -> repository.findByName(name)), ShopItem::getId));
+    }
+
+    @Override
+    public List<ShopItem> findByNameAndPrice(String name, double price) {
+        return concat(distinct(scatter(repository -> repository.findByNameAndPrice(name, price)), ShopItem::getId));
+    }
+
+    @Override
+    public List<ShopItem> findByNameOrPrice(String name, double price) {
+        return concat(distinct(scatter(repository -> repository.findByNameOrPrice(name, price)), ShopItem::getId));
+    }
+
+    @Override
+    public <S extends ShopItem> Optional<S> findOne(Example<S> example) {
+        return scatter(repository -> repository.findOne(example).orElse(null)).stream()
+                .filter(Objects::nonNull)
+                .min(itemOrder(BY_ID));
+    }
+
+    @Override
+    public <S extends ShopItem> List<S> findAll(Example<S> example) {
+        return concat(distinct(scatter(repository -> repository.findAll(example)), ShopItem::getId));
+    }
+
+    @Override
+    public <S extends ShopItem> List<S> findAll(Example<S> example, Sort sort) {
+        return merge(distinct(scatter(repository -> repository.findAll(example, sort)), ShopItem::getId),
+                itemOrder(sort), 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public <S extends ShopItem> Page<S> findAll(Example<S> example, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(findAll(example, pageable.getSort()));
+        }
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : BY_ID;
+        Pageable firstRows = PageRequest.of(0, rowsUpTo(pageable), sort);
+        return page(scatter(repository -> repository.findAll(example, firstRows)), pageable, sort,
+                () -> count(example));
+    }
+
+    @Override
+    public <S extends ShopItem> long count(Example<S> example) {
+        if (placement.rebalancing()) {
+            return findAll(example).size();
+        }
+        return scatter(repository -> repository.count(example)).stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public <S extends ShopItem> boolean exists(Example<S> example) {
+        return scatter(repository -> repository.exists(example)).contains(Boolean.TRUE);
+    }
+
+    @Override
+    public <S extends ShopItem, R> R findBy(Example<S> example,
+                                            Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        return queryFunction.apply(new ShardedFluentQuery<>(example, Sort.unsorted(), 0, List.of()));
+    }
+
+    @Override
+    public void forEachItem(Consumer<ShopItem> action) {
+        DistinctRows<ShopItem> rows = new DistinctRows<>(placement, ShopItem::getId);
+        shards.values().forEach(shard -> shard.repository().forEachItem(item -> {
+            if (rows.passes(shard.name(), item)) {
+                action.accept(item);
+            }
+        }));
+        rows.remaining().forEach(action);
+    }
+
+    @Override
+    public void forEachSummary(Consumer<ShopItemSummary> action) {
+        DistinctRows<ShopItemSummary> rows = new DistinctRows<>(placement, ShopItemSummary::id);
+        shards.values().forEach(shard -> shard.repository().forEachSummary(summary -> {
+            if (rows.passes(shard.name(), summary)) {
+                action.accept(summary);
+            }
+        }));
+        rows.remaining().forEach(action);
+    }
+
+    @Override
+    public void writeAllAsJson(OutputStream out) throws IOException {
+        List<MongoCursor<RawBsonDocument>> cursors = new ArrayList<>(shards.size());
+        try {
+            for (ShopItemShard shard : shards.values()) {
+                MongoTemplate template = shard.mongoTemplate();
+                cursors.add(template.getCollection(template.getCollectionName(ShopItem.class))
+                        .withDocumentClass(RawBsonDocument.class)
+                        .withReadPreference(readRouting.readPreference(Operation.LIST))
+                        .find()
+                        .cursor());
+            }
+            ShopItemJsonTranscoder.writeArray(distinct(cursors), out);
+        } finally {
+            cursors.forEach(MongoCursor::close);
+        }
+    }
+
+    /**
+     * Text scores depend only on the matched document and the index weights, so hits
+     * from different shards compare as they would in one collection.
+     */
+    @Override
+    public List<ShopItemSearchHit> searchText(String text, int skip, int limit) {
+        return merge(distinct(scatter(repository -> repository.searchText(text, 0, skip + limit)),
+                        ShopItemSearchHit::id),
+                Comparator.comparingDouble(ShopItemSearchHit::score).reversed()
+                        .thenComparing(ShopItemSearchHit::id),
+                skip, limit);
+    }
+
+    @Override
+    public List<ShopItemSummary> findSummariesByPriceRange(Double minPrice, Double maxPrice, Sort sort,
+                                                           int skip, int limit) {
+        return merge(distinct(scatter(repository -> repository.findSummariesByPriceRange(minPrice, maxPrice, sort,
+                        0, skip + limit)), ShopItemSummary::id),
+                orderBy(ShopItemRepositoryCustomImpl.completeToIndexOrder(sort),
+                        ShardedShopItemRepository::summaryProperty),
+                skip, limit);
+    }
+
+    @Override
+    public Document explainSummariesByPriceRange(Double minPrice, Double maxPrice, Sort sort) {
+        Document explains = new Document();
+        shards.values().forEach(shard -> explains.append(shard.name(),
+                shard.repository().explainSummariesByPriceRange(minPrice, maxPrice, sort)));
+        return new Document("shards", explains);
+    }
+
+    @Override
+    public CatalogSummary computeCatalogSummary() {
+        if (placement.rebalancing()) {
+            ShopItemStatistics scanned = scanStatistics(List.of(0.0), 0);
+            return new CatalogSummary(scanned.itemCount(), scanned.totalQuantity(), scanned.totalStockValue(), 0L,
+                    null);
+        }
+        long itemCount = 0;
+        long totalQuantity = 0;
+        double totalStockValue = 0;
+        for (CatalogSummary summary : scatter(ShopItemRepository::computeCatalogSummary)) {
+            itemCount += summary.itemCount();
+            totalQuantity += summary.totalQuantity();
+            totalStockValue += summary.totalStockValue();
+        }
+        return new CatalogSummary(itemCount, totalQuantity, totalStockValue, 0L, null);
+    }
+
+    @Override
+    public ShopItemStatistics aggregateStatistics(List<Double> priceBoundaries, int lowStockThreshold) {
+        if (placement.rebalancing()) {
+            return scanStatistics(priceBoundaries, lowStockThreshold);
+        }
+        List<ShopItemStatistics> perShard =
+                scatter(repository -> repository.aggregateStatistics(priceBoundaries, lowStockThreshold));
+        long itemCount = 0;
+        long totalQuantity = 0;
+        double totalStockValue = 0;
+        long lowStockCount = 0;
+        for (ShopItemStatistics statistics : perShard) {
+            itemCount += statistics.itemCount();
+            totalQuantity += statistics.totalQuantity();
+            totalStockValue += statistics.totalStockValue();
+            lowStockCount += statistics.lowStockCount();
+        }
+        List<PriceBucket> buckets = new ArrayList<>(priceBoundaries.size());
+        for (int i = 0; i < priceBoundaries.size(); i++) {
+            PriceBucket first = perShard.get(0).priceBuckets().get(i);
+            long bucketCount = 0;
+            long quantity = 0;
+            double stockValue = 0;
+            for (ShopItemStatistics statistics : perShard) {
+                PriceBucket bucket = statistics.priceBuckets().get(i);
+                bucketCount += bucket.itemCount();
+                quantity += bucket.quantity();
+                stockValue += bucket.stockValue();
+            }
+            buckets.add(new PriceBucket(first.lowerBound(), first.upperBound(), bucketCount, quantity, stockValue));
+        }
+        return new ShopItemStatistics(itemCount, totalQuantity, totalStockValue, lowStockThreshold, lowStockCount,
+                buckets);
+    }
+
+    /**
+     * The statistics the shards' aggregations return, from a de-duplicated scan of the
+     * summaries. Prices outside the boundaries fall into the last bucket, like the
+     * default bucket of $bucket.
+     */
+    private ShopItemStatistics scanStatistics(List<Double> priceBoundaries, int lowStockThreshold) {
+        int bucketCount = priceBoundaries.size();
+        long[] itemCounts = new long[bucketCount];
+        long[] quantities = new long[bucketCount];
+        double[] stockValues = new double[bucketCount];
+        long[] lowStockCount = new long[1];
+        forEachSummary(summary -> {
+            int bucket = bucketCount - 1;
+            for (int i = 0; i + 1 < bucketCount; i++) {
+                if (summary.price() >= priceBoundaries.get(i) && summary.price() < priceBoundaries.get(i + 1)) {
+                    bucket = i;
+                    break;
+                }
+            }
+            itemCounts[bucket]++;
+            quantities[bucket] += summary.quantity();
+            stockValues[bucket] += summary.price() * summary.quantity();
+            if (summary.quantity() <= lowStockThreshold) {
+                lowStockCount[0]++;
+            }
+        });
+        List<PriceBucket> buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.add(new PriceBucket(priceBoundaries.get(i), i + 1 < bucketCount ? priceBoundaries.get(i + 1) : null,
+                    itemCounts[i], quantities[i], stockValues[i]));
+        }
+        return new ShopItemStatistics(buckets.stream().mapToLong(PriceBucket::itemCount).sum(),
+                buckets.stream().mapToLong(PriceBucket::quantity).sum(),
+                buckets.stream().mapToDouble(PriceBucket::stockValue).sum(), lowStockThreshold, lowStockCount[0],
+                buckets);
+    }
+
+    @Override
+    public MongoChangeStreamCursor<ChangeStreamDocument<ShopItem>> watchChanges(BsonDocument resumeAfter) {
+        throw new UnsupportedOperationException("Change streams cannot be merged across shards; "
+                + "onlineshop.change-feed.source=change-stream is refused at startup with sharding");
+    }
+
+    @Override
+    public void ensureIndexes() {
+        scatter(repository -> {
+            repository.ensureIndexes();
+            return null;
+        });
+    }
+
+    private static <S extends ShopItem> void assignId(S entity) {
+        if (entity.getId() == null) {
+            entity.setId(new ObjectId().toHexString());
+        }
+    }
+
+    /**
+     * The shard a new item is created on, which is always its owner. An id that a
+     * previous owner still holds is a duplicate, as it would be in one database.
+     */
+    private ShopItemShard ownerOfNew(String id) {
+        List<String> candidates = placement.candidates(id);
+        for (String candidate : candidates.subList(0, candidates.size() - 1)) {
+            if (shards.get(candidate).repository().existsById(id)) {
+                throw new DuplicateKeyException("Shop item " + id + " already exists on shard " + candidate);
+            }
+        }
+        return shards.get(candidates.get(candidates.size() - 1));
+    }
+
+    private <R> R onHolder(String id, Function<ShopItemRepository, R> write) {
+        return onHolder(id, write, write);
+    }
+
+    /**
+     * Runs a write that does not create the item on each previous owner in turn, and
+     * ownerWrite on the owner if none of them had it. The rebalancer may move the item
+     * away between any two steps; a write that then finds nothing, returning null or
+     * failing its version check on a shard that no longer has the item, moves on.
+     */
+    private <R> R onHolder(String id, Function<ShopItemRepository, R> existingWrite,
+                           Function<ShopItemRepository, R> ownerWrite) {
+        List<String> candidates = placement.candidates(id);
+        for (String candidate : candidates.subList(0, candidates.size() - 1)) {
+            ShopItemRepository repository = shards.get(candidate).repository();
+            try {
+                R written = existingWrite.apply(repository);
+                if (written != null) {
+                    return written;
+                }
+            } catch (OptimisticLockingFailureException e) {
+                if (repository.existsById(id)) {
+                    throw e;
+                }
+            }
+        }
+        return ownerWrite.apply(shards.get(candidates.get(candidates.size() - 1)).repository());
+    }
+
+    private <R> R firstFound(String id, Function<ShopItemRepository, R> lookup) {
+        for (String shard : placement.candidates(id)) {
+            R found = lookup.apply(shards.get(shard).repository());
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    private <R> List<R> scatter(Function<ShopItemRepository, R> query) {
+        return scatter(List.copyOf(shards.keySet()), (name, repository) -> query.apply(repository));
+    }
+
+    /**
+     * Runs the query on the named shards, all but the first on the scatter pool, and
+     * returns the results in the same order.
+     */
+    private <R> List<R> scatter(List<String> names, BiFunction<String, ShopItemRepository, R> query) {
+        List<Future<R>> futures = new ArrayList<>(names.size());
+        for (String name : names.subList(Math.min(1, names.size()), names.size())) {
+            ShopItemRepository repository = shards.get(name).repository();
+            futures.add(executor.submit(() -> query.apply(name, repository)));
+        }
+        try {
+            List<R> results = new ArrayList<>(names.size());
+            if (!names.isEmpty()) {
+                results.add(query.apply(names.get(0), shards.get(names.get(0)).repository()));
+            }
+            for (Future<R> future : futures) {
+                results.add(gather(future));
+            }
+            return results;
+        } finally {
+            futures.forEach(future -> future.cancel(false));
+        }
+    }
+
+    private static <R> R gather(Future<R> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new DataAccessResourceFailureException("Shard query failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessResourceFailureException("Interrupted while querying shards", e);
+        }
+    }
+
+    /**
+     * Drops, while a rebalance runs, the rows an owner returned for items that their
+     * previous owner returned too. runs holds each shard's rows, in the order scatter
+     * returns them.
+     */
+    private <T> List<List<T>> distinct(List<? extends List<T>> runs, Function<? super T, String> id) {
+        ShardPlacement placement = this.placement;
+        List<String> names = List.copyOf(shards.keySet());
+        List<List<T>> distinct = new ArrayList<>(runs.size());
+        if (!placement.rebalancing()) {
+            distinct.addAll(runs);
+            return distinct;
+        }
+        Map<String, Set<String>> returned = new HashMap<>();
+        for (int i = 0; i < runs.size(); i++) {
+            returned.put(names.get(i), runs.get(i).stream().map(id).collect(Collectors.toSet()));
+        }
+        for (int i = 0; i < runs.size(); i++) {
+            String shard = names.get(i);
+            distinct.add(runs.get(i).stream().filter(row -> {
+                List<String> candidates = placement.candidates(id.apply(row));
+                return candidates.get(0).equals(shard)
+                        || !returned.get(candidates.get(0)).contains(id.apply(row));
+            }).toList());
+        }
+        return distinct;
+    }
+
+    /**
+     * The shards' cursors one after the other, without the owner's copy of items still
+     * on their previous owner.
+     */
+    private Iterator<RawBsonDocument> distinct(List<MongoCursor<RawBsonDocument>> cursors) {
+        ShardPlacement placement = this.placement;
+        if (!placement.rebalancing()) {
+            return chain(cursors);
+        }
+        List<String> names = List.copyOf(shards.keySet());
+        DistinctRows<RawBsonDocument> rows = new DistinctRows<>(placement,
+                document -> idOf(document.get(ShopItemFields.ID)));
+        return new Iterator<>() {
+            private int current;
+            private Iterator<RawBsonDocument> remaining;
+            private RawBsonDocument next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null) {
+                    if (current < cursors.size()) {
+                        if (!cursors.get(current).hasNext()) {
+                            current++;
+                        } else {
+                            RawBsonDocument row = cursors.get(current).next();
+                            next = rows.passes(names.get(current), row) ? row : null;
+                        }
+                    } else {
+                        if (remaining == null) {
+                            remaining = rows.remaining().iterator();
+                        }
+                        if (!remaining.hasNext()) {
+                            return false;
+                        }
+                        next = remaining.next();
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public RawBsonDocument next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                RawBsonDocument row = next;
+                next = null;
+                return row;
+            }
+        };
+    }
+
+    private static String idOf(BsonValue id) {
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+
+    private static <T> List<T> concat(List<? extends List<? extends T>> results) {
+        List<T> all = new ArrayList<>(results.stream().mapToInt(List::size).sum());
+        results.forEach(all::addAll);
+        return all;
+    }
+
+    private static <T> Iterator<T> chain(List<? extends Iterator<T>> iterators) {
+        return new Iterator<>() {
+            private int current;
+
+            @Override
+            public boolean hasNext() {
+                while (current < iterators.size() && !iterators.get(current).hasNext()) {
+                    current++;
+                }
+                return current < iterators.size();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return iterators.get(current).next();
+            }
+        };
+    }
+
+    /**
+     * Merges lists that are each sorted by order, skipping the first skip rows and
+     * returning at most limit.
+     */
+    static <T> List<T> merge(List<? extends List<? extends T>> runs, Comparator<? super T> order, long skip,
+                             int limit) {
+        PriorityQueue<Run<T>> heads = new PriorityQueue<>(Math.max(1, runs.size()),
+                (a, b) -> order.compare(a.head, b.head));
+        for (List<? extends T> run : runs) {
+            Iterator<? extends T> rows = run.iterator();
+            if (rows.hasNext()) {
+                heads.add(new Run<>(rows.next(), rows));
+            }
+        }
+        List<T> merged = new ArrayList<>(Math.min(limit, 1024));
+        long position = 0;
+        while (!heads.isEmpty() && merged.size() < limit) {
+            Run<T> run = heads.poll();
+            if (position++ >= skip) {
+                merged.add(run.head);
+            }
+            if (run.rows.hasNext()) {
+                heads.add(new Run<>(run.rows.next(), run.rows));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * distinctTotal counts the rows without duplicates; it is only asked while a
+     * rebalance runs, when the shards' totals can count an item twice.
+     */
+    private <S extends ShopItem> Page<S> page(List<Page<S>> pages, Pageable pageable, Sort sort,
+                                              LongSupplier distinctTotal) {
+        List<List<S>> runs = distinct(pages.stream().map(Page::getContent).toList(), ShopItem::getId);
+        long total = placement.rebalancing()
+                ? distinctTotal.getAsLong()
+                : pages.stream().mapToLong(Page::getTotalElements).sum();
+        return new PageImpl<>(merge(runs, itemOrder(sort), pageable.getOffset(), pageable.getPageSize()), pageable,
+                total);
+    }
+
+    private static int rowsUpTo(Pageable pageable) {
+        return Math.toIntExact(pageable.getOffset() + pageable.getPageSize());
+    }
+
+    private static Comparator<Object> itemOrder(Sort sort) {
+        return orderBy(sort.toList(), (item, property) -> itemProperty((ShopItem) item, property));
+    }
+
+    private static <T> Comparator<T> orderBy(List<Sort.Order> orders, BiFunction<T, String, Object> property) {
+        Comparator<T> order = (a, b) -> 0;
+        for (Sort.Order key : orders) {
+            Comparator<T> byKey = (a, b) ->
+                    compareValues(property.apply(a, key.getProperty()), property.apply(b, key.getProperty()));
+            order = order.thenComparing(key.isAscending() ? byKey : byKey.reversed());
+        }
+        return order;
+    }
+
+    /**
+     * Orders like Mongo does for the types shop items have: missing values first,
+     * then numbers, then strings. ObjectId hex strings order like the ObjectIds.
+     */
+    private static int compareValues(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        if (a instanceof Number x && b instanceof Number y) {
+            return Double.compare(x.doubleValue(), y.doubleValue());
+        }
+        if (a instanceof Number || b instanceof Number) {
+            return a instanceof Number ? -1 : 1;
+        }
+        return a.toString().compareTo(b.toString());
+    }
+
+    private static Object summaryProperty(ShopItemSummary summary, String property) {
+        return switch (property) {
+            case ShopItemFields.ID, "id" -> summary.id();
+            case ShopItemFields.NAME -> summary.name();
+            case ShopItemFields.PRICE -> summary.price();
+            case ShopItemFields.QUANTITY -> summary.quantity();
+            default -> throw new IllegalArgumentException("Cannot merge shards sorted by " + property);
+        };
+    }
+
+    private static Object itemProperty(ShopItem item, String property) {
+        return switch (property) {
+            case ShopItemFields.ID, "id" -> item.getId();
+            case ShopItemFields.NAME -> item.getName();
+            case ShopItemFields.DESCRIPTION -> item.getDescription();
+            case ShopItemFields.PRICE -> item.getPrice();
+            case ShopItemFields.QUANTITY -> item.getQuantity();
+            case ShopItemFields.VERSION -> item.getVersion();
+            default -> throw new IllegalArgumentException("Cannot merge shards sorted by " + property);
+        };
+    }
+
+    private record Run<T>(T head, Iterator<? extends T> rows) {
+    }
+
+    /**
+     * De-duplicates rows read one shard after the other while a rebalance runs. A row
+     * from the owner of an item that has a previous owner is held back, and only
+     * returned by remaining() if the previous owner did not have the item.
+     */
+    private static final class DistinctRows<T> {
+
+        private final ShardPlacement placement;
+        private final Function<? super T, String> id;
+        private final Set<String> onPreviousOwner = new HashSet<>();
+        private final List<T> onOwner = new ArrayList<>();
+
+        private DistinctRows(ShardPlacement placement, Function<? super T, String> id) {
+            this.placement = placement;
+            this.id = id;
+        }
+
+        boolean passes(String shard, T row) {
+            if (!placement.rebalancing()) {
+                return true;
+            }
+            List<String> candidates = placement.candidates(id.apply(row));
+            if (candidates.size() == 1) {
+                return true;
+            }
+            if (candidates.get(0).equals(shard)) {
+                onPreviousOwner.add(id.apply(row));
+                return true;
+            }
+            onOwner.add(row);
+            return false;
+        }
+
+        List<T> remaining() {
+            return onOwner.stream().filter(row -> !onPreviousOwner.contains(id.apply(row))).toList();
+        }
+    }
+
+    /**
+     * Runs a fluent query on every shard with the same sort, limit and projection and
+     * merges the answers like the other queries do. Results can only be merged as shop
+     * items, so as() only accepts the probe type or a supertype of it.
+     */
+    private final class ShardedFluentQuery<S extends ShopItem> implements FluentQuery.FetchableFluentQuery<S> {
+
+        private final Example<S> example;
+        private final Sort sort;
+        private final int limit;
+        private final List<String> properties;
+
+        private ShardedFluentQuery(Example<S> example, Sort sort, int limit, List<String> properties) {
+            this.example = example;
+            this.sort = sort;
+            this.limit = limit;
+            this.properties = properties;
+        }
+
+        @Override
+        public FluentQuery.FetchableFluentQuery<S> sortBy(Sort sort) {
+            return new ShardedFluentQuery<>(example, this.sort.and(sort), limit, properties);
+        }
+
+        @Override
+        public FluentQuery.FetchableFluentQuery<S> limit(int limit) {
+            if (limit < 0) {
+                throw new IllegalArgumentException("Limit must not be negative");
+            }
+            return new ShardedFluentQuery<>(example, sort, limit, properties);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <R> FluentQuery.FetchableFluentQuery<R> as(Class<R> resultType) {
+            if (!resultType.isAssignableFrom(example.getProbeType())) {
+                throw new UnsupportedOperationException("Fluent query results of type " + resultType.getName()
+                        + " cannot be merged across shards");
+            }
+            return (FluentQuery.FetchableFluentQuery<R>) this;
+        }
+
+        @Override
+        public FluentQuery.FetchableFluentQuery<S> project(Collection<String> properties) {
+            return new ShardedFluentQuery<>(example, sort, limit, List.copyOf(properties));
+        }
+
+        @Override
+        public S oneValue() {
+            List<S> found = fetch(sort, 2);
+            if (found.size() > 1) {
+                throw new IncorrectResultSizeDataAccessException(1, found.size());
+            }
+            return found.isEmpty() ? null : found.get(0);
+        }
+
+        @Override
+        public S firstValue() {
+            List<S> found = fetch(sort.isSorted() ? sort : BY_ID, 1);
+            return found.isEmpty() ? null : found.get(0);
+        }
+
+        @Override
+        public List<S> all() {
+            return fetch(sort.isSorted() || limit == 0 ? sort : BY_ID, limit);
+        }
+
+        @Override
+        public Page<S> page(Pageable pageable) {
+            if (pageable.isUnpaged()) {
+                return new PageImpl<>(all());
+            }
+            Sort pageSort = pageable.getSort().isSorted() ? pageable.getSort() : sort.isSorted() ? sort : BY_ID;
+            Pageable firstRows = PageRequest.of(0, rowsUpTo(pageable), pageSort);
+            return ShardedShopItemRepository.this.page(scatter(repository -> repository.findBy(example,
+                    query -> shaped(query, Sort.unsorted(), 0, pageSort).page(firstRows))), pageable, pageSort,
+                    this::count);
+        }
+
+        @Override
+        public Stream<S> stream() {
+            return all().stream();
+        }
+
+        @Override
+        public long count() {
+            if (placement.rebalancing()) {
+                return fetch(Sort.unsorted(), 0).size();
+            }
+            return scatter(repository -> repository.findBy(example, FluentQuery.FetchableFluentQuery::count))
+                    .stream().mapToLong(Long::longValue).sum();
+        }
+
+        @Override
+        public boolean exists() {
+            return scatter(repository -> repository.findBy(example, FluentQuery.FetchableFluentQuery::exists))
+                    .contains(Boolean.TRUE);
+        }
+
+        /**
+         * The first rows of the merged result; rows 0 means all of them.
+         */
+        private List<S> fetch(Sort sort, int rows) {
+            // Dropping duplicates from each shard's first rows only keeps enough rows if
+            // they are ordered.
+            Sort order = sort.isUnsorted() && rows > 0 && placement.rebalancing() ? BY_ID : sort;
+            List<List<S>> runs = distinct(scatter(repository -> repository.findBy(example,
+                    query -> shaped(query, order, rows, order).all())), ShopItem::getId);
+            return order.isSorted()
+                    ? merge(runs, itemOrder(order), 0, rows == 0 ? Integer.MAX_VALUE : rows)
+                    : concat(runs).stream().limit(rows == 0 ? Long.MAX_VALUE : rows).toList();
+        }
+
+        /**
+         * The shard's query, with the sort properties projected too so the rows can be
+         * merged.
+         */
+        private FluentQuery.FetchableFluentQuery<S> shaped(FluentQuery.FetchableFluentQuery<S> query, Sort order,
+                                                           int rows, Sort merged) {
+            if (order.isSorted()) {
+                query = query.sortBy(order);
+            }
+            if (rows > 0) {
+                query = query.limit(rows);
+            }
+            if (!properties.isEmpty()) {
+                Set<String> projected = new LinkedHashSet<>(properties);
+                merged.forEach(key -> projected.add(key.getProperty()));
+                query = query.project(projected);
+            }
+            return query;
+        }
+    }
+}
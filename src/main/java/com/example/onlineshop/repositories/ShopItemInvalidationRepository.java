@@ -0,0 +1,110 @@
+package com.example.onlineshop.repositories;
+
+import com.example.onlineshop.model.ShopItemInvalidation;
+import com.mongodb.CursorType;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The invalidation bus: a capped collection that nodes append to and tail. Entries
+ * are read in insertion order. Their ObjectIds come from the publishing node's
+ * clock, so they identify an entry but say nothing about its place on the bus;
+ * publishedAt is the server's time.
+ */
+@Repository
+public class ShopItemInvalidationRepository {
+
+    static final String COLLECTION = "shop_item_invalidations";
+    private static final int NAMESPACE_EXISTS = 48;
+    private static final String ID = "_id";
+    private static final String NODE = "node";
+    private static final String IDS = "ids";
+    private static final String ALL = "all";
+    private static final String PUBLISHED_AT = "publishedAt";
+    private static final String NATURAL = "$natural";
+
+    private final MongoTemplate mongoTemplate;
+
+    public ShopItemInvalidationRepository(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Creates the capped collection unless it exists. It always keeps at least one
+     * entry, because a tailable cursor on an empty collection dies at once.
+     */
+    public void ensureCollection(long sizeBytes) {
+        try {
+            mongoTemplate.getDb().createCollection(COLLECTION,
+                    new CreateCollectionOptions().capped(true).sizeInBytes(sizeBytes));
+        } catch (MongoCommandException e) {
+            if (e.getErrorCode() != NAMESPACE_EXISTS) {
+                throw e;
+            }
+        }
+        if (latestId() == null) {
+            publish("bus", List.of(), false);
+        }
+    }
+
+    public String latestId() {
+        Document latest = collection().find().sort(Sorts.descending(NATURAL)).limit(1).first();
+        return latest == null ? null : latest.getObjectId(ID).toHexString();
+    }
+
+    public void publish(String node, Collection<String> ids, boolean all) {
+        // An upsert, so that $currentDate stamps the entry with the server's clock.
+        collection().updateOne(Filters.eq(ID, new ObjectId()),
+                Updates.combine(
+                        Updates.setOnInsert(NODE, node),
+                        Updates.setOnInsert(IDS, List.copyOf(ids)),
+                        Updates.setOnInsert(ALL, all),
+                        Updates.currentDate(PUBLISHED_AT)),
+                new UpdateOptions().upsert(true));
+    }
+
+    /**
+     * The clock that publishedAt is taken from.
+     */
+    public Instant serverTime() {
+        return mongoTemplate.getDb().runCommand(new Document("hello", 1)).getDate("localTime").toInstant();
+    }
+
+    /**
+     * Tails the bus from its oldest retained entry; the caller skips up to the
+     * entry it has already seen.
+     */
+    public MongoCursor<ShopItemInvalidation> tail() {
+        return collection().find()
+                .sort(Sorts.ascending(NATURAL))
+                .cursorType(CursorType.TailableAwait)
+                .maxAwaitTime(1, TimeUnit.SECONDS)
+                .map(ShopItemInvalidationRepository::toInvalidation)
+                .cursor();
+    }
+
+    private static ShopItemInvalidation toInvalidation(Document document) {
+        return new ShopItemInvalidation(document.getObjectId(ID).toHexString(), document.getString(NODE),
+                document.getList(IDS, String.class), document.getBoolean(ALL, false),
+                document.getDate(PUBLISHED_AT).toInstant());
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(COLLECTION);
+    }
+}
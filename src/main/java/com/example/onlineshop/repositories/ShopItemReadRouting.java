@@ -0,0 +1,38 @@
+package com.example.onlineshop.repositories;
+
+import com.mongodb.ReadPreference;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Read preference per kind of catalog read. Reads that have to see this node's own
+ * writes (point reads, the in-memory index rebuild, catalog summary reconciliation)
+ * are not routed and always go to the primary.
+ */
+public class ShopItemReadRouting {
+
+    public enum Operation {
+        /** Full lists, exports and browse pages. */
+        LIST,
+        /** Full-text search. */
+        SEARCH,
+        /** Statistics and the analytics snapshot. */
+        ANALYTICS
+    }
+
+    private final Map<Operation, ReadPreference> readPreferences;
+
+    public ShopItemReadRouting(Map<Operation, ReadPreference> readPreferences) {
+        this.readPreferences = new EnumMap<>(Operation.class);
+        this.readPreferences.putAll(readPreferences);
+    }
+
+    public static ShopItemReadRouting primaryOnly() {
+        return new ShopItemReadRouting(Map.of());
+    }
+
+    public ReadPreference readPreference(Operation operation) {
+        return readPreferences.getOrDefault(operation, ReadPreference.primary());
+    }
+}
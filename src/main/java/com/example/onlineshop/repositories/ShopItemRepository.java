@@ -5,7 +5,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.List;
 
-public interface ShopItemRepository extends MongoRepository<ShopItem, String> {
+public interface ShopItemRepository extends MongoRepository<ShopItem, String>, ShopItemRepositoryCustom {
 
     ShopItem findFirstByName(String name);  
     List<ShopItem> findByName(String name);   
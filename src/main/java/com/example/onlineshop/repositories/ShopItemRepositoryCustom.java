@@ -0,0 +1,72 @@
+package com.example.onlineshop.repositories;
+
+import com.example.onlineshop.model.CatalogSummary;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.model.ShopItemSearchHit;
+import com.example.onlineshop.model.ShopItemStatistics;
+import com.example.onlineshop.model.ShopItemSummary;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public interface ShopItemRepositoryCustom {
+
+    List<ShopItem> findAll();
+
+    ShopItem findById(String id, ReadPreference readPreference);
+
+    void forEachItem(Consumer<ShopItem> action);
+
+    void forEachSummary(Consumer<ShopItemSummary> action);
+
+    List<ShopItem> insertUnordered(List<ShopItem> items);
+
+    ShopItem replaceIfVersionMatches(ShopItem replacement);
+
+    ShopItem replaceUnconditionally(ShopItem replacement);
+
+    /**
+     * Like replaceUnconditionally, but never creates the item; returns null when it
+     * does not exist.
+     */
+    ShopItem replaceIfPresent(ShopItem replacement);
+
+    ShopItem incrementQuantity(String id, int delta);
+
+    ShopItem incrementQuantity(String id, int delta, WriteConcern writeConcern);
+
+    /**
+     * Applies every id's delta in one unordered bulk write. Failed deltas are reported
+     * by a MongoBulkWriteException whose error indexes point into deltas; the others
+     * were applied. Ids that do not exist are skipped.
+     */
+    void incrementQuantities(List<Map.Entry<String, Integer>> deltas, WriteConcern writeConcern);
+
+    void writeAllAsJson(OutputStream out) throws IOException;
+
+    List<ShopItemSearchHit> searchText(String text, int skip, int limit);
+
+    List<ShopItemSummary> findSummariesByPriceRange(Double minPrice, Double maxPrice, Sort sort, int skip, int limit);
+
+    Document explainSummariesByPriceRange(Double minPrice, Double maxPrice, Sort sort);
+
+    ShopItem findAndDeleteById(String id);
+
+    MongoChangeStreamCursor<ChangeStreamDocument<ShopItem>> watchChanges(BsonDocument resumeAfter);
+
+    CatalogSummary computeCatalogSummary();
+
+    ShopItemStatistics aggregateStatistics(List<Double> priceBoundaries, int lowStockThreshold);
+
+    void ensureIndexes();
+}
@@ -0,0 +1,519 @@
+package com.example.onlineshop.repositories;
+
+import com.example.onlineshop.consistency.CausalConsistencyContext;
+import com.example.onlineshop.consistency.CausalToken;
+import com.example.onlineshop.mapping.ShopItemCodec;
+import com.example.onlineshop.mapping.ShopItemFields;
+import com.example.onlineshop.mapping.ShopItemJsonTranscoder;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.model.CatalogSummary;
+import com.example.onlineshop.model.PriceBucket;
+import com.example.onlineshop.model.ShopItemSearchHit;
+import com.example.onlineshop.model.ShopItemStatistics;
+import com.example.onlineshop.model.ShopItemSummary;
+import com.example.onlineshop.repositories.ShopItemReadRouting.Operation;
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.MongoCommandException;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BucketOptions;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Facet;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+public class ShopItemRepositoryCustomImpl implements ShopItemRepositoryCustom {
+
+    private static final String TEXT_INDEX = "shop_items_text";
+    private static final String PRICE_INDEX = "shop_items_price_quantity";
+    private static final String QUANTITY_INDEX = "shop_items_quantity_price";
+    private static final String SCORE = "score";
+    private static final List<List<Sort.Order>> BROWSE_INDEX_KEYS = List.of(
+            List.of(Sort.Order.asc(ShopItemFields.PRICE), Sort.Order.desc(ShopItemFields.QUANTITY),
+                    Sort.Order.asc(ShopItemFields.NAME), Sort.Order.asc(ShopItemFields.ID)),
+            List.of(Sort.Order.asc(ShopItemFields.QUANTITY), Sort.Order.asc(ShopItemFields.PRICE),
+                    Sort.Order.asc(ShopItemFields.NAME), Sort.Order.asc(ShopItemFields.ID)));
+    private static final String TOTALS = "totals";
+    private static final String PRICE_BUCKETS = "priceBuckets";
+    private static final Document STOCK_VALUE = new Document("$multiply",
+            List.of("$" + ShopItemFields.PRICE, "$" + ShopItemFields.QUANTITY));
+    private static final ShopItemCodec SHOP_ITEM_CODEC = new ShopItemCodec();
+
+    /**
+     * What a server answers for an afterClusterTime ahead of its cluster, or a cluster
+     * time signed with keys it does not have.
+     */
+    private static final Set<String> REJECTED_TOKEN_ERRORS = Set.of("InvalidOptions", "KeyNotFound",
+            "TimeProofMismatch");
+
+    private static final ClientSessionOptions CAUSAL_SESSION = ClientSessionOptions.builder()
+            .causallyConsistent(true)
+            .build();
+
+    private final MongoTemplate mongoTemplate;
+    private final ShopItemReadRouting readRouting;
+    private final CausalConsistencyContext causalContext;
+
+    public ShopItemRepositoryCustomImpl(MongoTemplate mongoTemplate, ObjectProvider<ShopItemReadRouting> readRouting,
+                                        ObjectProvider<CausalConsistencyContext> causalContext) {
+        this.mongoTemplate = mongoTemplate;
+        this.readRouting = readRouting.getIfAvailable(ShopItemReadRouting::primaryOnly);
+        this.causalContext = causalContext.getIfAvailable();
+    }
+
+    @Override
+    public List<ShopItem> findAll() {
+        return routedFind(itemCollection(), readRouting.readPreference(Operation.LIST), Filters.empty(),
+                find -> find, cursor -> {
+                    List<ShopItem> items = new ArrayList<>();
+                    cursor.forEachRemaining(items::add);
+                    return items;
+                });
+    }
+
+    @Override
+    public ShopItem findById(String id, ReadPreference readPreference) {
+        return routedFind(itemCollection(), readPreference,
+                Filters.eq(ShopItemFields.ID, ObjectId.isValid(id) ? new ObjectId(id) : id),
+                find -> find.limit(1), cursor -> cursor.hasNext() ? cursor.next() : null);
+    }
+
+    @Override
+    public void forEachItem(Consumer<ShopItem> action) {
+        itemCollection().find().batchSize(1000).forEach(action);
+    }
+
+    @Override
+    public void forEachSummary(Consumer<ShopItemSummary> action) {
+        routed(collection().withDocumentClass(BsonDocument.class), Operation.ANALYTICS)
+                .find()
+                .projection(Projections.include(ShopItemFields.NAME, ShopItemFields.PRICE, ShopItemFields.QUANTITY))
+                .batchSize(5000)
+                .forEach(document -> action.accept(toSummary(document)));
+    }
+
+    @Override
+    public ShopItem replaceIfVersionMatches(ShopItem replacement) {
+        Long expectedVersion = replacement.getVersion();
+        replacement.setVersion(expectedVersion == null ? 1L : expectedVersion + 1);
+        Query query = byId(replacement.getId()).addCriteria(where(ShopItemFields.VERSION).is(expectedVersion));
+        ShopItem previous = mongoTemplate.findAndReplace(query, replacement);
+        if (previous == null) {
+            replacement.setVersion(expectedVersion);
+            throw new OptimisticLockingFailureException(String.format(
+                    "Cannot update shop item %s with version %s; it was modified or deleted meanwhile",
+                    replacement.getId(), expectedVersion));
+        }
+        return previous;
+    }
+
+    /**
+     * Inserts without stopping at the first failure. Ids are assigned to the items
+     * before they are sent, and a MongoBulkWriteException reports the failed ones by
+     * their index in items.
+     */
+    @Override
+    public List<ShopItem> insertUnordered(List<ShopItem> items) {
+        for (ShopItem item : items) {
+            if (item.getVersion() == null) {
+                item.setVersion(0L);
+            }
+        }
+        itemCollection().insertMany(items, new InsertManyOptions().ordered(false));
+        return items;
+    }
+
+    @Override
+    public ShopItem replaceUnconditionally(ShopItem replacement) {
+        return replace(replacement, true);
+    }
+
+    @Override
+    public ShopItem replaceIfPresent(ShopItem replacement) {
+        return replace(replacement, false);
+    }
+
+    private ShopItem replace(ShopItem replacement, boolean upsert) {
+        Update update = new Update().inc(ShopItemFields.VERSION, 1);
+        setOrUnset(update, ShopItemFields.NAME, replacement.getName());
+        setOrUnset(update, ShopItemFields.DESCRIPTION, replacement.getDescription());
+        update.set(ShopItemFields.PRICE, replacement.getPrice());
+        update.set(ShopItemFields.QUANTITY, replacement.getQuantity());
+        ShopItem previous = mongoTemplate.findAndModify(byId(replacement.getId()), update,
+                FindAndModifyOptions.options().upsert(upsert), ShopItem.class);
+        if (previous == null && !upsert) {
+            return null;
+        }
+        long previousVersion = previous == null || previous.getVersion() == null ? 0L : previous.getVersion();
+        replacement.setVersion(previousVersion + 1);
+        return previous;
+    }
+
+    @Override
+    public ShopItem incrementQuantity(String id, int delta) {
+        Update update = new Update().inc(ShopItemFields.QUANTITY, delta).inc(ShopItemFields.VERSION, 1);
+        return mongoTemplate.findAndModify(byId(id), update,
+                FindAndModifyOptions.options().returnNew(true), ShopItem.class);
+    }
+
+    @Override
+    public ShopItem incrementQuantity(String id, int delta, WriteConcern writeConcern) {
+        return itemCollection().withWriteConcern(writeConcern).findOneAndUpdate(
+                Filters.eq(ShopItemFields.ID, ObjectId.isValid(id) ? new ObjectId(id) : id),
+                Updates.combine(Updates.inc(ShopItemFields.QUANTITY, delta), Updates.inc(ShopItemFields.VERSION, 1L)),
+                new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+    }
+
+    @Override
+    public void incrementQuantities(List<Map.Entry<String, Integer>> deltas, WriteConcern writeConcern) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<UpdateOneModel<ShopItem>> updates = new ArrayList<>(deltas.size());
+        for (Map.Entry<String, Integer> delta : deltas) {
+            String id = delta.getKey();
+            updates.add(new UpdateOneModel<>(Filters.eq(ShopItemFields.ID, ObjectId.isValid(id) ? new ObjectId(id) : id),
+                    Updates.combine(Updates.inc(ShopItemFields.QUANTITY, delta.getValue()),
+                            Updates.inc(ShopItemFields.VERSION, 1L))));
+        }
+        itemCollection().withWriteConcern(writeConcern).bulkWrite(updates, new BulkWriteOptions().ordered(false));
+    }
+
+    @Override
+    public ShopItem findAndDeleteById(String id) {
+        return mongoTemplate.findAndRemove(byId(id), ShopItem.class);
+    }
+
+    @Override
+    public MongoChangeStreamCursor<ChangeStreamDocument<ShopItem>> watchChanges(BsonDocument resumeAfter) {
+        ChangeStreamIterable<ShopItem> changes = itemCollection().watch()
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        return (resumeAfter == null ? changes : changes.resumeAfter(resumeAfter)).cursor();
+    }
+
+    @Override
+    public void writeAllAsJson(OutputStream out) throws IOException {
+        routedFind(rawCollection(), readRouting.readPreference(Operation.LIST), Filters.empty(), find -> find,
+                cursor -> {
+                    ShopItemJsonTranscoder.writeArray(cursor, out);
+                    return null;
+                });
+    }
+
+    @Override
+    public List<ShopItemSearchHit> searchText(String text, int skip, int limit) {
+        return routedFind(collection().withDocumentClass(BsonDocument.class),
+                readRouting.readPreference(Operation.SEARCH), Filters.text(text),
+                find -> find.projection(Projections.fields(
+                                Projections.include(ShopItemFields.NAME, ShopItemFields.PRICE,
+                                        ShopItemFields.QUANTITY),
+                                Projections.metaTextScore(SCORE)))
+                        .sort(Sorts.metaTextScore(SCORE))
+                        .skip(skip)
+                        .limit(limit),
+                cursor -> {
+                    List<ShopItemSearchHit> hits = new ArrayList<>(limit);
+                    cursor.forEachRemaining(document -> hits.add(toSearchHit(document)));
+                    return hits;
+                });
+    }
+
+    @Override
+    public List<ShopItemSummary> findSummariesByPriceRange(Double minPrice, Double maxPrice, Sort sort,
+                                                           int skip, int limit) {
+        return routedFind(collection().withDocumentClass(BsonDocument.class),
+                readRouting.readPreference(Operation.LIST), priceRange(minPrice, maxPrice),
+                find -> summariesSorted(find, sort).skip(skip).limit(limit), cursor -> {
+                    List<ShopItemSummary> summaries = new ArrayList<>(limit);
+                    cursor.forEachRemaining(document -> summaries.add(toSummary(document)));
+                    return summaries;
+                });
+    }
+
+    @Override
+    public Document explainSummariesByPriceRange(Double minPrice, Double maxPrice, Sort sort) {
+        return summariesSorted(routed(collection().withDocumentClass(BsonDocument.class), Operation.LIST)
+                .find(priceRange(minPrice, maxPrice)), sort).explain(ExplainVerbosity.EXECUTION_STATS);
+    }
+
+    @Override
+    public CatalogSummary computeCatalogSummary() {
+        Document total = collection().withDocumentClass(Document.class).aggregate(List.of(Aggregates.group(null,
+                Accumulators.sum("itemCount", 1),
+                Accumulators.sum("totalQuantity", "$" + ShopItemFields.QUANTITY),
+                Accumulators.sum("totalStockValue", STOCK_VALUE)))).first();
+        if (total == null) {
+            total = new Document();
+        }
+        return new CatalogSummary(longOf(total, "itemCount"), longOf(total, "totalQuantity"),
+                doubleOf(total, "totalStockValue"), 0L, null);
+    }
+
+    @Override
+    public ShopItemStatistics aggregateStatistics(List<Double> priceBoundaries, int lowStockThreshold) {
+        Double overflow = priceBoundaries.get(priceBoundaries.size() - 1);
+        Document low = new Document("$cond", List.of(
+                new Document("$lte", List.of("$" + ShopItemFields.QUANTITY, lowStockThreshold)), 1, 0));
+        Document result = routed(collection().withDocumentClass(Document.class), Operation.ANALYTICS)
+                .aggregate(List.of(Aggregates.facet(
+                        new Facet(TOTALS, Aggregates.group(null,
+                                Accumulators.sum("itemCount", 1),
+                                Accumulators.sum("totalQuantity", "$" + ShopItemFields.QUANTITY),
+                                Accumulators.sum("totalStockValue", STOCK_VALUE),
+                                Accumulators.sum("lowStockCount", low))),
+                        new Facet(PRICE_BUCKETS, Aggregates.bucket("$" + ShopItemFields.PRICE, priceBoundaries,
+                                new BucketOptions().defaultBucket(overflow).output(
+                                        Accumulators.sum("itemCount", 1),
+                                        Accumulators.sum("quantity", "$" + ShopItemFields.QUANTITY),
+                                        Accumulators.sum("stockValue", STOCK_VALUE))))))).first();
+
+        List<Document> totals = result.getList(TOTALS, Document.class);
+        Document total = totals.isEmpty() ? new Document() : totals.get(0);
+        Map<Double, Document> bucketsByLowerBound = new HashMap<>();
+        for (Document bucket : result.getList(PRICE_BUCKETS, Document.class)) {
+            bucketsByLowerBound.put(((Number) bucket.get(ShopItemFields.ID)).doubleValue(), bucket);
+        }
+        // $bucket leaves out empty ranges; a histogram should still show them.
+        List<PriceBucket> buckets = new ArrayList<>(priceBoundaries.size());
+        for (int i = 0; i < priceBoundaries.size(); i++) {
+            Double upperBound = i + 1 < priceBoundaries.size() ? priceBoundaries.get(i + 1) : null;
+            Document bucket = bucketsByLowerBound.getOrDefault(priceBoundaries.get(i), new Document());
+            buckets.add(new PriceBucket(priceBoundaries.get(i), upperBound, longOf(bucket, "itemCount"),
+                    longOf(bucket, "quantity"), doubleOf(bucket, "stockValue")));
+        }
+        return new ShopItemStatistics(longOf(total, "itemCount"), longOf(total, "totalQuantity"),
+                doubleOf(total, "totalStockValue"), lowStockThreshold, longOf(total, "lowStockCount"), buckets);
+    }
+
+    @Override
+    public void ensureIndexes() {
+        collection().createIndex(toIndexKeys(BROWSE_INDEX_KEYS.get(0)), new IndexOptions().name(PRICE_INDEX));
+        collection().createIndex(toIndexKeys(BROWSE_INDEX_KEYS.get(1)), new IndexOptions().name(QUANTITY_INDEX));
+        collection().createIndex(
+                Indexes.compoundIndex(Indexes.text(ShopItemFields.NAME), Indexes.text(ShopItemFields.DESCRIPTION)),
+                new IndexOptions().name(TEXT_INDEX)
+                        .weights(new Document(ShopItemFields.NAME, 10).append(ShopItemFields.DESCRIPTION, 1)));
+    }
+
+    private static Bson priceRange(Double minPrice, Double maxPrice) {
+        List<Bson> filters = new ArrayList<>(2);
+        if (minPrice != null) {
+            filters.add(Filters.gte(ShopItemFields.PRICE, minPrice));
+        }
+        if (maxPrice != null) {
+            filters.add(Filters.lte(ShopItemFields.PRICE, maxPrice));
+        }
+        return filters.isEmpty() ? Filters.empty() : Filters.and(filters);
+    }
+
+    private static FindIterable<BsonDocument> summariesSorted(FindIterable<BsonDocument> find, Sort sort) {
+        return find.projection(Projections.include(ShopItemFields.ID, ShopItemFields.NAME, ShopItemFields.PRICE,
+                        ShopItemFields.QUANTITY))
+                .sort(toIndexKeys(completeToIndexOrder(sort)));
+    }
+
+    private static Bson toIndexKeys(List<Sort.Order> orders) {
+        return Sorts.orderBy(orders.stream()
+                .map(order -> order.isAscending()
+                        ? Sorts.ascending(order.getProperty()) : Sorts.descending(order.getProperty()))
+                .toList());
+    }
+
+    /**
+     * Extends a sort that is a prefix of one of the browse indexes (read forwards or
+     * backwards) with the remaining index keys, so results come straight off the index
+     * in a stable order and no in-memory sort stage is needed. Other sorts just get the
+     * id as a tie-breaker.
+     */
+    static List<Sort.Order> completeToIndexOrder(Sort sort) {
+        List<Sort.Order> requested = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            requested.add("id".equals(order.getProperty())
+                    ? order.withProperty(ShopItemFields.ID) : order);
+        }
+        for (List<Sort.Order> keys : BROWSE_INDEX_KEYS) {
+            if (requested.size() > keys.size() || requested.isEmpty()) {
+                continue;
+            }
+            boolean reversed = requested.get(0).getDirection() != keys.get(0).getDirection();
+            boolean prefix = true;
+            for (int i = 0; i < requested.size() && prefix; i++) {
+                Sort.Order key = keys.get(i);
+                Sort.Order order = requested.get(i);
+                prefix = key.getProperty().equals(order.getProperty())
+                        && (key.getDirection() != order.getDirection()) == reversed;
+            }
+            if (prefix) {
+                List<Sort.Order> completed = new ArrayList<>(requested);
+                for (Sort.Order key : keys.subList(requested.size(), keys.size())) {
+                    completed.add(reversed ? key.with(key.getDirection().isAscending()
+                            ? Sort.Direction.DESC : Sort.Direction.ASC) : key);
+                }
+                return completed;
+            }
+        }
+        if (requested.stream().noneMatch(order -> ShopItemFields.ID.equals(order.getProperty()))) {
+            requested.add(Sort.Order.asc(ShopItemFields.ID));
+        }
+        return requested;
+    }
+
+    private static ShopItemSummary toSummary(BsonDocument document) {
+        return new ShopItemSummary(idOf(document), stringOf(document, ShopItemFields.NAME),
+                doubleOf(document, ShopItemFields.PRICE), (int) doubleOf(document, ShopItemFields.QUANTITY));
+    }
+
+    private static ShopItemSearchHit toSearchHit(BsonDocument document) {
+        return new ShopItemSearchHit(idOf(document), stringOf(document, ShopItemFields.NAME),
+                doubleOf(document, ShopItemFields.PRICE), (int) doubleOf(document, ShopItemFields.QUANTITY),
+                document.getNumber(SCORE).doubleValue());
+    }
+
+    private static String idOf(BsonDocument document) {
+        BsonValue id = document.get(ShopItemFields.ID);
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+
+    private static String stringOf(BsonDocument document, String field) {
+        BsonValue value = document.get(field);
+        return value != null && value.isString() ? value.asString().getValue() : null;
+    }
+
+    private static double doubleOf(BsonDocument document, String field) {
+        BsonValue value = document.get(field);
+        return value != null && value.isNumber() ? value.asNumber().doubleValue() : 0.0;
+    }
+
+    private static long longOf(Document document, String field) {
+        Object value = document.get(field);
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+
+    private static double doubleOf(Document document, String field) {
+        Object value = document.get(field);
+        return value instanceof Number number ? number.doubleValue() : 0.0;
+    }
+
+    private static Query byId(String id) {
+        return new Query(where("id").is(id));
+    }
+
+    private static void setOrUnset(Update update, String field, Object value) {
+        if (value == null) {
+            update.unset(field);
+        } else {
+            update.set(field, value);
+        }
+    }
+
+    private MongoCollection<ShopItem> itemCollection() {
+        MongoCollection<?> collection = collection();
+        CodecRegistry registry = CodecRegistries.fromRegistries(
+                CodecRegistries.fromCodecs(SHOP_ITEM_CODEC), collection.getCodecRegistry());
+        return collection.withCodecRegistry(registry).withDocumentClass(ShopItem.class);
+    }
+
+    private <T> MongoCollection<T> routed(MongoCollection<T> collection, Operation operation) {
+        return collection.withReadPreference(readRouting.readPreference(operation));
+    }
+
+    /**
+     * Runs a find with the given read preference. When the request carries a causal
+     * token and the find may go to a secondary, it runs in a causally consistent
+     * session advanced to the token, so the member that serves it waits until it has
+     * the write. If the server refuses the token itself, such as one from another
+     * cluster, the find is sent to the primary instead. That can only happen on the
+     * initial find, before read has seen a single document; any later failure, like
+     * one on a getMore, goes to the caller.
+     */
+    private <T, R, E extends Exception> R routedFind(MongoCollection<T> collection, ReadPreference readPreference,
+                                                     Bson filter, UnaryOperator<FindIterable<T>> query,
+                                                     CursorRead<T, R, E> read) throws E {
+        CausalToken token = causalContext == null ? null : causalContext.readAfter();
+        if (token == null || readPreference.equals(ReadPreference.primary())) {
+            try (MongoCursor<T> cursor = query.apply(collection.withReadPreference(readPreference).find(filter))
+                    .cursor()) {
+                return read.apply(cursor);
+            }
+        }
+        try (ClientSession session = mongoTemplate.getMongoDatabaseFactory().getSession(CAUSAL_SESSION)) {
+            if (token.clusterTime() != null) {
+                session.advanceClusterTime(token.clusterTime());
+            }
+            session.advanceOperationTime(token.operationTime());
+            MongoCursor<T> opened;
+            try {
+                opened = query.apply(collection.withReadPreference(readPreference).find(session, filter)).cursor();
+            } catch (MongoCommandException e) {
+                if (!REJECTED_TOKEN_ERRORS.contains(e.getErrorCodeName())) {
+                    throw e;
+                }
+                opened = query.apply(collection.withReadPreference(ReadPreference.primary()).find(filter)).cursor();
+            }
+            try (MongoCursor<T> cursor = opened) {
+                return read.apply(cursor);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface CursorRead<T, R, E extends Exception> {
+        R apply(MongoCursor<T> cursor) throws E;
+    }
+
+    private MongoCollection<RawBsonDocument> rawCollection() {
+        return collection().withDocumentClass(RawBsonDocument.class);
+    }
+
+    private MongoCollection<?> collection() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(ShopItem.class));
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.onlineshop.repositories;
+
+import com.mongodb.client.MongoClient;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * One Mongo database holding part of shop_items, with a repository bound to it. The
+ * client is owned by the shard and closed with it; it may be null in tests.
+ */
+public record ShopItemShard(String name, MongoClient client, MongoTemplate mongoTemplate,
+                            ShopItemRepository repository) {
+}
@@ -0,0 +1,103 @@
+package com.example.onlineshop.repositories;
+
+import com.example.onlineshop.sharding.ConsistentHashRing;
+import com.example.onlineshop.sharding.ShardPlacement;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateOptions;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Stores the shard placement in shop_item_shards in the application's own database,
+ * so every node and every restart agrees on which ring the items were laid out by.
+ * The same collection holds the lease that lets only one node rebalance at a time.
+ */
+@Repository
+public class ShopItemShardRingRepository {
+
+    static final String COLLECTION = "shop_item_shards";
+    private static final String ID = "_id";
+    private static final String RING_ID = "ring";
+    private static final String CURRENT = "current";
+    private static final String PREVIOUS = "previous";
+    private static final String SHARDS = "shards";
+    private static final String VIRTUAL_NODES = "virtualNodes";
+    private static final String LEASE_ID = "rebalance-lease";
+    private static final String LEASE_OWNER = "owner";
+    private static final String LEASE_EXPIRES_AT = "expiresAt";
+
+    private final MongoTemplate mongoTemplate;
+
+    public ShopItemShardRingRepository(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Returns null before any placement was saved.
+     */
+    public ShardPlacement find() {
+        Document document = collection().find(Filters.eq(ID, RING_ID)).first();
+        if (document == null) {
+            return null;
+        }
+        Document previous = document.get(PREVIOUS, Document.class);
+        return new ShardPlacement(toRing(document.get(CURRENT, Document.class)),
+                previous == null ? null : toRing(previous));
+    }
+
+    public void save(ShardPlacement placement) {
+        Document document = new Document(ID, RING_ID).append(CURRENT, toDocument(placement.current()));
+        if (placement.previous() != null) {
+            document.append(PREVIOUS, toDocument(placement.previous()));
+        }
+        collection().replaceOne(Filters.eq(ID, RING_ID), document, new ReplaceOptions().upsert(true));
+    }
+
+    /**
+     * Takes the rebalance lease for node, or extends it if node already holds it.
+     * Returns false while another node holds an unexpired lease. Expiry is measured
+     * on the server's clock, so nodes with skewed clocks still agree on it.
+     */
+    public boolean acquireRebalanceLease(String node, Duration duration) {
+        Document held = new Document("$lt", List.of("$" + LEASE_EXPIRES_AT, "$$NOW"));
+        Document take = new Document("$set", new Document(LEASE_OWNER, new Document("$literal", node))
+                .append(LEASE_EXPIRES_AT, new Document("$add", List.of("$$NOW", duration.toMillis()))));
+        try {
+            collection().updateOne(
+                    Filters.and(Filters.eq(ID, LEASE_ID),
+                            Filters.or(Filters.eq(LEASE_OWNER, node), Filters.expr(held))),
+                    List.of(take), new UpdateOptions().upsert(true));
+            return true;
+        } catch (MongoWriteException e) {
+            // The upsert collides with the lease document another node holds.
+            if (e.getError().getCategory() == ErrorCategory.DUPLICATE_KEY) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    public void releaseRebalanceLease(String node) {
+        collection().deleteOne(Filters.and(Filters.eq(ID, LEASE_ID), Filters.eq(LEASE_OWNER, node)));
+    }
+
+    private static Document toDocument(ConsistentHashRing ring) {
+        return new Document(SHARDS, ring.shards()).append(VIRTUAL_NODES, ring.virtualNodes());
+    }
+
+    private static ConsistentHashRing toRing(Document document) {
+        return new ConsistentHashRing(document.getList(SHARDS, String.class), document.getInteger(VIRTUAL_NODES));
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(COLLECTION);
+    }
+}
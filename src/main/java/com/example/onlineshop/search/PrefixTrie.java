@@ -0,0 +1,360 @@
+package com.example.onlineshop.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Radix trie over normalized item names, keyed at every word start so "mouse" also
+ * completes "Wireless mouse". Each node knows the best score in its subtree, which
+ * lets top-k queries stop after visiting only the branches that can still
+ * contribute. Not thread-safe.
+ */
+public final class PrefixTrie {
+
+    private static final char[] NO_CHARS = {};
+    private static final Node[] NO_CHILDREN = {};
+    private static final Entry[] NO_ENTRIES = {};
+
+    private static final Comparator<Candidate> BEST_FIRST = Comparator
+            .comparingInt(Candidate::score).reversed()
+            .thenComparing(candidate -> candidate.entry() == null)
+            .thenComparing(candidate -> candidate.entry() == null ? "" : candidate.entry().name);
+
+    private final Node root = new Node(NO_CHARS);
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    public void put(String id, String name, int score) {
+        Entry existing = entries.get(id);
+        if (existing != null) {
+            if (existing.name.equals(name)) {
+                existing.score = score;
+                for (int start : existing.keyStarts) {
+                    refresh(pathOf(existing.key(start)));
+                }
+                return;
+            }
+            remove(id);
+        }
+        String normalized = NameNormalizer.normalize(name);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        Entry entry = new Entry(id, name, score, normalized, keyStarts(normalized));
+        entries.put(id, entry);
+        for (int start : entry.keyStarts) {
+            List<Node> path = insertPath(entry.key(start));
+            path.get(path.size() - 1).addEntry(entry);
+            refresh(path);
+        }
+    }
+
+    public void remove(String id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (int start : entry.keyStarts) {
+            List<Node> path = pathOf(entry.key(start));
+            path.get(path.size() - 1).removeEntry(entry);
+            for (int depth = path.size() - 1; depth > 0; depth--) {
+                Node node = path.get(depth);
+                Node parent = path.get(depth - 1);
+                if (node.entries.length == 0 && node.children.length == 0) {
+                    parent.removeChild(node);
+                } else if (node.entries.length == 0 && node.children.length == 1) {
+                    parent.replaceChild(node, node.children[0].withPrefix(node.label));
+                }
+            }
+            refresh(pathOf(entry.key(start)));
+        }
+    }
+
+    public List<Entry> topK(String prefix, int k) {
+        Node node = subtreeOf(NameNormalizer.normalize(prefix));
+        if (node == null || k <= 0) {
+            return List.of();
+        }
+        Set<Entry> results = new LinkedHashSet<>();
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(BEST_FIRST);
+        queue.add(new Candidate(node.best, node, null));
+        while (!queue.isEmpty() && results.size() < k) {
+            Candidate candidate = queue.poll();
+            if (candidate.entry() != null) {
+                results.add(candidate.entry());
+                continue;
+            }
+            Node current = candidate.node();
+            for (Entry entry : current.entries) {
+                queue.add(new Candidate(entry.score, null, entry));
+            }
+            for (Node child : current.children) {
+                queue.add(new Candidate(child.best, child, null));
+            }
+        }
+        return new ArrayList<>(results);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Approximate retained size in bytes, assuming compressed oops and 8-byte
+     * alignment. Strings are counted as Latin-1.
+     */
+    public long estimatedBytes() {
+        long bytes = 0;
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            bytes += 24 + align(16 + 2L * node.label.length);
+            if (node.children != NO_CHILDREN) {
+                bytes += align(16 + 4L * node.children.length);
+            }
+            if (node.entries != NO_ENTRIES) {
+                bytes += align(16 + 4L * node.entries.length);
+            }
+            for (Node child : node.children) {
+                stack.push(child);
+            }
+        }
+        for (Entry entry : entries.values()) {
+            bytes += 32 + stringBytes(entry.id) + stringBytes(entry.name) + stringBytes(entry.normalized)
+                    + align(16 + 4L * entry.keyStarts.length);
+        }
+        return bytes;
+    }
+
+    private static long stringBytes(String value) {
+        return 24 + align(16 + value.length());
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private static int[] keyStarts(String normalized) {
+        int[] starts = new int[1 + (int) normalized.chars().filter(c -> c == ' ').count()];
+        int count = 1;
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            starts[count++] = i + 1;
+        }
+        return starts;
+    }
+
+    private List<Node> insertPath(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int pos = 0;
+        while (pos < key.length()) {
+            Node child = node.child(key.charAt(pos));
+            if (child == null) {
+                child = new Node(key.substring(pos).toCharArray());
+                node.addChild(child);
+                path.add(child);
+                return path;
+            }
+            int common = commonPrefix(child.label, key, pos);
+            if (common < child.label.length) {
+                child = node.split(child, common);
+            }
+            pos += common;
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+
+    private List<Node> pathOf(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int pos = 0;
+        while (pos < key.length()) {
+            node = node.child(key.charAt(pos));
+            if (node == null) {
+                break;
+            }
+            path.add(node);
+            pos += node.label.length;
+        }
+        return path;
+    }
+
+    private Node subtreeOf(String prefix) {
+        Node node = root;
+        int pos = 0;
+        while (pos < prefix.length()) {
+            node = node.child(prefix.charAt(pos));
+            if (node == null) {
+                return null;
+            }
+            int common = commonPrefix(node.label, prefix, pos);
+            if (common < node.label.length && pos + common < prefix.length()) {
+                return null;
+            }
+            pos += common;
+        }
+        return node;
+    }
+
+    private static int commonPrefix(char[] label, String key, int offset) {
+        int max = Math.min(label.length, key.length() - offset);
+        int i = 0;
+        while (i < max && label[i] == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static void refresh(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            path.get(i).refreshBest();
+        }
+    }
+
+    public static final class Entry {
+        private final String id;
+        private final String name;
+        private final String normalized;
+        private final int[] keyStarts;
+        private int score;
+
+        private Entry(String id, String name, int score, String normalized, int[] keyStarts) {
+            this.id = id;
+            this.name = name;
+            this.score = score;
+            this.normalized = normalized;
+            this.keyStarts = keyStarts;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public int score() {
+            return score;
+        }
+
+        private String key(int start) {
+            return normalized.substring(start);
+        }
+    }
+
+    private record Candidate(int score, Node node, Entry entry) {
+    }
+
+    private static final class Node {
+        private char[] label;
+        private Node[] children = NO_CHILDREN;
+        private Entry[] entries = NO_ENTRIES;
+        private int best = Integer.MIN_VALUE;
+
+        private Node(char[] label) {
+            this.label = label;
+        }
+
+        private Node child(char c) {
+            int index = indexOf(c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private int indexOf(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midChar = children[mid].label[0];
+                if (midChar < c) {
+                    low = mid + 1;
+                } else if (midChar > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private void addChild(Node child) {
+            int insertAt = -indexOf(child.label[0]) - 1;
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newChildren[insertAt] = child;
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            children = newChildren;
+        }
+
+        private void removeChild(Node child) {
+            int index = indexOf(child.label[0]);
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            children = newChildren.length == 0 ? NO_CHILDREN : newChildren;
+        }
+
+        private void replaceChild(Node child, Node replacement) {
+            children[indexOf(child.label[0])] = replacement;
+        }
+
+        private Node split(Node child, int at) {
+            int index = indexOf(child.label[0]);
+            Node middle = new Node(Arrays.copyOf(child.label, at));
+            child.label = Arrays.copyOfRange(child.label, at, child.label.length);
+            middle.children = new Node[] {child};
+            middle.best = child.best;
+            children[index] = middle;
+            return middle;
+        }
+
+        private Node withPrefix(char[] prefix) {
+            char[] merged = Arrays.copyOf(prefix, prefix.length + label.length);
+            System.arraycopy(label, 0, merged, prefix.length, label.length);
+            label = merged;
+            return this;
+        }
+
+        private void addEntry(Entry entry) {
+            entries = Arrays.copyOf(entries, entries.length + 1);
+            entries[entries.length - 1] = entry;
+        }
+
+        private void removeEntry(Entry entry) {
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i] == entry) {
+                    Entry[] newEntries = new Entry[entries.length - 1];
+                    System.arraycopy(entries, 0, newEntries, 0, i);
+                    System.arraycopy(entries, i + 1, newEntries, i, entries.length - i - 1);
+                    entries = newEntries.length == 0 ? NO_ENTRIES : newEntries;
+                    return;
+                }
+            }
+        }
+
+        private void refreshBest() {
+            int max = Integer.MIN_VALUE;
+            for (Entry entry : entries) {
+                max = Math.max(max, entry.score);
+            }
+            for (Node child : children) {
+                max = Math.max(max, child.best);
+            }
+            best = max;
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.example.onlineshop.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Typo-tolerant search over item names and descriptions. Every word contributes its
+ * space-padded trigrams to an inverted index of int posting lists. A query collects
+ * the items sharing enough trigrams with it, keeps the best by Dice overlap and
+ * re-ranks those by per-word edit distance, with name words counting more than
+ * description words. Writes are not thread-safe; concurrent queries are.
+ */
+public final class TrigramIndex {
+
+    static final double MIN_OVERLAP = 0.4;
+    static final int CANDIDATES_PER_RESULT = 20;
+    static final double DESCRIPTION_WEIGHT = 0.8;
+
+    private final Map<String, Integer> docsById = new HashMap<>();
+    private final Map<Long, IntPostingList> postings = new HashMap<>();
+    private String[] ids = new String[16];
+    private String[] names = new String[16];
+    private String[] descriptions = new String[16];
+    private int[] trigramCounts = new int[16];
+    private int[] freeDocs = new int[16];
+    private int freeCount;
+    private int docLimit;
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    public record Match(String id, String name, double score) {
+    }
+
+    public void put(String id, String name, String description) {
+        remove(id);
+        long[] trigrams = trigramsOf(name, description);
+        if (trigrams.length == 0) {
+            return;
+        }
+        int doc = freeCount > 0 ? freeDocs[--freeCount] : newDoc();
+        ids[doc] = id;
+        names[doc] = name;
+        descriptions[doc] = description;
+        trigramCounts[doc] = trigrams.length;
+        docsById.put(id, doc);
+        for (long trigram : trigrams) {
+            postings.computeIfAbsent(trigram, ignored -> new IntPostingList()).add(doc);
+        }
+    }
+
+    public void remove(String id) {
+        Integer doc = docsById.remove(id);
+        if (doc == null) {
+            return;
+        }
+        for (long trigram : trigramsOf(names[doc], descriptions[doc])) {
+            IntPostingList list = postings.get(trigram);
+            list.remove(doc);
+            if (list.size() == 0) {
+                postings.remove(trigram);
+            }
+        }
+        ids[doc] = null;
+        names[doc] = null;
+        descriptions[doc] = null;
+        trigramCounts[doc] = 0;
+        if (freeCount == freeDocs.length) {
+            freeDocs = Arrays.copyOf(freeDocs, freeDocs.length * 2);
+        }
+        freeDocs[freeCount++] = doc;
+    }
+
+    public List<Match> search(String query, int k) {
+        String[] queryWords = words(NameNormalizer.normalize(query));
+        long[] queryTrigrams = distinctTrigrams(queryWords);
+        if (queryTrigrams.length == 0 || k <= 0) {
+            return List.of();
+        }
+        Scratch state = scratch.get();
+        state.ensureCapacity(docLimit);
+        try {
+            countOverlaps(queryTrigrams, state);
+            PriorityQueue<Candidate> candidates = topByOverlap(state, queryTrigrams.length,
+                    Math.max(k * CANDIDATES_PER_RESULT, 100));
+            PriorityQueue<Match> best = new PriorityQueue<>(k + 1, (a, b) -> Double.compare(a.score(), b.score()));
+            for (Candidate candidate : candidates) {
+                double similarity = editSimilarity(queryWords, candidate.doc, state);
+                double score = 0.4 * candidate.dice + 0.6 * similarity;
+                best.add(new Match(ids[candidate.doc], names[candidate.doc], score));
+                if (best.size() > k) {
+                    best.poll();
+                }
+            }
+            List<Match> matches = new ArrayList<>(best);
+            matches.sort((a, b) -> Double.compare(b.score(), a.score()));
+            return matches;
+        } finally {
+            state.reset();
+        }
+    }
+
+    public int size() {
+        return docsById.size();
+    }
+
+    public int distinctTrigrams() {
+        return postings.size();
+    }
+
+    /**
+     * Approximate retained size in bytes, assuming compressed oops. Strings are
+     * counted as Latin-1 and the id map at roughly 48 bytes per entry.
+     */
+    public long estimatedBytes() {
+        long bytes = 4L * (ids.length + names.length + descriptions.length + trigramCounts.length + freeDocs.length);
+        for (IntPostingList list : postings.values()) {
+            bytes += 48 + list.estimatedBytes();
+        }
+        for (int doc = 0; doc < docLimit; doc++) {
+            if (ids[doc] != null) {
+                bytes += 48 + stringBytes(ids[doc]) + stringBytes(names[doc]) + stringBytes(descriptions[doc]);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Counts shared trigrams per document, rarest trigram first. A document missing
+     * from the first (n - minOverlap + 1) lists can never reach minOverlap, so the
+     * remaining, longer lists are only probed for documents already seen.
+     */
+    private void countOverlaps(long[] queryTrigrams, Scratch state) {
+        List<IntPostingList> lists = new ArrayList<>(queryTrigrams.length);
+        for (long trigram : queryTrigrams) {
+            IntPostingList list = postings.get(trigram);
+            if (list != null) {
+                lists.add(list);
+            }
+        }
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        int scanned = lists.size() - minOverlap(queryTrigrams.length) + 1;
+        for (int l = 0; l < lists.size(); l++) {
+            IntPostingList list = lists.get(l);
+            if (l < scanned) {
+                for (int i = 0; i < list.size(); i++) {
+                    state.increment(list.get(i));
+                }
+            } else if ((long) state.touchedCount * (32 - Integer.numberOfLeadingZeros(list.size())) < list.size()) {
+                for (int i = 0; i < state.touchedCount; i++) {
+                    int doc = state.touched[i];
+                    if (list.contains(doc)) {
+                        state.counts[doc]++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < list.size(); i++) {
+                    int doc = list.get(i);
+                    if (state.counts[doc] > 0) {
+                        state.counts[doc]++;
+                    }
+                }
+            }
+        }
+    }
+
+    private static int minOverlap(int queryTrigramCount) {
+        return Math.max(1, (int) Math.ceil(queryTrigramCount * MIN_OVERLAP));
+    }
+
+    private PriorityQueue<Candidate> topByOverlap(Scratch state, int queryTrigramCount, int limit) {
+        int minOverlap = minOverlap(queryTrigramCount);
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(limit + 1,
+                (a, b) -> Double.compare(a.dice, b.dice));
+        for (int i = 0; i < state.touchedCount; i++) {
+            int doc = state.touched[i];
+            int overlap = state.counts[doc];
+            if (overlap < minOverlap) {
+                continue;
+            }
+            double dice = 2.0 * overlap / (queryTrigramCount + trigramCounts[doc]);
+            if (candidates.size() < limit) {
+                candidates.add(new Candidate(doc, dice));
+            } else if (dice > candidates.peek().dice) {
+                candidates.poll();
+                candidates.add(new Candidate(doc, dice));
+            }
+        }
+        return candidates;
+    }
+
+    private double editSimilarity(String[] queryWords, int doc, Scratch state) {
+        String[] nameWords = words(NameNormalizer.normalize(names[doc]));
+        String[] descriptionWords = words(NameNormalizer.normalize(descriptions[doc]));
+        double total = 0;
+        for (String queryWord : queryWords) {
+            double best = 0;
+            for (String word : nameWords) {
+                best = Math.max(best, similarity(queryWord, word, state));
+            }
+            for (String word : descriptionWords) {
+                if (best >= DESCRIPTION_WEIGHT) {
+                    break;
+                }
+                best = Math.max(best, DESCRIPTION_WEIGHT * similarity(queryWord, word, state));
+            }
+            total += best;
+        }
+        return total / queryWords.length;
+    }
+
+    private static double similarity(String a, String b, Scratch state) {
+        int longest = Math.max(a.length(), b.length());
+        int maxDistance = Math.max(1, longest / 3);
+        int distance = boundedDistance(a, b, maxDistance, state);
+        return distance > maxDistance ? 0 : 1 - (double) distance / longest;
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus adjacent transpositions),
+     * giving up with maxDistance + 1 as soon as no cell in a row is within range.
+     */
+    static int boundedDistance(String a, String b, int maxDistance, Scratch state) {
+        if (Math.abs(a.length() - b.length()) > maxDistance) {
+            return maxDistance + 1;
+        }
+        int width = b.length() + 1;
+        state.ensureRows(width);
+        int[] previous2 = state.row0;
+        int[] previous = state.row1;
+        int[] current = state.row2;
+        for (int j = 0; j < width; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j < width; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[width - 1];
+    }
+
+    private int newDoc() {
+        if (docLimit == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+            trigramCounts = Arrays.copyOf(trigramCounts, capacity);
+        }
+        return docLimit++;
+    }
+
+    private static long[] trigramsOf(String name, String description) {
+        String[] nameWords = words(NameNormalizer.normalize(name));
+        String[] descriptionWords = words(NameNormalizer.normalize(description));
+        String[] all = Arrays.copyOf(nameWords, nameWords.length + descriptionWords.length);
+        System.arraycopy(descriptionWords, 0, all, nameWords.length, descriptionWords.length);
+        return distinctTrigrams(all);
+    }
+
+    static long[] distinctTrigrams(String[] words) {
+        int total = 0;
+        for (String word : words) {
+            total += word.length();
+        }
+        long[] trigrams = new long[total];
+        int count = 0;
+        for (String word : words) {
+            for (int i = -1; i < word.length() - 1; i++) {
+                char first = i < 0 ? ' ' : word.charAt(i);
+                char second = word.charAt(i + 1);
+                char third = i + 2 < word.length() ? word.charAt(i + 2) : ' ';
+                trigrams[count++] = ((long) first << 32) | ((long) second << 16) | third;
+            }
+        }
+        Arrays.sort(trigrams, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || trigrams[distinct - 1] != trigrams[i]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    private static String[] words(String normalized) {
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 24 + ((16 + value.length() + 7) & ~7L);
+    }
+
+    private record Candidate(int doc, double dice) {
+    }
+
+    static final class Scratch {
+        private int[] counts = new int[0];
+        private int[] touched = new int[64];
+        private int touchedCount;
+        private int[] row0 = new int[32];
+        private int[] row1 = new int[32];
+        private int[] row2 = new int[32];
+
+        Scratch() {
+        }
+
+        private void ensureCapacity(int docs) {
+            if (counts.length < docs) {
+                counts = new int[docs];
+            }
+        }
+
+        private void ensureRows(int width) {
+            if (row0.length < width) {
+                row0 = new int[width];
+                row1 = new int[width];
+                row2 = new int[width];
+            }
+        }
+
+        private void increment(int doc) {
+            if (counts[doc]++ == 0) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touched.length * 2);
+                }
+                touched[touchedCount++] = doc;
+            }
+        }
+
+        private void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                counts[touched[i]] = 0;
+            }
+            touchedCount = 0;
+        }
+    }
+}
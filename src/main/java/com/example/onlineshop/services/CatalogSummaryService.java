@@ -0,0 +1,216 @@
+package com.example.onlineshop.services;
+
+import com.example.onlineshop.config.CatalogSummaryProperties;
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.model.CatalogSummary;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.CatalogSummaryRepository;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the catalog summary document in step with shop_items. Change events only add
+ * their item, unit and stock value deltas to an in-process sum, which a background
+ * thread writes as one $inc every incrementInterval, so the writing thread never
+ * waits for the summary. A failed $inc goes back into the sum and is retried with the
+ * next one. A periodic reconciliation recomputes the totals from shop_items and
+ * repairs whatever drifted: deltas lost to a crash, writes that bypassed the service,
+ * and rounding in the running stock value.
+ * <p>
+ * The reconciliation never overwrites the totals, since deltas keep arriving while it
+ * scans; it adds a correction with $inc instead. It reads the summary before the
+ * scan and again once the deltas of every write the scan saw have been flushed. The
+ * deltas that arrived in between belong partly to writes the scan counted and partly
+ * to later ones, so the drift lies between actual - before and actual - after. The
+ * correction is the value in that range closest to zero: it never overshoots, and it
+ * is exact whenever no delta arrived during the scan.
+ */
+public class CatalogSummaryService implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSummaryService.class);
+    private static final CatalogSummary EMPTY = new CatalogSummary(0, 0, 0.0, 0, null);
+
+    private final ShopItemRepository shopItemRepository;
+    private final CatalogSummaryRepository catalogSummaryRepository;
+    private final CatalogSummaryProperties properties;
+    private final Counter failedIncrements;
+    private final Counter repairedDrifts;
+    private final ScheduledExecutorService scheduler;
+    private final ReentrantLock pendingLock = new ReentrantLock();
+    private long pendingItems;
+    private long pendingQuantity;
+    private double pendingStockValue;
+
+    public CatalogSummaryService(ShopItemRepository shopItemRepository,
+                                 CatalogSummaryRepository catalogSummaryRepository,
+                                 CatalogSummaryProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.shopItemRepository = shopItemRepository;
+        this.catalogSummaryRepository = catalogSummaryRepository;
+        this.properties = properties;
+        this.failedIncrements = meterRegistry.counter("shopitems.summary.increment.failures");
+        this.repairedDrifts = meterRegistry.counter("shopitems.summary.reconcile.repaired");
+        // Reconciliation waits for pending deltas, so it must not hold up their flush.
+        this.scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "catalog-summary");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long incrementNanos = properties.incrementInterval().toNanos();
+        scheduler.scheduleWithFixedDelay(this::flushIncrements, incrementNanos, incrementNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public CatalogSummary getSummary() {
+        CatalogSummary summary = catalogSummaryRepository.find();
+        return summary == null ? EMPTY : summary;
+    }
+
+    @EventListener
+    public void onShopItemChanged(ShopItemChangedEvent event) {
+        ShopItem previous = event.previous();
+        ShopItem current = event.current();
+        long items = (current == null ? 0 : 1) - (previous == null ? 0 : 1);
+        long quantity = quantityOf(current) - quantityOf(previous);
+        double stockValue = stockValueOf(current) - stockValueOf(previous);
+        if (items == 0 && quantity == 0 && stockValue == 0.0) {
+            return;
+        }
+        pendingLock.lock();
+        try {
+            pendingItems += items;
+            pendingQuantity += quantity;
+            pendingStockValue += stockValue;
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the deltas summed since the last flush as one $inc. A failed $inc is added
+     * back to the sum, so the next flush retries it together with newer deltas.
+     */
+    public void flushIncrements() {
+        long items;
+        long quantity;
+        double stockValue;
+        pendingLock.lock();
+        try {
+            items = pendingItems;
+            quantity = pendingQuantity;
+            stockValue = pendingStockValue;
+            pendingItems = 0;
+            pendingQuantity = 0;
+            pendingStockValue = 0.0;
+        } finally {
+            pendingLock.unlock();
+        }
+        if (items == 0 && quantity == 0 && stockValue == 0.0) {
+            return;
+        }
+        try {
+            catalogSummaryRepository.increment(items, quantity, stockValue);
+        } catch (RuntimeException e) {
+            failedIncrements.increment();
+            log.warn("Could not apply catalog summary deltas, retrying with the next flush", e);
+            pendingLock.lock();
+            try {
+                pendingItems += items;
+                pendingQuantity += quantity;
+                pendingStockValue += stockValue;
+            } finally {
+                pendingLock.unlock();
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleReconciliation() {
+        long intervalNanos = properties.reconcileInterval().toNanos();
+        scheduler.scheduleWithFixedDelay(this::reconcileQuietly, 0, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Recomputes the totals and adds the correction the summary needs. Returns false
+     * only when it was interrupted, or when the first summary was created by another
+     * node meanwhile; the next run tries again.
+     */
+    public boolean reconcile() {
+        CatalogSummary before = catalogSummaryRepository.find();
+        CatalogSummary actual = shopItemRepository.computeCatalogSummary();
+        if (before == null) {
+            return catalogSummaryRepository.insertIfAbsent(actual, Instant.now());
+        }
+        try {
+            // Every node flushes the deltas of the writes the scan saw within this wait.
+            Thread.sleep(properties.incrementInterval().multipliedBy(2).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        CatalogSummary after = catalogSummaryRepository.find();
+        long items = closestToZero(actual.itemCount() - before.itemCount(), actual.itemCount() - after.itemCount());
+        long quantity = closestToZero(actual.totalQuantity() - before.totalQuantity(),
+                actual.totalQuantity() - after.totalQuantity());
+        double stockValue = closestToZero(actual.totalStockValue() - before.totalStockValue(),
+                actual.totalStockValue() - after.totalStockValue());
+        if (Math.abs(stockValue) < 0.005) {
+            stockValue = 0.0;
+        }
+        catalogSummaryRepository.correct(items, quantity, stockValue, Instant.now());
+        if (items != 0 || quantity != 0 || stockValue != 0.0) {
+            repairedDrifts.increment();
+            log.info("Repaired catalog summary drift of {} items, {} units, {} value", items, quantity, stockValue);
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        flushIncrements();
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.warn("Could not reconcile the catalog summary", e);
+        }
+    }
+
+    /**
+     * The value between a and b, inclusive, that is closest to zero.
+     */
+    private static long closestToZero(long a, long b) {
+        if ((a <= 0) != (b <= 0) || a == 0 || b == 0) {
+            return 0;
+        }
+        return a > 0 ? Math.min(a, b) : Math.max(a, b);
+    }
+
+    private static double closestToZero(double a, double b) {
+        if ((a <= 0) != (b <= 0) || a == 0 || b == 0) {
+            return 0.0;
+        }
+        return a > 0 ? Math.min(a, b) : Math.max(a, b);
+    }
+
+    private static long quantityOf(ShopItem item) {
+        return item == null ? 0 : item.getQuantity();
+    }
+
+    private static double stockValueOf(ShopItem item) {
+        return item == null ? 0.0 : item.getPrice() * item.getQuantity();
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.onlineshop.services;
+
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.events.ShopItemInvalidatedEvent;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Base for in-process views over shop_items. Applies {@link ShopItemChangedEvent}s as
+ * they are published and rebuilds from a full scan at startup, replaying events that
+ * arrive during the scan before the rebuilt index is swapped in. Items written by other
+ * nodes are reloaded when the invalidation bus reports them.
+ *
+ * @param <I> the index structure, which does not need to be thread-safe itself
+ */
+public abstract class InMemoryShopItemIndex<I> {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final ShopItemRepository shopItemRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private I index;
+    // One buffer per running rebuild, so rebuilds that overlap each replay their own events.
+    private final List<List<ShopItemChangedEvent>> eventsDuringRebuilds = new ArrayList<>();
+
+    protected InMemoryShopItemIndex(ShopItemRepository shopItemRepository) {
+        this.shopItemRepository = shopItemRepository;
+        this.index = newIndex();
+    }
+
+    protected abstract I newIndex();
+
+    protected abstract void put(I index, ShopItem item);
+
+    protected abstract void remove(I index, String id);
+
+    protected <T> T read(Function<I, T> query) {
+        lock.readLock().lock();
+        try {
+            return query.apply(index);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onShopItemChanged(ShopItemChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            applyAndRecord(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onShopItemInvalidated(ShopItemInvalidatedEvent event) {
+        if (event.all()) {
+            rebuildAsync();
+            return;
+        }
+        List<ShopItem> reloaded = new ArrayList<>(event.ids().size());
+        shopItemRepository.findAllById(event.ids()).forEach(reloaded::add);
+        Set<String> deleted = new HashSet<>(event.ids());
+        lock.writeLock().lock();
+        try {
+            for (ShopItem item : reloaded) {
+                deleted.remove(item.getId());
+                applyAndRecord(ShopItemChangedEvent.created(item));
+            }
+            deleted.forEach(id -> applyAndRecord(ShopItemChangedEvent.deleted(id, null)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public CompletableFuture<Void> rebuildAsync() {
+        return CompletableFuture.runAsync(this::rebuild)
+                .whenComplete((ignored, e) -> {
+                    if (e != null) {
+                        log.warn("Could not rebuild {} from shop_items", getClass().getSimpleName(), e);
+                    }
+                });
+    }
+
+    public void rebuild() {
+        List<ShopItemChangedEvent> eventsDuringRebuild = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            eventsDuringRebuilds.add(eventsDuringRebuild);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        I rebuilt = newIndex();
+        boolean scanned = false;
+        try {
+            shopItemRepository.forEachItem(item -> put(rebuilt, item));
+            scanned = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (scanned) {
+                    eventsDuringRebuild.forEach(event -> apply(rebuilt, event));
+                    index = rebuilt;
+                }
+                // Removed by identity; another rebuild's buffer may be equal to this one.
+                eventsDuringRebuilds.removeIf(buffer -> buffer == eventsDuringRebuild);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void applyAndRecord(ShopItemChangedEvent event) {
+        apply(index, event);
+        eventsDuringRebuilds.forEach(buffer -> buffer.add(event));
+    }
+
+    private void apply(I target, ShopItemChangedEvent event) {
+        if (event.type() == ShopItemChangedEvent.Type.DELETED) {
+            remove(target, event.id());
+        } else {
+            put(target, event.current());
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.onlineshop.services;
+
+public class InsertQueueFullException extends RuntimeException {
+
+    public InsertQueueFullException(int capacity) {
+        super("Insert queue is full (" + capacity + " pending); try again shortly");
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.onlineshop.services;
+
+import java.util.Arrays;
+
+/**
+ * Percentile over the last window latencies, recomputed every tenth of a window so
+ * that reading it stays a volatile load.
+ */
+public class LatencyTracker {
+
+    private final long[] samples;
+    private final double percentile;
+    private final int recomputeEvery;
+    private int next;
+    private int count;
+    private int sinceRecompute;
+    private volatile long percentileNanos;
+
+    public LatencyTracker(int window, double percentile, long initialNanos) {
+        this.samples = new long[window];
+        this.percentile = percentile;
+        this.recomputeEvery = Math.max(1, window / 10);
+        this.percentileNanos = initialNanos;
+    }
+
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+        if (++sinceRecompute >= recomputeEvery) {
+            sinceRecompute = 0;
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            percentileNanos = sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+        }
+    }
+
+    public long percentileNanos() {
+        return percentileNanos;
+    }
+}
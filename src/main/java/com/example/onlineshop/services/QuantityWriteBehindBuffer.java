@@ -0,0 +1,259 @@
+package com.example.onlineshop.services;
+
+import com.example.onlineshop.config.QuantityWriteBehindProperties;
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Collects quantity deltas per item id and writes each id's combined delta to Mongo
+ * once per flush, all ids in one unordered bulk $inc. A delta is acknowledged before
+ * it is persisted, so deltas still buffered when the process dies are lost. Deltas
+ * the bulk write rejected are buffered again; if the write failed without saying
+ * which deltas it applied, all of them are. The applied ones are read back with one
+ * $in query and published as ShopItemChangedEvents like a direct quantity change,
+ * with the previous quantity derived from the delta.
+ */
+public class QuantityWriteBehindBuffer implements AutoCloseable, ApplicationEventPublisherAware {
+
+    private static final Logger log = LoggerFactory.getLogger(QuantityWriteBehindBuffer.class);
+
+    private final ShopItemRepository shopItemRepository;
+    private final QuantityWriteBehindProperties properties;
+    private final ConcurrentHashMap<String, Accumulator> pending = new ConcurrentHashMap<>();
+    private final AtomicLong oldestPendingNanos = new AtomicLong();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ScheduledExecutorService scheduler;
+    private final Timer flushTimer;
+    private final Timer lagTimer;
+    private final Counter flushedDeltas;
+    private final Counter failedFlushes;
+    private ApplicationEventPublisher eventPublisher = event -> {};
+
+    public QuantityWriteBehindBuffer(ShopItemRepository shopItemRepository,
+                                     QuantityWriteBehindProperties properties,
+                                     MeterRegistry meterRegistry) {
+        this.shopItemRepository = shopItemRepository;
+        this.properties = properties;
+        this.flushTimer = meterRegistry.timer("shopitems.quantity.writebehind.flush");
+        this.lagTimer = meterRegistry.timer("shopitems.quantity.writebehind.flush.lag");
+        this.flushedDeltas = meterRegistry.counter("shopitems.quantity.writebehind.flushed");
+        this.failedFlushes = meterRegistry.counter("shopitems.quantity.writebehind.failures");
+        Gauge.builder("shopitems.quantity.writebehind.pending", pending, Map::size).register(meterRegistry);
+        TimeGauge.builder("shopitems.quantity.writebehind.lag", this, TimeUnit.NANOSECONDS,
+                QuantityWriteBehindBuffer::currentLagNanos).register(meterRegistry);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "quantity-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = properties.flushInterval().toNanos();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Throws IllegalArgumentException when the id's pending delta would no longer fit
+     * in an int; nothing is buffered then.
+     */
+    public void add(String id, int delta) {
+        while (true) {
+            Accumulator accumulator = pending.get(id);
+            if (accumulator == null) {
+                Accumulator created = new Accumulator();
+                accumulator = pending.putIfAbsent(id, created);
+                if (accumulator == null) {
+                    accumulator = created;
+                    requestFlushIfFull();
+                }
+            }
+            if (accumulator.add(delta)) {
+                break;
+            }
+            pending.remove(id, accumulator);
+        }
+        oldestPendingNanos.compareAndSet(0, System.nanoTime());
+    }
+
+    public int pendingIds() {
+        return pending.size();
+    }
+
+    public long currentLagNanos() {
+        long oldest = oldestPendingNanos.get();
+        return oldest == 0 ? 0 : System.nanoTime() - oldest;
+    }
+
+    public int flush() {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            long oldest = oldestPendingNanos.getAndSet(0);
+            List<Map.Entry<String, Integer>> batch = drain();
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            long start = System.nanoTime();
+            RuntimeException failure = null;
+            Set<Integer> failed = Set.of();
+            try {
+                shopItemRepository.incrementQuantities(batch, properties.durability().writeConcern());
+            } catch (MongoBulkWriteException e) {
+                failure = e;
+                failed = e.getWriteErrors().stream().map(BulkWriteError::getIndex).collect(Collectors.toSet());
+            } catch (RuntimeException e) {
+                failure = e;
+                failed = IntStream.range(0, batch.size()).boxed().collect(Collectors.toSet());
+            } finally {
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            List<Map.Entry<String, Integer>> applied = new ArrayList<>(batch.size() - failed.size());
+            for (int i = 0; i < batch.size(); i++) {
+                if (failed.contains(i)) {
+                    add(batch.get(i).getKey(), batch.get(i).getValue());
+                } else {
+                    applied.add(batch.get(i));
+                }
+            }
+            flushedDeltas.increment(applied.size());
+            publishChanges(applied);
+            if (failure != null) {
+                failedFlushes.increment();
+                if (!failed.isEmpty()) {
+                    oldestPendingNanos.set(oldest);
+                }
+                throw failure;
+            }
+            lagTimer.record(System.nanoTime() - oldest, TimeUnit.NANOSECONDS);
+            return batch.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(properties.flushInterval().toMillis() + 1000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (properties.flushOnShutdown()) {
+            flush();
+        } else if (!pending.isEmpty()) {
+            log.warn("Discarding buffered quantity deltas for {} shop items on shutdown", pending.size());
+        }
+    }
+
+    private void publishChanges(List<Map.Entry<String, Integer>> applied) {
+        if (applied.isEmpty()) {
+            return;
+        }
+        Map<String, ShopItem> updated = new HashMap<>();
+        try {
+            shopItemRepository.findAllById(applied.stream().map(Map.Entry::getKey).toList())
+                    .forEach(item -> updated.put(item.getId(), item));
+        } catch (RuntimeException e) {
+            // The deltas are written; only their events are missing.
+            log.warn("Could not read back {} flushed shop items for their change events", applied.size(), e);
+            return;
+        }
+        for (Map.Entry<String, Integer> entry : applied) {
+            ShopItem item = updated.get(entry.getKey());
+            if (item != null) {
+                eventPublisher.publishEvent(ShopItemChangedEvent.updated(
+                        ShopItemService.beforeIncrement(item, entry.getValue()), item));
+            }
+        }
+    }
+
+    private List<Map.Entry<String, Integer>> drain() {
+        List<Map.Entry<String, Integer>> batch = new ArrayList<>(pending.size());
+        for (Map.Entry<String, Accumulator> entry : pending.entrySet()) {
+            long delta = entry.getValue().retire();
+            pending.remove(entry.getKey(), entry.getValue());
+            if (delta != 0) {
+                // add() keeps every pending delta within int range.
+                batch.add(Map.entry(entry.getKey(), (int) delta));
+            }
+        }
+        return batch;
+    }
+
+    private void requestFlushIfFull() {
+        if (pending.size() >= properties.maxPendingIds() && flushRequested.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::flushQuietly);
+            } catch (RuntimeException e) {
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Flushing buffered quantity deltas failed; they will be retried", e);
+        }
+    }
+
+    private static final class Accumulator {
+
+        private static final long RETIRED = Long.MIN_VALUE;
+
+        private final AtomicLong value = new AtomicLong();
+
+        private boolean add(int delta) {
+            long current;
+            long next;
+            do {
+                current = value.get();
+                if (current == RETIRED) {
+                    return false;
+                }
+                next = current + delta;
+                if (next != (int) next) {
+                    throw new IllegalArgumentException("The pending quantity delta would overflow");
+                }
+            } while (!value.compareAndSet(current, next));
+            return true;
+        }
+
+        private long retire() {
+            return value.getAndSet(RETIRED);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.onlineshop.services;
+
+import com.example.onlineshop.analytics.ColumnarAggregate;
+import com.example.onlineshop.analytics.ColumnarFilter;
+import com.example.onlineshop.analytics.ColumnarSnapshot;
+import com.example.onlineshop.config.ShopItemAnalyticsProperties;
+import com.example.onlineshop.model.ShopItemSummary;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves ad-hoc analytics from a {@link ColumnarSnapshot} that is rebuilt from a
+ * streamed scan every refresh interval. Queries see the last complete snapshot, so
+ * results can lag writes by up to one interval plus the scan time.
+ */
+public class ShopItemAnalyticsService implements AutoCloseable {
+
+    static final int MAX_TOP = 100;
+
+    private static final Logger log = LoggerFactory.getLogger(ShopItemAnalyticsService.class);
+
+    private final ShopItemRepository shopItemRepository;
+    private final ShopItemAnalyticsProperties properties;
+    private final Timer refreshTimer;
+    private final ScheduledExecutorService scheduler;
+    private volatile ColumnarSnapshot snapshot = ColumnarSnapshot.empty();
+
+    public ShopItemAnalyticsService(ShopItemRepository shopItemRepository, ShopItemAnalyticsProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this.shopItemRepository = shopItemRepository;
+        this.properties = properties;
+        this.refreshTimer = meterRegistry.timer("shopitems.analytics.refresh");
+        Gauge.builder("shopitems.analytics.size", this, service -> service.snapshot.size())
+                .register(meterRegistry);
+        Gauge.builder("shopitems.analytics.memory", this, service -> service.snapshot.estimatedBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shop-item-analytics-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public ColumnarAggregate aggregate(ColumnarFilter filter) {
+        return snapshot.aggregate(filter);
+    }
+
+    public List<ShopItemSummary> topByValue(ColumnarFilter filter, int limit) {
+        if (limit < 1 || limit > MAX_TOP) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_TOP);
+        }
+        return snapshot.topByValue(filter, limit);
+    }
+
+    public void refresh() {
+        snapshot = refreshTimer.record(() -> {
+            ColumnarSnapshot.Builder builder = new ColumnarSnapshot.Builder();
+            shopItemRepository.forEachSummary(item ->
+                    builder.add(item.id(), item.name(), item.price(), item.quantity()));
+            return builder.build();
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleRefresh() {
+        long intervalNanos = properties.refreshInterval().toNanos();
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, 0, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh the analytics snapshot", e);
+        }
+    }
+}
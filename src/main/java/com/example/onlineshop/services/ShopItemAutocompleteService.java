@@ -0,0 +1,68 @@
+package com.example.onlineshop.services;
+
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.model.ShopItemSuggestion;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.search.PrefixTrie;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps a {@link PrefixTrie} of item names ranked by stock.
+ */
+@Service
+public class ShopItemAutocompleteService extends InMemoryShopItemIndex<PrefixTrie> {
+
+    static final int MAX_SUGGESTIONS = 50;
+
+    public ShopItemAutocompleteService(ShopItemRepository shopItemRepository, MeterRegistry meterRegistry) {
+        super(shopItemRepository);
+        Gauge.builder("shopitems.autocomplete.memory", this, ShopItemAutocompleteService::estimatedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("shopitems.autocomplete.size", this, ShopItemAutocompleteService::size)
+                .register(meterRegistry);
+    }
+
+    public List<ShopItemSuggestion> suggest(String prefix, int limit) {
+        int k = Math.min(Math.max(limit, 0), MAX_SUGGESTIONS);
+        return read(trie -> {
+            List<ShopItemSuggestion> suggestions = new ArrayList<>(k);
+            for (PrefixTrie.Entry entry : trie.topK(prefix, k)) {
+                suggestions.add(new ShopItemSuggestion(entry.id(), entry.name(), entry.score()));
+            }
+            return suggestions;
+        });
+    }
+
+    public int size() {
+        return read(PrefixTrie::size);
+    }
+
+    public long estimatedBytes() {
+        return read(PrefixTrie::estimatedBytes);
+    }
+
+    @Override
+    protected PrefixTrie newIndex() {
+        return new PrefixTrie();
+    }
+
+    @Override
+    protected void put(PrefixTrie trie, ShopItem item) {
+        if (item.getName() == null) {
+            trie.remove(item.getId());
+        } else {
+            trie.put(item.getId(), item.getName(), item.getQuantity());
+        }
+    }
+
+    @Override
+    protected void remove(PrefixTrie trie, String id) {
+        trie.remove(id);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.onlineshop.services;
+
+import com.example.onlineshop.model.ShopItemBrowsePage;
+import com.example.onlineshop.model.ShopItemSummary;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@Service
+public class ShopItemBrowseService {
+
+    static final int MAX_PAGE_SIZE = 200;
+    static final Set<String> SORTABLE_FIELDS = Set.of("price", "quantity", "name");
+
+    private final ShopItemRepository shopItemRepository;
+
+    public ShopItemBrowseService(ShopItemRepository shopItemRepository) {
+        this.shopItemRepository = shopItemRepository;
+    }
+
+    public ShopItemBrowsePage browse(Double minPrice, Double maxPrice, String sort, int page, int size) {
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(
+                    "Page must be at least 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        long skip = (long) page * size;
+        // The skip and the one extra item must both fit in an int.
+        if (skip > Integer.MAX_VALUE - size - 1) {
+            throw new IllegalArgumentException("Page " + page + " is out of range for page size " + size);
+        }
+        List<ShopItemSummary> items = shopItemRepository.findSummariesByPriceRange(
+                minPrice, maxPrice, parseSort(sort), (int) skip, size + 1);
+        boolean hasMore = items.size() > size;
+        return new ShopItemBrowsePage(page, size, hasMore, hasMore ? items.subList(0, size) : items);
+    }
+
+    /**
+     * Parses "price,-quantity" into price ascending then quantity descending. An empty
+     * spec sorts by price.
+     */
+    public static Sort parseSort(String sort) {
+        List<Sort.Order> orders = new ArrayList<>();
+        if (sort != null && !sort.isBlank()) {
+            for (String part : sort.split(",")) {
+                String field = part.strip();
+                boolean descending = field.startsWith("-");
+                field = descending || field.startsWith("+") ? field.substring(1) : field;
+                if (!SORTABLE_FIELDS.contains(field)) {
+                    throw new IllegalArgumentException("Cannot sort by '" + part.strip()
+                            + "'; use " + String.join(", ", SORTABLE_FIELDS.stream().sorted().toList()));
+                }
+                orders.add(descending ? Sort.Order.desc(field) : Sort.Order.asc(field));
+            }
+        }
+        if (orders.isEmpty()) {
+            orders.add(Sort.Order.asc("price"));
+        }
+        return Sort.by(orders);
+    }
+}
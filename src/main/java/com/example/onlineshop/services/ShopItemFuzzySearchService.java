@@ -0,0 +1,65 @@
+package com.example.onlineshop.services;
+
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.model.ShopItemFuzzyHit;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.search.TrigramIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps a {@link TrigramIndex} over item names and descriptions for typo-tolerant
+ * lookups.
+ */
+@Service
+public class ShopItemFuzzySearchService extends InMemoryShopItemIndex<TrigramIndex> {
+
+    static final int MAX_RESULTS = 50;
+
+    public ShopItemFuzzySearchService(ShopItemRepository shopItemRepository, MeterRegistry meterRegistry) {
+        super(shopItemRepository);
+        Gauge.builder("shopitems.fuzzy.memory", this, ShopItemFuzzySearchService::estimatedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("shopitems.fuzzy.size", this, ShopItemFuzzySearchService::size)
+                .register(meterRegistry);
+    }
+
+    public List<ShopItemFuzzyHit> search(String query, int limit) {
+        int k = Math.min(Math.max(limit, 0), MAX_RESULTS);
+        return read(index -> {
+            List<ShopItemFuzzyHit> hits = new ArrayList<>(k);
+            for (TrigramIndex.Match match : index.search(query, k)) {
+                hits.add(new ShopItemFuzzyHit(match.id(), match.name(), match.score()));
+            }
+            return hits;
+        });
+    }
+
+    public int size() {
+        return read(TrigramIndex::size);
+    }
+
+    public long estimatedBytes() {
+        return read(TrigramIndex::estimatedBytes);
+    }
+
+    @Override
+    protected TrigramIndex newIndex() {
+        return new TrigramIndex();
+    }
+
+    @Override
+    protected void put(TrigramIndex index, ShopItem item) {
+        index.put(item.getId(), item.getName(), item.getDescription());
+    }
+
+    @Override
+    protected void remove(TrigramIndex index, String id) {
+        index.remove(id);
+    }
+}
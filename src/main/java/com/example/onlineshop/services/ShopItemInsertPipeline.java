@@ -0,0 +1,194 @@
+package com.example.onlineshop.services;
+
+import com.example.onlineshop.config.InsertPipelineProperties;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group-commits inserts: callers enqueue items and a single writer thread drains
+ * them into unordered insertMany batches, waiting at most the configured latency
+ * for a batch to fill up. An item that fails, such as a duplicate key, fails only
+ * its own caller.
+ */
+public class ShopItemInsertPipeline implements AutoCloseable {
+
+    private static final MongoExceptionTranslator EXCEPTION_TRANSLATOR = new MongoExceptionTranslator();
+
+    private final ShopItemRepository shopItemRepository;
+    private final InsertPipelineProperties properties;
+    private final BlockingQueue<PendingInsert> queue;
+    private final Thread writer;
+    private final DistributionSummary batchSizes;
+    private final Timer insertTimer;
+    private final Counter rejected;
+    private volatile boolean running = true;
+
+    public ShopItemInsertPipeline(ShopItemRepository shopItemRepository,
+                                  InsertPipelineProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this.shopItemRepository = shopItemRepository;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+        this.batchSizes = meterRegistry.summary("shopitems.insert.batch.size");
+        this.insertTimer = meterRegistry.timer("shopitems.insert.batch");
+        this.rejected = meterRegistry.counter("shopitems.insert.rejected");
+        Gauge.builder("shopitems.insert.queue", queue, Collection::size).register(meterRegistry);
+        this.writer = new Thread(this::drainLoop, "shop-item-inserter");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public CompletableFuture<ShopItem> submit(ShopItem item) {
+        PendingInsert pending = new PendingInsert(item);
+        if (!running || !queue.offer(pending)) {
+            rejected.increment();
+            throw new InsertQueueFullException(properties.queueCapacity());
+        }
+        // close() may have started after the check; the writer may then be gone.
+        if (!running && queue.remove(pending)) {
+            rejected.increment();
+            throw new InsertQueueFullException(properties.queueCapacity());
+        }
+        return pending.result;
+    }
+
+    /**
+     * Throws QueryTimeoutException when the item was not written within the insert
+     * timeout; it may still be written afterwards.
+     */
+    public ShopItem insert(ShopItem item) {
+        CompletableFuture<ShopItem> result = submit(item);
+        try {
+            return result.get(properties.insertTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("Shop item insert exceeded its "
+                    + properties.insertTimeout().toMillis() + " ms timeout");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new DataAccessResourceFailureException("Shop item insert failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessResourceFailureException("Interrupted while inserting a shop item", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<PendingInsert> unwritten = new ArrayList<>();
+        queue.drainTo(unwritten);
+        unwritten.forEach(pending -> pending.result.completeExceptionally(
+                new DataAccessResourceFailureException("The insert pipeline closed before the item was written")));
+    }
+
+    private void drainLoop() {
+        List<PendingInsert> batch = new ArrayList<>(properties.maxBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                running = false;
+                queue.drainTo(batch, properties.maxBatchSize() - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void collectBatch(List<PendingInsert> batch) throws InterruptedException {
+        PendingInsert first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + properties.maxBatchLatency().toNanos();
+        while (batch.size() < properties.maxBatchSize()) {
+            queue.drainTo(batch, properties.maxBatchSize() - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= properties.maxBatchSize() || remaining <= 0) {
+                return;
+            }
+            PendingInsert next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void write(List<PendingInsert> batch) {
+        List<ShopItem> items = new ArrayList<>(batch.size());
+        batch.forEach(pending -> items.add(pending.item));
+        try {
+            List<ShopItem> saved = insertTimer.record(() -> shopItemRepository.insertUnordered(items));
+            batchSizes.record(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(saved.get(i));
+            }
+        } catch (MongoBulkWriteException e) {
+            batchSizes.record(batch.size());
+            Map<Integer, BulkWriteError> errors = new HashMap<>();
+            e.getWriteErrors().forEach(error -> errors.put(error.getIndex(), error));
+            for (int i = 0; i < batch.size(); i++) {
+                BulkWriteError error = errors.get(i);
+                if (error != null) {
+                    batch.get(i).result.completeExceptionally(translate(error, e));
+                } else if (e.getWriteConcernError() != null) {
+                    batch.get(i).result.completeExceptionally(e);
+                } else {
+                    batch.get(i).result.complete(items.get(i));
+                }
+            }
+        } catch (Throwable e) {
+            batch.forEach(pending -> pending.result.completeExceptionally(e));
+        }
+    }
+
+    private static RuntimeException translate(BulkWriteError error, MongoBulkWriteException e) {
+        MongoWriteException writeException = new MongoWriteException(error, e.getServerAddress(), e.getErrorLabels());
+        DataAccessException translated = EXCEPTION_TRANSLATOR.translateExceptionIfPossible(writeException);
+        return translated != null ? translated : writeException;
+    }
+
+    private static final class PendingInsert {
+        private final ShopItem item;
+        private final CompletableFuture<ShopItem> result = new CompletableFuture<>();
+
+        private PendingInsert(ShopItem item) {
+            this.item = item;
+        }
+    }
+}
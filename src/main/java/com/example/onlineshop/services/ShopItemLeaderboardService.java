@@ -0,0 +1,77 @@
+package com.example.onlineshop.services;
+
+import com.example.onlineshop.analytics.Leaderboard;
+import com.example.onlineshop.model.LeaderboardEntry;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keeps the lowest-stock and highest-value rankings of all items, updated from
+ * change events and seeded by the startup scan.
+ */
+@Service
+public class ShopItemLeaderboardService extends InMemoryShopItemIndex<ShopItemLeaderboardService.Boards> {
+
+    static final int MAX_LIMIT = 100;
+
+    public record Boards(Leaderboard lowestStock, Leaderboard highestValue) {
+    }
+
+    public ShopItemLeaderboardService(ShopItemRepository shopItemRepository, MeterRegistry meterRegistry) {
+        super(shopItemRepository);
+        Gauge.builder("shopitems.leaderboards.size", this, ShopItemLeaderboardService::size)
+                .register(meterRegistry);
+    }
+
+    public List<LeaderboardEntry> lowestStock(int limit) {
+        return top(Boards::lowestStock, limit);
+    }
+
+    public List<LeaderboardEntry> highestValue(int limit) {
+        return top(Boards::highestValue, limit);
+    }
+
+    public int size() {
+        return read(boards -> boards.lowestStock().size());
+    }
+
+    private List<LeaderboardEntry> top(Function<Boards, Leaderboard> board, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        return read(boards -> {
+            List<LeaderboardEntry> entries = new ArrayList<>(limit);
+            for (Leaderboard.Entry entry : board.apply(boards).top(limit)) {
+                entries.add(new LeaderboardEntry(entries.size() + 1, entry.id(), entry.name(), entry.price(),
+                        entry.quantity(), entry.price() * entry.quantity()));
+            }
+            return entries;
+        });
+    }
+
+    @Override
+    protected Boards newIndex() {
+        return new Boards(new Leaderboard(false), new Leaderboard(true));
+    }
+
+    @Override
+    protected void put(Boards boards, ShopItem item) {
+        boards.lowestStock().put(item.getId(), item.getName(), item.getPrice(), item.getQuantity(),
+                item.getQuantity());
+        boards.highestValue().put(item.getId(), item.getName(), item.getPrice(), item.getQuantity(),
+                item.getPrice() * item.getQuantity());
+    }
+
+    @Override
+    protected void remove(Boards boards, String id) {
+        boards.lowestStock().remove(id);
+        boards.highestValue().remove(id);
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.onlineshop.services;
+
+import com.example.onlineshop.config.ShopItemHedgingProperties;
+import com.example.onlineshop.consistency.CausalConsistencyContext;
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.mongodb.ReadPreference;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Hedges point reads: when the first attempt has not answered within the tracked
+ * latency percentile, a second one goes out with the hedge read preference, on
+ * another connection and, with a replica set, to another member. The first answer
+ * wins. The loser is cancelled if it has not started yet and otherwise left to
+ * finish and discarded, because interrupting the driver closes its connection.
+ * Hedges are paid for from a budget that every read adds maxHedgeRatio to, so at
+ * most that share of reads is sent twice, and at most maxConcurrentHedges are in
+ * flight, since each holds a second connection.
+ * <p>
+ * A hedge may be served by a replica that is behind. While the first attempt is still
+ * running, an item the hedge did not find, or one older than this node's own last
+ * write to it, is ignored and the first attempt awaited instead.
+ */
+public class ShopItemReadHedger implements AutoCloseable {
+
+    private static final double MAX_BUDGET = 10;
+    private static final int RECENT_WRITES = 10_000;
+    private static final long DELETED = Long.MAX_VALUE;
+
+    private final ShopItemRepository shopItemRepository;
+    private final ShopItemHedgingProperties properties;
+    private final ReadPreference hedgeReadPreference;
+    private final LatencyTracker latencies;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore hedgeSlots;
+    private final Map<String, Long> writtenVersions = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                    return size() > RECENT_WRITES;
+                }
+            });
+    private final Counter hedges;
+    private final Counter wins;
+    private final Counter budgetExhausted;
+    private final Counter slotsExhausted;
+    private final Counter staleHedges;
+    private double budget;
+    private CausalConsistencyContext causalContext;
+
+    public ShopItemReadHedger(ShopItemRepository shopItemRepository, ShopItemHedgingProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.shopItemRepository = shopItemRepository;
+        this.properties = properties;
+        this.hedgeReadPreference = ReadPreference.valueOf(properties.hedgeReadPreference());
+        this.latencies = new LatencyTracker(properties.window(), properties.percentile(),
+                properties.minDelay().toNanos());
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(properties.threads(), properties.threads(), 0, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "shop-item-hedged-reads-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.hedgeSlots = new Semaphore(properties.maxConcurrentHedges());
+        this.hedges = meterRegistry.counter("shopitems.hedging.hedges");
+        this.wins = meterRegistry.counter("shopitems.hedging.wins");
+        this.budgetExhausted = meterRegistry.counter("shopitems.hedging.budget.exhausted");
+        this.slotsExhausted = meterRegistry.counter("shopitems.hedging.slots.exhausted");
+        this.staleHedges = meterRegistry.counter("shopitems.hedging.stale");
+        Gauge.builder("shopitems.hedging.delay", this, hedger -> hedger.hedgeDelayNanos() / 1e6)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Autowired(required = false)
+    public void setCausalContext(CausalConsistencyContext causalContext) {
+        this.causalContext = causalContext;
+    }
+
+    public ShopItem findById(String id) {
+        return hedged(() -> shopItemRepository.findById(id).orElse(null),
+                () -> shopItemRepository.findById(id, hedgeReadPreference),
+                hedge -> hedge != null && versionOf(hedge) >= writtenVersions.getOrDefault(id, 0L));
+    }
+
+    @EventListener
+    public void onShopItemChanged(ShopItemChangedEvent event) {
+        writtenVersions.put(event.id(), event.current() == null ? DELETED : versionOf(event.current()));
+    }
+
+    public long hedgeDelayNanos() {
+        return Math.max(properties.minDelay().toNanos(), latencies.percentileNanos());
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Both attempts run on the hedging pool, so they carry the causal token of the
+     * calling request with them.
+     */
+    <T> T hedged(Callable<T> primary, Callable<T> hedge, Predicate<T> acceptHedge) {
+        if (causalContext != null) {
+            primary = causalContext.propagate(primary);
+            hedge = causalContext.propagate(hedge);
+        }
+        deposit();
+        long startedAt = System.nanoTime();
+        CompletionService<T> attempts = new ExecutorCompletionService<>(executor);
+        Future<T> first;
+        try {
+            first = attempts.submit(primary);
+        } catch (RejectedExecutionException e) {
+            // Every hedging thread is busy; read on the caller's thread instead.
+            return call(primary);
+        }
+        try {
+            Future<T> done = attempts.poll(hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+            if (done == null) {
+                HedgeAttempt<T> attempt = withdraw() ? trySubmit(attempts, hedge) : null;
+                done = attempts.take();
+                if (attempt != null) {
+                    Future<T> second = attempt.future;
+                    if (done == second ? !accepted(second, acceptHedge) : !succeeded(first)) {
+                        done = attempts.take();
+                    }
+                    if (done == second) {
+                        wins.increment();
+                        first.cancel(false);
+                    } else {
+                        attempt.cancel();
+                    }
+                }
+            }
+            latencies.record(System.nanoTime() - startedAt);
+            return unwrap(done);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            first.cancel(false);
+            throw new DataAccessResourceFailureException("Interrupted while reading a shop item", e);
+        }
+    }
+
+    private <T> HedgeAttempt<T> trySubmit(CompletionService<T> attempts, Callable<T> hedge) {
+        if (!hedgeSlots.tryAcquire()) {
+            slotsExhausted.increment();
+            return null;
+        }
+        HedgeAttempt<T> attempt = new HedgeAttempt<>(hedge);
+        try {
+            attempt.future = attempts.submit(attempt);
+            hedges.increment();
+            return attempt;
+        } catch (RejectedExecutionException e) {
+            hedgeSlots.release();
+            return null;
+        }
+    }
+
+    /**
+     * Only a successful hedge counts; a stale one is waited out.
+     */
+    private <T> boolean accepted(Future<T> hedge, Predicate<T> acceptHedge) {
+        if (!succeeded(hedge)) {
+            return false;
+        }
+        if (!acceptHedge.test(hedge.resultNow())) {
+            staleHedges.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private static long versionOf(ShopItem item) {
+        return item.getVersion() == null ? 0L : item.getVersion();
+    }
+
+    private synchronized void deposit() {
+        budget = Math.min(MAX_BUDGET, budget + properties.maxHedgeRatio());
+    }
+
+    private synchronized boolean withdraw() {
+        if (budget < 1) {
+            budgetExhausted.increment();
+            return false;
+        }
+        budget -= 1;
+        return true;
+    }
+
+    private static boolean succeeded(Future<?> future) {
+        return future.state() == Future.State.SUCCESS;
+    }
+
+    private static <T> T unwrap(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new DataAccessResourceFailureException("Shop item read failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessResourceFailureException("Interrupted while reading a shop item", e);
+        }
+    }
+
+    /**
+     * Holds a hedge slot from submission until the read finishes, or until it is
+     * cancelled before it started.
+     */
+    private final class HedgeAttempt<T> implements Callable<T> {
+
+        private final Callable<T> read;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private Future<T> future;
+
+        private HedgeAttempt(Callable<T> read) {
+            this.read = read;
+        }
+
+        @Override
+        public T call() throws Exception {
+            if (!claimed.compareAndSet(false, true)) {
+                return null;
+            }
+            try {
+                return read.call();
+            } finally {
+                hedgeSlots.release();
+            }
+        }
+
+        private void cancel() {
+            future.cancel(false);
+            if (claimed.compareAndSet(false, true)) {
+                hedgeSlots.release();
+            }
+        }
+    }
+
+    private static <T> T call(Callable<T> read) {
+        try {
+            return read.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DataAccessResourceFailureException("Shop item read failed", e);
+        }
+    }
+}
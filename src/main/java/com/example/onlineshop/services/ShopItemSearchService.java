@@ -0,0 +1,38 @@
+package com.example.onlineshop.services;
+
+import com.example.onlineshop.model.ShopItemSearchHit;
+import com.example.onlineshop.model.ShopItemSearchPage;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class ShopItemSearchService {
+
+    static final int MAX_PAGE_SIZE = 100;
+
+    private final ShopItemRepository shopItemRepository;
+
+    public ShopItemSearchService(ShopItemRepository shopItemRepository) {
+        this.shopItemRepository = shopItemRepository;
+    }
+
+    public ShopItemSearchPage search(String query, int page, int size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be blank");
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(
+                    "Page must be at least 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        long skip = (long) page * size;
+        // The skip and the one extra hit must both fit in an int.
+        if (skip > Integer.MAX_VALUE - size - 1) {
+            throw new IllegalArgumentException("Page " + page + " is out of range for page size " + size);
+        }
+        List<ShopItemSearchHit> hits = shopItemRepository.searchText(query.strip(), (int) skip, size + 1);
+        boolean hasMore = hits.size() > size;
+        return new ShopItemSearchPage(query, page, size, hasMore, hasMore ? hits.subList(0, size) : hits);
+    }
+}
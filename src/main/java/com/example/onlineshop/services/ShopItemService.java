@@ -1,40 +1,170 @@
 package com.example.onlineshop.services;
 
+import com.example.onlineshop.cache.ShopItemReadCache;
+import com.example.onlineshop.events.ShopItemChangedEvent;
 import com.example.onlineshop.model.ShopItem;
 import com.example.onlineshop.repositories.ShopItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
-public class ShopItemService {
+public class ShopItemService implements ApplicationEventPublisherAware {
+
+    static final int MAX_MODIFY_ATTEMPTS = 5;
 
     private final ShopItemRepository shopItemRepository;
+    private final ShopItemWriteSerializer writeSerializer = new ShopItemWriteSerializer();
+    private QuantityWriteBehindBuffer quantityWriteBehindBuffer;
+    private ShopItemInsertPipeline insertPipeline;
+    private ShopItemReadCache readCache;
+    private ShopItemReadHedger readHedger;
+    private ApplicationEventPublisher eventPublisher = event -> {};
 
     public ShopItemService(ShopItemRepository shopItemRepository) {
         this.shopItemRepository = shopItemRepository;
     }
 
+    @Autowired(required = false)
+    public void setQuantityWriteBehindBuffer(QuantityWriteBehindBuffer quantityWriteBehindBuffer) {
+        this.quantityWriteBehindBuffer = quantityWriteBehindBuffer;
+    }
+
+    @Autowired(required = false)
+    public void setInsertPipeline(ShopItemInsertPipeline insertPipeline) {
+        this.insertPipeline = insertPipeline;
+    }
+
+    @Autowired(required = false)
+    public void setReadCache(ShopItemReadCache readCache) {
+        this.readCache = readCache;
+    }
+
+    @Autowired(required = false)
+    public void setReadHedger(ShopItemReadHedger readHedger) {
+        this.readHedger = readHedger;
+    }
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
     public List<ShopItem> getAllItems() {
+        if (readCache != null) {
+            return readCache.getAllItems();
+        }
         return shopItemRepository.findAll();
     }
 
+    public void writeAllItemsAsJson(OutputStream out) throws IOException {
+        shopItemRepository.writeAllAsJson(out);
+    }
+
     public ShopItem getItemById(String id) {
+        if (readCache != null) {
+            return readCache.getItemById(id);
+        }
+        if (readHedger != null) {
+            return readHedger.findById(id);
+        }
         return shopItemRepository.findById(id).orElse(null);
     }
 
     public ShopItem insertNewShopItem(ShopItem item) {
         item.setId(null);
-        return shopItemRepository.save(item);
+        ShopItem saved = insertPipeline != null ? insertPipeline.insert(item) : shopItemRepository.save(item);
+        eventPublisher.publishEvent(ShopItemChangedEvent.created(saved));
+        return saved;
     }
 
     public ShopItem updateShopItemById(String id, ShopItem replacement) {
         replacement.setId(id);
-        return shopItemRepository.save(replacement);
+        return writeSerializer.serialize(id, () -> {
+            ShopItem previous;
+            try {
+                previous = replacement.getVersion() == null
+                        ? shopItemRepository.replaceUnconditionally(replacement)
+                        : shopItemRepository.replaceIfVersionMatches(replacement);
+            } catch (OptimisticLockingFailureException e) {
+                // The caller's version came from a copy we may still be serving.
+                if (readCache != null) {
+                    readCache.evict(id);
+                }
+                throw e;
+            }
+            eventPublisher.publishEvent(ShopItemChangedEvent.updated(previous, replacement));
+            return replacement;
+        });
+    }
+
+    public ShopItem modifyShopItem(String id, Consumer<ShopItem> modification) {
+        return writeSerializer.serialize(id, () -> modifyWithRetries(id, modification));
+    }
+
+    private ShopItem modifyWithRetries(String id, Consumer<ShopItem> modification) {
+        for (int attempt = 1; ; attempt++) {
+            // Always read from Mongo: a cached copy would only fail the version check.
+            ShopItem current = shopItemRepository.findById(id).orElse(null);
+            if (current == null) {
+                return null;
+            }
+            modification.accept(current);
+            try {
+                ShopItem previous = shopItemRepository.replaceIfVersionMatches(current);
+                eventPublisher.publishEvent(ShopItemChangedEvent.updated(previous, current));
+                return current;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_MODIFY_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether adjustQuantity only queues the delta for a later write, in which case it
+     * returns null for items that exist.
+     */
+    public boolean isQuantityWriteBehind() {
+        return quantityWriteBehindBuffer != null;
+    }
+
+    public ShopItem adjustQuantity(String id, int delta) {
+        if (quantityWriteBehindBuffer != null) {
+            quantityWriteBehindBuffer.add(id, delta);
+            return null;
+        }
+        return writeSerializer.combineQuantityDelta(id, delta, combined -> {
+            ShopItem updated = shopItemRepository.incrementQuantity(id, combined);
+            if (updated != null) {
+                eventPublisher.publishEvent(ShopItemChangedEvent.updated(beforeIncrement(updated, combined), updated));
+            }
+            return updated;
+        });
+    }
+
+    static ShopItem beforeIncrement(ShopItem updated, int delta) {
+        ShopItem previous = new ShopItem(updated.getName(), updated.getDescription(), updated.getPrice(),
+                updated.getQuantity() - delta);
+        previous.setId(updated.getId());
+        previous.setVersion(updated.getVersion() == null ? null : updated.getVersion() - 1);
+        return previous;
     }
 
     public void deleteShopItem(String id) {
-        shopItemRepository.deleteById(id);
+        writeSerializer.serialize(id, () -> {
+            ShopItem previous = shopItemRepository.findAndDeleteById(id);
+            eventPublisher.publishEvent(ShopItemChangedEvent.deleted(id, previous));
+            return null;
+        });
     }
 }
 
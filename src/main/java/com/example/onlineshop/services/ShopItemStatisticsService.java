@@ -0,0 +1,120 @@
+package com.example.onlineshop.services;
+
+import com.example.onlineshop.config.ShopItemStatisticsProperties;
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.events.ShopItemInvalidatedEvent;
+import com.example.onlineshop.model.ShopItemStatistics;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.event.EventListener;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Catalog statistics computed by a single aggregation and cached until the next
+ * {@link ShopItemChangedEvent}, but for at least minRecomputeInterval, so bursts of
+ * writes are coalesced into one aggregation per interval. Concurrent readers of a
+ * stale entry share one aggregation instead of each running their own, and while it
+ * runs readers are served the previous entry unless it is older than maxAge.
+ */
+public class ShopItemStatisticsService {
+
+    private final ShopItemRepository shopItemRepository;
+    private final List<Double> priceBoundaries;
+    private final int lowStockThreshold;
+    private final long maxAgeNanos;
+    private final long minRecomputeNanos;
+    private final AtomicLong generation = new AtomicLong();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final Timer aggregateTimer;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Counter cacheStale;
+    private volatile Cached cached;
+
+    public ShopItemStatisticsService(ShopItemRepository shopItemRepository, ShopItemStatisticsProperties properties,
+                                     MeterRegistry meterRegistry) {
+        if (properties.priceBoundaries().isEmpty()) {
+            throw new IllegalArgumentException("At least one price boundary is required");
+        }
+        for (int i = 1; i < properties.priceBoundaries().size(); i++) {
+            if (properties.priceBoundaries().get(i) <= properties.priceBoundaries().get(i - 1)) {
+                throw new IllegalArgumentException("Price boundaries must be strictly increasing");
+            }
+        }
+        this.shopItemRepository = shopItemRepository;
+        this.priceBoundaries = List.copyOf(properties.priceBoundaries());
+        this.lowStockThreshold = properties.lowStockThreshold();
+        this.maxAgeNanos = properties.maxAge().toNanos();
+        this.minRecomputeNanos = properties.minRecomputeInterval().toNanos();
+        this.aggregateTimer = meterRegistry.timer("shopitems.statistics.aggregate");
+        this.cacheHits = meterRegistry.counter("shopitems.statistics.cache", "result", "hit");
+        this.cacheMisses = meterRegistry.counter("shopitems.statistics.cache", "result", "miss");
+        this.cacheStale = meterRegistry.counter("shopitems.statistics.cache", "result", "stale");
+    }
+
+    public ShopItemStatistics getStatistics() {
+        Cached current = cached;
+        if (isFresh(current)) {
+            cacheHits.increment();
+            return current.statistics();
+        }
+        if (current != null && age(current) < maxAgeNanos) {
+            if (!refreshLock.tryLock()) {
+                cacheStale.increment();
+                return current.statistics();
+            }
+        } else {
+            refreshLock.lock();
+        }
+        try {
+            current = cached;
+            if (isFresh(current)) {
+                cacheHits.increment();
+                return current.statistics();
+            }
+            cacheMisses.increment();
+            long computedFor = generation.get();
+            long computedAt = System.nanoTime();
+            ShopItemStatistics statistics = aggregateTimer.record(
+                    () -> shopItemRepository.aggregateStatistics(priceBoundaries, lowStockThreshold));
+            cached = new Cached(statistics, computedFor, computedAt);
+            return statistics;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onShopItemChanged(ShopItemChangedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    @EventListener
+    public void onShopItemInvalidated(ShopItemInvalidatedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    private boolean isFresh(Cached entry) {
+        if (entry == null) {
+            return false;
+        }
+        long age = age(entry);
+        return age < maxAgeNanos && (entry.generation() == generation.get() || age < minRecomputeNanos);
+    }
+
+    private static long age(Cached entry) {
+        return System.nanoTime() - entry.computedAt();
+    }
+
+    private record Cached(ShopItemStatistics statistics, long generation, long computedAt) {
+    }
+}
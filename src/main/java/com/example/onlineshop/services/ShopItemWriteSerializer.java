@@ -0,0 +1,109 @@
+package com.example.onlineshop.services;
+
+import com.example.onlineshop.model.ShopItem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Serializes writes per item id inside this process. Ids get their own lock, so
+ * writes to different items never wait on each other. Quantity deltas that queue
+ * up behind a running write are folded into a single increment.
+ */
+public class ShopItemWriteSerializer {
+
+    private final ConcurrentHashMap<String, KeySlot> slots = new ConcurrentHashMap<>();
+
+    public <T> T serialize(String id, Supplier<T> write) {
+        KeySlot slot = acquire(id);
+        slot.lock.lock();
+        try {
+            return write.get();
+        } finally {
+            slot.lock.unlock();
+            release(id);
+        }
+    }
+
+    public ShopItem combineQuantityDelta(String id, int delta, IntFunction<ShopItem> applyDelta) {
+        KeySlot slot = acquire(id);
+        PendingDelta pending = new PendingDelta(delta);
+        slot.deltas.add(pending);
+        slot.lock.lock();
+        try {
+            if (!pending.result.isDone()) {
+                applyPendingDeltas(slot, applyDelta);
+            }
+        } finally {
+            slot.lock.unlock();
+            release(id);
+        }
+        try {
+            return pending.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    public int activeIds() {
+        return slots.size();
+    }
+
+    private static void applyPendingDeltas(KeySlot slot, IntFunction<ShopItem> applyDelta) {
+        List<PendingDelta> batch = new ArrayList<>();
+        int combined = 0;
+        PendingDelta next;
+        while ((next = slot.deltas.poll()) != null) {
+            batch.add(next);
+            combined += next.delta;
+        }
+        try {
+            ShopItem result = applyDelta.apply(combined);
+            batch.forEach(pending -> pending.result.complete(result));
+        } catch (Throwable e) {
+            // Every caller in the batch is waiting on its future, whatever was thrown.
+            batch.forEach(pending -> pending.result.completeExceptionally(e));
+        }
+    }
+
+    private KeySlot acquire(String id) {
+        return slots.compute(id, (key, slot) -> {
+            KeySlot acquired = slot == null ? new KeySlot() : slot;
+            acquired.users++;
+            return acquired;
+        });
+    }
+
+    private void release(String id) {
+        slots.computeIfPresent(id, (key, slot) -> --slot.users == 0 ? null : slot);
+    }
+
+    private static final class KeySlot {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Queue<PendingDelta> deltas = new ConcurrentLinkedQueue<>();
+        private int users;
+    }
+
+    private static final class PendingDelta {
+        private final int delta;
+        private final CompletableFuture<ShopItem> result = new CompletableFuture<>();
+
+        private PendingDelta(int delta) {
+            this.delta = delta;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.onlineshop.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Maps item ids to shard names. Every shard owns virtualNodes points on a 64-bit
+ * ring and an id belongs to the shard owning the first point at or after the id's
+ * hash, so adding a shard only moves the ids that land on its new points: about
+ * 1/(n+1) of them, taken evenly from every existing shard. The order shards are
+ * listed in does not matter.
+ */
+public final class ConsistentHashRing {
+
+    private final List<String> shards;
+    private final int virtualNodes;
+    private final NavigableMap<Long, String> points = new TreeMap<>();
+
+    public ConsistentHashRing(List<String> shards, int virtualNodes) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("A ring needs at least one shard");
+        }
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be positive");
+        }
+        this.shards = shards.stream().sorted().distinct().toList();
+        this.virtualNodes = virtualNodes;
+        for (String shard : this.shards) {
+            for (int i = 0; i < virtualNodes; i++) {
+                points.putIfAbsent(hash(shard + '#' + i), shard);
+            }
+        }
+    }
+
+    public String shardFor(String id) {
+        Map.Entry<Long, String> point = points.ceilingEntry(hash(id));
+        return (point != null ? point : points.firstEntry()).getValue();
+    }
+
+    public List<String> shards() {
+        return shards;
+    }
+
+    public int virtualNodes() {
+        return virtualNodes;
+    }
+
+    /**
+     * FNV-1a over the UTF-8 bytes followed by the MurmurHash3 finalizer, which spreads
+     * the near-identical "shard#i" keys and ObjectIds sharing a timestamp prefix over
+     * the whole ring. Nothing in it depends on the JVM, so every node builds the same ring.
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ConsistentHashRing ring
+                && virtualNodes == ring.virtualNodes && shards.equals(ring.shards);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * shards.hashCode() + virtualNodes;
+    }
+
+    @Override
+    public String toString() {
+        return shards + " x" + virtualNodes;
+    }
+}
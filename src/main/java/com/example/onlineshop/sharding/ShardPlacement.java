@@ -0,0 +1,35 @@
+package com.example.onlineshop.sharding;
+
+import java.util.List;
+
+/**
+ * Where items live: the current ring, plus while a rebalance is running the ring it
+ * replaced. An item that has not been moved yet is still on its previous owner, so
+ * id lookups try that one first.
+ */
+public record ShardPlacement(ConsistentHashRing current, ConsistentHashRing previous) {
+
+    public static ShardPlacement of(ConsistentHashRing ring) {
+        return new ShardPlacement(ring, null);
+    }
+
+    public boolean rebalancing() {
+        return previous != null;
+    }
+
+    public String owner(String id) {
+        return current.shardFor(id);
+    }
+
+    /**
+     * The shards that may hold the item, the one to try first first.
+     */
+    public List<String> candidates(String id) {
+        String owner = current.shardFor(id);
+        if (previous == null) {
+            return List.of(owner);
+        }
+        String previousOwner = previous.shardFor(id);
+        return previousOwner.equals(owner) ? List.of(owner) : List.of(previousOwner, owner);
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.onlineshop.sharding;
+
+import com.example.onlineshop.config.ShopItemShardingProperties;
+import com.example.onlineshop.mapping.ShopItemFields;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.ShardedShopItemRepository;
+import com.example.onlineshop.repositories.ShopItemShard;
+import com.example.onlineshop.repositories.ShopItemShardRingRepository;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves items to the shard the current ring gives them to after shards were added.
+ * The shards of the previous ring are scanned in _id order, batch by batch; an item
+ * owned elsewhere is copied to its owner and then deleted from the source only if
+ * the source still matches the copy. A write that reached the source in between
+ * makes it copy the item again; a delete in between makes it drop the copy. Passes
+ * repeat until one finds nothing to move, and only then is the placement saved
+ * without the previous ring.
+ * <p>
+ * Two rebalancers moving the same item could each drop the other's copy, so a node
+ * only moves items while it holds the rebalance lease, renewed before every batch.
+ * A node that finds the lease taken tries again on its next ringRefresh.
+ * <p>
+ * Reads and writes keep working meanwhile, because ShardedShopItemRepository looks
+ * on the previous owner first. Nodes that are not rebalancing reload the saved
+ * placement every ringRefresh.
+ */
+public class ShopItemShardRebalancer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ShopItemShardRebalancer.class);
+    private static final int MAX_MOVE_ATTEMPTS = 5;
+
+    private final ShardedShopItemRepository repository;
+    private final ShopItemShardRingRepository ringRepository;
+    private final ShopItemShardingProperties properties;
+    private final ScheduledExecutorService scheduler;
+    private final String node = UUID.randomUUID().toString();
+    private final Counter moved;
+    private final Counter conflicts;
+    private volatile boolean running = true;
+
+    public ShopItemShardRebalancer(ShardedShopItemRepository repository, ShopItemShardRingRepository ringRepository,
+                                   ShopItemShardingProperties properties, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.ringRepository = ringRepository;
+        this.properties = properties;
+        this.moved = meterRegistry.counter("shopitems.sharding.moved");
+        this.conflicts = meterRegistry.counter("shopitems.sharding.conflicts");
+        Gauge.builder("shopitems.sharding.rebalancing", repository, r -> r.placement().rebalancing() ? 1 : 0)
+                .register(meterRegistry);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shop-item-shard-rebalancer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (properties.rebalance() && repository.placement().rebalancing()) {
+            scheduler.execute(this::rebalance);
+        }
+        long refreshNanos = properties.ringRefresh().toNanos();
+        scheduler.scheduleWithFixedDelay(this::refresh, refreshNanos, refreshNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Returns whether the rebalance completed; it stops early when closed or when
+     * another node holds the rebalance lease.
+     */
+    public boolean rebalance() {
+        ShardPlacement placement = repository.placement();
+        if (!placement.rebalancing()) {
+            return true;
+        }
+        if (!holdsLease()) {
+            log.info("Another node is rebalancing shop items to {}", placement.current());
+            return false;
+        }
+        log.info("Rebalancing shop items from {} to {}", placement.previous(), placement.current());
+        try {
+            while (running && holdsLease()) {
+                try {
+                    long movedInPass = 0;
+                    for (String source : placement.previous().shards()) {
+                        movedInPass += drain(repository.shard(source), placement.current());
+                    }
+                    if (movedInPass == 0 && running && holdsLease()) {
+                        ShardPlacement balanced = ShardPlacement.of(placement.current());
+                        ringRepository.save(balanced);
+                        repository.updatePlacement(balanced);
+                        log.info("Rebalanced shop items onto {}", placement.current());
+                        return true;
+                    }
+                } catch (MongoException e) {
+                    log.warn("Rebalancing pass failed, retrying", e);
+                    pause();
+                }
+            }
+            return false;
+        } finally {
+            try {
+                ringRepository.releaseRebalanceLease(node);
+            } catch (RuntimeException e) {
+                log.debug("Could not release the rebalance lease; it expires on its own", e);
+            }
+        }
+    }
+
+    /**
+     * Moves every item on the shard that the ring places elsewhere, returning how many
+     * it tried to move.
+     */
+    private long drain(ShopItemShard source, ConsistentHashRing ring) {
+        MongoCollection<BsonDocument> sourceItems = items(source);
+        long moving = 0;
+        BsonValue after = null;
+        while (running && holdsLease()) {
+            List<BsonDocument> batch = sourceItems
+                    .find(after == null ? Filters.empty() : Filters.gt(ShopItemFields.ID, after))
+                    .sort(Sorts.ascending(ShopItemFields.ID))
+                    .limit(properties.rebalanceBatchSize())
+                    .into(new ArrayList<>(properties.rebalanceBatchSize()));
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (BsonDocument item : batch) {
+                String owner = ring.shardFor(idOf(item.get(ShopItemFields.ID)));
+                if (!owner.equals(source.name())) {
+                    move(item, sourceItems, items(repository.shard(owner)));
+                    moving++;
+                }
+            }
+            after = batch.get(batch.size() - 1).get(ShopItemFields.ID);
+        }
+        return moving;
+    }
+
+    private void move(BsonDocument item, MongoCollection<BsonDocument> source, MongoCollection<BsonDocument> target) {
+        BsonValue id = item.get(ShopItemFields.ID);
+        BsonDocument copy = item;
+        for (int attempt = 0; attempt < MAX_MOVE_ATTEMPTS; attempt++) {
+            target.replaceOne(Filters.eq(ShopItemFields.ID, id), copy, new ReplaceOptions().upsert(true));
+            // Deletes only if nothing wrote to the source since it was read.
+            if (source.deleteOne(copy).getDeletedCount() == 1) {
+                moved.increment();
+                return;
+            }
+            BsonDocument current = source.find(Filters.eq(ShopItemFields.ID, id)).first();
+            if (current == null) {
+                // The item was deleted meanwhile; a write the owner took since then is kept.
+                target.deleteOne(copy);
+                return;
+            }
+            conflicts.increment();
+            copy = current;
+        }
+        log.info("Shop item {} kept changing while being moved; the next pass retries it", idOf(id));
+    }
+
+    private void refresh() {
+        try {
+            ShardPlacement stored = ringRepository.find();
+            ShardPlacement placement = repository.placement();
+            if (stored != null && !stored.equals(placement) && stored.current().equals(placement.current())) {
+                repository.updatePlacement(stored);
+            }
+        } catch (RuntimeException e) {
+            log.debug("Could not reload the shard placement", e);
+        }
+        if (properties.rebalance() && repository.placement().rebalancing()) {
+            // Takes over once the node that held the lease stopped renewing it.
+            try {
+                rebalance();
+            } catch (RuntimeException e) {
+                log.warn("Could not rebalance shop items", e);
+            }
+        }
+    }
+
+    private boolean holdsLease() {
+        return ringRepository.acquireRebalanceLease(node, properties.rebalanceLease());
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(properties.ringRefresh().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private static MongoCollection<BsonDocument> items(ShopItemShard shard) {
+        MongoTemplate template = shard.mongoTemplate();
+        return template.getCollection(template.getCollectionName(ShopItem.class)).withDocumentClass(BsonDocument.class);
+    }
+
+    private static String idOf(BsonValue id) {
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+}
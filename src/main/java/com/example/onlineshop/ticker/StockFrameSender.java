@@ -0,0 +1,11 @@
+package com.example.onlineshop.ticker;
+
+/**
+ * Delivers one serialized frame, a JSON array of {@link StockTick}s, to a WebSocket
+ * session.
+ */
+@FunctionalInterface
+public interface StockFrameSender {
+
+    void send(String sessionId, byte[] frame);
+}
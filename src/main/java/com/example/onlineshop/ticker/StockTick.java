@@ -0,0 +1,8 @@
+package com.example.onlineshop.ticker;
+
+/**
+ * Price and quantity of an item as pushed to product pages. deleted items are sent
+ * once with their last known price and a quantity of zero.
+ */
+public record StockTick(String id, Double price, int quantity, boolean deleted) {
+}
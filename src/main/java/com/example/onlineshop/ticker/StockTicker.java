@@ -0,0 +1,197 @@
+package com.example.onlineshop.ticker;
+
+import com.example.onlineshop.config.StockTickerProperties;
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.model.ShopItem;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes price and quantity changes to the WebSocket sessions watching an item. Change
+ * events only record the latest tick of a watched item; once per interval a single
+ * thread serializes each dirty tick once and sends every interested session one frame
+ * holding all of its ticks. A session therefore gets at most one frame per interval no
+ * matter how hot its items are, and no thread is tied to a connection.
+ */
+public class StockTicker implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(StockTicker.class);
+
+    private final StockFrameSender sender;
+    private final ObjectMapper objectMapper;
+    private final int maxItemsPerSession;
+    private final Map<String, Set<String>> sessionsByItem = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> itemsBySession = new ConcurrentHashMap<>();
+    private final Map<String, StockTick> dirty = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final Counter frames;
+    private final Counter failures;
+
+    public StockTicker(StockFrameSender sender, ObjectMapper objectMapper, StockTickerProperties properties,
+                       MeterRegistry meterRegistry) {
+        this.sender = sender;
+        this.objectMapper = objectMapper;
+        this.maxItemsPerSession = properties.maxItemsPerSession();
+        this.frames = meterRegistry.counter("shopitems.ticker.frames");
+        this.failures = meterRegistry.counter("shopitems.ticker.failures");
+        Gauge.builder("shopitems.ticker.sessions", itemsBySession, Map::size).register(meterRegistry);
+        Gauge.builder("shopitems.ticker.items", sessionsByItem, Map::size).register(meterRegistry);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = properties.interval().toNanos();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @EventListener
+    public void onShopItemChanged(ShopItemChangedEvent event) {
+        if (!sessionsByItem.containsKey(event.id())) {
+            return;
+        }
+        ShopItem previous = event.previous();
+        ShopItem current = event.current();
+        if (current == null) {
+            dirty.put(event.id(), new StockTick(event.id(), previous == null ? null : previous.getPrice(), 0, true));
+        } else if (previous == null || previous.getQuantity() != current.getQuantity()
+                || !Objects.equals(previous.getPrice(), current.getPrice())) {
+            dirty.put(event.id(), tickOf(current));
+        }
+    }
+
+    /**
+     * Adds items to the session's watch list. Throws IllegalArgumentException when the
+     * list would exceed maxItemsPerSession.
+     */
+    public synchronized void watch(String sessionId, Collection<String> ids) {
+        Set<String> watched = itemsBySession.computeIfAbsent(sessionId, key -> ConcurrentHashMap.newKeySet());
+        if (ids.stream().filter(id -> !watched.contains(id)).distinct().count() + watched.size()
+                > maxItemsPerSession) {
+            throw new IllegalArgumentException("A session can watch at most " + maxItemsPerSession + " items");
+        }
+        for (String id : ids) {
+            watched.add(id);
+            sessionsByItem.computeIfAbsent(id, key -> ConcurrentHashMap.newKeySet()).add(sessionId);
+        }
+    }
+
+    public synchronized void unwatch(String sessionId, Collection<String> ids) {
+        Set<String> watched = itemsBySession.get(sessionId);
+        if (watched == null) {
+            return;
+        }
+        for (String id : ids) {
+            if (watched.remove(id)) {
+                removeSession(id, sessionId);
+            }
+        }
+        if (watched.isEmpty()) {
+            itemsBySession.remove(sessionId);
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        disconnect(event.getSessionId());
+    }
+
+    public synchronized void disconnect(String sessionId) {
+        Set<String> watched = itemsBySession.remove(sessionId);
+        if (watched != null) {
+            watched.forEach(id -> removeSession(id, sessionId));
+        }
+    }
+
+    public int sessionCount() {
+        return itemsBySession.size();
+    }
+
+    /**
+     * Sends every session one frame with the ticks recorded since the last flush.
+     */
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        Map<String, StringBuilder> framesBySession = new HashMap<>();
+        for (String id : dirty.keySet()) {
+            StockTick tick = dirty.remove(id);
+            Set<String> sessions = sessionsByItem.get(id);
+            if (tick == null || sessions == null) {
+                continue;
+            }
+            String json = toJson(tick);
+            for (String sessionId : sessions) {
+                StringBuilder frame = framesBySession.get(sessionId);
+                if (frame == null) {
+                    framesBySession.put(sessionId, new StringBuilder(64).append('[').append(json));
+                } else {
+                    frame.append(',').append(json);
+                }
+            }
+        }
+        framesBySession.forEach((sessionId, frame) -> {
+            try {
+                sender.send(sessionId, frame.append(']').toString().getBytes(StandardCharsets.UTF_8));
+                frames.increment();
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.debug("Could not send stock ticks to session {}", sessionId, e);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    public static StockTick tickOf(ShopItem item) {
+        return new StockTick(item.getId(), item.getPrice(), item.getQuantity(), false);
+    }
+
+    private void removeSession(String id, String sessionId) {
+        Set<String> sessions = sessionsByItem.get(id);
+        if (sessions != null) {
+            sessions.remove(sessionId);
+            if (sessions.isEmpty()) {
+                sessionsByItem.remove(id);
+            }
+        }
+    }
+
+    private String toJson(StockTick tick) {
+        try {
+            return objectMapper.writeValueAsString(tick);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize stock tick for item " + tick.id(), e);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Could not push stock ticks", e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.onlineshop.ticker;
+
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Sends frames to the session's /user/queue/stock subscription. The payload is already
+ * JSON, so it bypasses message conversion.
+ */
+public class StompStockFrameSender implements StockFrameSender {
+
+    public static final String DESTINATION = "/queue/stock";
+
+    private final SimpMessageSendingOperations messagingTemplate;
+
+    public StompStockFrameSender(SimpMessageSendingOperations messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    @Override
+    public void send(String sessionId, byte[] frame) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        headers.setLeaveMutable(true);
+        messagingTemplate.send("/user/" + sessionId + DESTINATION,
+                MessageBuilder.createMessage(frame, headers.getMessageHeaders()));
+    }
+}
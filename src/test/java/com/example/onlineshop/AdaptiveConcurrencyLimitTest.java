@@ -0,0 +1,120 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.limits.AdaptiveConcurrencyLimit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("AdaptiveConcurrencyLimit Unit Tests")
+class AdaptiveConcurrencyLimitTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AdaptiveConcurrencyLimit limit =
+            new AdaptiveConcurrencyLimit(10, 4, 100, 0.9, Duration.ofHours(1), clock::get);
+
+    /**
+     * Admits as many requests as the limit allows and completes them all after the
+     * given latency.
+     */
+    private void fullRound(long latencyMillis) {
+        List<AdaptiveConcurrencyLimit.Permit> permits = new ArrayList<>();
+        AdaptiveConcurrencyLimit.Permit permit;
+        while ((permit = limit.tryAcquire()) != null) {
+            permits.add(permit);
+        }
+        clock.addAndGet(Duration.ofMillis(latencyMillis).toNanos());
+        permits.forEach(AdaptiveConcurrencyLimit.Permit::success);
+    }
+
+    @Test
+    @DisplayName("should reject requests above the limit until permits are completed")
+    void testRejectsAboveLimit() {
+        // Arrange
+        List<AdaptiveConcurrencyLimit.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            permits.add(limit.tryAcquire());
+        }
+
+        // Act
+        AdaptiveConcurrencyLimit.Permit rejected = limit.tryAcquire();
+        permits.get(0).ignore();
+        permits.get(0).ignore();
+
+        // Assert
+        assertThat(permits).doesNotContainNull();
+        assertThat(rejected).isNull();
+        assertThat(limit.inflight()).isEqualTo(9);
+        assertThat(limit.tryAcquire()).isNotNull();
+        assertThat(limit.limit()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("should grow while latency stays at the no-load level")
+    void testGrowsWithoutQueueing() {
+        // Act
+        fullRound(10);
+
+        // Assert
+        assertThat(limit.limit()).isGreaterThan(10);
+    }
+
+    @Test
+    @DisplayName("should shrink once latency shows queueing")
+    void testShrinksWhenQueueing() {
+        // Arrange
+        fullRound(10);
+        int grown = limit.limit();
+
+        // Act
+        fullRound(100);
+        int shrunk = limit.limit();
+        for (int i = 0; i < 100; i++) {
+            fullRound(100);
+        }
+
+        // Assert
+        assertThat(shrunk).isLessThan(grown);
+        assertThat(limit.limit()).isBetween(4, 6);
+    }
+
+    @Test
+    @DisplayName("dropped requests should back the limit off")
+    void testBacksOffOnDrops() {
+        // Arrange
+        AdaptiveConcurrencyLimit.Permit permit = limit.tryAcquire();
+
+        // Act
+        permit.dropped();
+
+        // Assert
+        assertThat(limit.limit()).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("light traffic should not grow the limit")
+    void testIgnoresSamplesWhenAppLimited() {
+        // Act
+        for (int i = 0; i < 100; i++) {
+            AdaptiveConcurrencyLimit.Permit permit = limit.tryAcquire();
+            clock.addAndGet(Duration.ofMillis(10).toNanos());
+            permit.success();
+        }
+
+        // Assert
+        assertThat(limit.limit()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("should refuse bounds that contradict each other")
+    void testValidatesBounds() {
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimit(2, 4, 100, 0.9, Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
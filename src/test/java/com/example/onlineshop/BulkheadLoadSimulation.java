@@ -0,0 +1,118 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.config.BulkheadProperties;
+import com.example.onlineshop.limits.WorkloadBulkheadFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Point-read latency while a bulk job hammers the same Mongo pool, with and without
+ * {@link WorkloadBulkheadFilter}. The pool is a fair semaphore of POOL_SIZE
+ * connections; point reads arrive open-loop and hold a connection for 2 ms, while
+ * BULK_CLIENTS clients loop over full scans that hold one for 200 ms, backing off
+ * for 50 ms after a 503. Run the main method the same way as
+ * {@link ConcurrencyLimitLoadSimulation}.
+ */
+public class BulkheadLoadSimulation {
+
+    private static final int POOL_SIZE = 20;
+    private static final int BULK_CLIENTS = 30;
+    private static final int POINT_READS_PER_SECOND = 1000;
+    private static final Duration RUN = Duration.ofSeconds(10);
+
+    public static void main(String[] args) throws InterruptedException {
+        run("without bulkheads", null);
+        run("with bulkheads", new WorkloadBulkheadFilter(
+                new BulkheadProperties(true, 150, 8, 4, Duration.ofMillis(100), Duration.ofSeconds(1), POOL_SIZE,
+                        Duration.ofSeconds(2), List.of("/api/shopitems/{id:[0-9a-fA-F]{24}}"),
+                        List.of("/api/shopitems/raw"), List.of()),
+                new ObjectMapper(), new SimpleMeterRegistry()));
+    }
+
+    private static void run(String name, Filter filter) throws InterruptedException {
+        Semaphore pool = new Semaphore(POOL_SIZE, true);
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) {
+                Duration hold = request.getRequestURI().endsWith("/raw") ? Duration.ofMillis(200) : Duration.ofMillis(2);
+                pool.acquireUninterruptibly();
+                try {
+                    LockSupport.parkNanos(hold.toNanos());
+                } finally {
+                    pool.release();
+                }
+            }
+        };
+        ExecutorService tomcat = Executors.newFixedThreadPool(200);
+        ConcurrentLinkedQueue<Long> pointReadLatencies = new ConcurrentLinkedQueue<>();
+        AtomicLong bulkCompleted = new AtomicLong();
+        long start = System.nanoTime();
+        long end = start + RUN.toNanos();
+
+        for (int client = 0; client < BULK_CLIENTS; client++) {
+            tomcat.execute(() -> {
+                while (System.nanoTime() < end) {
+                    if (perform(servlet, filter, "/api/shopitems/raw") == 200) {
+                        bulkCompleted.incrementAndGet();
+                    } else {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+                    }
+                }
+            });
+        }
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / POINT_READS_PER_SECOND;
+        for (long next = start + RUN.toNanos() / 5; next < end; next += intervalNanos) {
+            long arrival = next;
+            while (System.nanoTime() < arrival) {
+                Thread.onSpinWait();
+            }
+            tomcat.execute(() -> {
+                if (perform(servlet, filter, "/api/shopitems/64b7f0c2a1b2c3d4e5f60718") == 200) {
+                    pointReadLatencies.add(System.nanoTime() - arrival);
+                }
+            });
+        }
+        tomcat.shutdown();
+        tomcat.awaitTermination(5, TimeUnit.MINUTES);
+
+        long[] sorted = pointReadLatencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("%-18s bulk scans %d, point reads %d, point-read p50 %.1f ms, p99 %.1f ms%n", name,
+                bulkCompleted.get(), sorted.length, millis(sorted, 0.50), millis(sorted, 0.99));
+    }
+
+    private static int perform(HttpServlet servlet, Filter filter, String path) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            MockFilterChain chain = filter == null ? new MockFilterChain(servlet) : new MockFilterChain(servlet, filter);
+            chain.doFilter(new MockHttpServletRequest("GET", path), response);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response.getStatus();
+    }
+
+    private static double millis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.controllers.CatalogSummaryController;
+import com.example.onlineshop.model.CatalogSummary;
+import com.example.onlineshop.services.CatalogSummaryService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CatalogSummaryController.class)
+@DisplayName("CatalogSummaryController Unit Tests")
+class CatalogSummaryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private CatalogSummaryService catalogSummaryService;
+
+    @Test
+    @DisplayName("GET /api/shopitems/summary should return the stored totals")
+    void testGetSummary() throws Exception {
+        // Arrange
+        when(catalogSummaryService.getSummary()).thenReturn(
+                new CatalogSummary(2, 25, 6510.0, 14, Instant.parse("2026-01-01T00:00:00Z")));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/shopitems/summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemCount", is(2)))
+                .andExpect(jsonPath("$.totalQuantity", is(25)))
+                .andExpect(jsonPath("$.totalStockValue", is(6510.0)))
+                .andExpect(jsonPath("$.revision", is(14)));
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.config.CatalogSummaryProperties;
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.model.CatalogSummary;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.CatalogSummaryRepository;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.CatalogSummaryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CatalogSummaryService Unit Tests")
+class CatalogSummaryServiceTest {
+
+    @Mock
+    private ShopItemRepository shopItemRepository;
+
+    @Mock
+    private CatalogSummaryRepository catalogSummaryRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CatalogSummaryService catalogSummaryService;
+
+    @BeforeEach
+    void setUp() {
+        catalogSummaryService = newService(Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalogSummaryService.close();
+    }
+
+    private CatalogSummaryService newService(Duration incrementInterval) {
+        return new CatalogSummaryService(shopItemRepository, catalogSummaryRepository,
+                new CatalogSummaryProperties(Duration.ofMinutes(10), incrementInterval), meterRegistry);
+    }
+
+    private static ShopItem item(double price, int quantity) {
+        ShopItem item = new ShopItem("Mouse", "Wireless mouse", price, quantity);
+        item.setId("1");
+        return item;
+    }
+
+    @Test
+    @DisplayName("change events should be applied as item, quantity and stock value deltas")
+    void testAppliesDeltas() {
+        // Act
+        catalogSummaryService.onShopItemChanged(ShopItemChangedEvent.created(item(10.0, 3)));
+        catalogSummaryService.flushIncrements();
+        catalogSummaryService.onShopItemChanged(ShopItemChangedEvent.updated(item(10.0, 3), item(12.0, 5)));
+        catalogSummaryService.flushIncrements();
+        catalogSummaryService.onShopItemChanged(ShopItemChangedEvent.deleted("1", item(12.0, 5)));
+        catalogSummaryService.flushIncrements();
+
+        // Assert
+        verify(catalogSummaryRepository).increment(1, 3, 30.0);
+        verify(catalogSummaryRepository).increment(0, 2, 30.0);
+        verify(catalogSummaryRepository).increment(-1, -5, -60.0);
+    }
+
+    @Test
+    @DisplayName("change events should be summed off the write path and written as one increment")
+    void testSumsDeltasUntilFlush() {
+        // Act
+        catalogSummaryService.onShopItemChanged(ShopItemChangedEvent.created(item(10.0, 3)));
+        catalogSummaryService.onShopItemChanged(ShopItemChangedEvent.updated(item(10.0, 3), item(12.0, 5)));
+
+        // Assert
+        verifyNoInteractions(catalogSummaryRepository);
+        catalogSummaryService.flushIncrements();
+        verify(catalogSummaryRepository).increment(1, 5, 60.0);
+    }
+
+    @Test
+    @DisplayName("change events without an effect on the totals should not write")
+    void testSkipsEmptyDeltas() {
+        // Act
+        catalogSummaryService.onShopItemChanged(ShopItemChangedEvent.deleted("missing", null));
+        ShopItem renamed = item(10.0, 3);
+        renamed.setName("Mouse 2");
+        catalogSummaryService.onShopItemChanged(ShopItemChangedEvent.updated(item(10.0, 3), renamed));
+        catalogSummaryService.flushIncrements();
+
+        // Assert
+        verifyNoInteractions(catalogSummaryRepository);
+    }
+
+    @Test
+    @DisplayName("a failed increment should be counted, not fail the write, and be retried by the next flush")
+    void testIncrementFailureIsRetried() {
+        // Arrange
+        doThrow(new IllegalStateException("down")).doNothing().when(catalogSummaryRepository)
+                .increment(anyLong(), anyLong(), anyDouble());
+
+        // Act
+        catalogSummaryService.onShopItemChanged(ShopItemChangedEvent.created(item(10.0, 3)));
+        catalogSummaryService.flushIncrements();
+        catalogSummaryService.onShopItemChanged(ShopItemChangedEvent.updated(item(10.0, 3), item(10.0, 4)));
+        catalogSummaryService.flushIncrements();
+
+        // Assert
+        assertThat(meterRegistry.counter("shopitems.summary.increment.failures").count()).isEqualTo(1.0);
+        verify(catalogSummaryRepository).increment(1, 3, 30.0);
+        verify(catalogSummaryRepository).increment(1, 4, 40.0);
+    }
+
+    @Test
+    @DisplayName("reconcile should add the drift as a correction instead of overwriting the totals")
+    void testReconcileCorrectsDrift() {
+        // Arrange
+        catalogSummaryService.close();
+        catalogSummaryService = newService(Duration.ofMillis(5));
+        CatalogSummary stored = new CatalogSummary(3, 10, 100.0, 7, null);
+        CatalogSummary actual = new CatalogSummary(2, 8, 80.0, 0, null);
+        when(catalogSummaryRepository.find()).thenReturn(stored);
+        when(shopItemRepository.computeCatalogSummary()).thenReturn(actual);
+
+        // Act
+        boolean reconciled = catalogSummaryService.reconcile();
+
+        // Assert
+        assertThat(reconciled).isTrue();
+        verify(catalogSummaryRepository).correct(eq(-1L), eq(-2L), eq(-20.0), any(Instant.class));
+        assertThat(meterRegistry.counter("shopitems.summary.reconcile.repaired").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("reconcile under steady writes should only correct the drift the deltas cannot explain")
+    void testReconcileWithDeltasDuringScan() {
+        // Arrange
+        catalogSummaryService.close();
+        catalogSummaryService = newService(Duration.ofMillis(5));
+        CatalogSummary before = new CatalogSummary(3, 10, 100.0, 7, null);
+        CatalogSummary after = new CatalogSummary(4, 11, 110.0, 8, null);
+        CatalogSummary actual = new CatalogSummary(3, 9, 90.0, 0, null);
+        when(catalogSummaryRepository.find()).thenReturn(before, after);
+        when(shopItemRepository.computeCatalogSummary()).thenReturn(actual);
+
+        // Act
+        boolean reconciled = catalogSummaryService.reconcile();
+
+        // Assert
+        assertThat(reconciled).isTrue();
+        verify(catalogSummaryRepository).correct(eq(0L), eq(-1L), eq(-10.0), any(Instant.class));
+    }
+
+    @Test
+    @DisplayName("the first reconcile should store the scanned totals")
+    void testFirstReconcileStoresTotals() {
+        // Arrange
+        CatalogSummary actual = new CatalogSummary(2, 8, 80.0, 0, null);
+        when(catalogSummaryRepository.find()).thenReturn(null);
+        when(shopItemRepository.computeCatalogSummary()).thenReturn(actual);
+        when(catalogSummaryRepository.insertIfAbsent(eq(actual), any(Instant.class))).thenReturn(true);
+
+        // Act & Assert
+        assertThat(catalogSummaryService.reconcile()).isTrue();
+        verify(catalogSummaryRepository, never()).correct(anyLong(), anyLong(), anyDouble(), any());
+    }
+
+    @Test
+    @DisplayName("getSummary should return zero totals before the summary exists")
+    void testGetSummaryBeforeFirstWrite() {
+        // Arrange
+        when(catalogSummaryRepository.find()).thenReturn(null);
+
+        // Act
+        CatalogSummary summary = catalogSummaryService.getSummary();
+
+        // Assert
+        assertThat(summary.itemCount()).isZero();
+        assertThat(summary.totalStockValue()).isCloseTo(0.0, within(1e-9));
+    }
+}
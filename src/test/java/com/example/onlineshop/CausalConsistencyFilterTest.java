@@ -0,0 +1,115 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.consistency.CausalConsistencyContext;
+import com.example.onlineshop.consistency.CausalConsistencyFilter;
+import com.example.onlineshop.consistency.CausalToken;
+import com.example.onlineshop.consistency.CausalTokenCommandListener;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandSucceededEvent;
+import jakarta.servlet.http.Cookie;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonTimestamp;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CausalConsistencyFilter Unit Tests")
+class CausalConsistencyFilterTest {
+
+    private final CausalConsistencyContext context =
+            new CausalConsistencyContext("shop-causal-token", "Causal-Token", Duration.ofMinutes(5));
+    private final CausalConsistencyFilter filter = new CausalConsistencyFilter(context);
+    private final CausalTokenCommandListener listener = new CausalTokenCommandListener(context);
+
+    private static CommandSucceededEvent reply(String commandName, BsonTimestamp operationTime) {
+        BsonDocument response = new BsonDocument("ok", new BsonInt32(1))
+                .append("operationTime", operationTime)
+                .append("$clusterTime", new BsonDocument("clusterTime", operationTime));
+        return new CommandSucceededEvent(null, 1, 1,
+                new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress())), "onlineshop",
+                commandName, response, 1000);
+    }
+
+    @Test
+    @DisplayName("the token from the header or else the cookie should be bound for the request")
+    void testBindsTokenFromRequest() throws Exception {
+        // Arrange
+        CausalToken fromHeader = new CausalToken(new BsonTimestamp(200, 1), null);
+        CausalToken fromCookie = new CausalToken(new BsonTimestamp(100, 1), null);
+        MockHttpServletRequest both = new MockHttpServletRequest("GET", "/");
+        both.addHeader("Causal-Token", fromHeader.encode());
+        both.setCookies(new Cookie("shop-causal-token", fromCookie.encode()));
+        MockHttpServletRequest cookieOnly = new MockHttpServletRequest("GET", "/");
+        cookieOnly.setCookies(new Cookie("shop-causal-token", fromCookie.encode()));
+        AtomicReference<CausalToken> seen = new AtomicReference<>();
+
+        // Act
+        filter.doFilter(both, new MockHttpServletResponse(), (request, response) -> seen.set(context.readAfter()));
+        CausalToken boundFromHeader = seen.get();
+        filter.doFilter(cookieOnly, new MockHttpServletResponse(), (request, response) -> seen.set(context.readAfter()));
+
+        // Assert
+        assertThat(boundFromHeader).isEqualTo(fromHeader);
+        assertThat(seen.get()).isEqualTo(fromCookie);
+        assertThat(context.readAfter()).isNull();
+    }
+
+    @Test
+    @DisplayName("a write during the request should hand its operation time back as header and cookie")
+    void testWriteSetsToken() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/save");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        BsonTimestamp operationTime = new BsonTimestamp(300, 4);
+
+        // Act
+        filter.doFilter(request, response, (req, res) -> {
+            listener.commandSucceeded(reply("find", new BsonTimestamp(400, 1)));
+            listener.commandSucceeded(reply("update", operationTime));
+        });
+
+        // Assert
+        CausalToken token = CausalToken.decode(response.getHeader("Causal-Token"));
+        assertThat(token).isNotNull();
+        assertThat(token.operationTime()).isEqualTo(operationTime);
+        Cookie cookie = response.getCookie("shop-causal-token");
+        assertThat(cookie).isNotNull();
+        assertThat(cookie.getValue()).isEqualTo(response.getHeader("Causal-Token"));
+        assertThat(cookie.isHttpOnly()).isTrue();
+        assertThat(cookie.getMaxAge()).isEqualTo(300);
+    }
+
+    @Test
+    @DisplayName("a write older than the token the request brought should not move it back")
+    void testKeepsNewerToken() throws Exception {
+        // Arrange
+        CausalToken newer = new CausalToken(new BsonTimestamp(500, 1), null);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/save");
+        request.addHeader("Causal-Token", newer.encode());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<CausalToken> seen = new AtomicReference<>();
+
+        // Act
+        filter.doFilter(request, response, (req, res) -> {
+            listener.commandSucceeded(reply("insert", new BsonTimestamp(400, 1)));
+            seen.set(context.readAfter());
+        });
+        listener.commandSucceeded(reply("insert", new BsonTimestamp(600, 1)));
+
+        // Assert
+        assertThat(seen.get()).isEqualTo(newer);
+        assertThat(response.getHeader("Causal-Token")).isNull();
+        assertThat(context.readAfter()).isNull();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.consistency.CausalToken;
+import org.bson.BsonDocument;
+import org.bson.BsonInt64;
+import org.bson.BsonTimestamp;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CausalToken Unit Tests")
+class CausalTokenTest {
+
+    @Test
+    @DisplayName("an encoded token should decode to the same times")
+    void testRoundTrip() {
+        // Arrange
+        BsonDocument clusterTime = new BsonDocument("clusterTime", new BsonTimestamp(1700000000, 3))
+                .append("signature", new BsonDocument("keyId", new BsonInt64(7)));
+        CausalToken token = new CausalToken(new BsonTimestamp(1700000000, 3), clusterTime);
+
+        // Act
+        CausalToken decoded = CausalToken.decode(token.encode());
+
+        // Assert
+        assertThat(decoded).isEqualTo(token);
+        assertThat(token.encode()).doesNotContain("+", "/", "=");
+    }
+
+    @Test
+    @DisplayName("anything but an encoded token should decode to null")
+    void testRejectsGarbage() {
+        // Arrange
+        String notBase64 = "not a token!";
+        String notBson = "AAAA";
+        String tooLong = "A".repeat(2048);
+        String noOperationTime = new CausalToken(new BsonTimestamp(1, 1), null).encode().substring(1);
+
+        // Act & Assert
+        assertThat(CausalToken.decode(null)).isNull();
+        assertThat(CausalToken.decode(notBase64)).isNull();
+        assertThat(CausalToken.decode(notBson)).isNull();
+        assertThat(CausalToken.decode(tooLong)).isNull();
+        assertThat(CausalToken.decode(noOperationTime)).isNull();
+    }
+
+    @Test
+    @DisplayName("a token should only be after older operation times")
+    void testOrdering() {
+        // Arrange
+        CausalToken older = new CausalToken(new BsonTimestamp(100, 1), null);
+        CausalToken newer = new CausalToken(new BsonTimestamp(100, 2), null);
+
+        // Act & Assert
+        assertThat(newer.isAfter(older)).isTrue();
+        assertThat(older.isAfter(newer)).isFalse();
+        assertThat(older.isAfter(null)).isTrue();
+    }
+}
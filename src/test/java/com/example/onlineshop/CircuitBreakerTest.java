@@ -0,0 +1,82 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.cache.CircuitBreaker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CircuitBreaker Unit Tests")
+class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(4, 4, 0.5, Duration.ofSeconds(5), clock::get);
+
+    private void record(boolean... failures) {
+        for (boolean failed : failures) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            if (failed) {
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("should stay closed until minimumCalls were recorded")
+    void testStaysClosedBelowMinimumCalls() {
+        // Arrange & Act
+        record(true, true, true);
+
+        // Assert
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("should open at the failure rate and reject calls while open")
+    void testOpensAtFailureRate() {
+        // Arrange & Act
+        record(false, true, false, true);
+
+        // Assert
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    @DisplayName("should only count the last window calls")
+    void testSlidingWindow() {
+        // Arrange & Act
+        record(true, false, false, false, false, true);
+
+        // Assert
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("after openFor a single trial call should decide whether it closes")
+    void testHalfOpenTrial() {
+        // Arrange
+        record(true, true, true, true);
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        // Act
+        boolean trial = breaker.tryAcquire();
+        boolean concurrent = breaker.tryAcquire();
+        breaker.onFailure();
+        boolean afterFailedTrial = breaker.tryAcquire();
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        breaker.tryAcquire();
+        breaker.onSuccess();
+
+        // Assert
+        assertThat(trial).isTrue();
+        assertThat(concurrent).isFalse();
+        assertThat(afterFailedTrial).isFalse();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+}
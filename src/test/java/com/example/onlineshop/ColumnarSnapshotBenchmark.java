@@ -0,0 +1,111 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.analytics.ColumnarAggregate;
+import com.example.onlineshop.analytics.ColumnarFilter;
+import com.example.onlineshop.analytics.ColumnarSnapshot;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.model.ShopItemSummary;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filter-and-aggregate and top-N by stock value over a {@link ColumnarSnapshot}
+ * versus a parallel stream over a List of ShopItem. Setup prints the heap growth of
+ * each representation. Run the same way as {@link ShopItemJsonTranscoderBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ColumnarSnapshotBenchmark {
+
+    private static final ColumnarFilter FILTER = ColumnarFilter.of(100.0, 500.0, 10, null, null);
+
+    @Param({"1000000"})
+    public int items;
+
+    private List<ShopItem> objects;
+    private ColumnarSnapshot snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Runtime runtime = Runtime.getRuntime();
+        Random random = new Random(42);
+        System.gc();
+        long start = runtime.totalMemory() - runtime.freeMemory();
+        objects = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            ShopItem item = new ShopItem("item " + random.nextInt(20_000), "Description of item " + i,
+                    random.nextInt(100_000) / 100.0, random.nextInt(1000));
+            item.setId(new ObjectId().toHexString());
+            item.setVersion((long) random.nextInt(10));
+            objects.add(item);
+        }
+        System.gc();
+        long afterObjects = runtime.totalMemory() - runtime.freeMemory();
+        ColumnarSnapshot.Builder builder = new ColumnarSnapshot.Builder();
+        for (ShopItem item : objects) {
+            builder.add(item.getId(), item.getName(), item.getPrice(), item.getQuantity());
+        }
+        snapshot = builder.build();
+        builder = null;
+        System.gc();
+        long afterSnapshot = runtime.totalMemory() - runtime.freeMemory();
+        System.out.printf("%n%d items: objects %d MB, snapshot %d MB (estimated %d MB)%n", items,
+                (afterObjects - start) >> 20, (afterSnapshot - afterObjects) >> 20, snapshot.estimatedBytes() >> 20);
+    }
+
+    @Benchmark
+    public ColumnarAggregate aggregateColumnar() {
+        return snapshot.aggregate(FILTER);
+    }
+
+    @Benchmark
+    public double aggregateObjects() {
+        return objects.parallelStream()
+                .filter(item -> item.getPrice() >= 100.0 && item.getPrice() <= 500.0 && item.getQuantity() >= 10)
+                .mapToDouble(item -> item.getPrice() * item.getQuantity())
+                .sum();
+    }
+
+    @Benchmark
+    public List<ShopItemSummary> topByValueColumnar() {
+        return snapshot.topByValue(FILTER, 10);
+    }
+
+    @Benchmark
+    public List<ShopItem> topByValueObjects() {
+        return objects.parallelStream()
+                .filter(item -> item.getPrice() >= 100.0 && item.getPrice() <= 500.0 && item.getQuantity() >= 10)
+                .sorted(Comparator.comparingDouble((ShopItem item) -> item.getPrice() * item.getQuantity()).reversed())
+                .limit(10)
+                .toList();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ColumnarSnapshotBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.analytics.ColumnarAggregate;
+import com.example.onlineshop.analytics.ColumnarFilter;
+import com.example.onlineshop.analytics.ColumnarSnapshot;
+import com.example.onlineshop.model.ShopItemSummary;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("ColumnarSnapshot Unit Tests")
+class ColumnarSnapshotTest {
+
+    private static ColumnarSnapshot sample() {
+        return new ColumnarSnapshot.Builder()
+                .add("64b7f0c2a1b2c3d4e5f60718", "Mouse", 25.50, 20)
+                .add("legacy-id", "Lamp", 39.99, 3)
+                .add("64b7f0c2a1b2c3d4e5f60719", "Laptop", 1200.00, 5)
+                .add("64b7f0c2a1b2c3d4e5f6071a", "Mouse", 19.99, 0)
+                .build();
+    }
+
+    @Test
+    @DisplayName("rows should round-trip ids and dictionary-encoded names")
+    void testRowsRoundTrip() {
+        ColumnarSnapshot snapshot = sample();
+
+        assertThat(snapshot.size()).isEqualTo(4);
+        assertThat(snapshot.distinctNames()).isEqualTo(3);
+        assertThat(snapshot.id(0)).isEqualTo("64b7f0c2a1b2c3d4e5f60718");
+        assertThat(snapshot.id(1)).isEqualTo("legacy-id");
+        assertThat(snapshot.name(3)).isEqualTo("Mouse");
+        assertThat(snapshot.price(2)).isEqualTo(1200.00);
+        assertThat(snapshot.quantity(1)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("aggregate should total the rows matching price, quantity and name")
+    void testAggregate() {
+        ColumnarSnapshot snapshot = sample();
+
+        ColumnarAggregate all = snapshot.aggregate(ColumnarFilter.all());
+        ColumnarAggregate cheap = snapshot.aggregate(ColumnarFilter.of(null, 50.0, 1, null, null));
+        ColumnarAggregate mice = snapshot.aggregate(ColumnarFilter.of(null, null, null, null, "Mouse"));
+
+        assertThat(all.count()).isEqualTo(4);
+        assertThat(all.totalQuantity()).isEqualTo(28);
+        assertThat(all.totalValue()).isCloseTo(25.50 * 20 + 39.99 * 3 + 1200.00 * 5, within(1e-9));
+        assertThat(cheap.count()).isEqualTo(2);
+        assertThat(cheap.minPrice()).isEqualTo(25.50);
+        assertThat(cheap.maxPrice()).isEqualTo(39.99);
+        assertThat(mice.count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("aggregate should return empty totals when nothing matches")
+    void testAggregateNoMatch() {
+        ColumnarAggregate unknownName = sample().aggregate(ColumnarFilter.of(null, null, null, null, "Sofa"));
+        ColumnarAggregate empty = ColumnarSnapshot.empty().aggregate(ColumnarFilter.all());
+
+        assertThat(unknownName.count()).isZero();
+        assertThat(unknownName.minPrice()).isNull();
+        assertThat(empty.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("topByValue should return the highest stock values first")
+    void testTopByValue() {
+        List<ShopItemSummary> top = sample().topByValue(ColumnarFilter.all(), 2);
+
+        assertThat(top).extracting(ShopItemSummary::name).containsExactly("Laptop", "Mouse");
+        assertThat(top.get(1).id()).isEqualTo("64b7f0c2a1b2c3d4e5f60718");
+    }
+
+    @Test
+    @DisplayName("parallel scans over many rows should match a sequential scan")
+    void testParallelScanMatchesSequential() {
+        Random random = new Random(7);
+        ColumnarSnapshot.Builder builder = new ColumnarSnapshot.Builder();
+        List<ShopItemSummary> rows = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            ShopItemSummary row = new ShopItemSummary(new ObjectId().toHexString(), "item " + random.nextInt(500),
+                    random.nextInt(100_000) / 100.0, random.nextInt(1000));
+            rows.add(row);
+            builder.add(row.id(), row.name(), row.price(), row.quantity());
+        }
+        ColumnarSnapshot snapshot = builder.build();
+        ColumnarFilter filter = ColumnarFilter.of(100.0, 500.0, 10, null, null);
+
+        ColumnarAggregate aggregate = snapshot.aggregate(filter);
+        List<ShopItemSummary> top = snapshot.topByValue(filter, 25);
+
+        List<ShopItemSummary> expected = rows.stream()
+                .filter(row -> row.price() >= 100.0 && row.price() <= 500.0 && row.quantity() >= 10)
+                .toList();
+        assertThat(aggregate.count()).isEqualTo(expected.size());
+        assertThat(aggregate.totalQuantity()).isEqualTo(expected.stream().mapToLong(ShopItemSummary::quantity).sum());
+        assertThat(top).containsExactlyElementsOf(expected.stream()
+                .sorted(Comparator.comparingDouble((ShopItemSummary row) -> row.price() * row.quantity()).reversed())
+                .limit(25)
+                .toList());
+    }
+
+    @Test
+    @DisplayName("filters should reject inverted bounds")
+    void testFilterRejectsInvertedBounds() {
+        assertThatThrownBy(() -> ColumnarFilter.of(10.0, 5.0, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ColumnarFilter.of(null, null, 10, 5, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.config.ConcurrencyLimitProperties;
+import com.example.onlineshop.limits.ConcurrencyLimitFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ConcurrencyLimitFilter Unit Tests")
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(
+            new ConcurrencyLimitProperties(true, 10, 100, 1, 1, 1, 0.9, Duration.ofSeconds(10), Duration.ofSeconds(2),
+                    List.of("/api/shopitems/changes")),
+            new ObjectMapper(), meterRegistry);
+
+    private MockHttpServletResponse perform(String method, String path) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, path), response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    @DisplayName("requests above the write limit should get 503 with Retry-After while reads pass")
+    void testShedsWritesAboveLimit() throws Exception {
+        // Arrange
+        filter.writes().tryAcquire();
+
+        // Act
+        MockHttpServletResponse write = perform("POST", "/save");
+        MockHttpServletResponse read = perform("GET", "/api/shopitems");
+
+        // Assert
+        assertThat(write.getStatus()).isEqualTo(503);
+        assertThat(write.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(write.getContentType()).isEqualTo("application/problem+json");
+        assertThat(write.getContentAsString()).contains("\"status\":503");
+        assertThat(read.getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.counter("shopitems.requests.rejected", "operation", "write").count()).isEqualTo(1);
+        assertThat(filter.reads().inflight()).isZero();
+    }
+
+    @Test
+    @DisplayName("excluded paths should bypass the limits")
+    void testExcludedPathsBypassLimits() throws Exception {
+        // Arrange
+        filter.writes().tryAcquire();
+
+        // Act
+        MockHttpServletResponse response = perform("POST", "/api/shopitems/changes");
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("a request that throws should release its permit and back the limit off")
+    void testExceptionCountsAsDrop() {
+        // Arrange
+        MockFilterChain failing = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) {
+                throw new IllegalStateException("Mongo timed out");
+            }
+        });
+
+        // Act & Assert
+        assertThatThrownBy(() -> filter.doFilter(new MockHttpServletRequest("GET", "/view/1"),
+                new MockHttpServletResponse(), failing)).isInstanceOf(IllegalStateException.class);
+        assertThat(filter.reads().inflight()).isZero();
+        assertThat(filter.reads().limit()).isEqualTo(9);
+    }
+}
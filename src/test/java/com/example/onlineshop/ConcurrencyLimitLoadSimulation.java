@@ -0,0 +1,116 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.config.ConcurrencyLimitProperties;
+import com.example.onlineshop.limits.ConcurrencyLimitFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load test of {@link ConcurrencyLimitFilter} at twice the capacity of a
+ * simulated backend: a fair semaphore of BACKEND_SLOTS standing in for Mongo, held
+ * for SERVICE_TIME per request, behind a 200-thread pool with an unbounded queue
+ * standing in for Tomcat. Each run prints p50 and p99 of the admitted requests
+ * (measured from arrival, so queueing counts) over the second half of the run,
+ * once without the filter and once with it. Run the main method from the IDE or with
+ * java -cp target/test-classes:target/classes:&lt;test classpath&gt;
+ * com.example.onlineshop.ConcurrencyLimitLoadSimulation.
+ */
+public class ConcurrencyLimitLoadSimulation {
+
+    private static final int BACKEND_SLOTS = 8;
+    private static final Duration SERVICE_TIME = Duration.ofMillis(5);
+    private static final double OVERLOAD = 2.0;
+    private static final Duration RUN = Duration.ofSeconds(10);
+
+    public static void main(String[] args) throws InterruptedException {
+        run("without limit", null);
+        run("with limit", new ConcurrencyLimitFilter(
+                new ConcurrencyLimitProperties(true, 40, 400, 10, 100, 4, 0.9, Duration.ofSeconds(10),
+                        Duration.ofSeconds(1), List.of()),
+                new ObjectMapper(), new SimpleMeterRegistry()));
+    }
+
+    private static void run(String name, Filter filter) throws InterruptedException {
+        Semaphore backend = new Semaphore(BACKEND_SLOTS, true);
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) {
+                backend.acquireUninterruptibly();
+                try {
+                    LockSupport.parkNanos(SERVICE_TIME.toNanos());
+                } finally {
+                    backend.release();
+                }
+            }
+        };
+        ExecutorService tomcat = new ThreadPoolExecutor(200, 200, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>());
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong admitted = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+
+        double ratePerSecond = OVERLOAD * BACKEND_SLOTS * TimeUnit.SECONDS.toNanos(1) / SERVICE_TIME.toNanos();
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long start = System.nanoTime();
+        long end = start + RUN.toNanos();
+        long measureFrom = start + RUN.toNanos() / 2;
+        for (long next = start; next < end; next += intervalNanos) {
+            long arrival = next;
+            while (System.nanoTime() < arrival) {
+                Thread.onSpinWait();
+            }
+            tomcat.execute(() -> {
+                MockHttpServletResponse response = new MockHttpServletResponse();
+                try {
+                    MockFilterChain chain = filter == null
+                            ? new MockFilterChain(servlet)
+                            : new MockFilterChain(servlet, filter);
+                    chain.doFilter(new MockHttpServletRequest("GET", "/api/shopitems"), response);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                if (arrival < measureFrom) {
+                    return;
+                }
+                if (response.getStatus() == 200) {
+                    admitted.incrementAndGet();
+                    latencies.add(System.nanoTime() - arrival);
+                } else {
+                    rejected.incrementAndGet();
+                }
+            });
+        }
+        tomcat.shutdown();
+        tomcat.awaitTermination(5, TimeUnit.MINUTES);
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("%-14s offered %.0f/s, admitted %d, rejected %d, p50 %.1f ms, p99 %.1f ms%n", name,
+                ratePerSecond, admitted.get(), rejected.get(), millis(sorted, 0.50), millis(sorted, 0.99));
+    }
+
+    private static double millis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.sharding.ConsistentHashRing;
+import com.example.onlineshop.sharding.ShardPlacement;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ConsistentHashRing Unit Tests")
+class ConsistentHashRingTest {
+
+    private static List<String> ids(int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(new ObjectId().toHexString());
+        }
+        return ids;
+    }
+
+    @Test
+    @DisplayName("ids should spread evenly and independently of the order shards are listed in")
+    void testSpreadsIdsEvenly() {
+        // Arrange
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c"), 128);
+        ConsistentHashRing reordered = new ConsistentHashRing(List.of("c", "a", "b"), 128);
+        List<String> ids = ids(30_000);
+
+        // Act
+        Map<String, Integer> counts = new HashMap<>();
+        for (String id : ids) {
+            counts.merge(ring.shardFor(id), 1, Integer::sum);
+        }
+
+        // Assert
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(7_000, 13_000));
+        assertThat(ids).allMatch(id -> ring.shardFor(id).equals(reordered.shardFor(id)));
+        assertThat(reordered).isEqualTo(ring);
+    }
+
+    @Test
+    @DisplayName("adding a shard should only move ids onto the new shard, about 1/n of them")
+    void testAddingShardMovesFewIds() {
+        // Arrange
+        ConsistentHashRing before = new ConsistentHashRing(List.of("a", "b", "c"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("a", "b", "c", "d"), 128);
+        List<String> ids = ids(20_000);
+
+        // Act
+        int moved = 0;
+        boolean onlyToNewShard = true;
+        for (String id : ids) {
+            if (!before.shardFor(id).equals(after.shardFor(id))) {
+                moved++;
+                onlyToNewShard &= after.shardFor(id).equals("d");
+            }
+        }
+
+        // Assert
+        assertThat(onlyToNewShard).isTrue();
+        assertThat(moved).isBetween(3_500, 6_500);
+    }
+
+    @Test
+    @DisplayName("while rebalancing an id should be looked up on its previous owner first")
+    void testCandidatesWhileRebalancing() {
+        // Arrange
+        ConsistentHashRing before = new ConsistentHashRing(List.of("a", "b"), 64);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("a", "b", "c"), 64);
+        ShardPlacement placement = new ShardPlacement(after, before);
+        String moving = ids(1000).stream()
+                .filter(id -> after.shardFor(id).equals("c"))
+                .findFirst()
+                .orElseThrow();
+
+        // Act & Assert
+        assertThat(placement.candidates(moving)).containsExactly(before.shardFor(moving), "c");
+        assertThat(ShardPlacement.of(after).candidates(moving)).containsExactly("c");
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.services.LatencyTracker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LatencyTracker Unit Tests")
+class LatencyTrackerTest {
+
+    @Test
+    @DisplayName("should report the initial value until a tenth of the window was recorded")
+    void testInitialValue() {
+        // Arrange
+        LatencyTracker tracker = new LatencyTracker(100, 0.9, 42);
+
+        // Act
+        for (int i = 0; i < 9; i++) {
+            tracker.record(1);
+        }
+
+        // Assert
+        assertThat(tracker.percentileNanos()).isEqualTo(42);
+    }
+
+    @Test
+    @DisplayName("should follow the percentile of the most recent window")
+    void testFollowsRecentWindow() {
+        // Arrange
+        LatencyTracker tracker = new LatencyTracker(100, 0.9, 0);
+        for (int i = 1; i <= 100; i++) {
+            tracker.record(i);
+        }
+        long first = tracker.percentileNanos();
+
+        // Act
+        for (int i = 1; i <= 100; i++) {
+            tracker.record(1000 + i);
+        }
+
+        // Assert
+        assertThat(first).isEqualTo(90);
+        assertThat(tracker.percentileNanos()).isEqualTo(1090);
+    }
+}
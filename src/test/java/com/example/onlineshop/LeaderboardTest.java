@@ -0,0 +1,39 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.analytics.Leaderboard;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Leaderboard Unit Tests")
+class LeaderboardTest {
+
+    @Test
+    @DisplayName("top should return entries in score order with ties broken by id")
+    void testTopOrder() {
+        Leaderboard lowest = new Leaderboard(false);
+        lowest.put("b", "Lamp", 39.99, 3, 3);
+        lowest.put("a", "Mouse", 25.50, 3, 3);
+        lowest.put("c", "Laptop", 1200.00, 5, 5);
+
+        assertThat(lowest.top(2)).extracting(Leaderboard.Entry::id).containsExactly("a", "b");
+        assertThat(lowest.top(10)).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("put should move an existing entry and remove should drop it")
+    void testPutMovesAndRemoveDrops() {
+        Leaderboard highest = new Leaderboard(true);
+        highest.put("1", "Mouse", 25.50, 20, 510.0);
+        highest.put("2", "Laptop", 1200.00, 5, 6000.0);
+
+        highest.put("1", "Mouse", 25.50, 400, 10_200.0);
+        assertThat(highest.top(1)).extracting(Leaderboard.Entry::id).containsExactly("1");
+        assertThat(highest.size()).isEqualTo(2);
+
+        highest.remove("1");
+        highest.remove("missing");
+        assertThat(highest.top(5)).extracting(Leaderboard.Entry::id).containsExactly("2");
+    }
+}
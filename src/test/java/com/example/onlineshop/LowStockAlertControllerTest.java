@@ -0,0 +1,72 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.alerts.LowStockAlertEngine;
+import com.example.onlineshop.controllers.LowStockAlertController;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(LowStockAlertController.class)
+@DisplayName("LowStockAlertController Unit Tests")
+class LowStockAlertControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private LowStockAlertEngine lowStockAlertEngine;
+
+    @Test
+    @DisplayName("GET /api/shopitems/alerts/low-stock/thresholds should return global and per-item thresholds")
+    void testGetThresholds() throws Exception {
+        // Arrange
+        when(lowStockAlertEngine.getGlobalThreshold()).thenReturn(5);
+        when(lowStockAlertEngine.getThresholds()).thenReturn(Map.of("1", 20));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/shopitems/alerts/low-stock/thresholds"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.global", is(5)))
+                .andExpect(jsonPath("$.items.1", is(20)));
+    }
+
+    @Test
+    @DisplayName("PUT and DELETE /api/shopitems/alerts/low-stock/thresholds/{id} should manage per-item rules")
+    void testSetAndRemoveThreshold() throws Exception {
+        // Act & Assert
+        mockMvc.perform(put("/api/shopitems/alerts/low-stock/thresholds/{id}", "1").param("threshold", "20"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(put("/api/shopitems/alerts/low-stock/thresholds/global").param("threshold", "3"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/shopitems/alerts/low-stock/thresholds/{id}", "1"))
+                .andExpect(status().isNoContent());
+
+        verify(lowStockAlertEngine).setThreshold("1", 20);
+        verify(lowStockAlertEngine).setGlobalThreshold(3);
+        verify(lowStockAlertEngine).removeThreshold("1");
+    }
+
+    @Test
+    @DisplayName("PUT /api/shopitems/alerts/low-stock/thresholds/{id} should reject negative thresholds")
+    void testRejectsNegativeThreshold() throws Exception {
+        // Act & Assert
+        mockMvc.perform(put("/api/shopitems/alerts/low-stock/thresholds/{id}", "1").param("threshold", "-1"))
+                .andExpect(status().isBadRequest());
+
+        verify(lowStockAlertEngine, never()).setThreshold(anyString(), anyInt());
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.alerts.InMemoryLowStockAlertSink;
+import com.example.onlineshop.alerts.LowStockAlert;
+import com.example.onlineshop.alerts.LowStockAlertEngine;
+import com.example.onlineshop.config.LowStockAlertProperties;
+import com.example.onlineshop.config.QuantityWriteBehindProperties;
+import com.example.onlineshop.config.QuantityWriteBehindProperties.Durability;
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.QuantityWriteBehindBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("LowStockAlertEngine Unit Tests")
+class LowStockAlertEngineTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InMemoryLowStockAlertSink sink = new InMemoryLowStockAlertSink();
+    private LowStockAlertEngine engine;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        engine.close();
+    }
+
+    private LowStockAlertEngine engine(Duration debounce, Map<String, Integer> thresholds, int queueCapacity) {
+        engine = new LowStockAlertEngine(sink,
+                new LowStockAlertProperties(true, 5, thresholds, debounce, queueCapacity), meterRegistry);
+        return engine;
+    }
+
+    private static ShopItem item(String id, int quantity) {
+        ShopItem item = new ShopItem("Mouse", null, 25.50, quantity);
+        item.setId(id);
+        return item;
+    }
+
+    @Test
+    @DisplayName("an update crossing below the threshold should raise one alert")
+    void testAlertsOnCrossing() throws InterruptedException {
+        // Arrange
+        engine(Duration.ZERO, Map.of(), 16);
+
+        // Act
+        engine.onShopItemChanged(ShopItemChangedEvent.updated(item("1", 6), item("1", 5)));
+        engine.onShopItemChanged(ShopItemChangedEvent.updated(item("1", 5), item("1", 4)));
+        engine.onShopItemChanged(ShopItemChangedEvent.updated(item("1", 4), item("1", 3)));
+        engine.onShopItemChanged(ShopItemChangedEvent.created(item("2", 1)));
+        engine.close();
+
+        // Assert
+        assertThat(sink.alerts()).hasSize(2);
+        LowStockAlert first = sink.alerts().get(0);
+        assertThat(first.id()).isEqualTo("1");
+        assertThat(first.quantity()).isEqualTo(4);
+        assertThat(first.threshold()).isEqualTo(5);
+        assertThat(sink.alerts().get(1).id()).isEqualTo("2");
+    }
+
+    @Test
+    @DisplayName("per-item thresholds should override the global threshold")
+    void testPerItemThreshold() throws InterruptedException {
+        // Arrange
+        engine(Duration.ZERO, Map.of("1", 50), 16);
+        engine.setThreshold("2", 0);
+
+        // Act
+        engine.onShopItemChanged(ShopItemChangedEvent.updated(item("1", 60), item("1", 40)));
+        engine.onShopItemChanged(ShopItemChangedEvent.updated(item("2", 6), item("2", 1)));
+        engine.close();
+
+        // Assert
+        assertThat(sink.alerts()).extracting(LowStockAlert::id).containsExactly("1");
+        assertThat(engine.thresholdFor("3")).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("an item that recovers and drops again within the debounce window should alert once")
+    void testDebounce() throws InterruptedException {
+        // Arrange
+        engine(Duration.ofMinutes(10), Map.of(), 16);
+
+        // Act
+        engine.onShopItemChanged(ShopItemChangedEvent.updated(item("1", 6), item("1", 4)));
+        engine.onShopItemChanged(ShopItemChangedEvent.updated(item("1", 4), item("1", 10)));
+        engine.onShopItemChanged(ShopItemChangedEvent.updated(item("1", 10), item("1", 2)));
+        engine.close();
+
+        // Assert
+        assertThat(meterRegistry.counter("shopitems.alerts.lowstock.debounced").count()).isEqualTo(1.0);
+        assertThat(sink.alerts()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("alerts should be dropped instead of blocking the writer when the queue is full")
+    void testDropsWhenQueueIsFull() throws InterruptedException {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        InMemoryLowStockAlertSink blockingSink = new InMemoryLowStockAlertSink() {
+            @Override
+            public void deliver(LowStockAlert alert) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.deliver(alert);
+            }
+        };
+        engine = new LowStockAlertEngine(blockingSink,
+                new LowStockAlertProperties(true, 5, Map.of(), Duration.ZERO, 1), meterRegistry);
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            engine.onShopItemChanged(ShopItemChangedEvent.created(item(Integer.toString(i), 0)));
+        }
+        release.countDown();
+        engine.close();
+
+        // Assert
+        assertThat(meterRegistry.counter("shopitems.alerts.lowstock.raised").count()).isEqualTo(
+                blockingSink.alerts().size());
+        assertThat(meterRegistry.counter("shopitems.alerts.lowstock.dropped").count()).isPositive();
+    }
+
+    @Test
+    @DisplayName("a decrement flushed from the write-behind buffer should raise an alert")
+    void testAlertsOnWriteBehindDecrement() throws InterruptedException {
+        // Arrange
+        engine(Duration.ZERO, Map.of(), 16);
+        ShopItemRepository shopItemRepository = mock(ShopItemRepository.class);
+        when(shopItemRepository.findAllById(List.of("1"))).thenReturn(List.of(item("1", 4)));
+        QuantityWriteBehindBuffer buffer = new QuantityWriteBehindBuffer(shopItemRepository,
+                new QuantityWriteBehindProperties(true, Duration.ofHours(1), 1000, Durability.ACKNOWLEDGED, true),
+                meterRegistry);
+        buffer.setApplicationEventPublisher(event -> engine.onShopItemChanged((ShopItemChangedEvent) event));
+
+        // Act
+        buffer.add("1", -1);
+        buffer.add("1", -2);
+        buffer.close();
+        engine.close();
+
+        // Assert
+        assertThat(sink.alerts()).extracting(LowStockAlert::quantity).containsExactly(4);
+    }
+}
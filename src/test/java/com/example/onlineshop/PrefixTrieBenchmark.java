@@ -0,0 +1,82 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.search.PrefixTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-10 completion latency of {@link PrefixTrie} for a broad one-letter prefix and
+ * a narrow multi-word prefix, plus the cost of a stock update. Run the same way as
+ * {@link ShopItemJsonTranscoderBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrefixTrieBenchmark {
+
+    private static final String[] ADJECTIVES = {"wireless", "gaming", "ergonomic", "compact", "portable",
+            "smart", "mechanical", "silent", "waterproof", "vintage", "digital", "solar", "premium", "mini"};
+    private static final String[] NOUNS = {"keyboard", "mouse", "headset", "speaker", "lamp", "charger",
+            "monitor", "webcam", "router", "backpack", "watch", "camera", "drone", "tablet", "cable"};
+
+    @Param({"100000"})
+    public int items;
+
+    private final PrefixTrie trie = new PrefixTrie();
+    private final Random random = new Random(42);
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < items; i++) {
+            trie.put(String.valueOf(i), name(i), random.nextInt(1000));
+        }
+        System.out.printf("%n%d items, ~%d MB%n", items, trie.estimatedBytes() >> 20);
+    }
+
+    @Benchmark
+    public List<PrefixTrie.Entry> broadPrefix() {
+        return trie.topK("w", 10);
+    }
+
+    @Benchmark
+    public List<PrefixTrie.Entry> narrowPrefix() {
+        return trie.topK("wireless keyb", 10);
+    }
+
+    @Benchmark
+    public int updateStock() {
+        int id = random.nextInt(items);
+        trie.put(String.valueOf(id), name(id), random.nextInt(1000));
+        return id;
+    }
+
+    private static String name(int i) {
+        return ADJECTIVES[i % ADJECTIVES.length] + " " + NOUNS[(i / ADJECTIVES.length) % NOUNS.length] + " " + i;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(PrefixTrieBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
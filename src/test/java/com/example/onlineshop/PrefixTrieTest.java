@@ -0,0 +1,116 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.search.NameNormalizer;
+import com.example.onlineshop.search.PrefixTrie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PrefixTrie Unit Tests")
+class PrefixTrieTest {
+
+    private PrefixTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new PrefixTrie();
+        trie.put("1", "Gaming laptop", 5);
+        trie.put("2", "Gaming mouse", 40);
+        trie.put("3", "Wireless mouse", 20);
+        trie.put("4", "Game controller", 60);
+    }
+
+    @Test
+    @DisplayName("topK should rank completions by score")
+    void testTopKRanksByScore() {
+        // Act
+        List<PrefixTrie.Entry> completions = trie.topK("gam", 10);
+
+        // Assert
+        assertThat(completions).extracting(PrefixTrie.Entry::id).containsExactly("4", "2", "1");
+    }
+
+    @Test
+    @DisplayName("topK should stop at k results")
+    void testTopKLimit() {
+        // Act & Assert
+        assertThat(trie.topK("gam", 2)).extracting(PrefixTrie.Entry::id).containsExactly("4", "2");
+        assertThat(trie.topK("gam", 0)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("topK should match at word starts and return each item once")
+    void testMatchesWordStarts() {
+        // Arrange
+        trie.put("5", "Mouse mouse pad", 1);
+
+        // Act & Assert
+        assertThat(trie.topK("mouse", 10)).extracting(PrefixTrie.Entry::id).containsExactly("2", "3", "5");
+        assertThat(trie.topK("ouse", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("topK should normalize case, accents and punctuation")
+    void testNormalizesPrefix() {
+        // Arrange
+        trie.put("6", "Crème-Brûlée Torch", 3);
+
+        // Act & Assert
+        assertThat(trie.topK("  CREME bru", 10)).extracting(PrefixTrie.Entry::id).containsExactly("6");
+        assertThat(NameNormalizer.normalize("  Café  Crème-Brûlée ")).isEqualTo("cafe creme brulee");
+    }
+
+    @Test
+    @DisplayName("put should re-rank an item when its score changes")
+    void testScoreUpdate() {
+        // Act
+        trie.put("1", "Gaming laptop", 100);
+
+        // Assert
+        assertThat(trie.topK("gam", 1)).extracting(PrefixTrie.Entry::id).containsExactly("1");
+        assertThat(trie.topK("laptop", 1).get(0).score()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("put should move an item when its name changes")
+    void testRename() {
+        // Act
+        trie.put("3", "Bluetooth headset", 20);
+
+        // Assert
+        assertThat(trie.topK("wireless", 10)).isEmpty();
+        assertThat(trie.topK("blue", 10)).extracting(PrefixTrie.Entry::id).containsExactly("3");
+        assertThat(trie.size()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("remove should drop the item and free its nodes")
+    void testRemove() {
+        // Arrange
+        long before = trie.estimatedBytes();
+
+        // Act
+        trie.remove("3");
+        trie.remove("missing");
+
+        // Assert
+        assertThat(trie.topK("wire", 10)).isEmpty();
+        assertThat(trie.topK("mouse", 10)).extracting(PrefixTrie.Entry::id).containsExactly("2");
+        assertThat(trie.size()).isEqualTo(3);
+        assertThat(trie.estimatedBytes()).isLessThan(before);
+    }
+
+    @Test
+    @DisplayName("items without any letters or digits should not be indexed")
+    void testBlankName() {
+        // Act
+        trie.put("7", " - ", 10);
+
+        // Assert
+        assertThat(trie.size()).isEqualTo(4);
+    }
+}
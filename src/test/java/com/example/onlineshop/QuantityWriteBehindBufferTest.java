@@ -0,0 +1,305 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.config.QuantityWriteBehindProperties;
+import com.example.onlineshop.config.QuantityWriteBehindProperties.Durability;
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.QuantityWriteBehindBuffer;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("QuantityWriteBehindBuffer Unit Tests")
+class QuantityWriteBehindBufferTest {
+
+    private static final Duration NEVER = Duration.ofHours(1);
+
+    @Mock
+    private ShopItemRepository shopItemRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private QuantityWriteBehindBuffer buffer;
+
+    @AfterEach
+    void tearDown() {
+        if (buffer != null) {
+            buffer.close();
+        }
+    }
+
+    @Test
+    @DisplayName("deltas for the same id should be flushed as one increment")
+    void testCoalescesDeltasPerId() {
+        // Arrange
+        buffer = newBuffer(NEVER, 1000, true);
+        buffer.add("1", -1);
+        buffer.add("1", -2);
+        buffer.add("2", 5);
+
+        // Act
+        int flushed = buffer.flush();
+
+        // Assert
+        assertThat(flushed).isEqualTo(2);
+        verify(shopItemRepository).incrementQuantities(anyList(), eq(WriteConcern.ACKNOWLEDGED));
+        assertThat(written()).containsOnly(Map.entry("1", -3), Map.entry("2", 5));
+        assertThat(buffer.pendingIds()).isZero();
+        assertThat(meterRegistry.counter("shopitems.quantity.writebehind.flushed").count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("deltas that cancel out should not be written")
+    void testSkipsZeroDeltas() {
+        // Arrange
+        buffer = newBuffer(NEVER, 1000, true);
+        buffer.add("1", 3);
+        buffer.add("1", -3);
+
+        // Act
+        int flushed = buffer.flush();
+
+        // Assert
+        assertThat(flushed).isZero();
+        verifyNoInteractions(shopItemRepository);
+    }
+
+    @Test
+    @DisplayName("no delta should be lost when adds race with flushes")
+    void testConcurrentAddsAndFlushes() throws Exception {
+        // Arrange
+        buffer = newBuffer(Duration.ofMillis(1), 1000, true);
+        Map<String, Integer> totals = new HashMap<>();
+        doAnswer(invocation -> {
+            List<Map.Entry<String, Integer>> deltas = invocation.getArgument(0);
+            synchronized (totals) {
+                deltas.forEach(delta -> totals.merge(delta.getKey(), delta.getValue(), Integer::sum));
+            }
+            return null;
+        }).when(shopItemRepository).incrementQuantities(anyList(), any());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    buffer.add(String.valueOf(i % 4), 1);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        buffer.flush();
+
+        // Assert
+        assertThat(totals).containsOnly(
+                Map.entry("0", 20_000), Map.entry("1", 20_000), Map.entry("2", 20_000), Map.entry("3", 20_000));
+    }
+
+    @Test
+    @DisplayName("a failed flush should keep the deltas for the next attempt")
+    void testFailedFlushRequeues() {
+        // Arrange
+        buffer = newBuffer(NEVER, 1000, true);
+        buffer.add("1", -1);
+        doThrow(new DataAccessResourceFailureException("mongo down"))
+                .doNothing()
+                .when(shopItemRepository).incrementQuantities(anyList(), any());
+
+        // Act & Assert
+        assertThatThrownBy(() -> buffer.flush()).isInstanceOf(DataAccessResourceFailureException.class);
+        assertThat(buffer.pendingIds()).isEqualTo(1);
+        assertThat(buffer.currentLagNanos()).isPositive();
+
+        buffer.add("1", -1);
+        buffer.flush();
+        List<List<Map.Entry<String, Integer>>> flushes = flushes();
+        assertThat(flushes).hasSize(2);
+        assertThat(flushes.get(1)).containsExactly(Map.entry("1", -2));
+        assertThat(buffer.currentLagNanos()).isZero();
+        assertThat(meterRegistry.counter("shopitems.quantity.writebehind.failures").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a partly failed bulk write should only retry the deltas it rejected")
+    void testFailedFlushKeepsAppliedDeltas() {
+        // Arrange
+        buffer = newBuffer(NEVER, 1000, true);
+        buffer.setApplicationEventPublisher(eventPublisher);
+        buffer.add("1", -1);
+        buffer.add("2", -1);
+        List<String> order = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<Map.Entry<String, Integer>> deltas = invocation.getArgument(0);
+            deltas.forEach(delta -> order.add(delta.getKey()));
+            throw new MongoBulkWriteException(BulkWriteResult.unacknowledged(),
+                    List.of(new BulkWriteError(50, "timeout", new BsonDocument(), 1)), null, new ServerAddress(),
+                    Set.of());
+        }).doNothing().when(shopItemRepository).incrementQuantities(anyList(), any());
+        ShopItem applied = new ShopItem("Lamp", "Desk lamp", 20.00, 4);
+        when(shopItemRepository.findAllById(any())).thenAnswer(invocation -> {
+            applied.setId(order.get(0));
+            return List.of(applied);
+        });
+
+        // Act & Assert
+        assertThatThrownBy(() -> buffer.flush()).isInstanceOf(MongoBulkWriteException.class);
+        assertThat(buffer.pendingIds()).isEqualTo(1);
+        assertThat(meterRegistry.counter("shopitems.quantity.writebehind.flushed").count()).isEqualTo(1);
+        verify(shopItemRepository).findAllById(List.of(order.get(0)));
+        verify(eventPublisher).publishEvent(any(ShopItemChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("each flushed delta should publish an update event with the quantity before and after it")
+    void testPublishesChangeEvents() {
+        // Arrange
+        buffer = newBuffer(NEVER, 1000, true);
+        buffer.setApplicationEventPublisher(eventPublisher);
+        ShopItem updated = new ShopItem("Lamp", "Desk lamp", 20.00, 4);
+        updated.setId("1");
+        updated.setVersion(3L);
+        when(shopItemRepository.findAllById(List.of("1"))).thenReturn(List.of(updated));
+        buffer.add("1", -1);
+        buffer.add("1", -2);
+
+        // Act
+        buffer.flush();
+
+        // Assert
+        ArgumentCaptor<ShopItemChangedEvent> event = ArgumentCaptor.forClass(ShopItemChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().type()).isEqualTo(ShopItemChangedEvent.Type.UPDATED);
+        assertThat(event.getValue().previous().getQuantity()).isEqualTo(7);
+        assertThat(event.getValue().previous().getVersion()).isEqualTo(2L);
+        assertThat(event.getValue().current()).isSameAs(updated);
+    }
+
+    @Test
+    @DisplayName("a flush should use the write concern of the configured durability")
+    void testFlushesWithConfiguredWriteConcern() {
+        // Arrange
+        buffer = new QuantityWriteBehindBuffer(shopItemRepository, new QuantityWriteBehindProperties(
+                true, NEVER, 1000, Durability.MAJORITY, true), meterRegistry);
+        buffer.add("1", 2);
+
+        // Act
+        buffer.flush();
+
+        // Assert
+        verify(shopItemRepository).incrementQuantities(List.of(Map.entry("1", 2)), WriteConcern.MAJORITY);
+    }
+
+    @Test
+    @DisplayName("a delta that would overflow the pending sum should be rejected without losing the others")
+    void testRejectsOverflowingDelta() {
+        // Arrange
+        buffer = newBuffer(NEVER, 1000, true);
+        buffer.add("1", Integer.MAX_VALUE);
+
+        // Act & Assert
+        assertThatThrownBy(() -> buffer.add("1", 1)).isInstanceOf(IllegalArgumentException.class);
+        buffer.flush();
+        assertThat(written()).containsOnly(Map.entry("1", Integer.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("reaching the pending id limit should trigger a flush before the interval")
+    void testFlushesWhenFull() {
+        // Arrange
+        buffer = newBuffer(NEVER, 2, true);
+
+        // Act
+        buffer.add("1", 1);
+        buffer.add("2", 1);
+
+        // Assert
+        verify(shopItemRepository, timeout(5000).atLeastOnce())
+                .incrementQuantities(anyList(), eq(WriteConcern.ACKNOWLEDGED));
+    }
+
+    @Test
+    @DisplayName("closing should flush pending deltas when flush on shutdown is enabled")
+    void testFlushOnShutdown() {
+        // Arrange
+        QuantityWriteBehindBuffer closing = newBuffer(NEVER, 1000, true);
+        closing.add("1", 7);
+
+        // Act
+        closing.close();
+
+        // Assert
+        verify(shopItemRepository).incrementQuantities(List.of(Map.entry("1", 7)), WriteConcern.ACKNOWLEDGED);
+    }
+
+    @Test
+    @DisplayName("closing should drop pending deltas when flush on shutdown is disabled")
+    void testNoFlushOnShutdown() {
+        // Arrange
+        QuantityWriteBehindBuffer closing = newBuffer(NEVER, 1000, false);
+        closing.add("1", 7);
+
+        // Act
+        closing.close();
+
+        // Assert
+        verifyNoInteractions(shopItemRepository);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Map.Entry<String, Integer>>> flushes() {
+        ArgumentCaptor<List<Map.Entry<String, Integer>>> deltas = ArgumentCaptor.forClass(List.class);
+        verify(shopItemRepository, atLeastOnce()).incrementQuantities(deltas.capture(), any());
+        return deltas.getAllValues();
+    }
+
+    private Map<String, Integer> written() {
+        Map<String, Integer> written = new HashMap<>();
+        flushes().forEach(deltas -> deltas.forEach(delta -> written.merge(delta.getKey(), delta.getValue(),
+                Integer::sum)));
+        return written;
+    }
+
+    private QuantityWriteBehindBuffer newBuffer(Duration flushInterval, int maxPendingIds, boolean flushOnShutdown) {
+        return new QuantityWriteBehindBuffer(shopItemRepository, new QuantityWriteBehindProperties(
+                true, flushInterval, maxPendingIds, Durability.ACKNOWLEDGED, flushOnShutdown), meterRegistry);
+    }
+}
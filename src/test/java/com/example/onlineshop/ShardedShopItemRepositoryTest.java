@@ -0,0 +1,365 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.model.PriceBucket;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.model.ShopItemSearchHit;
+import com.example.onlineshop.model.ShopItemStatistics;
+import com.example.onlineshop.model.ShopItemSummary;
+import com.example.onlineshop.repositories.ShardedShopItemRepository;
+import com.example.onlineshop.repositories.ShopItemReadRouting;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.repositories.ShopItemShard;
+import com.example.onlineshop.sharding.ConsistentHashRing;
+import com.example.onlineshop.sharding.ShardPlacement;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ShardedShopItemRepository Unit Tests")
+class ShardedShopItemRepositoryTest {
+
+    private static final ConsistentHashRing TWO_SHARDS = new ConsistentHashRing(List.of("a", "b"), 64);
+    private static final ConsistentHashRing THREE_SHARDS = new ConsistentHashRing(List.of("a", "b", "c"), 64);
+
+    private final Map<String, ShopItemRepository> repositories = Map.of(
+            "a", mock(ShopItemRepository.class),
+            "b", mock(ShopItemRepository.class),
+            "c", mock(ShopItemRepository.class));
+    private ShardedShopItemRepository sharded;
+
+    @AfterEach
+    void tearDown() {
+        sharded.close();
+    }
+
+    private ShardedShopItemRepository sharded(ShardPlacement placement) {
+        sharded = new ShardedShopItemRepository(Stream.of("a", "b", "c")
+                .map(name -> new ShopItemShard(name, null, null, repositories.get(name)))
+                .toList(), placement, ShopItemReadRouting.primaryOnly(), 4);
+        return sharded;
+    }
+
+    /**
+     * An id that adding shard c moves there.
+     */
+    private static String movingToC() {
+        while (true) {
+            String id = new ObjectId().toHexString();
+            if (THREE_SHARDS.shardFor(id).equals("c")) {
+                return id;
+            }
+        }
+    }
+
+    private static String ownedBy(String shard) {
+        while (true) {
+            String id = new ObjectId().toHexString();
+            if (THREE_SHARDS.shardFor(id).equals(shard)) {
+                return id;
+            }
+        }
+    }
+
+    private static ShopItem item(String id) {
+        return item(id, 25.50);
+    }
+
+    private static ShopItem item(String id, double price) {
+        ShopItem item = new ShopItem("Mouse", null, price, 10);
+        item.setId(id);
+        return item;
+    }
+
+    @Test
+    @DisplayName("reads and inserts by id should only go to the owning shard")
+    void testRoutesById() {
+        // Arrange
+        ShardedShopItemRepository repository = sharded(ShardPlacement.of(THREE_SHARDS));
+        String id = new ObjectId().toHexString();
+        ShopItemRepository owner = repositories.get(THREE_SHARDS.shardFor(id));
+        when(owner.findById(id)).thenReturn(Optional.of(item(id)));
+        ShopItem lamp = new ShopItem("Lamp", null, 40.00, 3);
+
+        // Act
+        Optional<ShopItem> found = repository.findById(id);
+        repository.insert(lamp);
+
+        // Assert
+        assertThat(found).map(ShopItem::getId).contains(id);
+        repositories.forEach((name, shard) -> verify(shard, times(shard == owner ? 1 : 0)).findById(id));
+        assertThat(lamp.getId()).isNotNull();
+        repositories.forEach((name, shard) ->
+                verify(shard, times(name.equals(THREE_SHARDS.shardFor(lamp.getId())) ? 1 : 0)).insert(lamp));
+    }
+
+    @Test
+    @DisplayName("an unordered insert should report the items of a failed shard by their index in the batch")
+    void testUnorderedInsertReportsFailedShard() {
+        // Arrange
+        ShardedShopItemRepository repository = sharded(ShardPlacement.of(THREE_SHARDS));
+        List<ShopItem> items = List.of(item(ownedBy("a")), item(ownedBy("b")), item(ownedBy("a")));
+        when(repositories.get("a").insertUnordered(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repositories.get("b").insertUnordered(anyList())).thenThrow(new MongoException(6, "host unreachable"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> repository.insertUnordered(items))
+                .isInstanceOfSatisfying(MongoBulkWriteException.class, e -> assertThat(e.getWriteErrors())
+                        .extracting(BulkWriteError::getIndex).containsExactly(1));
+        verify(repositories.get("a")).insertUnordered(List.of(items.get(0), items.get(2)));
+    }
+
+    @Test
+    @DisplayName("while rebalancing, an item should be read from its previous owner until it has moved")
+    void testLooksOnPreviousOwnerFirst() {
+        // Arrange
+        ShardedShopItemRepository repository = sharded(new ShardPlacement(THREE_SHARDS, TWO_SHARDS));
+        String notMoved = movingToC();
+        String moved = movingToC();
+        ShopItemRepository previousOfNotMoved = repositories.get(TWO_SHARDS.shardFor(notMoved));
+        when(previousOfNotMoved.findById(notMoved)).thenReturn(Optional.of(item(notMoved)));
+        when(repositories.get(TWO_SHARDS.shardFor(moved)).findById(moved)).thenReturn(Optional.empty());
+        when(repositories.get("c").findById(moved)).thenReturn(Optional.of(item(moved)));
+
+        // Act & Assert
+        assertThat(repository.findById(notMoved)).isPresent();
+        verify(repositories.get("c"), never()).findById(notMoved);
+        assertThat(repository.findById(moved)).isPresent();
+    }
+
+    @Test
+    @DisplayName("a quantity delta for an item being moved should go to the shard still holding it")
+    void testIncrementsTheCopyBeingMoved() {
+        // Arrange
+        ShardedShopItemRepository repository = sharded(new ShardPlacement(THREE_SHARDS, TWO_SHARDS));
+        String id = movingToC();
+        ShopItem incremented = item(id);
+        when(repositories.get(TWO_SHARDS.shardFor(id)).incrementQuantity(id, -2, WriteConcern.ACKNOWLEDGED))
+                .thenReturn(incremented);
+
+        // Act
+        ShopItem result = repository.incrementQuantity(id, -2, WriteConcern.ACKNOWLEDGED);
+
+        // Assert
+        assertThat(result).isSameAs(incremented);
+        verify(repositories.get("c"), never()).incrementQuantity(id, -2, WriteConcern.ACKNOWLEDGED);
+    }
+
+    @Test
+    @DisplayName("a replace should never upsert onto the previous owner once the item has moved")
+    void testReplaceAfterMoveGoesToOwner() {
+        // Arrange
+        ShardedShopItemRepository repository = sharded(new ShardPlacement(THREE_SHARDS, TWO_SHARDS));
+        String id = movingToC();
+        ShopItemRepository previous = repositories.get(TWO_SHARDS.shardFor(id));
+        ShopItem replacement = item(id);
+        when(previous.replaceIfPresent(replacement)).thenReturn(null);
+        when(repositories.get("c").replaceUnconditionally(replacement)).thenReturn(item(id));
+
+        // Act
+        ShopItem replaced = repository.replaceUnconditionally(replacement);
+
+        // Assert
+        assertThat(replaced).isNotNull();
+        verify(previous, never()).replaceUnconditionally(any());
+        verify(repositories.get("c")).replaceUnconditionally(replacement);
+    }
+
+    @Test
+    @DisplayName("a replace of an item not yet moved should stay on the previous owner")
+    void testReplaceBeforeMoveStaysOnPreviousOwner() {
+        // Arrange
+        ShardedShopItemRepository repository = sharded(new ShardPlacement(THREE_SHARDS, TWO_SHARDS));
+        String id = movingToC();
+        ShopItem replacement = item(id);
+        when(repositories.get(TWO_SHARDS.shardFor(id)).replaceIfPresent(replacement)).thenReturn(item(id));
+
+        // Act
+        repository.replaceUnconditionally(replacement);
+
+        // Assert
+        verifyNoInteractions(repositories.get("c"));
+    }
+
+    @Test
+    @DisplayName("a versioned save that misses because the item just moved should be retried on the owner")
+    void testVersionedSaveFollowsMovedItem() {
+        // Arrange
+        ShardedShopItemRepository repository = sharded(new ShardPlacement(THREE_SHARDS, TWO_SHARDS));
+        String id = movingToC();
+        ShopItemRepository previous = repositories.get(TWO_SHARDS.shardFor(id));
+        ShopItem item = item(id);
+        item.setVersion(4L);
+        when(previous.save(item)).thenAnswer(invocation -> {
+            item.setVersion(5L);
+            throw new OptimisticLockingFailureException("no match");
+        });
+        when(previous.existsById(id)).thenReturn(false);
+        when(repositories.get("c").save(item)).thenAnswer(invocation -> {
+            assertThat(item.getVersion()).isEqualTo(4L);
+            return item;
+        });
+
+        // Act
+        ShopItem saved = repository.save(item);
+
+        // Assert
+        assertThat(saved).isSameAs(item);
+        verify(repositories.get("c")).save(item);
+    }
+
+    @Test
+    @DisplayName("a new item should be created on its owner, and an id the previous owner holds is a duplicate")
+    void testNewItemsGoToOwner() {
+        // Arrange
+        ShardedShopItemRepository repository = sharded(new ShardPlacement(THREE_SHARDS, TWO_SHARDS));
+        String held = movingToC();
+        when(repositories.get(TWO_SHARDS.shardFor(held)).existsById(held)).thenReturn(true);
+        String fresh = movingToC();
+
+        // Act
+        repository.insert(item(fresh));
+
+        // Assert
+        verify(repositories.get("c")).insert(item(fresh));
+        assertThatThrownBy(() -> repository.insert(item(held))).isInstanceOf(DuplicateKeyException.class);
+        verify(repositories.get(TWO_SHARDS.shardFor(held)), never()).insert(any(ShopItem.class));
+    }
+
+    @Test
+    @DisplayName("a query in the middle of a move should see the item once, as its previous owner has it")
+    @SuppressWarnings("unchecked")
+    void testQueriesDuringMoveDropDuplicates() {
+        // Arrange
+        ShardedShopItemRepository repository = sharded(new ShardPlacement(THREE_SHARDS, TWO_SHARDS));
+        String id = movingToC();
+        String previous = TWO_SHARDS.shardFor(id);
+        ShopItem held = item(id, 30.0);
+        ShopItem copied = item(id, 25.50);
+        ShopItem other = item(ownedBy("c"), 10.0);
+        when(repositories.get(previous).findAll()).thenReturn(List.of(held));
+        when(repositories.get("c").findAll()).thenReturn(List.of(other, copied));
+        when(repositories.get(previous).findAll(any(Sort.class))).thenReturn(List.of(held));
+        when(repositories.get("c").findAll(any(Sort.class))).thenReturn(List.of(other, copied));
+        doAnswer(invocation -> {
+            ((Consumer<ShopItemSummary>) invocation.getArgument(0))
+                    .accept(new ShopItemSummary(id, "Mouse", 30.0, 10));
+            return null;
+        }).when(repositories.get(previous)).forEachSummary(any());
+        doAnswer(invocation -> {
+            Consumer<ShopItemSummary> action = invocation.getArgument(0);
+            action.accept(new ShopItemSummary(other.getId(), "Mouse", 10.0, 10));
+            action.accept(new ShopItemSummary(id, "Mouse", 25.50, 10));
+            return null;
+        }).when(repositories.get("c")).forEachSummary(any());
+
+        // Act
+        List<ShopItem> all = repository.findAll();
+        List<ShopItem> sorted = repository.findAll(Sort.by("price"));
+        long count = repository.count();
+        ShopItemStatistics statistics = repository.aggregateStatistics(List.of(0.0, 20.0), 5);
+
+        // Assert
+        assertThat(all).extracting(ShopItem::getPrice).containsExactlyInAnyOrder(30.0, 10.0);
+        assertThat(sorted).extracting(ShopItem::getPrice).containsExactly(10.0, 30.0);
+        assertThat(count).isEqualTo(2);
+        assertThat(statistics.itemCount()).isEqualTo(2);
+        assertThat(statistics.totalStockValue()).isEqualTo(400.0);
+        assertThat(statistics.priceBuckets()).extracting(PriceBucket::itemCount).containsExactly(1L, 1L);
+        verify(repositories.get("c"), never()).count();
+        verify(repositories.get("c"), never()).aggregateStatistics(anyList(), anyInt());
+    }
+
+    @Test
+    @DisplayName("a sorted fluent query should be merged from the first rows of every shard")
+    @SuppressWarnings("unchecked")
+    void testMergesFluentQueries() {
+        // Arrange
+        ShardedShopItemRepository repository = sharded(ShardPlacement.of(THREE_SHARDS));
+        Example<ShopItem> example = Example.of(new ShopItem("Mouse", null, 25.50, 10));
+        Map<String, List<ShopItem>> rows = Map.of(
+                "a", List.of(item("a1", 5.0), item("a2", 40.0)),
+                "b", List.of(item("b1", 1.5), item("b2", 30.0)),
+                "c", List.of());
+        rows.forEach((name, shardRows) -> {
+            FluentQuery.FetchableFluentQuery<ShopItem> query =
+                    mock(FluentQuery.FetchableFluentQuery.class, RETURNS_SELF);
+            when(query.all()).thenReturn(shardRows);
+            when(query.count()).thenReturn((long) shardRows.size());
+            when(repositories.get(name).findBy(eq(example), any())).thenAnswer(invocation ->
+                    ((Function<FluentQuery.FetchableFluentQuery<ShopItem>, Object>) invocation.getArgument(1))
+                            .apply(query));
+        });
+
+        // Act
+        List<ShopItem> cheapest = repository.findBy(example, query -> query.sortBy(Sort.by("price")).limit(3).all());
+        long count = repository.findBy(example, FluentQuery.FetchableFluentQuery::count);
+
+        // Assert
+        assertThat(cheapest).extracting(ShopItem::getId).containsExactly("b1", "a1", "b2");
+        assertThat(count).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("a sorted page should be merged from the first skip + limit rows of every shard")
+    void testMergesSortedSummaries() {
+        // Arrange
+        ShardedShopItemRepository repository = sharded(ShardPlacement.of(THREE_SHARDS));
+        Sort byPrice = Sort.by(Sort.Order.asc("price"));
+        when(repositories.get("a").findSummariesByPriceRange(null, null, byPrice, 0, 4)).thenReturn(List.of(
+                new ShopItemSummary("a1", "Cable", 5.0, 10), new ShopItemSummary("a2", "Lamp", 40.0, 3)));
+        when(repositories.get("b").findSummariesByPriceRange(null, null, byPrice, 0, 4)).thenReturn(List.of(
+                new ShopItemSummary("b1", "Pen", 1.5, 100), new ShopItemSummary("b2", "Mouse", 25.5, 20),
+                new ShopItemSummary("b3", "Desk", 250.0, 1)));
+        when(repositories.get("c").findSummariesByPriceRange(null, null, byPrice, 0, 4)).thenReturn(List.of(
+                new ShopItemSummary("c1", "Mug", 5.0, 50)));
+
+        // Act
+        List<ShopItemSummary> page = repository.findSummariesByPriceRange(null, null, byPrice, 1, 3);
+
+        // Assert: equal prices go by quantity descending, like the price index.
+        assertThat(page).extracting(ShopItemSummary::id).containsExactly("c1", "a1", "b2");
+    }
+
+    @Test
+    @DisplayName("text search hits from all shards should be merged by score")
+    void testMergesSearchHitsByScore() {
+        // Arrange
+        ShardedShopItemRepository repository = sharded(ShardPlacement.of(THREE_SHARDS));
+        when(repositories.get("a").searchText("lamp", 0, 2)).thenReturn(List.of(
+                new ShopItemSearchHit("a1", "Lamp", 40.0, 3, 11.0), new ShopItemSearchHit("a2", "Lamp", 45.0, 1, 1.0)));
+        when(repositories.get("b").searchText("lamp", 0, 2)).thenReturn(List.of());
+        when(repositories.get("c").searchText("lamp", 0, 2)).thenReturn(List.of(
+                new ShopItemSearchHit("c1", "Desk lamp", 30.0, 5, 10.5)));
+
+        // Act
+        List<ShopItemSearchHit> hits = repository.searchText("lamp", 0, 2);
+
+        // Assert
+        assertThat(hits).extracting(ShopItemSearchHit::id).containsExactly("a1", "c1");
+        verify(repositories.get("b")).searchText(eq("lamp"), eq(0), eq(2));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.analytics.ColumnarAggregate;
+import com.example.onlineshop.analytics.ColumnarFilter;
+import com.example.onlineshop.controllers.ShopItemAnalyticsController;
+import com.example.onlineshop.model.ShopItemSummary;
+import com.example.onlineshop.services.ShopItemAnalyticsService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ShopItemAnalyticsController.class)
+@DisplayName("ShopItemAnalyticsController Unit Tests")
+class ShopItemAnalyticsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ShopItemAnalyticsService shopItemAnalyticsService;
+
+    @Test
+    @DisplayName("GET /api/shopitems/analytics/aggregate should pass the filter to the snapshot")
+    void testAggregate() throws Exception {
+        // Arrange
+        when(shopItemAnalyticsService.aggregate(ColumnarFilter.of(10.0, 50.0, 1, null, null)))
+                .thenReturn(new ColumnarAggregate(2, 23, 629.97, 25.50, 39.99));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/shopitems/analytics/aggregate")
+                        .param("minPrice", "10").param("maxPrice", "50").param("minQuantity", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count", is(2)))
+                .andExpect(jsonPath("$.totalQuantity", is(23)))
+                .andExpect(jsonPath("$.maxPrice", is(39.99)));
+    }
+
+    @Test
+    @DisplayName("GET /api/shopitems/analytics/top-value should return the top items by stock value")
+    void testTopByValue() throws Exception {
+        // Arrange
+        when(shopItemAnalyticsService.topByValue(ColumnarFilter.all(), 10))
+                .thenReturn(List.of(new ShopItemSummary("2", "Laptop", 1200.00, 5)));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/shopitems/analytics/top-value"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is("2")));
+    }
+
+    @Test
+    @DisplayName("GET /api/shopitems/analytics/aggregate should return 400 for inverted bounds")
+    void testAggregateBadRequest() throws Exception {
+        mockMvc.perform(get("/api/shopitems/analytics/aggregate").param("minPrice", "50").param("maxPrice", "10"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail", is("minPrice must not be greater than maxPrice")));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.analytics.ColumnarFilter;
+import com.example.onlineshop.config.ShopItemAnalyticsProperties;
+import com.example.onlineshop.model.ShopItemSummary;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.ShopItemAnalyticsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ShopItemAnalyticsService Unit Tests")
+class ShopItemAnalyticsServiceTest {
+
+    @Mock
+    private ShopItemRepository shopItemRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ShopItemAnalyticsService analyticsService;
+
+    @BeforeEach
+    void setUp() {
+        analyticsService = new ShopItemAnalyticsService(shopItemRepository,
+                new ShopItemAnalyticsProperties(Duration.ofMinutes(1)), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("refresh should replace the snapshot with a streamed scan")
+    @SuppressWarnings("unchecked")
+    void testRefresh() {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<ShopItemSummary> action = invocation.getArgument(0);
+            action.accept(new ShopItemSummary("1", "Mouse", 25.50, 20));
+            action.accept(new ShopItemSummary("2", "Laptop", 1200.00, 5));
+            return null;
+        }).when(shopItemRepository).forEachSummary(any(Consumer.class));
+
+        // Act
+        long before = analyticsService.aggregate(ColumnarFilter.all()).count();
+        analyticsService.refresh();
+
+        // Assert
+        assertThat(before).isZero();
+        assertThat(analyticsService.aggregate(ColumnarFilter.all()).count()).isEqualTo(2);
+        assertThat(analyticsService.topByValue(ColumnarFilter.all(), 1))
+                .extracting(ShopItemSummary::id).containsExactly("2");
+        assertThat(meterRegistry.get("shopitems.analytics.size").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("topByValue should reject limits outside 1 to 100")
+    void testTopByValueRejectsInvalidLimit() {
+        assertThatThrownBy(() -> analyticsService.topByValue(ColumnarFilter.all(), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> analyticsService.topByValue(ColumnarFilter.all(), 101))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.controllers.ShopItemAutocompleteController;
+import com.example.onlineshop.model.ShopItemSuggestion;
+import com.example.onlineshop.services.ShopItemAutocompleteService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ShopItemAutocompleteController.class)
+@DisplayName("ShopItemAutocompleteController Unit Tests")
+class ShopItemAutocompleteControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ShopItemAutocompleteService shopItemAutocompleteService;
+
+    @Test
+    @DisplayName("GET /api/shopitems/autocomplete should return suggestions")
+    void testAutocomplete() throws Exception {
+        // Arrange
+        when(shopItemAutocompleteService.suggest("gam", 10)).thenReturn(List.of(
+                new ShopItemSuggestion("2", "Gaming mouse", 40),
+                new ShopItemSuggestion("1", "Gaming laptop", 5)));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/shopitems/autocomplete").param("prefix", "gam"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name", is("Gaming mouse")))
+                .andExpect(jsonPath("$[0].quantity", is(40)));
+    }
+
+    @Test
+    @DisplayName("GET /api/shopitems/autocomplete should pass the limit through")
+    void testAutocompleteLimit() throws Exception {
+        // Arrange
+        when(shopItemAutocompleteService.suggest("gam", 3)).thenReturn(List.of());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/shopitems/autocomplete").param("prefix", "gam").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+
+        verify(shopItemAutocompleteService).suggest("gam", 3);
+    }
+}
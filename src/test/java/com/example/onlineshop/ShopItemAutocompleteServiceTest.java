@@ -0,0 +1,125 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.model.ShopItemSuggestion;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.ShopItemAutocompleteService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ShopItemAutocompleteService Unit Tests")
+class ShopItemAutocompleteServiceTest {
+
+    @Mock
+    private ShopItemRepository shopItemRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ShopItemAutocompleteService autocompleteService;
+
+    @BeforeEach
+    void setUp() {
+        autocompleteService = new ShopItemAutocompleteService(shopItemRepository, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("rebuild should index every item from the scan")
+    void testRebuild() {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<ShopItem> action = invocation.getArgument(0);
+            action.accept(item("1", "Gaming laptop", 5));
+            action.accept(item("2", "Gaming mouse", 40));
+            return null;
+        }).when(shopItemRepository).forEachItem(any());
+
+        // Act
+        autocompleteService.rebuild();
+
+        // Assert
+        assertThat(autocompleteService.suggest("gaming", 10))
+                .containsExactly(new ShopItemSuggestion("2", "Gaming mouse", 40),
+                        new ShopItemSuggestion("1", "Gaming laptop", 5));
+        assertThat(meterRegistry.get("shopitems.autocomplete.memory").gauge().value()).isPositive();
+        assertThat(meterRegistry.get("shopitems.autocomplete.size").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("writes should update the index incrementally")
+    void testAppliesEvents() {
+        // Act
+        autocompleteService.onShopItemChanged(ShopItemChangedEvent.created(item("1", "Gaming laptop", 5)));
+        autocompleteService.onShopItemChanged(ShopItemChangedEvent.created(item("2", "Gaming mouse", 40)));
+        autocompleteService.onShopItemChanged(
+                ShopItemChangedEvent.updated(item("1", "Gaming laptop", 5), item("1", "Gaming laptop", 90)));
+        autocompleteService.onShopItemChanged(ShopItemChangedEvent.deleted("2", null));
+
+        // Assert
+        assertThat(autocompleteService.suggest("gam", 10))
+                .containsExactly(new ShopItemSuggestion("1", "Gaming laptop", 90));
+    }
+
+    @Test
+    @DisplayName("writes that happen during a rebuild should not be lost")
+    void testEventsDuringRebuildAreReplayed() {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<ShopItem> action = invocation.getArgument(0);
+            action.accept(item("1", "Gaming laptop", 5));
+            autocompleteService.onShopItemChanged(ShopItemChangedEvent.created(item("2", "Gaming mouse", 40)));
+            autocompleteService.onShopItemChanged(ShopItemChangedEvent.deleted("1", null));
+            return null;
+        }).when(shopItemRepository).forEachItem(any());
+
+        // Act
+        autocompleteService.rebuild();
+
+        // Assert
+        assertThat(autocompleteService.suggest("gaming", 10))
+                .containsExactly(new ShopItemSuggestion("2", "Gaming mouse", 40));
+    }
+
+    @Test
+    @DisplayName("a failed rebuild should keep the current index")
+    void testFailedRebuildKeepsIndex() {
+        // Arrange
+        autocompleteService.onShopItemChanged(ShopItemChangedEvent.created(item("1", "Gaming laptop", 5)));
+        doThrow(new IllegalStateException("mongo down")).when(shopItemRepository).forEachItem(any());
+
+        // Act & Assert
+        assertThatThrownBy(() -> autocompleteService.rebuild()).isInstanceOf(IllegalStateException.class);
+        assertThat(autocompleteService.suggest("gaming", 10)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("suggest should cap the number of suggestions")
+    void testSuggestCapsLimit() {
+        // Arrange
+        for (int i = 0; i < 60; i++) {
+            autocompleteService.onShopItemChanged(ShopItemChangedEvent.created(item(String.valueOf(i), "Cable " + i, i)));
+        }
+
+        // Act & Assert
+        assertThat(autocompleteService.suggest("cable", 1000)).hasSize(50);
+        assertThat(autocompleteService.suggest("cable", -1)).isEmpty();
+    }
+
+    private static ShopItem item(String id, String name, int quantity) {
+        ShopItem item = new ShopItem(name, "Description", 1.00, quantity);
+        item.setId(id);
+        return item;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.controllers.ShopItemBrowseController;
+import com.example.onlineshop.model.ShopItemBrowsePage;
+import com.example.onlineshop.model.ShopItemSummary;
+import com.example.onlineshop.services.ShopItemBrowseService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ShopItemBrowseController.class)
+@DisplayName("ShopItemBrowseController Unit Tests")
+class ShopItemBrowseControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ShopItemBrowseService shopItemBrowseService;
+
+    @Test
+    @DisplayName("GET /api/shopitems/browse should return summaries in the price range")
+    void testBrowse() throws Exception {
+        // Arrange
+        ShopItemBrowsePage page = new ShopItemBrowsePage(0, 2, true, List.of(
+                new ShopItemSummary("1", "Mouse", 25.50, 20),
+                new ShopItemSummary("2", "Lamp", 39.99, 10)));
+        when(shopItemBrowseService.browse(10.0, 50.0, "price,-quantity", 0, 2)).thenReturn(page);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/shopitems/browse")
+                        .param("minPrice", "10").param("maxPrice", "50")
+                        .param("sort", "price,-quantity").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasMore", is(true)))
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].price", is(25.5)))
+                .andExpect(jsonPath("$.items[0].description").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/shopitems/browse should use the first page of 50 without a range by default")
+    void testBrowseDefaults() throws Exception {
+        // Arrange
+        when(shopItemBrowseService.browse(null, null, null, 0, 50))
+                .thenReturn(new ShopItemBrowsePage(0, 50, false, List.of()));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/shopitems/browse"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(0)));
+
+        verify(shopItemBrowseService).browse(null, null, null, 0, 50);
+    }
+
+    @Test
+    @DisplayName("GET /api/shopitems/browse should return 400 for invalid arguments")
+    void testBrowseBadRequest() throws Exception {
+        // Arrange
+        when(shopItemBrowseService.browse(null, null, "description", 0, 50))
+                .thenThrow(new IllegalArgumentException("Cannot sort by 'description'"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/shopitems/browse").param("sort", "description"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail", is("Cannot sort by 'description'")));
+    }
+}
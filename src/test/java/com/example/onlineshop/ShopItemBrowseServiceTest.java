@@ -0,0 +1,98 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.model.ShopItemBrowsePage;
+import com.example.onlineshop.model.ShopItemSummary;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.ShopItemBrowseService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ShopItemBrowseService Unit Tests")
+class ShopItemBrowseServiceTest {
+
+    @Mock
+    private ShopItemRepository shopItemRepository;
+
+    @InjectMocks
+    private ShopItemBrowseService shopItemBrowseService;
+
+    @Test
+    @DisplayName("parseSort should read comma separated fields with a leading minus for descending")
+    void testParseSort() {
+        assertThat(ShopItemBrowseService.parseSort("price,-quantity"))
+                .isEqualTo(Sort.by(Sort.Order.asc("price"), Sort.Order.desc("quantity")));
+        assertThat(ShopItemBrowseService.parseSort(" -name "))
+                .isEqualTo(Sort.by(Sort.Order.desc("name")));
+        assertThat(ShopItemBrowseService.parseSort(null))
+                .isEqualTo(Sort.by(Sort.Order.asc("price")));
+    }
+
+    @Test
+    @DisplayName("parseSort should reject fields that are not indexed for browsing")
+    void testParseSortRejectsUnknownFields() {
+        assertThatThrownBy(() -> ShopItemBrowseService.parseSort("price,description"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("description");
+    }
+
+    @Test
+    @DisplayName("browse should fetch one extra summary to tell whether more pages exist")
+    void testBrowseHasMore() {
+        // Arrange
+        Sort sort = Sort.by(Sort.Order.asc("price"), Sort.Order.desc("quantity"));
+        when(shopItemRepository.findSummariesByPriceRange(10.0, 100.0, sort, 2, 3)).thenReturn(List.of(
+                new ShopItemSummary("1", "Mouse", 25.50, 20),
+                new ShopItemSummary("2", "Lamp", 39.99, 10),
+                new ShopItemSummary("3", "Keyboard", 79.99, 5)));
+
+        // Act
+        ShopItemBrowsePage page = shopItemBrowseService.browse(10.0, 100.0, "price,-quantity", 1, 2);
+
+        // Assert
+        assertThat(page.hasMore()).isTrue();
+        assertThat(page.items()).extracting(ShopItemSummary::id).containsExactly("1", "2");
+    }
+
+    @Test
+    @DisplayName("browse should report the last page")
+    void testBrowseLastPage() {
+        // Arrange
+        when(shopItemRepository.findSummariesByPriceRange(null, null, Sort.by(Sort.Order.asc("quantity")), 0, 51))
+                .thenReturn(List.of(new ShopItemSummary("1", "Mouse", 25.50, 20)));
+
+        // Act
+        ShopItemBrowsePage page = shopItemBrowseService.browse(null, null, "quantity", 0, 50);
+
+        // Assert
+        assertThat(page.hasMore()).isFalse();
+        assertThat(page.items()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("browse should reject inverted price ranges and out of range pages")
+    void testBrowseRejectsInvalidArguments() {
+        assertThatThrownBy(() -> shopItemBrowseService.browse(50.0, 10.0, null, 0, 50))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> shopItemBrowseService.browse(null, null, null, -1, 50))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> shopItemBrowseService.browse(null, null, null, 0, 201))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> shopItemBrowseService.browse(null, null, null, Integer.MAX_VALUE / 100, 200))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(shopItemRepository, never()).findSummariesByPriceRange(any(), any(), any(), anyInt(), anyInt());
+    }
+}
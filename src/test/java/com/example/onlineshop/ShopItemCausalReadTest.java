@@ -0,0 +1,191 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.consistency.CausalConsistencyContext;
+import com.example.onlineshop.consistency.CausalToken;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.ShopItemReadRouting;
+import com.example.onlineshop.repositories.ShopItemRepositoryCustomImpl;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCommandException;
+import com.mongodb.ReadPreference;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import jakarta.servlet.http.HttpServletResponse;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.BsonTimestamp;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Causally consistent read Unit Tests")
+class ShopItemCausalReadTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final ClientSession session = mock(ClientSession.class);
+    @SuppressWarnings("unchecked")
+    private final MongoCollection<Document> collection = mock(MongoCollection.class);
+    private final CausalConsistencyContext causalContext = new CausalConsistencyContext("cookie", "header",
+            Duration.ofMinutes(5));
+    private ShopItemRepositoryCustomImpl repository;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MongoDatabaseFactory databaseFactory = mock(MongoDatabaseFactory.class);
+        when(mongoTemplate.getCollectionName(ShopItem.class)).thenReturn("shop_items");
+        when(mongoTemplate.getCollection("shop_items")).thenReturn(collection);
+        when(mongoTemplate.getMongoDatabaseFactory()).thenReturn(databaseFactory);
+        when(databaseFactory.getSession(any())).thenReturn(session);
+
+        ObjectProvider<ShopItemReadRouting> readRouting = mock(ObjectProvider.class);
+        when(readRouting.getIfAvailable(any())).thenReturn(new ShopItemReadRouting(
+                Map.of(ShopItemReadRouting.Operation.LIST, ReadPreference.secondaryPreferred())));
+        ObjectProvider<CausalConsistencyContext> causalProvider = mock(ObjectProvider.class);
+        when(causalProvider.getIfAvailable()).thenReturn(causalContext);
+        repository = new ShopItemRepositoryCustomImpl(mongoTemplate, readRouting, causalProvider);
+
+        causalContext.bind(new CausalToken(new BsonTimestamp(1700000000, 1), null), mock(HttpServletResponse.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        causalContext.unbind();
+    }
+
+    private static MongoCommandException commandFailure(int code, String codeName) {
+        return new MongoCommandException(new BsonDocument("ok", new BsonInt32(0))
+                .append("code", new BsonInt32(code))
+                .append("codeName", new BsonString(codeName))
+                .append("errmsg", new BsonString(codeName)), new ServerAddress());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> FindIterable<T> stubFind(MongoCollection<T> routed, MongoCursor<T> cursor, boolean inSession) {
+        FindIterable<T> find = mock(FindIterable.class);
+        if (inSession) {
+            when(routed.find(eq(session), any(Bson.class))).thenReturn(find);
+        } else {
+            when(routed.find(any(Bson.class))).thenReturn(find);
+        }
+        when(find.limit(anyInt())).thenReturn(find);
+        when(find.cursor()).thenReturn(cursor);
+        return find;
+    }
+
+    @SuppressWarnings("unchecked")
+    private MongoCollection<RawBsonDocument> rawCollection(ReadPreference readPreference) {
+        MongoCollection<RawBsonDocument> raw = mock(MongoCollection.class);
+        MongoCollection<RawBsonDocument> routed = mock(MongoCollection.class);
+        when(collection.withDocumentClass(RawBsonDocument.class)).thenReturn(raw);
+        when(raw.withReadPreference(readPreference)).thenReturn(routed);
+        return routed;
+    }
+
+    @Test
+    @DisplayName("a find whose causal token is refused should be sent to the primary")
+    @SuppressWarnings("unchecked")
+    void testRefusedTokenFallsBackToPrimary() throws Exception {
+        // Arrange
+        MongoCollection<RawBsonDocument> raw = mock(MongoCollection.class);
+        MongoCollection<RawBsonDocument> secondary = mock(MongoCollection.class);
+        MongoCollection<RawBsonDocument> primary = mock(MongoCollection.class);
+        when(collection.withDocumentClass(RawBsonDocument.class)).thenReturn(raw);
+        when(raw.withReadPreference(ReadPreference.secondaryPreferred())).thenReturn(secondary);
+        when(raw.withReadPreference(ReadPreference.primary())).thenReturn(primary);
+        FindIterable<RawBsonDocument> refused = stubFind(secondary, null, true);
+        when(refused.cursor()).thenThrow(commandFailure(211, "KeyNotFound"));
+        MongoCursor<RawBsonDocument> empty = mock(MongoCursor.class);
+        stubFind(primary, empty, false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        repository.writeAllAsJson(out);
+
+        // Assert
+        assertThat(out.toString()).isEqualTo("[]");
+        verify(empty).close();
+    }
+
+    @Test
+    @DisplayName("a failure after the first documents were written should not restart the export")
+    @SuppressWarnings("unchecked")
+    void testGetMoreFailureIsNotRetried() {
+        // Arrange
+        MongoCollection<RawBsonDocument> secondary = rawCollection(ReadPreference.secondaryPreferred());
+        MongoCursor<RawBsonDocument> cursor = mock(MongoCursor.class);
+        when(cursor.hasNext()).thenReturn(true).thenThrow(commandFailure(211, "KeyNotFound"));
+        when(cursor.next()).thenReturn(RawBsonDocument.parse("{\"name\": \"Mouse\"}"));
+        stubFind(secondary, cursor, true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act & Assert
+        assertThatThrownBy(() -> repository.writeAllAsJson(out)).isInstanceOf(MongoCommandException.class);
+        assertThat(out.toString()).containsOnlyOnce("[");
+        verify(collection.withDocumentClass(RawBsonDocument.class), never())
+                .withReadPreference(ReadPreference.primary());
+    }
+
+    @Test
+    @DisplayName("other errors of the initial find should not be hidden by a primary read")
+    @SuppressWarnings("unchecked")
+    void testOtherFailuresAreNotRetried() {
+        // Arrange
+        MongoCollection<RawBsonDocument> secondary = rawCollection(ReadPreference.secondaryPreferred());
+        FindIterable<RawBsonDocument> failing = stubFind(secondary, null, true);
+        when(failing.cursor()).thenThrow(commandFailure(50, "MaxTimeMSExpired"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> repository.writeAllAsJson(new ByteArrayOutputStream()))
+                .isInstanceOf(MongoCommandException.class);
+        verify(collection.withDocumentClass(RawBsonDocument.class), never())
+                .withReadPreference(ReadPreference.primary());
+    }
+
+    @Test
+    @DisplayName("a read with an explicit read preference should also wait for the causal token")
+    @SuppressWarnings("unchecked")
+    void testFindByIdRunsInCausalSession() {
+        // Arrange
+        MongoCollection<Document> withCodecs = mock(MongoCollection.class);
+        MongoCollection<ShopItem> items = mock(MongoCollection.class);
+        MongoCollection<ShopItem> nearest = mock(MongoCollection.class);
+        when(collection.getCodecRegistry()).thenReturn(MongoClientSettings.getDefaultCodecRegistry());
+        when(collection.withCodecRegistry(any())).thenReturn(withCodecs);
+        when(withCodecs.withDocumentClass(ShopItem.class)).thenReturn(items);
+        when(items.withReadPreference(ReadPreference.nearest())).thenReturn(nearest);
+        ShopItem item = new ShopItem("Mouse", null, 25.50, 10);
+        MongoCursor<ShopItem> cursor = mock(MongoCursor.class);
+        when(cursor.hasNext()).thenReturn(true);
+        when(cursor.next()).thenReturn(item);
+        stubFind(nearest, cursor, true);
+
+        // Act
+        ShopItem found = repository.findById("1", ReadPreference.nearest());
+
+        // Assert
+        assertThat(found).isSameAs(item);
+        verify(session).advanceOperationTime(new BsonTimestamp(1700000000, 1));
+        verify(nearest, never()).find(any(Bson.class));
+    }
+}
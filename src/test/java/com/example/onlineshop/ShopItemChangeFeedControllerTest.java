@@ -0,0 +1,75 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.controllers.ShopItemChangeFeedController;
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.feed.ShopItemChange;
+import com.example.onlineshop.feed.ShopItemChangeFeed;
+import com.example.onlineshop.feed.ShopItemChangeSubscriber;
+import com.example.onlineshop.model.ShopItem;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ShopItemChangeFeedController.class)
+@DisplayName("ShopItemChangeFeedController Unit Tests")
+class ShopItemChangeFeedControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ShopItemChangeFeed shopItemChangeFeed;
+
+    @Test
+    @DisplayName("GET /api/shopitems/changes should resume from the Last-Event-ID header")
+    void testResumesFromLastEventIdHeader() throws Exception {
+        // Arrange
+        ShopItem item = new ShopItem("Mouse", "Wireless mouse", 25.50, 20);
+        item.setId("1");
+        when(shopItemChangeFeed.getSubscriberTimeout()).thenReturn(Duration.ofMinutes(1));
+        doAnswer(invocation -> {
+            invocation.<ShopItemChangeSubscriber>getArgument(1).changes("abc-8",
+                    List.of(new ShopItemChange(8, ShopItemChangedEvent.Type.UPDATED, "1", item)));
+            return null;
+        }).when(shopItemChangeFeed).subscribe(eq("abc-7"), any());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/shopitems/changes").header("Last-Event-ID", "abc-7"))
+                .andExpect(request().asyncStarted())
+                .andExpect(content().string(allOf(
+                        containsString("id:abc-8"),
+                        containsString("event:changes"),
+                        containsString("\"type\":\"UPDATED\""),
+                        containsString("\"name\":\"Mouse\""))));
+        verify(shopItemChangeFeed).subscribe(eq("abc-7"), any());
+    }
+
+    @Test
+    @DisplayName("GET /api/shopitems/changes should accept lastEventId as a query parameter")
+    void testResumesFromQueryParameter() throws Exception {
+        // Arrange
+        when(shopItemChangeFeed.getSubscriberTimeout()).thenReturn(Duration.ofMinutes(1));
+        doAnswer(invocation -> {
+            invocation.<ShopItemChangeSubscriber>getArgument(1).reset("abc-9");
+            return null;
+        }).when(shopItemChangeFeed).subscribe(eq("old-1"), any());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/shopitems/changes").param("lastEventId", "old-1"))
+                .andExpect(request().asyncStarted())
+                .andExpect(content().string(containsString("event:reset")));
+    }
+}
@@ -0,0 +1,319 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.config.ShopItemChangeFeedProperties;
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.feed.ShopItemChange;
+import com.example.onlineshop.feed.ShopItemChangeFeed;
+import com.example.onlineshop.feed.ShopItemChangeSubscriber;
+import com.example.onlineshop.model.ShopItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ShopItemChangeFeed Unit Tests")
+class ShopItemChangeFeedTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ShopItemChangeFeed feed;
+
+    @AfterEach
+    void tearDown() {
+        feed.close();
+    }
+
+    private ShopItemChangeFeed feed(int maxBatchSize, int historySize) {
+        return feed(maxBatchSize, historySize, 64);
+    }
+
+    private ShopItemChangeFeed feed(int maxBatchSize, int historySize, int subscriberQueueSize) {
+        return feed(maxBatchSize, historySize, subscriberQueueSize, 4, Duration.ofHours(1));
+    }
+
+    private ShopItemChangeFeed feed(int maxBatchSize, int historySize, int subscriberQueueSize, int senderThreads,
+                                    Duration sendTimeout) {
+        // Windows of an hour keep the scheduler out of the way; the tests flush explicitly.
+        feed = new ShopItemChangeFeed(new ShopItemChangeFeedProperties(ShopItemChangeFeedProperties.Source.EVENTS,
+                Duration.ofHours(1), maxBatchSize, historySize, Duration.ofHours(1), Duration.ofMinutes(30),
+                subscriberQueueSize, senderThreads, sendTimeout), meterRegistry);
+        return feed;
+    }
+
+    /**
+     * Subscribers are called from the feed's sender threads.
+     */
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition within 5 seconds").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static ShopItem item(String id, int quantity) {
+        ShopItem item = new ShopItem("Mouse", null, 25.50, quantity);
+        item.setId(id);
+        return item;
+    }
+
+    @Test
+    @DisplayName("a burst of writes to one item should be published as one change")
+    void testCoalescesPerId() throws InterruptedException {
+        // Arrange
+        feed(500, 100);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        feed.subscribe(null, subscriber);
+
+        // Act
+        feed.onShopItemChanged(ShopItemChangedEvent.created(item("1", 10)));
+        feed.onShopItemChanged(ShopItemChangedEvent.updated(item("1", 10), item("1", 9)));
+        feed.onShopItemChanged(ShopItemChangedEvent.updated(item("2", 3), item("2", 2)));
+        feed.onShopItemChanged(ShopItemChangedEvent.updated(item("1", 9), item("1", 8)));
+        feed.flush();
+        await(() -> subscriber.batches.size() == 1);
+
+        // Assert
+        List<ShopItemChange> batch = subscriber.batches.get(0);
+        assertThat(batch).extracting(ShopItemChange::id).containsExactly("1", "2");
+        assertThat(batch.get(0).type()).isEqualTo(ShopItemChangedEvent.Type.CREATED);
+        assertThat(batch.get(0).item().getQuantity()).isEqualTo(8);
+        assertThat(batch).extracting(ShopItemChange::sequence).containsExactly(1L, 2L);
+        assertThat(subscriber.eventIds.get(0)).endsWith("-2");
+    }
+
+    @Test
+    @DisplayName("an item created and deleted within one window should not be published")
+    void testCreatedAndDeletedCancelOut() throws InterruptedException {
+        // Arrange
+        feed(500, 100);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        feed.subscribe(null, subscriber);
+
+        // Act
+        feed.onShopItemChanged(ShopItemChangedEvent.created(item("1", 10)));
+        feed.onShopItemChanged(ShopItemChangedEvent.deleted("1", item("1", 10)));
+        feed.flush();
+
+        // Assert
+        assertThat(subscriber.batches).isEmpty();
+    }
+
+    @Test
+    @DisplayName("a subscriber resuming from a retained event id should receive the missed changes")
+    void testResumeReplaysMissedChanges() throws InterruptedException {
+        // Arrange
+        feed(500, 100);
+        RecordingSubscriber first = new RecordingSubscriber();
+        feed.subscribe(null, first);
+        feed.onShopItemChanged(ShopItemChangedEvent.created(item("1", 10)));
+        feed.flush();
+        await(() -> first.eventIds.size() == 1);
+        String lastSeen = first.eventIds.get(0);
+        feed.unsubscribe(first);
+        feed.onShopItemChanged(ShopItemChangedEvent.created(item("2", 5)));
+        feed.flush();
+        feed.onShopItemChanged(ShopItemChangedEvent.deleted("1", item("1", 10)));
+        feed.flush();
+
+        // Act
+        RecordingSubscriber resumed = new RecordingSubscriber();
+        feed.subscribe(lastSeen, resumed);
+        await(() -> resumed.batches.size() == 1);
+
+        // Assert
+        assertThat(resumed.resets).isEmpty();
+        assertThat(resumed.batches.get(0)).extracting(ShopItemChange::id).containsExactly("2", "1");
+        assertThat(resumed.batches.get(0).get(1).type()).isEqualTo(ShopItemChangedEvent.Type.DELETED);
+        assertThat(feed.subscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("event ids that are no longer retained or from another process should get a reset")
+    void testResetWhenResumePointIsGone() throws InterruptedException {
+        // Arrange
+        feed(500, 2);
+        RecordingSubscriber first = new RecordingSubscriber();
+        feed.subscribe(null, first);
+        for (int i = 1; i <= 4; i++) {
+            feed.onShopItemChanged(ShopItemChangedEvent.created(item(Integer.toString(i), i)));
+            feed.flush();
+        }
+        await(() -> first.eventIds.size() == 4);
+
+        // Act
+        RecordingSubscriber evicted = new RecordingSubscriber();
+        feed.subscribe(first.eventIds.get(0), evicted);
+        RecordingSubscriber retained = new RecordingSubscriber();
+        feed.subscribe(first.eventIds.get(1), retained);
+        RecordingSubscriber foreign = new RecordingSubscriber();
+        feed.subscribe("zzzz-3", foreign);
+        await(() -> evicted.resets.size() == 1 && retained.batches.size() == 1 && foreign.resets.size() == 1);
+
+        // Assert
+        assertThat(evicted.resets).containsExactly(first.eventIds.get(3));
+        assertThat(evicted.batches).isEmpty();
+        assertThat(retained.resets).isEmpty();
+        assertThat(retained.batches.get(0)).extracting(ShopItemChange::id).containsExactly("3", "4");
+        assertThat(foreign.resets).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("batches larger than maxBatchSize should be split into several events")
+    void testSplitsLargeBatches() throws InterruptedException {
+        // Arrange
+        feed(2, 100);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        feed.subscribe(null, subscriber);
+
+        // Act
+        for (int i = 1; i <= 5; i++) {
+            feed.onShopItemChanged(ShopItemChangedEvent.created(item(Integer.toString(i), i)));
+        }
+        feed.flush();
+        await(() -> subscriber.batches.size() == 3);
+
+        // Assert
+        assertThat(subscriber.batches).extracting(List::size).containsExactly(2, 2, 1);
+        assertThat(subscriber.eventIds.get(1)).endsWith("-4");
+    }
+
+    @Test
+    @DisplayName("a subscriber that fails to receive should be dropped")
+    void testDropsFailingSubscriber() throws InterruptedException {
+        // Arrange
+        feed(500, 100);
+        RecordingSubscriber healthy = new RecordingSubscriber();
+        RecordingSubscriber broken = new RecordingSubscriber();
+        broken.failing = true;
+        feed.subscribe(null, broken);
+        feed.subscribe(null, healthy);
+
+        // Act
+        feed.onShopItemChanged(ShopItemChangedEvent.created(item("1", 10)));
+        feed.flush();
+        await(() -> feed.subscriberCount() == 1 && healthy.batches.size() == 1);
+
+        // Assert
+        assertThat(broken.completed).isTrue();
+    }
+
+    @Test
+    @DisplayName("a slow subscriber should not hold up the other subscribers")
+    void testSlowSubscriberDoesNotBlockOthers() throws InterruptedException {
+        // Arrange
+        feed(500, 100);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSubscriber slow = new RecordingSubscriber();
+        slow.blockUntil = release;
+        RecordingSubscriber fast = new RecordingSubscriber();
+        feed.subscribe(null, slow);
+        feed.subscribe(null, fast);
+
+        // Act
+        for (int i = 1; i <= 3; i++) {
+            feed.onShopItemChanged(ShopItemChangedEvent.created(item(Integer.toString(i), i)));
+            feed.flush();
+        }
+        await(() -> fast.batches.size() == 3);
+        release.countDown();
+
+        // Assert
+        await(() -> slow.batches.size() == 3);
+        assertThat(slow.eventIds).isEqualTo(fast.eventIds);
+    }
+
+    @Test
+    @DisplayName("a subscriber whose queue overflows should be completed and dropped")
+    void testDropsOverflowingSubscriber() throws InterruptedException {
+        // Arrange
+        feed(500, 100, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSubscriber slow = new RecordingSubscriber();
+        slow.blockUntil = release;
+        feed.subscribe(null, slow);
+
+        // Act
+        for (int i = 1; i <= 4; i++) {
+            feed.onShopItemChanged(ShopItemChangedEvent.created(item(Integer.toString(i), i)));
+            feed.flush();
+        }
+        release.countDown();
+
+        // Assert
+        await(() -> slow.completed);
+        assertThat(feed.subscriberCount()).isZero();
+        assertThat(meterRegistry.counter("shopitems.feed.overflows").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a subscriber whose send stalls past the timeout should be dropped and free its sender")
+    void testDropsStalledSubscriber() throws InterruptedException {
+        // Arrange
+        feed(500, 100, 64, 1, Duration.ofMillis(100));
+        RecordingSubscriber stalled = new RecordingSubscriber();
+        stalled.blockUntil = new CountDownLatch(1);
+        RecordingSubscriber other = new RecordingSubscriber();
+        feed.subscribe(null, stalled);
+        feed.subscribe(null, other);
+
+        // Act
+        feed.onShopItemChanged(ShopItemChangedEvent.created(item("1", 1)));
+        feed.flush();
+
+        // Assert
+        await(() -> other.batches.size() == 1);
+        await(() -> stalled.completed);
+        assertThat(feed.subscriberCount()).isEqualTo(1);
+        assertThat(meterRegistry.counter("shopitems.feed.send.timeouts").count()).isEqualTo(1);
+    }
+
+    private static class RecordingSubscriber implements ShopItemChangeSubscriber {
+
+        private final List<String> eventIds = new CopyOnWriteArrayList<>();
+        private final List<List<ShopItemChange>> batches = new CopyOnWriteArrayList<>();
+        private final List<String> resets = new CopyOnWriteArrayList<>();
+        private volatile boolean failing;
+        private volatile boolean completed;
+        private volatile CountDownLatch blockUntil;
+
+        @Override
+        public void changes(String eventId, List<ShopItemChange> changes) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            if (blockUntil != null) {
+                try {
+                    blockUntil.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            eventIds.add(eventId);
+            batches.add(List.copyOf(changes));
+        }
+
+        @Override
+        public void reset(String eventId) {
+            resets.add(eventId);
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.mapping.ShopItemCodec;
+import com.example.onlineshop.model.ShopItem;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decode and encode throughput of a single ShopItem through Spring Data's reflective
+ * mapping versus {@link ShopItemCodec}. Run the same way as
+ * {@link ShopItemJsonTranscoderBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShopItemCodecBenchmark {
+
+    private final ShopItemCodec codec = new ShopItemCodec();
+    private final DocumentCodec documentCodec = new DocumentCodec();
+    private final DecoderContext decoderContext = DecoderContext.builder().build();
+    private final EncoderContext encoderContext = EncoderContext.builder().build();
+    private MappingMongoConverter converter;
+    private ShopItem item;
+    private RawBsonDocument raw;
+
+    @Setup
+    public void setUp() {
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        item = new ShopItem("Wireless keyboard", "Low profile wireless keyboard", 79.99, 120);
+        item.setId(new ObjectId().toHexString());
+        Document document = new Document();
+        converter.write(item, document);
+        raw = new RawBsonDocument(document, documentCodec);
+    }
+
+    @Benchmark
+    public ShopItem decodeReflective() {
+        return converter.read(ShopItem.class, documentCodec.decode(raw.asBsonReader(), decoderContext));
+    }
+
+    @Benchmark
+    public ShopItem decodeCodec() {
+        return codec.decode(raw.asBsonReader(), decoderContext);
+    }
+
+    @Benchmark
+    public int encodeReflective() {
+        Document document = new Document();
+        converter.write(item, document);
+        BasicOutputBuffer buffer = new BasicOutputBuffer(256);
+        documentCodec.encode(new BsonBinaryWriter(buffer), document, encoderContext);
+        return buffer.getPosition();
+    }
+
+    @Benchmark
+    public int encodeCodec() {
+        BasicOutputBuffer buffer = new BasicOutputBuffer(256);
+        codec.encode(new BsonBinaryWriter(buffer), item, encoderContext);
+        return buffer.getPosition();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ShopItemCodecBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.mapping.ShopItemCodec;
+import com.example.onlineshop.mapping.ShopItemConverters;
+import com.example.onlineshop.model.ShopItem;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ShopItemCodec Unit Tests")
+class ShopItemCodecTest {
+
+    private final ShopItemCodec codec = new ShopItemCodec();
+
+    private MappingMongoConverter reflectiveConverter;
+    private MappingMongoConverter customConverter;
+
+    @BeforeEach
+    void setUp() {
+        reflectiveConverter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        reflectiveConverter.afterPropertiesSet();
+
+        MongoCustomConversions conversions = new MongoCustomConversions(ShopItemConverters.all());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        customConverter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        customConverter.setCustomConversions(conversions);
+        customConverter.afterPropertiesSet();
+    }
+
+    @Test
+    @DisplayName("encode should produce the same document as the reflective mapping")
+    void testEncodeMatchesReflectiveMapping() {
+        // Arrange
+        ShopItem item = item(new ObjectId().toHexString());
+
+        // Act
+        BsonDocument encoded = encode(item);
+
+        // Assert
+        assertThat(encoded).isEqualTo(reflectiveBson(item));
+    }
+
+    @Test
+    @DisplayName("decode should read what the reflective mapping wrote")
+    void testDecodeReadsReflectiveMapping() {
+        // Arrange
+        ShopItem item = item(new ObjectId().toHexString());
+        Document document = new Document();
+        reflectiveConverter.write(item, document);
+
+        // Act
+        ShopItem decoded = codec.decode(new BsonDocumentReader(document.toBsonDocument()),
+                DecoderContext.builder().build());
+
+        // Assert
+        assertThat(decoded).isEqualTo(item);
+        assertThat(decoded).isEqualTo(reflectiveConverter.read(ShopItem.class, document));
+    }
+
+    @Test
+    @DisplayName("version should be written and read like the reflective mapping")
+    void testVersionMatchesReflectiveMapping() {
+        // Arrange
+        ShopItem item = item(new ObjectId().toHexString());
+        item.setVersion(4L);
+        Document document = new Document();
+        reflectiveConverter.write(item, document);
+
+        // Act
+        BsonDocument encoded = encode(item);
+        ShopItem decoded = codec.decode(new BsonDocumentReader(document.toBsonDocument()),
+                DecoderContext.builder().build());
+        Document custom = new Document();
+        customConverter.write(item, custom);
+
+        // Assert
+        assertThat(encoded).isEqualTo(reflectiveBson(item));
+        assertThat(decoded.getVersion()).isEqualTo(4L);
+        assertThat(customConverter.read(ShopItem.class, document).getVersion()).isEqualTo(4L);
+        document.remove("_class");
+        assertThat(custom).isEqualTo(document);
+    }
+
+    @Test
+    @DisplayName("ids that are not ObjectIds should round trip as strings")
+    void testStringIdRoundTrip() {
+        // Arrange
+        ShopItem item = item("legacy-id");
+
+        // Act
+        BsonDocument encoded = encode(item);
+        ShopItem decoded = codec.decode(new BsonDocumentReader(encoded), DecoderContext.builder().build());
+
+        // Assert
+        assertThat(encoded.get("_id")).isEqualTo(new BsonString("legacy-id"));
+        assertThat(encoded).isEqualTo(reflectiveBson(item));
+        assertThat(decoded).isEqualTo(item);
+    }
+
+    @Test
+    @DisplayName("null fields should be omitted like the reflective mapping does")
+    void testNullFieldsOmitted() {
+        // Arrange
+        ShopItem item = new ShopItem(null, null, 0.0, 0);
+
+        // Act
+        BsonDocument encoded = encode(item);
+
+        // Assert
+        assertThat(encoded).isEqualTo(reflectiveBson(item));
+        assertThat(encoded.keySet()).containsExactly("price", "quantity");
+    }
+
+    @Test
+    @DisplayName("decode should widen numeric values stored with other BSON types")
+    void testDecodeWidensNumbers() {
+        // Arrange
+        Document document = new Document("_id", "1")
+                .append("name", "Cable")
+                .append("price", 5)
+                .append("quantity", 7L)
+                .append("unknown", "ignored");
+
+        // Act
+        ShopItem decoded = codec.decode(new BsonDocumentReader(document.toBsonDocument()),
+                DecoderContext.builder().build());
+
+        // Assert
+        assertThat(decoded.getPrice()).isEqualTo(5.0);
+        assertThat(decoded.getQuantity()).isEqualTo(7);
+        assertThat(decoded.getDescription()).isNull();
+    }
+
+    @Test
+    @DisplayName("custom conversions should write and read the same documents as the reflective mapping")
+    void testCustomConversionsMatchReflectiveMapping() {
+        // Arrange
+        ShopItem item = item(new ObjectId().toHexString());
+        Document reflective = new Document();
+        reflectiveConverter.write(item, reflective);
+
+        // Act
+        Document custom = new Document();
+        customConverter.write(item, custom);
+        ShopItem read = customConverter.read(ShopItem.class, reflective);
+
+        // Assert
+        reflective.remove("_class");
+        assertThat(custom).isEqualTo(reflective);
+        assertThat(read).isEqualTo(item);
+    }
+
+    @Test
+    @DisplayName("collectible codec should generate an ObjectId only when the id is missing")
+    void testGenerateIdIfAbsent() {
+        // Arrange
+        ShopItem withoutId = item(null);
+        ShopItem withId = item("existing");
+
+        // Act
+        codec.generateIdIfAbsentFromDocument(withoutId);
+        codec.generateIdIfAbsentFromDocument(withId);
+
+        // Assert
+        assertThat(ObjectId.isValid(withoutId.getId())).isTrue();
+        assertThat(codec.getDocumentId(withoutId)).isEqualTo(new BsonObjectId(new ObjectId(withoutId.getId())));
+        assertThat(withId.getId()).isEqualTo("existing");
+        assertThat(codec.documentHasId(withId)).isTrue();
+    }
+
+    private BsonDocument encode(ShopItem item) {
+        BsonDocument document = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(document), item, EncoderContext.builder().build());
+        return document;
+    }
+
+    private BsonDocument reflectiveBson(ShopItem item) {
+        Document document = new Document();
+        reflectiveConverter.write(item, document);
+        document.remove("_class");
+        return document.toBsonDocument();
+    }
+
+    private static ShopItem item(String id) {
+        ShopItem item = new ShopItem("Keyboard", "Mechanical keyboard", 149.99, 12);
+        item.setId(id);
+        return item;
+    }
+}
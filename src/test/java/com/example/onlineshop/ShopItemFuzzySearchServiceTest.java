@@ -0,0 +1,92 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.model.ShopItemFuzzyHit;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.ShopItemFuzzySearchService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ShopItemFuzzySearchService Unit Tests")
+class ShopItemFuzzySearchServiceTest {
+
+    @Mock
+    private ShopItemRepository shopItemRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ShopItemFuzzySearchService fuzzySearchService;
+
+    @BeforeEach
+    void setUp() {
+        fuzzySearchService = new ShopItemFuzzySearchService(shopItemRepository, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("rebuild should index names and descriptions from the scan")
+    void testRebuild() {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<ShopItem> action = invocation.getArgument(0);
+            action.accept(item("1", "Mechanical keyboard", "Clicky switches"));
+            action.accept(item("2", "Desk lamp", "Warm light"));
+            return null;
+        }).when(shopItemRepository).forEachItem(any());
+
+        // Act
+        fuzzySearchService.rebuild();
+
+        // Assert
+        assertThat(fuzzySearchService.search("keybaord", 10)).extracting(ShopItemFuzzyHit::id).containsExactly("1");
+        assertThat(fuzzySearchService.search("swtiches", 10)).extracting(ShopItemFuzzyHit::id).containsExactly("1");
+        assertThat(meterRegistry.get("shopitems.fuzzy.memory").gauge().value()).isPositive();
+        assertThat(meterRegistry.get("shopitems.fuzzy.size").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("writes should update the index incrementally")
+    void testAppliesEvents() {
+        // Act
+        fuzzySearchService.onShopItemChanged(ShopItemChangedEvent.created(item("1", "Wireless mouse", "Ergonomic")));
+        fuzzySearchService.onShopItemChanged(ShopItemChangedEvent.updated(
+                item("1", "Wireless mouse", "Ergonomic"), item("1", "Wireless keyboard", "Ergonomic")));
+        fuzzySearchService.onShopItemChanged(ShopItemChangedEvent.created(item("2", "Mouse pad", "Large")));
+        fuzzySearchService.onShopItemChanged(ShopItemChangedEvent.deleted("2", null));
+
+        // Assert
+        assertThat(fuzzySearchService.search("mose pad", 10)).isEmpty();
+        assertThat(fuzzySearchService.search("wirless keybord", 10)).extracting(ShopItemFuzzyHit::id)
+                .containsExactly("1");
+    }
+
+    @Test
+    @DisplayName("search should cap the number of results")
+    void testSearchCapsLimit() {
+        // Arrange
+        for (int i = 0; i < 60; i++) {
+            fuzzySearchService.onShopItemChanged(ShopItemChangedEvent.created(item(String.valueOf(i), "Cable " + i, "")));
+        }
+
+        // Act & Assert
+        assertThat(fuzzySearchService.search("cabel", 1000)).hasSize(50);
+        assertThat(fuzzySearchService.search("cabel", 0)).isEmpty();
+    }
+
+    private static ShopItem item(String id, String name, String description) {
+        ShopItem item = new ShopItem(name, description, 1.00, 1);
+        item.setId(id);
+        return item;
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.config.InsertPipelineProperties;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.InsertQueueFullException;
+import com.example.onlineshop.services.ShopItemInsertPipeline;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ShopItemInsertPipeline Unit Tests")
+class ShopItemInsertPipelineTest {
+
+    @Mock
+    private ShopItemRepository shopItemRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ShopItemInsertPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        pipeline.close();
+    }
+
+    @Test
+    @DisplayName("queued inserts should be written together and each caller should get its own id")
+    void testBatchesInserts() throws Exception {
+        // Arrange
+        AtomicInteger nextId = new AtomicInteger();
+        List<Integer> batchSizes = new ArrayList<>();
+        when(shopItemRepository.insertUnordered(anyList())).thenAnswer(invocation -> {
+            List<ShopItem> items = invocation.getArgument(0);
+            synchronized (batchSizes) {
+                batchSizes.add(items.size());
+            }
+            items.forEach(item -> item.setId("id-" + nextId.incrementAndGet()));
+            return items;
+        });
+        pipeline = newPipeline(64, 100, Duration.ofMillis(200));
+
+        // Act
+        List<CompletableFuture<ShopItem>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(pipeline.submit(new ShopItem("Item " + i, "Description", 1.00, i)));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertThat(futures).extracting(future -> future.join().getId()).doesNotHaveDuplicates().doesNotContainNull();
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(20);
+        assertThat(batchSizes.size()).isLessThan(20);
+    }
+
+    @Test
+    @DisplayName("a batch should not grow beyond the maximum batch size")
+    void testRespectsMaxBatchSize() throws Exception {
+        // Arrange
+        List<Integer> batchSizes = new ArrayList<>();
+        when(shopItemRepository.insertUnordered(anyList())).thenAnswer(invocation -> {
+            List<ShopItem> items = invocation.getArgument(0);
+            synchronized (batchSizes) {
+                batchSizes.add(items.size());
+            }
+            return items;
+        });
+        pipeline = newPipeline(64, 4, Duration.ofMillis(200));
+
+        // Act
+        List<CompletableFuture<ShopItem>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(pipeline.submit(new ShopItem("Item " + i, "Description", 1.00, i)));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertThat(batchSizes).allMatch(size -> size <= 4);
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("a single insert should not wait longer than the maximum batch latency")
+    void testSingleInsertLatencyIsBounded() {
+        // Arrange
+        when(shopItemRepository.insertUnordered(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        pipeline = newPipeline(64, 100, Duration.ofMillis(5));
+
+        // Act
+        long start = System.nanoTime();
+        ShopItem saved = pipeline.insert(new ShopItem("Lamp", "Desk lamp", 39.99, 10));
+
+        // Assert
+        assertThat(saved.getName()).isEqualTo("Lamp");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+    }
+
+    @Test
+    @DisplayName("submit should reject items when the queue is full")
+    void testRejectsWhenFull() throws Exception {
+        // Arrange
+        CountDownLatch writerBlocked = new CountDownLatch(1);
+        CountDownLatch releaseWriter = new CountDownLatch(1);
+        when(shopItemRepository.insertUnordered(anyList())).thenAnswer(invocation -> {
+            writerBlocked.countDown();
+            releaseWriter.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        pipeline = newPipeline(2, 1, Duration.ZERO);
+        pipeline.submit(new ShopItem("Blocking", "Description", 1.00, 1));
+        assertThat(writerBlocked.await(5, TimeUnit.SECONDS)).isTrue();
+        pipeline.submit(new ShopItem("Queued 1", "Description", 1.00, 1));
+        pipeline.submit(new ShopItem("Queued 2", "Description", 1.00, 1));
+
+        // Act & Assert
+        assertThatThrownBy(() -> pipeline.submit(new ShopItem("Rejected", "Description", 1.00, 1)))
+                .isInstanceOf(InsertQueueFullException.class);
+        assertThat(meterRegistry.counter("shopitems.insert.rejected").count()).isEqualTo(1);
+        releaseWriter.countDown();
+    }
+
+    @Test
+    @DisplayName("a failed batch should fail every caller in it")
+    void testFailurePropagates() {
+        // Arrange
+        when(shopItemRepository.insertUnordered(anyList())).thenThrow(new DataAccessResourceFailureException("mongo down"));
+        pipeline = newPipeline(64, 100, Duration.ofMillis(1));
+
+        // Act & Assert
+        assertThatThrownBy(() -> pipeline.insert(new ShopItem("Lamp", "Desk lamp", 39.99, 10)))
+                .isInstanceOf(DataAccessResourceFailureException.class)
+                .hasMessage("mongo down");
+    }
+
+    @Test
+    @DisplayName("an item rejected by Mongo should fail only its own caller")
+    void testPartialFailureFailsOnlyTheRejectedItem() throws Exception {
+        // Arrange
+        when(shopItemRepository.insertUnordered(anyList())).thenAnswer(invocation -> {
+            List<ShopItem> items = invocation.getArgument(0);
+            throw new MongoBulkWriteException(BulkWriteResult.unacknowledged(),
+                    List.of(new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(),
+                            items.size() - 1)),
+                    null, new ServerAddress(), Set.of());
+        });
+        pipeline = newPipeline(64, 2, Duration.ofSeconds(1));
+
+        // Act
+        CompletableFuture<ShopItem> accepted = pipeline.submit(new ShopItem("Lamp", "Desk lamp", 39.99, 10));
+        CompletableFuture<ShopItem> duplicate = pipeline.submit(new ShopItem("Lamp", "Desk lamp", 39.99, 10));
+
+        // Assert
+        assertThat(accepted.get(5, TimeUnit.SECONDS).getName()).isEqualTo("Lamp");
+        assertThatThrownBy(() -> duplicate.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    @DisplayName("an insert should give up after the insert timeout")
+    void testInsertTimesOut() {
+        // Arrange
+        CountDownLatch releaseWriter = new CountDownLatch(1);
+        when(shopItemRepository.insertUnordered(anyList())).thenAnswer(invocation -> {
+            releaseWriter.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        pipeline = new ShopItemInsertPipeline(shopItemRepository,
+                new InsertPipelineProperties(true, 16, 1, Duration.ZERO, Duration.ofMillis(50)), meterRegistry);
+
+        // Act & Assert
+        assertThatThrownBy(() -> pipeline.insert(new ShopItem("Lamp", "Desk lamp", 39.99, 10)))
+                .isInstanceOf(QueryTimeoutException.class);
+        releaseWriter.countDown();
+    }
+
+    @Test
+    @DisplayName("submitting after close should be rejected instead of waiting forever")
+    void testRejectsAfterClose() {
+        // Arrange
+        pipeline = newPipeline(16, 1, Duration.ZERO);
+        pipeline.close();
+
+        // Act & Assert
+        assertThatThrownBy(() -> pipeline.submit(new ShopItem("Late", "Description", 1.00, 1)))
+                .isInstanceOf(InsertQueueFullException.class);
+    }
+
+    @Test
+    @DisplayName("closing should write items that are still queued")
+    void testCloseDrainsQueue() throws Exception {
+        // Arrange
+        CountDownLatch writerBlocked = new CountDownLatch(1);
+        CountDownLatch releaseWriter = new CountDownLatch(1);
+        when(shopItemRepository.insertUnordered(anyList())).thenAnswer(invocation -> {
+            writerBlocked.countDown();
+            releaseWriter.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        pipeline = newPipeline(16, 1, Duration.ZERO);
+        pipeline.submit(new ShopItem("Blocking", "Description", 1.00, 1));
+        assertThat(writerBlocked.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<ShopItem> queued = pipeline.submit(new ShopItem("Queued", "Description", 1.00, 1));
+
+        // Act
+        releaseWriter.countDown();
+        pipeline.close();
+
+        // Assert
+        assertThat(queued.get(5, TimeUnit.SECONDS).getName()).isEqualTo("Queued");
+    }
+
+    private ShopItemInsertPipeline newPipeline(int queueCapacity, int maxBatchSize, Duration maxBatchLatency) {
+        return new ShopItemInsertPipeline(shopItemRepository,
+                new InsertPipelineProperties(true, queueCapacity, maxBatchSize, maxBatchLatency, Duration.ofSeconds(5)),
+                meterRegistry);
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.cache.ShopItemInvalidationBus;
+import com.example.onlineshop.config.ShopItemInvalidationProperties;
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.events.ShopItemInvalidatedEvent;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.model.ShopItemInvalidation;
+import com.example.onlineshop.repositories.ShopItemInvalidationRepository;
+import com.mongodb.ServerAddress;
+import com.mongodb.ServerCursor;
+import com.mongodb.client.MongoCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ShopItemInvalidationBus Unit Tests")
+class ShopItemInvalidationBusTest {
+
+    private final ShopItemInvalidationRepository repository = mock(ShopItemInvalidationRepository.class);
+    private final LinkedBlockingQueue<ShopItemInvalidatedEvent> events = new LinkedBlockingQueue<>();
+    private final Deque<ShopItemInvalidation> entries = new ConcurrentLinkedDeque<>();
+    private final CountDownLatch tailing = new CountDownLatch(1);
+    private volatile Duration serverClockAhead = Duration.ZERO;
+    private ShopItemInvalidationBus bus;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        bus.close();
+    }
+
+    /**
+     * Starts a bus positioned at entry "p0" whose subscription returns the given
+     * entries from the oldest, and waits until it is tailing.
+     */
+    private ShopItemInvalidationBus startBus(ShopItemInvalidation... initial) throws InterruptedException {
+        entries.addAll(List.of(initial));
+        @SuppressWarnings("unchecked")
+        MongoCursor<ShopItemInvalidation> cursor = mock(MongoCursor.class);
+        when(cursor.getServerCursor()).thenReturn(new ServerCursor(1, new ServerAddress()));
+        when(cursor.tryNext()).thenAnswer(invocation -> {
+            ShopItemInvalidation next = entries.poll();
+            if (next == null) {
+                Thread.sleep(5);
+            }
+            return next;
+        });
+        when(repository.latestId()).thenReturn("p0");
+        when(repository.serverTime()).thenAnswer(invocation -> Instant.now().plus(serverClockAhead));
+        when(repository.tail()).thenAnswer(invocation -> {
+            tailing.countDown();
+            return cursor;
+        });
+        bus = new ShopItemInvalidationBus(repository,
+                new ShopItemInvalidationProperties(true, Duration.ofHours(1), 3, DataSize.ofMegabytes(1),
+                        Duration.ofSeconds(5)),
+                event -> events.add((ShopItemInvalidatedEvent) event), new SimpleMeterRegistry());
+        bus.start();
+        assertThat(tailing.await(5, TimeUnit.SECONDS)).isTrue();
+        return bus;
+    }
+
+    private ShopItemInvalidation entry(String id, String node, List<String> ids, boolean all) {
+        return new ShopItemInvalidation(id, node, ids, all, Instant.now().plus(serverClockAhead));
+    }
+
+    private static ShopItem item(String id) {
+        ShopItem item = new ShopItem("Mouse", null, 25.50, 10);
+        item.setId(id);
+        return item;
+    }
+
+    @Test
+    @DisplayName("writes within one interval should be published as one entry")
+    void testPublishesWrittenIdsTogether() throws InterruptedException {
+        // Arrange
+        startBus(entry("p0", "other", List.of(), false));
+        bus.onShopItemChanged(ShopItemChangedEvent.created(item("1")));
+        bus.onShopItemChanged(ShopItemChangedEvent.updated(item("1"), item("1")));
+        bus.onShopItemChanged(ShopItemChangedEvent.deleted("2", item("2")));
+
+        // Act
+        bus.publish();
+        bus.publish();
+
+        // Assert
+        verify(repository, times(1)).publish(bus.node(), Set.of("1", "2"), false);
+    }
+
+    @Test
+    @DisplayName("too many ids or a failed publish should turn the next entry into a full invalidation")
+    void testFallsBackToFullInvalidation() throws InterruptedException {
+        // Arrange
+        startBus(entry("p0", "other", List.of(), false));
+        for (int i = 0; i < 4; i++) {
+            bus.onShopItemChanged(ShopItemChangedEvent.created(item(Integer.toString(i))));
+        }
+        bus.publish();
+        doThrow(new IllegalStateException("Mongo is down")).when(repository).publish(anyString(), anyCollection(),
+                eq(false));
+        bus.onShopItemChanged(ShopItemChangedEvent.created(item("9")));
+
+        // Act
+        bus.publish();
+        bus.publish();
+
+        // Assert
+        verify(repository, times(2)).publish(bus.node(), Set.of(), true);
+    }
+
+    @Test
+    @DisplayName("entries from other nodes should be raised locally, own entries ignored")
+    void testRaisesEntriesFromOtherNodes() throws InterruptedException {
+        // Arrange
+        startBus(entry("p0", "other", List.of(), false));
+
+        // Act
+        entries.add(entry("p1", "other", List.of("1", "2"), false));
+        entries.add(entry("p2", bus.node(), List.of("3"), false));
+        entries.add(entry("p3", "other", List.of(), true));
+
+        // Assert
+        assertThat(events.poll(5, TimeUnit.SECONDS)).isEqualTo(ShopItemInvalidatedEvent.of(Set.of("1", "2")));
+        assertThat(events.poll(5, TimeUnit.SECONDS)).isEqualTo(ShopItemInvalidatedEvent.everything());
+        assertThat(events.poll(100, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    @DisplayName("entries up to the position should be skipped whatever their ids")
+    void testSkipsEntriesUpToPosition() throws InterruptedException {
+        // Arrange & Act
+        startBus(entry("zz", "other", List.of("1"), false), entry("p0", "other", List.of("2"), false),
+                entry("aa", "other", List.of("3"), false));
+
+        // Assert
+        assertThat(events.poll(5, TimeUnit.SECONDS)).isEqualTo(ShopItemInvalidatedEvent.of(Set.of("3")));
+        assertThat(events.poll(100, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    @DisplayName("a bus that wrapped past the position should trigger a full invalidation")
+    void testFullInvalidationWhenPositionWasOverwritten() throws InterruptedException {
+        // Act
+        startBus(entry("p5", "other", List.of("1"), false));
+        ShopItemInvalidatedEvent wrapped = events.poll(5, TimeUnit.SECONDS);
+        entries.add(entry("p6", "other", List.of("2"), false));
+
+        // Assert
+        assertThat(wrapped).isEqualTo(ShopItemInvalidatedEvent.everything());
+        assertThat(events.poll(5, TimeUnit.SECONDS)).isEqualTo(ShopItemInvalidatedEvent.of(Set.of("2")));
+    }
+
+    @Test
+    @DisplayName("lag should be measured on the server's clock, not this node's")
+    void testMeasuresLagOnServerClock() throws InterruptedException {
+        // Arrange
+        serverClockAhead = Duration.ofMinutes(-1);
+        startBus(entry("p0", "other", List.of(), false));
+
+        // Act
+        entries.add(entry("p1", "other", List.of("1"), false));
+
+        // Assert
+        assertThat(events.poll(5, TimeUnit.SECONDS)).isEqualTo(ShopItemInvalidatedEvent.of(Set.of("1")));
+        assertThat(events.poll(100, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    @DisplayName("an entry older than maxLag should trigger a full invalidation instead")
+    void testFullInvalidationWhenBehind() throws InterruptedException {
+        // Arrange & Act
+        startBus(entry("p0", "other", List.of(), false),
+                new ShopItemInvalidation("p1", "other", List.of("1"), false, Instant.now().minusSeconds(60)));
+
+        // Assert
+        assertThat(events.poll(5, TimeUnit.SECONDS)).isEqualTo(ShopItemInvalidatedEvent.everything());
+        assertThat(events.poll(100, TimeUnit.MILLISECONDS)).isNull();
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.mapping.ShopItemJsonTranscoder;
+import com.example.onlineshop.model.ShopItem;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the mapped read path (BSON -> Document -> ShopItem -> Jackson) with the
+ * raw transcoding path used by GET /api/shopitems/raw. Run with the GC profiler to
+ * see the allocation difference:
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.example.onlineshop.ShopItemJsonTranscoderBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShopItemJsonTranscoderBenchmark {
+
+    @Param({"10000"})
+    private int items;
+
+    private final DocumentCodec documentCodec = new DocumentCodec();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private MappingMongoConverter converter;
+    private List<RawBsonDocument> documents;
+
+    @Setup
+    public void setUp() {
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        documents = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            ShopItem item = new ShopItem("Item " + i, "Description of item " + i, 10.0 + i, i % 500);
+            item.setId(new ObjectId().toHexString());
+            Document document = new Document();
+            converter.write(item, document);
+            documents.add(new RawBsonDocument(document, documentCodec));
+        }
+    }
+
+    @Benchmark
+    public void mappedRead() throws IOException {
+        List<ShopItem> mapped = new ArrayList<>(documents.size());
+        for (RawBsonDocument raw : documents) {
+            Document document = documentCodec.decode(raw.asBsonReader(), DecoderContext.builder().build());
+            mapped.add(converter.read(ShopItem.class, document));
+        }
+        objectMapper.writeValue(OutputStream.nullOutputStream(), mapped);
+    }
+
+    @Benchmark
+    public void rawTranscode() throws IOException {
+        ShopItemJsonTranscoder.writeArray(documents.iterator(), OutputStream.nullOutputStream());
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ShopItemJsonTranscoderBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.mapping.ShopItemJsonTranscoder;
+import com.example.onlineshop.model.ShopItem;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ShopItemJsonTranscoder Unit Tests")
+class ShopItemJsonTranscoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private MappingMongoConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+    }
+
+    @Test
+    @DisplayName("Transcoded JSON should match Jackson output of the mapped ShopItem")
+    void testTranscodedDocumentMatchesJackson() throws Exception {
+        // Arrange
+        ShopItem item = new ShopItem("Laptop", "Gaming laptop", 1200.00, 5);
+        item.setId(new ObjectId().toHexString());
+        item.setVersion(2L);
+
+        // Act
+        String json = transcode(List.of(toRaw(item)));
+
+        // Assert
+        JsonNode expected = objectMapper.readTree(objectMapper.writeValueAsString(List.of(item)));
+        assertThat(objectMapper.readTree(json)).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("_id should be renamed to id and _class should be dropped")
+    void testIdRenamedAndTypeHintDropped() throws Exception {
+        // Arrange
+        ObjectId id = new ObjectId();
+        Document document = new Document("_id", id)
+                .append("name", "Mouse")
+                .append("_class", ShopItem.class.getName());
+
+        // Act
+        String json = transcode(List.of(new RawBsonDocument(document, new DocumentCodec())));
+
+        // Assert
+        assertThat(json).isEqualTo("[{\"id\":\"" + id.toHexString() + "\",\"name\":\"Mouse\"}]");
+    }
+
+    @Test
+    @DisplayName("Nested documents and arrays should be transcoded field by field")
+    void testNestedValues() throws Exception {
+        // Arrange
+        Document document = new Document("_id", "plain-id")
+                .append("tags", Arrays.asList("a", 1, 2L, true, null))
+                .append("dimensions", new Document("_id", "kept").append("width", 1.5));
+
+        // Act
+        String json = transcode(List.of(new RawBsonDocument(document, new DocumentCodec())));
+
+        // Assert
+        assertThat(json).isEqualTo("[{\"id\":\"plain-id\",\"tags\":[\"a\",1,2,true,null],"
+                + "\"dimensions\":{\"_id\":\"kept\",\"width\":1.5}}]");
+    }
+
+    @Test
+    @DisplayName("Empty cursor should produce an empty JSON array")
+    void testEmpty() throws Exception {
+        assertThat(transcode(List.of())).isEqualTo("[]");
+    }
+
+    private RawBsonDocument toRaw(ShopItem item) {
+        Document document = new Document();
+        converter.write(item, document);
+        return new RawBsonDocument(document, new DocumentCodec());
+    }
+
+    private static String transcode(List<RawBsonDocument> documents) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ShopItemJsonTranscoder.writeArray(documents.iterator(), out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.controllers.ShopItemLeaderboardController;
+import com.example.onlineshop.model.LeaderboardEntry;
+import com.example.onlineshop.services.ShopItemLeaderboardService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ShopItemLeaderboardController.class)
+@DisplayName("ShopItemLeaderboardController Unit Tests")
+class ShopItemLeaderboardControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ShopItemLeaderboardService shopItemLeaderboardService;
+
+    @Test
+    @DisplayName("GET /api/shopitems/leaderboards/lowest-stock should return 20 entries by default")
+    void testLowestStock() throws Exception {
+        // Arrange
+        when(shopItemLeaderboardService.lowestStock(20))
+                .thenReturn(List.of(new LeaderboardEntry(1, "3", "Lamp", 39.99, 3, 119.97)));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/shopitems/leaderboards/lowest-stock"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].rank", is(1)))
+                .andExpect(jsonPath("$[0].quantity", is(3)));
+    }
+
+    @Test
+    @DisplayName("GET /api/shopitems/leaderboards/highest-value should pass the limit and reject bad ones")
+    void testHighestValue() throws Exception {
+        // Arrange
+        when(shopItemLeaderboardService.highestValue(5))
+                .thenReturn(List.of(new LeaderboardEntry(1, "2", "Laptop", 1200.00, 5, 6000.0)));
+        when(shopItemLeaderboardService.highestValue(500))
+                .thenThrow(new IllegalArgumentException("Limit must be between 1 and 100"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/shopitems/leaderboards/highest-value").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].value", is(6000.0)));
+        mockMvc.perform(get("/api/shopitems/leaderboards/highest-value").param("limit", "500"))
+                .andExpect(status().isBadRequest());
+    }
+}
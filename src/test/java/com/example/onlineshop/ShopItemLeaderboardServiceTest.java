@@ -0,0 +1,114 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.model.LeaderboardEntry;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.ShopItemLeaderboardService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ShopItemLeaderboardService Unit Tests")
+class ShopItemLeaderboardServiceTest {
+
+    @Mock
+    private ShopItemRepository shopItemRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ShopItemLeaderboardService leaderboardService;
+
+    @BeforeEach
+    void setUp() {
+        leaderboardService = new ShopItemLeaderboardService(shopItemRepository, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("rebuild should seed both leaderboards from the scan")
+    void testRebuild() {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<ShopItem> action = invocation.getArgument(0);
+            action.accept(item("1", "Mouse", 25.50, 20));
+            action.accept(item("2", "Laptop", 1200.00, 5));
+            action.accept(item("3", "Lamp", 39.99, 3));
+            return null;
+        }).when(shopItemRepository).forEachItem(any());
+
+        // Act
+        leaderboardService.rebuild();
+
+        // Assert
+        assertThat(leaderboardService.lowestStock(2)).extracting(LeaderboardEntry::id).containsExactly("3", "2");
+        assertThat(leaderboardService.highestValue(1))
+                .containsExactly(new LeaderboardEntry(1, "2", "Laptop", 1200.00, 5, 6000.0));
+        assertThat(meterRegistry.get("shopitems.leaderboards.size").gauge().value()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("change events should re-rank and remove items")
+    void testChangeEvents() {
+        // Arrange
+        leaderboardService.onShopItemChanged(ShopItemChangedEvent.created(item("1", "Mouse", 25.50, 20)));
+        leaderboardService.onShopItemChanged(ShopItemChangedEvent.created(item("2", "Laptop", 1200.00, 5)));
+
+        // Act
+        leaderboardService.onShopItemChanged(
+                ShopItemChangedEvent.updated(item("1", "Mouse", 25.50, 20), item("1", "Mouse", 25.50, 1)));
+        leaderboardService.onShopItemChanged(ShopItemChangedEvent.deleted("2", null));
+
+        // Assert
+        assertThat(leaderboardService.lowestStock(20)).extracting(LeaderboardEntry::quantity).containsExactly(1);
+        assertThat(leaderboardService.highestValue(20)).extracting(LeaderboardEntry::id).containsExactly("1");
+    }
+
+    @Test
+    @DisplayName("overlapping rebuilds should each replay the events published during their scan")
+    void testOverlappingRebuilds() {
+        // Arrange
+        AtomicInteger scans = new AtomicInteger();
+        doAnswer(invocation -> {
+            Consumer<ShopItem> action = invocation.getArgument(0);
+            action.accept(item("1", "Mouse", 25.50, 20));
+            action.accept(item("2", "Laptop", 1200.00, 5));
+            if (scans.incrementAndGet() == 1) {
+                leaderboardService.onShopItemChanged(ShopItemChangedEvent.deleted("1", null));
+                leaderboardService.rebuild();
+            }
+            return null;
+        }).when(shopItemRepository).forEachItem(any());
+
+        // Act
+        leaderboardService.rebuild();
+
+        // Assert
+        assertThat(scans.get()).isEqualTo(2);
+        assertThat(leaderboardService.lowestStock(20)).extracting(LeaderboardEntry::id).containsExactly("2");
+    }
+
+    @Test
+    @DisplayName("leaderboards should reject limits outside 1 to 100")
+    void testRejectsInvalidLimit() {
+        assertThatThrownBy(() -> leaderboardService.lowestStock(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> leaderboardService.highestValue(101)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ShopItem item(String id, String name, double price, int quantity) {
+        ShopItem item = new ShopItem(name, null, price, quantity);
+        item.setId(id);
+        return item;
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.cache.CircuitBreaker;
+import com.example.onlineshop.cache.ShopItemReadCache;
+import com.example.onlineshop.config.ShopItemReadProperties;
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.events.ShopItemInvalidatedEvent;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ShopItemReadCache Unit Tests")
+class ShopItemReadCacheTest {
+
+    private static final Duration DEADLINE = Duration.ofMillis(100);
+
+    private final ShopItemRepository repository = mock(ShopItemRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    /** Latency injected into every repository read, in milliseconds. */
+    private final AtomicLong latency = new AtomicLong();
+    private ShopItemReadCache cache;
+
+    @AfterEach
+    void tearDown() {
+        cache.close();
+    }
+
+    private ShopItemReadCache cache(Duration freshFor, Duration staleFor, CircuitBreaker breaker) {
+        ShopItemReadProperties properties = new ShopItemReadProperties(true, freshFor, staleFor, DEADLINE, DEADLINE,
+                100, 4, 20, 10, 0.5, Duration.ofSeconds(5));
+        cache = new ShopItemReadCache(repository, properties, meterRegistry, breaker);
+        return cache;
+    }
+
+    private void answerWith(ShopItem... items) {
+        when(repository.findAll()).thenAnswer(invocation -> {
+            Thread.sleep(latency.get());
+            return List.of(items);
+        });
+        for (ShopItem item : items) {
+            when(repository.findById(item.getId())).thenAnswer(invocation -> {
+                Thread.sleep(latency.get());
+                return Optional.of(item);
+            });
+        }
+    }
+
+    private static ShopItem item(String id, int quantity) {
+        ShopItem item = new ShopItem("Mouse", null, 25.50, quantity);
+        item.setId(id);
+        return item;
+    }
+
+    private double reads(String operation, String result) {
+        return meterRegistry.counter("shopitems.reads", "operation", operation, "result", result).count();
+    }
+
+    @Test
+    @DisplayName("fresh entries should be served without touching the repository")
+    void testServesFreshEntries() {
+        // Arrange
+        cache(Duration.ofHours(1), Duration.ofHours(1), new CircuitBreaker(20, 10, 0.5, Duration.ofSeconds(5)));
+        answerWith(item("1", 10));
+
+        // Act
+        cache.getItemById("1");
+        ShopItem second = cache.getItemById("1");
+
+        // Assert
+        assertThat(second).isEqualTo(item("1", 10));
+        verify(repository, times(1)).findById("1");
+        assertThat(reads("byId", "fresh")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("stale entries should be served while a background refresh replaces them")
+    void testServesStaleAndRevalidates() throws InterruptedException {
+        // Arrange
+        cache(Duration.ZERO, Duration.ofHours(1), new CircuitBreaker(20, 10, 0.5, Duration.ofSeconds(5)));
+        answerWith(item("1", 10));
+        cache.getAllItems();
+        CountDownLatch refreshed = new CountDownLatch(1);
+        when(repository.findAll()).thenAnswer(invocation -> {
+            refreshed.countDown();
+            return List.of(item("1", 7));
+        });
+
+        // Act
+        List<ShopItem> stale = cache.getAllItems();
+
+        // Assert
+        assertThat(stale).containsExactly(item("1", 10));
+        assertThat(refreshed.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 50 && cache.getAllItems().get(0).getQuantity() != 7; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(cache.getAllItems()).containsExactly(item("1", 7));
+    }
+
+    @Test
+    @DisplayName("a read past its deadline should fall back to the last good copy")
+    void testFallsBackWhenDeadlineExceeded() {
+        // Arrange
+        cache(Duration.ZERO, Duration.ZERO, new CircuitBreaker(20, 10, 0.5, Duration.ofSeconds(5)));
+        answerWith(item("1", 10));
+        cache.getItemById("1");
+        latency.set(1000);
+
+        // Act
+        long startedAt = System.nanoTime();
+        ShopItem fallback = cache.getItemById("1");
+        long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        // Assert
+        assertThat(fallback).isEqualTo(item("1", 10));
+        assertThat(waited).isLessThan(500);
+        assertThat(reads("byId", "fallback")).isEqualTo(1);
+        assertThat(meterRegistry.counter("shopitems.reads.deadline.exceeded").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a read past its deadline with nothing cached should fail")
+    void testFailsWithoutCachedCopy() {
+        // Arrange
+        cache(Duration.ZERO, Duration.ZERO, new CircuitBreaker(20, 10, 0.5, Duration.ofSeconds(5)));
+        answerWith(item("1", 10));
+        latency.set(1000);
+
+        // Act & Assert
+        assertThatThrownBy(() -> cache.getItemById("1")).isInstanceOf(QueryTimeoutException.class);
+        assertThat(reads("byId", "failed")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("an open breaker should serve the snapshot without calling the repository")
+    void testOpenBreakerServesSnapshot() {
+        // Arrange
+        cache(Duration.ZERO, Duration.ZERO, new CircuitBreaker(2, 2, 0.5, Duration.ofHours(1)));
+        answerWith(item("1", 10));
+        cache.getAllItems();
+        when(repository.findAll()).thenThrow(new IllegalStateException("Mongo is down"));
+        cache.getAllItems();
+        clearInvocations(repository);
+
+        // Act
+        List<ShopItem> served = cache.getAllItems();
+
+        // Assert
+        assertThat(cache.breakerState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(served).containsExactly(item("1", 10));
+        verifyNoInteractions(repository);
+        assertThat(meterRegistry.counter("shopitems.reads.breaker.rejected").count()).isEqualTo(1);
+        assertThat(meterRegistry.get("shopitems.reads.breaker.state").tag("state", "open").gauge().value())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("local writes should be applied to the cached copies, invalidations should expire them")
+    void testAppliesWritesAndInvalidations() {
+        // Arrange
+        cache(Duration.ofHours(1), Duration.ofHours(1), new CircuitBreaker(20, 10, 0.5, Duration.ofSeconds(5)));
+        answerWith(item("1", 10), item("2", 5));
+        cache.getAllItems();
+        cache.getItemById("1");
+
+        // Act
+        cache.onShopItemChanged(ShopItemChangedEvent.updated(item("1", 10), item("1", 9)));
+        cache.onShopItemChanged(ShopItemChangedEvent.deleted("2", item("2", 5)));
+        cache.onShopItemChanged(ShopItemChangedEvent.created(item("3", 1)));
+        List<ShopItem> patched = cache.getAllItems();
+        ShopItem one = cache.getItemById("1");
+        cache.onShopItemInvalidated(ShopItemInvalidatedEvent.of(Set.of("1")));
+        cache.getItemById("1");
+        cache.getAllItems();
+
+        // Assert
+        assertThat(patched).containsExactly(item("1", 9), item("3", 1));
+        assertThat(one).isEqualTo(item("1", 9));
+        verify(repository, times(2)).findById("1");
+        verify(repository, times(2)).findAll();
+    }
+
+    @Test
+    @DisplayName("a write during a load should expire only the entries it touched")
+    void testWriteDuringLoadExpiresOnlyItsItem() {
+        // Arrange
+        cache(Duration.ofHours(1), Duration.ofHours(1), new CircuitBreaker(20, 10, 0.5, Duration.ofSeconds(5)));
+        when(repository.findById("1")).thenAnswer(invocation -> {
+            cache.onShopItemChanged(ShopItemChangedEvent.created(item("2", 5)));
+            return Optional.of(item("1", 10));
+        });
+        when(repository.findById("3")).thenAnswer(invocation -> {
+            cache.onShopItemInvalidated(ShopItemInvalidatedEvent.of(Set.of("3")));
+            return Optional.of(item("3", 1));
+        });
+
+        // Act
+        cache.getItemById("1");
+        cache.getItemById("1");
+        cache.getItemById("3");
+        cache.getItemById("3");
+
+        // Assert
+        verify(repository, times(1)).findById("1");
+        verify(repository, times(2)).findById("3");
+        assertThat(reads("byId", "fresh")).isEqualTo(1);
+    }
+}
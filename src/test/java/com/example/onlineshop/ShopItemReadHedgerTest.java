@@ -0,0 +1,264 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.config.ShopItemHedgingProperties;
+import com.example.onlineshop.consistency.CausalConsistencyContext;
+import com.example.onlineshop.consistency.CausalToken;
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.ShopItemReadHedger;
+import com.mongodb.ReadPreference;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonTimestamp;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ShopItemReadHedger Unit Tests")
+class ShopItemReadHedgerTest {
+
+    private final ShopItemRepository repository = mock(ShopItemRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ShopItemReadHedger hedger;
+
+    @AfterEach
+    void tearDown() {
+        hedger.close();
+    }
+
+    private ShopItemReadHedger hedger(double maxHedgeRatio) {
+        return hedger(maxHedgeRatio, 8);
+    }
+
+    private ShopItemReadHedger hedger(double maxHedgeRatio, int maxConcurrentHedges) {
+        hedger = new ShopItemReadHedger(repository, new ShopItemHedgingProperties(true, 0.95, 100,
+                Duration.ofMillis(20), maxHedgeRatio, "secondaryPreferred", 8, maxConcurrentHedges), meterRegistry);
+        return hedger;
+    }
+
+    private static ShopItem item(int quantity) {
+        return item(quantity, 0L);
+    }
+
+    private static ShopItem item(int quantity, long version) {
+        ShopItem item = new ShopItem("Mouse", null, 25.50, quantity);
+        item.setId("1");
+        item.setVersion(version);
+        return item;
+    }
+
+    private void primaryTakes(long millis) {
+        when(repository.findById("1")).thenAnswer(invocation -> {
+            Thread.sleep(millis);
+            return Optional.of(item(10));
+        });
+    }
+
+    private double count(String name) {
+        return meterRegistry.counter(name).count();
+    }
+
+    @Test
+    @DisplayName("a read that answers within the delay should not be hedged")
+    void testFastReadIsNotHedged() {
+        // Arrange
+        hedger(1.0);
+        primaryTakes(0);
+
+        // Act
+        ShopItem found = hedger.findById("1");
+
+        // Assert
+        assertThat(found).isEqualTo(item(10));
+        verify(repository, never()).findById(any(), any(ReadPreference.class));
+        assertThat(count("shopitems.hedging.hedges")).isZero();
+    }
+
+    @Test
+    @DisplayName("a slow read should be hedged on the hedge read preference and the faster answer win")
+    void testSlowReadIsHedged() {
+        // Arrange
+        hedger(1.0);
+        primaryTakes(2000);
+        when(repository.findById("1", ReadPreference.secondaryPreferred())).thenReturn(item(9));
+
+        // Act
+        long startedAt = System.nanoTime();
+        ShopItem found = hedger.findById("1");
+        long tookMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+        // Assert
+        assertThat(found).isEqualTo(item(9));
+        assertThat(tookMillis).isLessThan(1000);
+        assertThat(count("shopitems.hedging.hedges")).isEqualTo(1);
+        assertThat(count("shopitems.hedging.wins")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a failed hedge should fall back to waiting for the first attempt")
+    void testFailedHedgeWaitsForPrimary() {
+        // Arrange
+        hedger(1.0);
+        primaryTakes(100);
+        when(repository.findById(eq("1"), any(ReadPreference.class)))
+                .thenThrow(new IllegalStateException("secondary down"));
+
+        // Act
+        ShopItem found = hedger.findById("1");
+
+        // Assert
+        assertThat(found).isEqualTo(item(10));
+        assertThat(count("shopitems.hedging.wins")).isZero();
+    }
+
+    @Test
+    @DisplayName("hedges should stay within maxHedgeRatio of reads")
+    void testHedgeBudget() {
+        // Arrange
+        hedger(0.25);
+        primaryTakes(30);
+        when(repository.findById("1", ReadPreference.secondaryPreferred())).thenReturn(item(9));
+
+        // Act
+        for (int i = 0; i < 8; i++) {
+            hedger.findById("1");
+        }
+
+        // Assert
+        assertThat(count("shopitems.hedging.hedges")).isEqualTo(2);
+        assertThat(count("shopitems.hedging.budget.exhausted")).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("a hedge that did not find the item should not win over the pending first attempt")
+    void testMissingHedgeWaitsForPrimary() {
+        // Arrange
+        hedger(1.0);
+        primaryTakes(200);
+        when(repository.findById("1", ReadPreference.secondaryPreferred())).thenReturn(null);
+
+        // Act
+        ShopItem found = hedger.findById("1");
+
+        // Assert
+        assertThat(found).isEqualTo(item(10));
+        assertThat(count("shopitems.hedging.wins")).isZero();
+        assertThat(count("shopitems.hedging.stale")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a hedge older than this node's last write should not win over the pending first attempt")
+    void testOlderHedgeWaitsForPrimary() {
+        // Arrange
+        hedger(1.0);
+        when(repository.findById("1")).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return Optional.of(item(10, 3L));
+        });
+        when(repository.findById("1", ReadPreference.secondaryPreferred())).thenReturn(item(11, 2L));
+        hedger.onShopItemChanged(ShopItemChangedEvent.updated(item(11, 2L), item(10, 3L)));
+
+        // Act
+        ShopItem found = hedger.findById("1");
+
+        // Assert
+        assertThat(found.getVersion()).isEqualTo(3L);
+        assertThat(count("shopitems.hedging.stale")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("hedges in flight should stay within maxConcurrentHedges")
+    void testHedgesHoldSlots() throws Exception {
+        // Arrange
+        hedger(1.0, 1);
+        primaryTakes(300);
+        CountDownLatch hedgeStarted = new CountDownLatch(1);
+        CountDownLatch releaseHedge = new CountDownLatch(1);
+        when(repository.findById("1", ReadPreference.secondaryPreferred())).thenAnswer(invocation -> {
+            hedgeStarted.countDown();
+            releaseHedge.await(5, TimeUnit.SECONDS);
+            return item(9);
+        });
+        ExecutorService callers = Executors.newSingleThreadExecutor();
+        try {
+            Future<ShopItem> first = callers.submit(() -> hedger.findById("1"));
+            assertThat(hedgeStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // Act
+            ShopItem second = hedger.findById("1");
+            releaseHedge.countDown();
+            first.get(5, TimeUnit.SECONDS);
+
+            // Assert
+            assertThat(second).isEqualTo(item(10));
+            assertThat(count("shopitems.hedging.hedges")).isEqualTo(1);
+            assertThat(count("shopitems.hedging.slots.exhausted")).isEqualTo(1);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("a read that fails before the delay should fail without hedging")
+    void testFastFailureIsNotHedged() {
+        // Arrange
+        hedger(1.0);
+        when(repository.findById("1")).thenThrow(new IllegalStateException("primary down"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> hedger.findById("1")).isInstanceOf(IllegalStateException.class);
+        assertThat(count("shopitems.hedging.hedges")).isZero();
+    }
+
+    @Test
+    @DisplayName("both attempts should wait for the causal token of the calling request")
+    void testAttemptsCarryCausalToken() {
+        // Arrange
+        hedger(1.0);
+        CausalConsistencyContext causalContext =
+                new CausalConsistencyContext("shop-causal-token", "Causal-Token", Duration.ofMinutes(5));
+        hedger.setCausalContext(causalContext);
+        CausalToken token = new CausalToken(new BsonTimestamp(200, 1), null);
+        List<CausalToken> seenByPrimary = new CopyOnWriteArrayList<>();
+        List<CausalToken> seenByHedge = new CopyOnWriteArrayList<>();
+        when(repository.findById("1")).thenAnswer(invocation -> {
+            seenByPrimary.add(causalContext.readAfter());
+            Thread.sleep(200);
+            return Optional.of(item(10));
+        });
+        when(repository.findById(eq("1"), any(ReadPreference.class))).thenAnswer(invocation -> {
+            seenByHedge.add(causalContext.readAfter());
+            return item(10);
+        });
+        causalContext.bind(token, new MockHttpServletResponse());
+
+        // Act
+        try {
+            hedger.findById("1");
+        } finally {
+            causalContext.unbind();
+        }
+
+        // Assert
+        assertThat(count("shopitems.hedging.hedges")).isEqualTo(1);
+        assertThat(seenByPrimary).containsExactly(token);
+        assertThat(seenByHedge).containsExactly(token);
+    }
+}
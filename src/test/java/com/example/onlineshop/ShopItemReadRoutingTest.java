@@ -0,0 +1,56 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.config.ShopItemReadRoutingConfig;
+import com.example.onlineshop.config.ShopItemReadRoutingProperties;
+import com.example.onlineshop.repositories.ShopItemReadRouting;
+import com.example.onlineshop.repositories.ShopItemReadRouting.Operation;
+import com.mongodb.ReadPreference;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ShopItemReadRouting Unit Tests")
+class ShopItemReadRoutingTest {
+
+    private final ShopItemReadRoutingConfig config = new ShopItemReadRoutingConfig();
+
+    @Test
+    @DisplayName("disabled routing should send every read to the primary")
+    void testDisabledRoutesToPrimary() {
+        // Act
+        ShopItemReadRouting routing = config.shopItemReadRouting(new ShopItemReadRoutingProperties(false, "nearest",
+                "nearest", "secondaryPreferred", Duration.ofSeconds(90)));
+
+        // Assert
+        for (Operation operation : Operation.values()) {
+            assertThat(routing.readPreference(operation)).isEqualTo(ReadPreference.primary());
+        }
+    }
+
+    @Test
+    @DisplayName("enabled routing should apply the configured preferences with the staleness bound")
+    void testRoutesPerOperation() {
+        // Act
+        ShopItemReadRouting routing = config.shopItemReadRouting(new ShopItemReadRoutingProperties(true, "nearest",
+                "primary", "secondaryPreferred", Duration.ofMinutes(2)));
+
+        // Assert
+        assertThat(routing.readPreference(Operation.LIST)).isEqualTo(ReadPreference.nearest(120, TimeUnit.SECONDS));
+        assertThat(routing.readPreference(Operation.SEARCH)).isEqualTo(ReadPreference.primary());
+        assertThat(routing.readPreference(Operation.ANALYTICS))
+                .isEqualTo(ReadPreference.secondaryPreferred(120, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("a staleness bound below what Mongo accepts should be refused at startup")
+    void testRejectsShortMaxStaleness() {
+        assertThatThrownBy(() -> config.shopItemReadRouting(new ShopItemReadRoutingProperties(true, "nearest",
+                "nearest", "secondaryPreferred", Duration.ofSeconds(10))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
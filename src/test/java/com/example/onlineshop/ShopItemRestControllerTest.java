@@ -2,6 +2,7 @@ package com.example.onlineshop;
 
 import com.example.onlineshop.controllers.ShopItemRestController;
 import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.services.InsertQueueFullException;
 import com.example.onlineshop.services.ShopItemService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,15 +11,19 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -85,6 +90,28 @@ class ShopItemRestControllerTest {
         verify(shopItemService, times(1)).getAllItems();
     }
 
+    @Test
+    @DisplayName("GET /api/shopitems/raw should stream the JSON written by the service")
+    void testAllShopItemsRaw() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("[{\"id\":\"1\",\"name\":\"Laptop\"}]".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(shopItemService).writeAllItemsAsJson(any(OutputStream.class));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/shopitems/raw"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is("1")))
+                .andExpect(jsonPath("$[0].name", is("Laptop")));
+
+        verify(shopItemService, times(1)).writeAllItemsAsJson(any(OutputStream.class));
+        verify(shopItemService, never()).getAllItems();
+    }
+
     @Test
     @DisplayName("GET /api/shopitems/{id} should return specific shop item")
     void testOneShopItem() throws Exception {
@@ -211,6 +238,82 @@ class ShopItemRestControllerTest {
         verify(shopItemService, times(1)).updateShopItemById(eq(itemId), any(ShopItem.class));
     }
 
+    @Test
+    @DisplayName("PUT /api/shopitems/update/{id} should return 409 when the version is stale")
+    void testUpdateShopItemConflict() throws Exception {
+        // Arrange
+        String itemId = "1";
+        ShopItem staleItem = new ShopItem("Laptop", "Stale edit", 1100.00, 5);
+        staleItem.setVersion(2L);
+
+        when(shopItemService.updateShopItemById(eq(itemId), any(ShopItem.class)))
+                .thenThrow(new OptimisticLockingFailureException("modified meanwhile"));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/shopitems/update/{id}", itemId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(staleItem)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status", is(409)))
+                .andExpect(jsonPath("$.detail", is("modified meanwhile")));
+
+        verify(shopItemService, times(1)).updateShopItemById(eq(itemId), argThat(item -> item.getVersion() == 2L));
+    }
+
+    @Test
+    @DisplayName("POST /api/shopitems/new should return 429 when the insert queue is full")
+    void testNewShopItemQueueFull() throws Exception {
+        // Arrange
+        ShopItem newItem = new ShopItem("Tablet", "Android tablet", 300.00, 8);
+        when(shopItemService.insertNewShopItem(any(ShopItem.class))).thenThrow(new InsertQueueFullException(16));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/shopitems/new")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(newItem)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.status", is(429)));
+    }
+
+    @Test
+    @DisplayName("POST /api/shopitems/adjust-quantity/{id} should return the incremented item")
+    void testAdjustQuantity() throws Exception {
+        // Arrange
+        ShopItem adjusted = new ShopItem("Laptop", "Gaming laptop", 1200.00, 2);
+        adjusted.setId("1");
+        when(shopItemService.adjustQuantity("1", -3)).thenReturn(adjusted);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/shopitems/adjust-quantity/1").param("delta", "-3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity", is(2)));
+
+        verify(shopItemService, times(1)).adjustQuantity("1", -3);
+    }
+
+    @Test
+    @DisplayName("POST /api/shopitems/adjust-quantity/{id} should answer 202 when the delta is written behind")
+    void testAdjustQuantityWriteBehind() throws Exception {
+        // Arrange
+        when(shopItemService.adjustQuantity("1", 4)).thenReturn(null);
+        when(shopItemService.isQuantityWriteBehind()).thenReturn(true);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/shopitems/adjust-quantity/1").param("delta", "4"))
+                .andExpect(status().isAccepted());
+    }
+
+    @Test
+    @DisplayName("POST /api/shopitems/adjust-quantity/{id} should answer 404 for a missing item")
+    void testAdjustQuantityMissingItem() throws Exception {
+        // Arrange
+        when(shopItemService.adjustQuantity("missing", 1)).thenReturn(null);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/shopitems/adjust-quantity/missing").param("delta", "1"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @DisplayName("DELETE /api/shopitems/delete/{id} should delete shop item")
     void testDeleteShopItem() throws Exception {
@@ -0,0 +1,77 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.controllers.ShopItemSearchController;
+import com.example.onlineshop.model.ShopItemSearchHit;
+import com.example.onlineshop.model.ShopItemSearchPage;
+import com.example.onlineshop.services.ShopItemSearchService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ShopItemSearchController.class)
+@DisplayName("ShopItemSearchController Unit Tests")
+class ShopItemSearchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ShopItemSearchService shopItemSearchService;
+
+    @Test
+    @DisplayName("GET /api/shopitems/search should return ranked hits")
+    void testSearch() throws Exception {
+        // Arrange
+        ShopItemSearchPage page = new ShopItemSearchPage("gaming", 1, 10, true, List.of(
+                new ShopItemSearchHit("1", "Gaming laptop", 1200.00, 5, 11.0),
+                new ShopItemSearchHit("2", "Mouse", 25.50, 20, 0.75)));
+        when(shopItemSearchService.search("gaming", 1, 10)).thenReturn(page);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/shopitems/search").param("q", "gaming").param("page", "1").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasMore", is(true)))
+                .andExpect(jsonPath("$.hits", hasSize(2)))
+                .andExpect(jsonPath("$.hits[0].id", is("1")))
+                .andExpect(jsonPath("$.hits[0].score", is(11.0)))
+                .andExpect(jsonPath("$.hits[0].description").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/shopitems/search should use the first page of 20 by default")
+    void testSearchDefaults() throws Exception {
+        // Arrange
+        when(shopItemSearchService.search("mouse", 0, 20))
+                .thenReturn(new ShopItemSearchPage("mouse", 0, 20, false, List.of()));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/shopitems/search").param("q", "mouse"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits", hasSize(0)));
+
+        verify(shopItemSearchService).search("mouse", 0, 20);
+    }
+
+    @Test
+    @DisplayName("GET /api/shopitems/search should return 400 for invalid arguments")
+    void testSearchBadRequest() throws Exception {
+        // Arrange
+        when(shopItemSearchService.search(" ", 0, 20))
+                .thenThrow(new IllegalArgumentException("Search query must not be blank"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/shopitems/search").param("q", " "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail", is("Search query must not be blank")));
+    }
+}
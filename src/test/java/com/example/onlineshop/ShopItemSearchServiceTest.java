@@ -0,0 +1,78 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.model.ShopItemSearchHit;
+import com.example.onlineshop.model.ShopItemSearchPage;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.ShopItemSearchService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ShopItemSearchService Unit Tests")
+class ShopItemSearchServiceTest {
+
+    @Mock
+    private ShopItemRepository shopItemRepository;
+
+    @InjectMocks
+    private ShopItemSearchService shopItemSearchService;
+
+    @Test
+    @DisplayName("search should fetch one extra hit to tell whether more pages exist")
+    void testSearchHasMore() {
+        // Arrange
+        List<ShopItemSearchHit> hits = List.of(
+                new ShopItemSearchHit("1", "Laptop", 1200.00, 5, 3.0),
+                new ShopItemSearchHit("2", "Laptop bag", 49.00, 10, 2.0),
+                new ShopItemSearchHit("3", "Laptop stand", 29.00, 7, 1.0));
+        when(shopItemRepository.searchText("laptop", 4, 3)).thenReturn(hits);
+
+        // Act
+        ShopItemSearchPage page = shopItemSearchService.search(" laptop ", 2, 2);
+
+        // Assert
+        assertThat(page.hasMore()).isTrue();
+        assertThat(page.hits()).extracting(ShopItemSearchHit::id).containsExactly("1", "2");
+    }
+
+    @Test
+    @DisplayName("search should report the last page")
+    void testSearchLastPage() {
+        // Arrange
+        when(shopItemRepository.searchText("mouse", 0, 21))
+                .thenReturn(List.of(new ShopItemSearchHit("2", "Mouse", 25.50, 20, 1.5)));
+
+        // Act
+        ShopItemSearchPage page = shopItemSearchService.search("mouse", 0, 20);
+
+        // Assert
+        assertThat(page.hasMore()).isFalse();
+        assertThat(page.hits()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("search should reject blank queries and out of range pages")
+    void testSearchRejectsInvalidArguments() {
+        assertThatThrownBy(() -> shopItemSearchService.search("  ", 0, 20))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> shopItemSearchService.search("mouse", -1, 20))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> shopItemSearchService.search("mouse", 0, 101))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> shopItemSearchService.search("mouse", Integer.MAX_VALUE / 50, 100))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(shopItemRepository, never()).searchText(anyString(), anyInt(), anyInt());
+    }
+}
@@ -1,16 +1,22 @@
 package com.example.onlineshop;
 
+import com.example.onlineshop.events.ShopItemChangedEvent;
 import com.example.onlineshop.model.ShopItem;
 import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.QuantityWriteBehindBuffer;
+import com.example.onlineshop.services.ShopItemInsertPipeline;
 import com.example.onlineshop.services.ShopItemService;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -18,6 +24,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -159,16 +166,13 @@ class ShopItemServiceTest {
     }
 
     @Test
-    @DisplayName("updateShopItemById should set correct id and save item")
+    @DisplayName("updateShopItemById without version should set correct id and replace unconditionally")
     void testUpdateShopItemById() {
         // Arrange
         String itemId = "1";
         ShopItem replacement = new ShopItem("Updated Laptop", "Updated description", 1500.00, 3);
 
-        ShopItem updatedItem = new ShopItem("Updated Laptop", "Updated description", 1500.00, 3);
-        updatedItem.setId(itemId);
-
-        when(shopItemRepository.save(any(ShopItem.class))).thenReturn(updatedItem);
+        when(shopItemRepository.replaceUnconditionally(any(ShopItem.class))).thenReturn(testItem1);
 
         // Act
         ShopItem result = shopItemService.updateShopItemById(itemId, replacement);
@@ -179,10 +183,12 @@ class ShopItemServiceTest {
         assertThat(result.getName()).isEqualTo("Updated Laptop");
         assertThat(result.getPrice()).isEqualTo(1500.00);
         
-        verify(shopItemRepository, times(1)).save(argThat(item -> 
+        verify(shopItemRepository, times(1)).replaceUnconditionally(argThat(item -> 
             item.getId().equals(itemId) && 
             item.getName().equals("Updated Laptop")
         ));
+        verify(shopItemRepository, never()).replaceIfVersionMatches(any());
+        verify(shopItemRepository, never()).save(any());
     }
 
     @Test
@@ -193,33 +199,197 @@ class ShopItemServiceTest {
         ShopItem replacement = new ShopItem("Item", "Description", 100.00, 5);
         replacement.setId("wrong-id");
 
-        ShopItem updatedItem = new ShopItem("Item", "Description", 100.00, 5);
-        updatedItem.setId(targetId);
-
-        when(shopItemRepository.save(any(ShopItem.class))).thenReturn(updatedItem);
-
         // Act
         ShopItem result = shopItemService.updateShopItemById(targetId, replacement);
 
         // Assert
         assertThat(result.getId()).isEqualTo(targetId);
-        verify(shopItemRepository, times(1)).save(argThat(item -> 
+        verify(shopItemRepository, times(1)).replaceUnconditionally(argThat(item -> 
             item.getId().equals(targetId)
         ));
     }
 
     @Test
-    @DisplayName("deleteShopItem should call repository deleteById")
+    @DisplayName("updateShopItemById with version should use the version-guarded replace")
+    void testUpdateShopItemByIdWithVersion() {
+        // Arrange
+        ShopItem replacement = new ShopItem("Laptop", "Refurbished laptop", 999.00, 2);
+        replacement.setVersion(3L);
+        when(shopItemRepository.replaceIfVersionMatches(any(ShopItem.class))).thenReturn(testItem1);
+
+        // Act
+        ShopItem result = shopItemService.updateShopItemById("1", replacement);
+
+        // Assert
+        assertThat(result.getId()).isEqualTo("1");
+        verify(shopItemRepository, times(1)).replaceIfVersionMatches(replacement);
+        verify(shopItemRepository, never()).replaceUnconditionally(any());
+    }
+
+    @Test
+    @DisplayName("updateShopItemById should propagate version conflicts")
+    void testUpdateShopItemByIdConflict() {
+        // Arrange
+        ShopItem replacement = new ShopItem("Laptop", "Stale edit", 999.00, 2);
+        replacement.setVersion(1L);
+        when(shopItemRepository.replaceIfVersionMatches(any(ShopItem.class)))
+                .thenThrow(new OptimisticLockingFailureException("conflict"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> shopItemService.updateShopItemById("1", replacement))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
+    @Test
+    @DisplayName("modifyShopItem should re-read and retry after a version conflict")
+    void testModifyShopItemRetriesOnConflict() {
+        // Arrange
+        when(shopItemRepository.findById("1")).thenAnswer(invocation -> Optional.of(copyOf(testItem1)));
+        when(shopItemRepository.replaceIfVersionMatches(any(ShopItem.class)))
+                .thenThrow(new OptimisticLockingFailureException("conflict"))
+                .thenReturn(testItem1);
+
+        // Act
+        ShopItem result = shopItemService.modifyShopItem("1", item -> item.setQuantity(item.getQuantity() - 2));
+
+        // Assert
+        assertThat(result.getQuantity()).isEqualTo(3);
+        verify(shopItemRepository, times(2)).findById("1");
+        verify(shopItemRepository, times(2)).replaceIfVersionMatches(any(ShopItem.class));
+    }
+
+    @Test
+    @DisplayName("modifyShopItem should give up after the maximum number of attempts")
+    void testModifyShopItemGivesUp() {
+        // Arrange
+        when(shopItemRepository.findById("1")).thenAnswer(invocation -> Optional.of(copyOf(testItem1)));
+        when(shopItemRepository.replaceIfVersionMatches(any(ShopItem.class)))
+                .thenThrow(new OptimisticLockingFailureException("conflict"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> shopItemService.modifyShopItem("1", item -> item.setPrice(1.00)))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        verify(shopItemRepository, times(5)).replaceIfVersionMatches(any(ShopItem.class));
+    }
+
+    @Test
+    @DisplayName("modifyShopItem should return null when the item does not exist")
+    void testModifyShopItemNotFound() {
+        // Arrange
+        when(shopItemRepository.findById("999")).thenReturn(Optional.empty());
+
+        // Act
+        ShopItem result = shopItemService.modifyShopItem("999", item -> item.setPrice(1.00));
+
+        // Assert
+        assertThat(result).isNull();
+        verify(shopItemRepository, never()).replaceIfVersionMatches(any());
+    }
+
+    @Test
+    @DisplayName("adjustQuantity should apply the delta with an atomic increment")
+    void testAdjustQuantity() {
+        // Arrange
+        ShopItem incremented = new ShopItem("Laptop", "Gaming laptop", 1200.00, 8);
+        incremented.setId("1");
+        when(shopItemRepository.incrementQuantity("1", 3)).thenReturn(incremented);
+
+        // Act
+        ShopItem result = shopItemService.adjustQuantity("1", 3);
+
+        // Assert
+        assertThat(result.getQuantity()).isEqualTo(8);
+        verify(shopItemRepository, times(1)).incrementQuantity("1", 3);
+        verify(shopItemRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("writes should publish change events with the previous and current state")
+    void testWritesPublishEvents() {
+        // Arrange
+        ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+        shopItemService.setApplicationEventPublisher(publisher);
+        ShopItem stored = copyOf(testItem1);
+        stored.setVersion(3L);
+        ShopItem incremented = copyOf(testItem1);
+        incremented.setQuantity(7);
+        incremented.setVersion(4L);
+        ShopItem replacement = new ShopItem("Laptop", "Updated laptop", 1100.00, 7);
+        when(shopItemRepository.save(testItem2)).thenReturn(testItem2);
+        when(shopItemRepository.incrementQuantity("1", 2)).thenReturn(incremented);
+        when(shopItemRepository.replaceUnconditionally(replacement)).thenReturn(incremented);
+
+        // Act
+        shopItemService.insertNewShopItem(testItem2);
+        shopItemService.adjustQuantity("1", 2);
+        shopItemService.updateShopItemById("1", replacement);
+        shopItemService.deleteShopItem("1");
+
+        // Assert
+        ArgumentCaptor<ShopItemChangedEvent> events = ArgumentCaptor.forClass(ShopItemChangedEvent.class);
+        verify(publisher, times(4)).publishEvent(events.capture());
+        assertThat(events.getAllValues()).extracting(ShopItemChangedEvent::type).containsExactly(
+                ShopItemChangedEvent.Type.CREATED, ShopItemChangedEvent.Type.UPDATED,
+                ShopItemChangedEvent.Type.UPDATED, ShopItemChangedEvent.Type.DELETED);
+        ShopItemChangedEvent increment = events.getAllValues().get(1);
+        assertThat(increment.previous().getQuantity()).isEqualTo(5);
+        assertThat(increment.previous().getVersion()).isEqualTo(3L);
+        assertThat(increment.current()).isSameAs(incremented);
+        assertThat(events.getAllValues().get(2).previous()).isSameAs(incremented);
+        assertThat(events.getAllValues().get(2).current()).isSameAs(replacement);
+        assertThat(events.getAllValues().get(3).id()).isEqualTo("1");
+    }
+
+    @Test
+    @DisplayName("insertNewShopItem should go through the insert pipeline when one is configured")
+    void testInsertNewShopItemThroughPipeline() {
+        // Arrange
+        ShopItemInsertPipeline pipeline = mock(ShopItemInsertPipeline.class);
+        shopItemService.setInsertPipeline(pipeline);
+        ShopItem newItem = new ShopItem("Tablet", "Android tablet", 300.00, 8);
+        newItem.setId("client-supplied");
+        when(pipeline.insert(newItem)).thenReturn(newItem);
+
+        // Act
+        ShopItem result = shopItemService.insertNewShopItem(newItem);
+
+        // Assert
+        assertThat(result).isSameAs(newItem);
+        assertThat(newItem.getId()).isNull();
+        verify(shopItemRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("adjustQuantity should hand the delta to the write-behind buffer when one is configured")
+    void testAdjustQuantityWriteBehind() {
+        // Arrange
+        QuantityWriteBehindBuffer buffer = mock(QuantityWriteBehindBuffer.class);
+        shopItemService.setQuantityWriteBehindBuffer(buffer);
+
+        // Act
+        ShopItem result = shopItemService.adjustQuantity("1", -4);
+
+        // Assert
+        assertThat(result).isNull();
+        verify(buffer).add("1", -4);
+        verifyNoInteractions(shopItemRepository);
+    }
+
+    @Test
+    @DisplayName("deleteShopItem should delete through the repository and publish the removed item")
     void testDeleteShopItem() {
         // Arrange
         String itemId = "1";
-        doNothing().when(shopItemRepository).deleteById(itemId);
+        ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+        shopItemService.setApplicationEventPublisher(publisher);
+        when(shopItemRepository.findAndDeleteById(itemId)).thenReturn(testItem1);
 
         // Act
         shopItemService.deleteShopItem(itemId);
 
         // Assert
-        verify(shopItemRepository, times(1)).deleteById(itemId);
+        verify(shopItemRepository, times(1)).findAndDeleteById(itemId);
+        verify(publisher).publishEvent(ShopItemChangedEvent.deleted(itemId, testItem1));
     }
 
     @Test
@@ -227,12 +397,19 @@ class ShopItemServiceTest {
     void testDeleteNonExistingShopItem() {
         // Arrange
         String itemId = "non-existing-id";
-        doNothing().when(shopItemRepository).deleteById(itemId);
+        when(shopItemRepository.findAndDeleteById(itemId)).thenReturn(null);
 
         // Act
         shopItemService.deleteShopItem(itemId);
 
         // Assert
-        verify(shopItemRepository, times(1)).deleteById(itemId);
+        verify(shopItemRepository, times(1)).findAndDeleteById(itemId);
+    }
+
+    private static ShopItem copyOf(ShopItem item) {
+        ShopItem copy = new ShopItem(item.getName(), item.getDescription(), item.getPrice(), item.getQuantity());
+        copy.setId(item.getId());
+        copy.setVersion(item.getVersion());
+        return copy;
     }
 }
@@ -94,15 +94,15 @@ public class ShopItemServiceWithMockitoTest {
     public void testUpdateShopItemById_setsIdCorrectly() {
         ShopItem itemToUpdate = new ShopItem("Tablet", "Updated tablet", 399.99, 12);
 
-        ShopItem savedItem = new ShopItem("Tablet", "Updated tablet", 399.99, 12);
-        savedItem.setId("5");
+        ShopItem previousItem = new ShopItem("Tablet", "Old tablet", 349.99, 15);
+        previousItem.setId("5");
 
-        when(shopItemRepository.save(any(ShopItem.class))).thenReturn(savedItem);
+        when(shopItemRepository.replaceUnconditionally(any(ShopItem.class))).thenReturn(previousItem);
 
         ShopItem result = shopItemService.updateShopItemById("5", itemToUpdate);
 
         ArgumentCaptor<ShopItem> captor = ArgumentCaptor.forClass(ShopItem.class);
-        verify(shopItemRepository).save(captor.capture());
+        verify(shopItemRepository).replaceUnconditionally(captor.capture());
 
         assertThat(captor.getValue().getId()).isEqualTo("5");
         assertThat(result.getId()).isEqualTo("5");
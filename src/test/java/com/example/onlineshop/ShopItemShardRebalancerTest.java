@@ -0,0 +1,152 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.config.ShopItemShardingProperties;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.repositories.ShardedShopItemRepository;
+import com.example.onlineshop.repositories.ShopItemShard;
+import com.example.onlineshop.repositories.ShopItemShardRingRepository;
+import com.example.onlineshop.sharding.ConsistentHashRing;
+import com.example.onlineshop.sharding.ShardPlacement;
+import com.example.onlineshop.sharding.ShopItemShardRebalancer;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.result.DeleteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ShopItemShardRebalancer Unit Tests")
+class ShopItemShardRebalancerTest {
+
+    private static final ConsistentHashRing TWO_SHARDS = new ConsistentHashRing(List.of("a", "b"), 64);
+    private static final ConsistentHashRing THREE_SHARDS = new ConsistentHashRing(List.of("a", "b", "c"), 64);
+
+    private final ShardedShopItemRepository repository = mock(ShardedShopItemRepository.class);
+    private final ShopItemShardRingRepository ringRepository = mock(ShopItemShardRingRepository.class);
+    private final Map<String, MongoCollection<BsonDocument>> collections = new HashMap<>();
+    private final Map<String, List<BsonDocument>> contents = new HashMap<>();
+    private ShopItemShardRebalancer rebalancer;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.placement()).thenReturn(new ShardPlacement(THREE_SHARDS, TWO_SHARDS));
+        for (String name : List.of("a", "b", "c")) {
+            contents.put(name, List.of());
+            collections.put(name, collection(name));
+            MongoTemplate template = mock(MongoTemplate.class);
+            when(template.getCollectionName(ShopItem.class)).thenReturn("shop_items");
+            @SuppressWarnings("unchecked")
+            MongoCollection<Document> documents = mock(MongoCollection.class);
+            when(template.getCollection("shop_items")).thenReturn(documents);
+            when(documents.withDocumentClass(BsonDocument.class)).thenReturn(collections.get(name));
+            when(repository.shard(name)).thenReturn(new ShopItemShard(name, null, template, null));
+        }
+        rebalancer = new ShopItemShardRebalancer(repository, ringRepository,
+                new ShopItemShardingProperties(true, Map.of(), 64, 4, true, 500, Duration.ofMinutes(2),
+                        Duration.ofSeconds(30)),
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        rebalancer.close();
+    }
+
+    /**
+     * A collection whose first scan returns the shard's contents and whose later
+     * scans and lookups find nothing.
+     */
+    @SuppressWarnings("unchecked")
+    private MongoCollection<BsonDocument> collection(String name) {
+        MongoCollection<BsonDocument> collection = mock(MongoCollection.class);
+        FindIterable<BsonDocument> find = mock(FindIterable.class);
+        when(collection.find(any(Bson.class))).thenReturn(find);
+        when(find.sort(any())).thenReturn(find);
+        when(find.limit(anyInt())).thenReturn(find);
+        when(find.into(any())).thenAnswer(invocation -> {
+            List<BsonDocument> into = invocation.getArgument(0);
+            into.addAll(contents.put(name, List.of()));
+            return into;
+        });
+        when(collection.deleteOne(any(Bson.class))).thenReturn(DeleteResult.acknowledged(0));
+        return collection;
+    }
+
+    private static String movingFromAToC() {
+        while (true) {
+            String id = new ObjectId().toHexString();
+            if (TWO_SHARDS.shardFor(id).equals("a") && THREE_SHARDS.shardFor(id).equals("c")) {
+                return id;
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("a node should not move anything while another node holds the rebalance lease")
+    void testWaitsForLease() {
+        // Arrange
+        when(ringRepository.acquireRebalanceLease(anyString(), any())).thenReturn(false);
+
+        // Act
+        boolean completed = rebalancer.rebalance();
+
+        // Assert
+        assertThat(completed).isFalse();
+        verify(repository, never()).shard(anyString());
+        verify(ringRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("a node that loses the lease should stop without saving the balanced placement")
+    void testStopsWhenLeaseIsLost() {
+        // Arrange
+        when(ringRepository.acquireRebalanceLease(anyString(), any())).thenReturn(true, true, false);
+
+        // Act
+        boolean completed = rebalancer.rebalance();
+
+        // Assert
+        assertThat(completed).isFalse();
+        verify(ringRepository, never()).save(any());
+        verify(ringRepository).releaseRebalanceLease(anyString());
+    }
+
+    @Test
+    @DisplayName("an item deleted from the source during its move should only lose the copy that was written")
+    void testVanishedSourceDeletesOnlyTheCopy() {
+        // Arrange
+        when(ringRepository.acquireRebalanceLease(anyString(), any())).thenReturn(true);
+        BsonDocument item = new BsonDocument("_id", new BsonString(movingFromAToC()))
+                .append("name", new BsonString("Mouse"));
+        contents.put("a", List.of(item));
+
+        // Act
+        boolean completed = rebalancer.rebalance();
+
+        // Assert
+        assertThat(completed).isTrue();
+        verify(collections.get("c")).replaceOne(any(Bson.class), eq(item), any());
+        verify(collections.get("c")).deleteOne(item);
+        verify(collections.get("c"), times(1)).deleteOne(any(Bson.class));
+        verify(ringRepository).save(ShardPlacement.of(THREE_SHARDS));
+    }
+}
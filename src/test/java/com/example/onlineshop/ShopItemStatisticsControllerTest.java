@@ -0,0 +1,48 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.controllers.ShopItemStatisticsController;
+import com.example.onlineshop.model.PriceBucket;
+import com.example.onlineshop.model.ShopItemStatistics;
+import com.example.onlineshop.services.ShopItemStatisticsService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ShopItemStatisticsController.class)
+@DisplayName("ShopItemStatisticsController Unit Tests")
+class ShopItemStatisticsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ShopItemStatisticsService shopItemStatisticsService;
+
+    @Test
+    @DisplayName("GET /api/shopitems/statistics should return totals and the price histogram")
+    void testGetStatistics() throws Exception {
+        // Arrange
+        when(shopItemStatisticsService.getStatistics()).thenReturn(new ShopItemStatistics(2, 25, 6510.0, 5, 1, List.of(
+                new PriceBucket(0.0, 100.0, 1, 20, 510.0),
+                new PriceBucket(100.0, null, 1, 5, 6000.0))));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/shopitems/statistics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemCount", is(2)))
+                .andExpect(jsonPath("$.totalStockValue", is(6510.0)))
+                .andExpect(jsonPath("$.lowStockCount", is(1)))
+                .andExpect(jsonPath("$.priceBuckets", hasSize(2)))
+                .andExpect(jsonPath("$.priceBuckets[1].upperBound").value(nullValue()));
+    }
+}
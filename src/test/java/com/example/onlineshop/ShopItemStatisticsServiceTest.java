@@ -0,0 +1,131 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.config.ShopItemStatisticsProperties;
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.model.PriceBucket;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.model.ShopItemStatistics;
+import com.example.onlineshop.repositories.ShopItemRepository;
+import com.example.onlineshop.services.ShopItemStatisticsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ShopItemStatisticsService Unit Tests")
+class ShopItemStatisticsServiceTest {
+
+    private static final List<Double> BOUNDARIES = List.of(0.0, 50.0, 100.0);
+
+    @Mock
+    private ShopItemRepository shopItemRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ShopItemStatisticsService service(Duration maxAge) {
+        return service(maxAge, Duration.ZERO);
+    }
+
+    private ShopItemStatisticsService service(Duration maxAge, Duration minRecomputeInterval) {
+        return new ShopItemStatisticsService(shopItemRepository,
+                new ShopItemStatisticsProperties(BOUNDARIES, 5, maxAge, minRecomputeInterval), meterRegistry);
+    }
+
+    private static ShopItemStatistics statistics(long itemCount) {
+        return new ShopItemStatistics(itemCount, 10, 255.0, 5, 0, List.of(
+                new PriceBucket(0.0, 50.0, itemCount, 10, 255.0),
+                new PriceBucket(50.0, 100.0, 0, 0, 0.0),
+                new PriceBucket(100.0, null, 0, 0, 0.0)));
+    }
+
+    @Test
+    @DisplayName("getStatistics should aggregate once and serve repeated reads from the cache")
+    void testCachesUntilChanged() {
+        // Arrange
+        ShopItemStatisticsService service = service(Duration.ofMinutes(1));
+        when(shopItemRepository.aggregateStatistics(BOUNDARIES, 5)).thenReturn(statistics(1));
+
+        // Act
+        ShopItemStatistics first = service.getStatistics();
+        ShopItemStatistics second = service.getStatistics();
+
+        // Assert
+        assertThat(second).isSameAs(first);
+        verify(shopItemRepository, times(1)).aggregateStatistics(BOUNDARIES, 5);
+        assertThat(meterRegistry.counter("shopitems.statistics.cache", "result", "hit").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("getStatistics should aggregate again after a change event")
+    void testChangeEventInvalidates() {
+        // Arrange
+        ShopItemStatisticsService service = service(Duration.ofMinutes(1));
+        when(shopItemRepository.aggregateStatistics(BOUNDARIES, 5)).thenReturn(statistics(1), statistics(2));
+        ShopItem item = new ShopItem("Mouse", "Wireless mouse", 25.50, 10);
+        item.setId("1");
+
+        // Act
+        service.getStatistics();
+        service.onShopItemChanged(ShopItemChangedEvent.created(item));
+        ShopItemStatistics afterChange = service.getStatistics();
+
+        // Assert
+        assertThat(afterChange.itemCount()).isEqualTo(2);
+        verify(shopItemRepository, times(2)).aggregateStatistics(BOUNDARIES, 5);
+    }
+
+    @Test
+    @DisplayName("getStatistics should serve the previous result for change events within the recompute interval")
+    void testCoalescesChangeEvents() {
+        // Arrange
+        ShopItemStatisticsService service = service(Duration.ofMinutes(1), Duration.ofMinutes(1));
+        when(shopItemRepository.aggregateStatistics(BOUNDARIES, 5)).thenReturn(statistics(1));
+        ShopItem item = new ShopItem("Mouse", "Wireless mouse", 25.50, 10);
+        item.setId("1");
+        service.getStatistics();
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            service.onShopItemChanged(ShopItemChangedEvent.created(item));
+            service.getStatistics();
+        }
+
+        // Assert
+        verify(shopItemRepository, times(1)).aggregateStatistics(BOUNDARIES, 5);
+        assertThat(meterRegistry.counter("shopitems.statistics.cache", "result", "hit").count()).isEqualTo(100.0);
+    }
+
+    @Test
+    @DisplayName("getStatistics should not cache when the maximum age is zero")
+    void testMaxAgeExpires() {
+        // Arrange
+        ShopItemStatisticsService service = service(Duration.ZERO);
+        when(shopItemRepository.aggregateStatistics(BOUNDARIES, 5)).thenReturn(statistics(1));
+
+        // Act
+        service.getStatistics();
+        service.getStatistics();
+
+        // Assert
+        verify(shopItemRepository, times(2)).aggregateStatistics(BOUNDARIES, 5);
+    }
+
+    @Test
+    @DisplayName("constructor should reject price boundaries that are not increasing")
+    void testRejectsUnsortedBoundaries() {
+        assertThatThrownBy(() -> new ShopItemStatisticsService(shopItemRepository,
+                new ShopItemStatisticsProperties(List.of(0.0, 100.0, 50.0), 5, Duration.ofMinutes(1), Duration.ZERO),
+                meterRegistry))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -260,4 +260,36 @@ class ShopItemTest {
         // Assert
         assertThat(item.getQuantity()).isEqualTo(1000000);
     }
+
+    @Test
+    @DisplayName("version should default to null and be settable")
+    void testVersion() {
+        // Arrange
+        ShopItem item = new ShopItem("Item", "Description", 10.00, 1);
+
+        // Act
+        Long initial = item.getVersion();
+        item.setVersion(3L);
+
+        // Assert
+        assertThat(initial).isNull();
+        assertThat(item.getVersion()).isEqualTo(3L);
+        assertThat(item.toString()).contains("version=3");
+    }
+
+    @Test
+    @DisplayName("equals should ignore the version")
+    void testEqualsIgnoresVersion() {
+        // Arrange
+        ShopItem item1 = new ShopItem("Laptop", "Gaming", 1200.00, 5);
+        item1.setId("1");
+        item1.setVersion(1L);
+
+        ShopItem item2 = new ShopItem("Laptop", "Gaming", 1200.00, 5);
+        item2.setId("1");
+        item2.setVersion(2L);
+
+        // Act & Assert
+        assertThat(item1).isEqualTo(item2).hasSameHashCodeAs(item2);
+    }
 }
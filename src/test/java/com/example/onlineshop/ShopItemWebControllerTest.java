@@ -2,12 +2,14 @@ package com.example.onlineshop;
 
 import com.example.onlineshop.controllers.ShopItemWebController;
 import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.services.InsertQueueFullException;
 import com.example.onlineshop.services.ShopItemService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -17,6 +19,7 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -234,6 +237,53 @@ class ShopItemWebControllerTest {
         verify(shopItemService, never()).insertNewShopItem(any());
     }
 
+    @Test
+    @DisplayName("POST /save should show the latest item with 409 when the version is stale")
+    void testSaveExistingItemConflict() throws Exception {
+        // Arrange
+        String itemId = "1";
+        when(shopItemService.updateShopItemById(eq(itemId), any(ShopItem.class)))
+                .thenThrow(new OptimisticLockingFailureException("modified meanwhile"));
+        when(shopItemService.getItemById(itemId)).thenReturn(testItem1);
+
+        // Act & Assert
+        mockMvc.perform(post("/save")
+                        .param("id", itemId)
+                        .param("version", "1")
+                        .param("name", "Stale Laptop")
+                        .param("description", "Stale description")
+                        .param("price", "1000.00")
+                        .param("quantity", "1"))
+                .andExpect(status().isConflict())
+                .andExpect(view().name("edit"))
+                .andExpect(model().attribute("shopitem", testItem1))
+                .andExpect(model().attribute("message", containsString("changed by someone else")));
+
+        verify(shopItemService, times(1)).updateShopItemById(eq(itemId), argThat(item -> item.getVersion() == 1L));
+        verify(shopItemService, times(1)).getItemById(itemId);
+    }
+
+    @Test
+    @DisplayName("POST /save should show the submitted item with 429 when the insert queue is full")
+    void testSaveNewItemInsertQueueFull() throws Exception {
+        // Arrange
+        when(shopItemService.insertNewShopItem(any(ShopItem.class))).thenThrow(new InsertQueueFullException(16));
+
+        // Act & Assert
+        mockMvc.perform(post("/save")
+                        .param("id", "")
+                        .param("name", "Monitor")
+                        .param("description", "4K monitor")
+                        .param("price", "500.00")
+                        .param("quantity", "8"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(view().name("new"))
+                .andExpect(model().attribute("shopitem", allOf(
+                        hasProperty("name", is("Monitor")),
+                        hasProperty("quantity", is(8)))))
+                .andExpect(model().attribute("message", containsString("please submit it again")));
+    }
+
     @Test
     @DisplayName("POST /save should handle item with zero quantity")
     void testSaveItemWithZeroQuantity() throws Exception {
@@ -0,0 +1,149 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.services.ShopItemWriteSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ShopItemWriteSerializer Unit Tests")
+class ShopItemWriteSerializerTest {
+
+    private final ShopItemWriteSerializer serializer = new ShopItemWriteSerializer();
+    private final ExecutorService executor = Executors.newFixedThreadPool(16);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("concurrent deltas for one id should be folded into fewer increments without losing any")
+    void testCombinesDeltasForSameId() throws Exception {
+        // Arrange
+        AtomicInteger stock = new AtomicInteger(100);
+        AtomicInteger increments = new AtomicInteger();
+        CountDownLatch firstIncrementStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstIncrement = new CountDownLatch(1);
+
+        // Act
+        Future<ShopItem> first = executor.submit(() -> serializer.combineQuantityDelta("1", -1, delta -> {
+            firstIncrementStarted.countDown();
+            await(releaseFirstIncrement);
+            return applyDelta(stock, increments, delta);
+        }));
+        assertThat(firstIncrementStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        List<Future<ShopItem>> queued = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            queued.add(executor.submit(() -> serializer.combineQuantityDelta("1", -1,
+                    delta -> applyDelta(stock, increments, delta))));
+        }
+        Thread.sleep(200);
+        releaseFirstIncrement.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        for (Future<ShopItem> future : queued) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        // Assert
+        assertThat(stock.get()).isEqualTo(89);
+        assertThat(increments.get()).isBetween(2, 10);
+        assertThat(serializer.activeIds()).isZero();
+    }
+
+    @Test
+    @DisplayName("writes to different ids should run in parallel")
+    void testDifferentIdsRunInParallel() throws Exception {
+        // Arrange
+        CountDownLatch bothInside = new CountDownLatch(2);
+
+        // Act
+        Future<Boolean> a = executor.submit(() -> serializer.serialize("a", () -> {
+            bothInside.countDown();
+            return await(bothInside);
+        }));
+        Future<Boolean> b = executor.submit(() -> serializer.serialize("b", () -> {
+            bothInside.countDown();
+            return await(bothInside);
+        }));
+
+        // Assert
+        assertThat(a.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(b.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("writes to the same id should never overlap")
+    void testSameIdIsSerialized() throws Exception {
+        // Arrange
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        List<Future<Integer>> futures = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            futures.add(executor.submit(() -> serializer.serialize("same", () -> {
+                maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                Thread.onSpinWait();
+                return inside.decrementAndGet();
+            })));
+        }
+        for (Future<Integer> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        // Assert
+        assertThat(maxInside.get()).isEqualTo(1);
+        assertThat(serializer.activeIds()).isZero();
+    }
+
+    @Test
+    @DisplayName("a failed increment should fail every delta folded into it")
+    void testFailurePropagatesToCaller() {
+        // Act & Assert
+        assertThatThrownBy(() -> serializer.combineQuantityDelta("1", 5, delta -> {
+            throw new IllegalStateException("mongo down");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("mongo down");
+        assertThat(serializer.activeIds()).isZero();
+    }
+
+    @Test
+    @DisplayName("an error thrown by the increment should reach the caller instead of leaving it waiting")
+    void testErrorPropagatesToCaller() {
+        // Act & Assert
+        assertThatThrownBy(() -> serializer.combineQuantityDelta("1", 5, delta -> {
+            throw new OutOfMemoryError("heap");
+        })).isInstanceOf(OutOfMemoryError.class).hasMessage("heap");
+        assertThat(serializer.activeIds()).isZero();
+    }
+
+    private static ShopItem applyDelta(AtomicInteger stock, AtomicInteger increments, int delta) {
+        increments.incrementAndGet();
+        ShopItem item = new ShopItem("Item", "Description", 1.00, stock.addAndGet(delta));
+        item.setId("1");
+        return item;
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
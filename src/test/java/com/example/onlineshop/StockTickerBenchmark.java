@@ -0,0 +1,98 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.config.StockTickerProperties;
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.ticker.StockTicker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of one ticker interval by subscriber count: a burst of quantity changes
+ * is recorded and flushed to every session, each watching one of ten hot items and
+ * two random ones out of 10,000. Frames go to a Blackhole, so the numbers cover the
+ * ticker's fan-out and serialization, not the STOMP broker or socket writes. The
+ * time per operation divided by the interval is the share of one core the ticker
+ * needs. Run the same way as {@link ShopItemJsonTranscoderBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StockTickerBenchmark {
+
+    private static final int ITEMS = 10_000;
+    private static final int CHANGES_PER_INTERVAL = 2_000;
+
+    @Param({"1000", "10000", "100000"})
+    public int sessions;
+
+    private StockTicker ticker;
+    private ShopItemChangedEvent[] events;
+    private Blackhole blackhole;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        ticker = new StockTicker((sessionId, frame) -> this.blackhole.consume(frame), new ObjectMapper(),
+                new StockTickerProperties(Duration.ofHours(1), 50), new SimpleMeterRegistry());
+        Random random = new Random(42);
+        for (int s = 0; s < sessions; s++) {
+            ticker.watch("session-" + s, List.of(Integer.toString(random.nextInt(10)),
+                    Integer.toString(random.nextInt(ITEMS)), Integer.toString(random.nextInt(ITEMS))));
+        }
+        events = new ShopItemChangedEvent[CHANGES_PER_INTERVAL];
+        for (int i = 0; i < events.length; i++) {
+            String id = Integer.toString(i % 10 == 0 ? random.nextInt(10) : random.nextInt(ITEMS));
+            events[i] = ShopItemChangedEvent.updated(item(id, 100), item(id, 99));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ticker.close();
+    }
+
+    private static ShopItem item(String id, int quantity) {
+        ShopItem item = new ShopItem("Mouse", null, 25.50, quantity);
+        item.setId(id);
+        return item;
+    }
+
+    @Benchmark
+    public void interval() {
+        for (ShopItemChangedEvent event : events) {
+            ticker.onShopItemChanged(event);
+        }
+        ticker.flush();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(StockTickerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
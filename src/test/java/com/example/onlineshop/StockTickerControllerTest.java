@@ -0,0 +1,59 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.controllers.StockTickerController;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.services.ShopItemService;
+import com.example.onlineshop.ticker.StockTick;
+import com.example.onlineshop.ticker.StockTicker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockTickerController Unit Tests")
+class StockTickerControllerTest {
+
+    @Mock
+    private StockTicker stockTicker;
+
+    @Mock
+    private ShopItemService shopItemService;
+
+    @InjectMocks
+    private StockTickerController stockTickerController;
+
+    @Test
+    @DisplayName("watch should register the ids and reply with the current ticks of existing items")
+    void testWatchRepliesWithCurrentTicks() {
+        // Arrange
+        ShopItem mouse = new ShopItem("Mouse", "Wireless mouse", 25.50, 20);
+        mouse.setId("1");
+        when(shopItemService.getItemById("1")).thenReturn(mouse);
+        when(shopItemService.getItemById("2")).thenReturn(null);
+
+        // Act
+        List<StockTick> ticks = stockTickerController.watch(List.of("1", "2"), "session-1");
+
+        // Assert
+        verify(stockTicker).watch("session-1", List.of("1", "2"));
+        assertThat(ticks).containsExactly(new StockTick("1", 25.50, 20, false));
+    }
+
+    @Test
+    @DisplayName("unwatch should remove the ids from the session")
+    void testUnwatch() {
+        // Act
+        stockTickerController.unwatch(List.of("1"), "session-1");
+
+        // Assert
+        verify(stockTicker).unwatch("session-1", List.of("1"));
+    }
+}
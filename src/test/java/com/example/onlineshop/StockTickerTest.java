@@ -0,0 +1,132 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.config.StockTickerProperties;
+import com.example.onlineshop.events.ShopItemChangedEvent;
+import com.example.onlineshop.model.ShopItem;
+import com.example.onlineshop.ticker.StockTicker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("StockTicker Unit Tests")
+class StockTickerTest {
+
+    private final Map<String, List<String>> sent = new ConcurrentHashMap<>();
+    private StockTicker ticker;
+
+    @BeforeEach
+    void setUp() {
+        // An hour long interval keeps the scheduler out of the way; the tests flush explicitly.
+        ticker = new StockTicker(
+                (sessionId, frame) -> sent.computeIfAbsent(sessionId, key -> new CopyOnWriteArrayList<>())
+                        .add(new String(frame, StandardCharsets.UTF_8)),
+                new ObjectMapper(), new StockTickerProperties(Duration.ofHours(1), 3), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ticker.close();
+    }
+
+    private static ShopItem item(String id, double price, int quantity) {
+        ShopItem item = new ShopItem("Mouse", null, price, quantity);
+        item.setId(id);
+        return item;
+    }
+
+    @Test
+    @DisplayName("a session should get one frame per flush with the latest tick of each watched item")
+    void testCoalescesPerSession() {
+        // Arrange
+        ticker.watch("s1", List.of("1", "2"));
+        ticker.watch("s2", List.of("2"));
+
+        // Act
+        ticker.onShopItemChanged(ShopItemChangedEvent.updated(item("1", 10.0, 5), item("1", 10.0, 4)));
+        ticker.onShopItemChanged(ShopItemChangedEvent.updated(item("1", 10.0, 4), item("1", 10.0, 3)));
+        ticker.onShopItemChanged(ShopItemChangedEvent.updated(item("2", 7.0, 1), item("2", 6.5, 1)));
+        ticker.onShopItemChanged(ShopItemChangedEvent.updated(item("3", 1.0, 1), item("3", 1.0, 0)));
+        ticker.flush();
+
+        // Assert
+        assertThat(sent.get("s1")).hasSize(1);
+        assertThat(sent.get("s1").get(0))
+                .contains("{\"id\":\"1\",\"price\":10.0,\"quantity\":3,\"deleted\":false}")
+                .contains("{\"id\":\"2\",\"price\":6.5,\"quantity\":1,\"deleted\":false}");
+        assertThat(sent.get("s2")).containsExactly("[{\"id\":\"2\",\"price\":6.5,\"quantity\":1,\"deleted\":false}]");
+    }
+
+    @Test
+    @DisplayName("changes that leave price and quantity alone should not be pushed")
+    void testIgnoresOtherChanges() {
+        // Arrange
+        ticker.watch("s1", List.of("1"));
+        ShopItem renamed = item("1", 10.0, 5);
+        renamed.setName("Gaming mouse");
+
+        // Act
+        ticker.onShopItemChanged(ShopItemChangedEvent.updated(item("1", 10.0, 5), renamed));
+        ticker.flush();
+
+        // Assert
+        assertThat(sent).isEmpty();
+    }
+
+    @Test
+    @DisplayName("deleting a watched item should push it once as deleted with no stock")
+    void testPushesDeletion() {
+        // Arrange
+        ticker.watch("s1", List.of("1"));
+
+        // Act
+        ticker.onShopItemChanged(ShopItemChangedEvent.deleted("1", item("1", 10.0, 5)));
+        ticker.flush();
+        ticker.flush();
+
+        // Assert
+        assertThat(sent.get("s1")).containsExactly("[{\"id\":\"1\",\"price\":10.0,\"quantity\":0,\"deleted\":true}]");
+    }
+
+    @Test
+    @DisplayName("unwatched items and disconnected sessions should receive nothing")
+    void testUnwatchAndDisconnect() {
+        // Arrange
+        ticker.watch("s1", List.of("1", "2"));
+        ticker.watch("s2", List.of("1"));
+        ticker.unwatch("s1", List.of("1"));
+        ticker.disconnect("s2");
+
+        // Act
+        ticker.onShopItemChanged(ShopItemChangedEvent.updated(item("1", 10.0, 5), item("1", 10.0, 4)));
+        ticker.flush();
+
+        // Assert
+        assertThat(sent).isEmpty();
+        assertThat(ticker.sessionCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("watching more than maxItemsPerSession items should be rejected")
+    void testLimitsItemsPerSession() {
+        // Arrange
+        ticker.watch("s1", List.of("1", "2"));
+
+        // Act & Assert
+        ticker.watch("s1", List.of("2", "3"));
+        assertThatThrownBy(() -> ticker.watch("s1", List.of("4")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.search.TrigramIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries per second of {@link TrigramIndex} over a synthetic catalog (a brand-like
+ * word, an adjective and a product noun per name, descriptions mixing common and rare
+ * words), single-threaded and with four threads. Setup prints the estimated index size and the heap growth
+ * after building it. Run the same way as {@link ShopItemJsonTranscoderBenchmark};
+ * the 1M item case needs about 4 GB of heap (-jvmArgs -Xmx4g).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TrigramIndexBenchmark {
+
+    private static final String[] ADJECTIVES = {"wireless", "gaming", "ergonomic", "compact", "portable",
+            "smart", "mechanical", "silent", "waterproof", "vintage", "digital", "solar", "premium", "mini",
+            "foldable", "rugged", "bluetooth", "magnetic", "adjustable", "rechargeable"};
+    private static final String[] NOUNS = {"keyboard", "mouse", "headset", "speaker", "lamp", "charger",
+            "monitor", "webcam", "router", "backpack", "watch", "camera", "drone", "tablet", "cable",
+            "microphone", "projector", "thermostat", "scanner", "printer"};
+    private static final String[] COMMON_WORDS = {"with", "long", "battery", "life", "for", "office",
+            "travel", "and", "home", "use", "durable", "aluminium", "body", "fast", "charging", "low",
+            "latency", "premium", "sound", "compatible", "most", "devices", "lightweight", "design"};
+    private static final String[] SYLLABLES = {"ka", "lo", "mi", "ne", "ru", "sa", "to", "vi", "ze", "bar",
+            "con", "dex", "fin", "gal", "hox", "jup", "kel", "lum", "mor", "nix", "pra", "qua", "ron", "sto"};
+    private static final String[] QUERIES = {"keybaord", "wirless mouse", "bluetoth speeker", "mechanicl",
+            "rechargable lamp", "projectr", "thermostst smart", "webcm portable"};
+
+    @Param({"1000000"})
+    public int items;
+
+    private TrigramIndex index;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long before = runtime.totalMemory() - runtime.freeMemory();
+        Random random = new Random(42);
+        String[] vocabulary = new String[20_000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = SYLLABLES[random.nextInt(SYLLABLES.length)] + SYLLABLES[random.nextInt(SYLLABLES.length)]
+                    + SYLLABLES[random.nextInt(SYLLABLES.length)];
+        }
+        index = new TrigramIndex();
+        for (int i = 0; i < items; i++) {
+            String name = vocabulary[random.nextInt(vocabulary.length)] + " "
+                    + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                    + NOUNS[random.nextInt(NOUNS.length)] + " " + vocabulary[random.nextInt(vocabulary.length)];
+            StringBuilder description = new StringBuilder();
+            for (int w = 0; w < 8; w++) {
+                String[] words = w % 2 == 0 ? COMMON_WORDS : vocabulary;
+                description.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            index.put(Integer.toString(i), name, description.toString());
+        }
+        System.gc();
+        long after = runtime.totalMemory() - runtime.freeMemory();
+        System.out.printf("%n%d items, %d distinct trigrams, estimated %d MB, heap growth %d MB%n",
+                index.size(), index.distinctTrigrams(), index.estimatedBytes() >> 20, (after - before) >> 20);
+    }
+
+    @Benchmark
+    public List<TrigramIndex.Match> search() {
+        return index.search(QUERIES[next++ & 7], 10);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<TrigramIndex.Match> searchConcurrent() {
+        return index.search(QUERIES[(int) (System.nanoTime() & 7)], 10);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(TrigramIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
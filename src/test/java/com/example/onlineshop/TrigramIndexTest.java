@@ -0,0 +1,91 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.search.TrigramIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TrigramIndex Unit Tests")
+class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        index.put("1", "Mechanical keyboard", "Clicky switches");
+        index.put("2", "Wireless mouse", "Ergonomic mouse with long battery life");
+        index.put("3", "Mouse pad", "Large desk mat");
+        index.put("4", "Desk lamp", "Warm light for the keyboard tray");
+    }
+
+    @Test
+    @DisplayName("search should tolerate transposed letters")
+    void testTransposition() {
+        assertThat(index.search("keybaord", 10)).first()
+                .extracting(TrigramIndex.Match::id).isEqualTo("1");
+    }
+
+    @Test
+    @DisplayName("search should tolerate missing letters across several words")
+    void testMissingLetters() {
+        assertThat(index.search("wirless mouse", 10)).first()
+                .extracting(TrigramIndex.Match::id).isEqualTo("2");
+    }
+
+    @Test
+    @DisplayName("name matches should rank above description matches")
+    void testNameOutranksDescription() {
+        assertThat(index.search("keyboard", 10)).extracting(TrigramIndex.Match::id).startsWith("1", "4");
+    }
+
+    @Test
+    @DisplayName("search should return nothing for unrelated text")
+    void testNoMatch() {
+        assertThat(index.search("xyzzy", 10)).isEmpty();
+        assertThat(index.search("  ", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("search should limit results and order them by score")
+    void testLimitAndOrder() {
+        var matches = index.search("mouse", 1);
+
+        assertThat(matches).hasSize(1);
+        assertThat(index.search("mouse", 10)).isSortedAccordingTo(
+                (a, b) -> Double.compare(b.score(), a.score()));
+    }
+
+    @Test
+    @DisplayName("put should replace the previous text of an item")
+    void testUpdate() {
+        // Act
+        index.put("1", "Gaming headset", "Surround sound");
+
+        // Assert
+        assertThat(index.search("keyboard", 10)).extracting(TrigramIndex.Match::id).containsExactly("4");
+        assertThat(index.search("headset", 10)).extracting(TrigramIndex.Match::id).containsExactly("1");
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("remove should drop the item and reuse its slot")
+    void testRemove() {
+        // Arrange
+        int trigrams = index.distinctTrigrams();
+
+        // Act
+        index.remove("1");
+        index.remove("missing");
+
+        // Assert
+        assertThat(index.search("keybaord", 10)).extracting(TrigramIndex.Match::id).doesNotContain("1");
+        assertThat(index.distinctTrigrams()).isLessThan(trigrams);
+
+        index.put("5", "Ergonomic keyboard", "Split layout");
+        assertThat(index.search("keybord", 10)).first().extracting(TrigramIndex.Match::id).isEqualTo("5");
+        assertThat(index.size()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.onlineshop;
+
+import com.example.onlineshop.config.BulkheadProperties;
+import com.example.onlineshop.limits.WorkloadBulkheadFilter;
+import com.example.onlineshop.limits.WorkloadClass;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("WorkloadBulkheadFilter Unit Tests")
+class WorkloadBulkheadFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WorkloadBulkheadFilter filter = new WorkloadBulkheadFilter(
+            new BulkheadProperties(true, 4, 2, 1, Duration.ofMillis(10), Duration.ofSeconds(1), 10,
+                    Duration.ofSeconds(2),
+                    List.of("/api/shopitems/{id:[0-9a-fA-F]{24}}", "/view/*", "/edit/*"),
+                    List.of("/", "/api/shopitems", "/api/shopitems/raw", "/api/shopitems/analytics/**"),
+                    List.of("/api/shopitems/changes")),
+            new ObjectMapper(), meterRegistry);
+
+    @Test
+    @DisplayName("requests should be classified by path and method")
+    void testClassifiesRequests() {
+        assertThat(filter.classify(new MockHttpServletRequest("GET", "/api/shopitems/64b7f0c2a1b2c3d4e5f60718")))
+                .isEqualTo(WorkloadClass.POINT_READ);
+        assertThat(filter.classify(new MockHttpServletRequest("GET", "/view/64b7f0c2a1b2c3d4e5f60718")))
+                .isEqualTo(WorkloadClass.POINT_READ);
+        assertThat(filter.classify(new MockHttpServletRequest("GET", "/api/shopitems/search")))
+                .isEqualTo(WorkloadClass.LIST);
+        assertThat(filter.classify(new MockHttpServletRequest("PUT", "/api/shopitems/update/1")))
+                .isEqualTo(WorkloadClass.LIST);
+        assertThat(filter.classify(new MockHttpServletRequest("GET", "/")))
+                .isEqualTo(WorkloadClass.BULK);
+        assertThat(filter.classify(new MockHttpServletRequest("GET", "/api/shopitems")))
+                .isEqualTo(WorkloadClass.BULK);
+        assertThat(filter.classify(new MockHttpServletRequest("GET", "/api/shopitems/analytics/aggregate")))
+                .isEqualTo(WorkloadClass.BULK);
+    }
+
+    @Test
+    @DisplayName("a full bulk bulkhead should reject bulk requests only")
+    void testFullBulkheadRejectsOnlyItsClass() throws Exception {
+        // Arrange
+        filter.bulkhead(WorkloadClass.BULK).tryAcquire();
+        MockHttpServletResponse bulk = new MockHttpServletResponse();
+        MockHttpServletResponse pointRead = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/"), bulk, new MockFilterChain());
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/shopitems/64b7f0c2a1b2c3d4e5f60718"), pointRead,
+                new MockFilterChain());
+
+        // Assert
+        assertThat(bulk.getStatus()).isEqualTo(503);
+        assertThat(bulk.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(pointRead.getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.counter("shopitems.bulkhead.rejected", "workload", "bulk").count()).isEqualTo(1);
+        assertThat(filter.bulkhead(WorkloadClass.POINT_READ).inflight()).isZero();
+    }
+
+    @Test
+    @DisplayName("a request that throws should give its slot back")
+    void testReleasesSlotOnException() {
+        // Arrange
+        MockFilterChain failing = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) {
+                throw new IllegalStateException("Mongo timed out");
+            }
+        });
+
+        // Act & Assert
+        assertThatThrownBy(() -> filter.doFilter(new MockHttpServletRequest("GET", "/api/shopitems/raw"),
+                new MockHttpServletResponse(), failing)).isInstanceOf(IllegalStateException.class);
+        assertThat(filter.bulkhead(WorkloadClass.BULK).inflight()).isZero();
+    }
+}